@@ -0,0 +1,26 @@
+package com.quickbooks.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads recorded QBO response bodies bundled under {@code fixtures/}.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static String read(String name) {
+        String location = "fixtures/" + name;
+        try (InputStream in = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(location)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing benchmark fixture: " + location);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read benchmark fixture: " + location, e);
+        }
+    }
+}
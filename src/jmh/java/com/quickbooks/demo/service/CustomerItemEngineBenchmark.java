@@ -0,0 +1,90 @@
+package com.quickbooks.demo.service;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intuit.ipp.data.Customer;
+import com.intuit.ipp.data.EmailAddress;
+import com.intuit.ipp.data.Item;
+import com.intuit.ipp.data.ItemTypeEnum;
+import com.intuit.ipp.data.ReferenceType;
+import com.intuit.ipp.data.TelephoneNumber;
+
+/**
+ * Customer and Item create bodies, SDK engine (build + JAXB marshal) versus REST engine
+ * (build map + Jackson), matching quickbooks.engines.customer / quickbooks.engines.item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CustomerItemEngineBenchmark {
+
+    private static final String NS = "http://schema.intuit.com/finance/v3";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final QuickBooksApiService service = new QuickBooksApiService();
+    private JAXBContext jaxbContext;
+
+    @Setup
+    public void prepare() throws Exception {
+        jaxbContext = JAXBContext.newInstance(Customer.class, Item.class);
+    }
+
+    @Benchmark
+    public String sdkCustomer() throws Exception {
+        Customer customer = new Customer();
+        customer.setDisplayName("Acme Fabrication");
+        EmailAddress addr = new EmailAddress();
+        addr.setAddress("ap@acme.example");
+        customer.setPrimaryEmailAddr(addr);
+        TelephoneNumber tel = new TelephoneNumber();
+        tel.setFreeFormNumber("(555) 010-4477");
+        customer.setPrimaryPhone(tel);
+        return marshal(new JAXBElement<>(new QName(NS, "Customer"), Customer.class, customer));
+    }
+
+    @Benchmark
+    public String restCustomer() throws Exception {
+        return objectMapper.writeValueAsString(
+            service.buildCustomerPayload("Acme Fabrication", "ap@acme.example", "(555) 010-4477"));
+    }
+
+    @Benchmark
+    public String sdkItem() throws Exception {
+        Item item = new Item();
+        item.setName("Site survey");
+        item.setType(ItemTypeEnum.SERVICE);
+        item.setUnitPrice(BigDecimal.valueOf(240.0));
+        ReferenceType incomeRef = new ReferenceType();
+        incomeRef.setValue("79");
+        item.setIncomeAccountRef(incomeRef);
+        return marshal(new JAXBElement<>(new QName(NS, "Item"), Item.class, item));
+    }
+
+    @Benchmark
+    public String restItem() throws Exception {
+        return objectMapper.writeValueAsString(service.buildItemPayload("Site survey", 240.0, "79"));
+    }
+
+    private String marshal(JAXBElement<?> element) throws Exception {
+        Marshaller marshaller = jaxbContext.createMarshaller();
+        StringWriter out = new StringWriter();
+        marshaller.marshal(element, out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package com.quickbooks.demo.service;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intuit.ipp.data.Invoice;
+import com.intuit.ipp.data.Line;
+import com.intuit.ipp.data.LineDetailTypeEnum;
+import com.intuit.ipp.data.ReferenceType;
+import com.intuit.ipp.data.SalesItemLineDetail;
+import com.quickbooks.demo.model.TxnPayload;
+
+/**
+ * Serializes the same single-line project invoice two ways: JAXB marshalling of the SDK
+ * {@link Invoice} (what DataService.add does) versus the REST engine's buildInvoicePayload +
+ * Jackson path (quickbooks.engines.invoice=rest).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InvoiceSerializationBenchmark {
+
+    private static final QName INVOICE_QNAME = new QName("http://schema.intuit.com/finance/v3", "Invoice");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final QuickBooksApiService service = new QuickBooksApiService();
+    private JAXBContext jaxbContext;
+    private Invoice invoice;
+    private TxnPayload restPayload;
+
+    @Setup
+    public void prepare() throws Exception {
+        jaxbContext = JAXBContext.newInstance(Invoice.class);
+        invoice = sdkInvoice();
+        restPayload = restInvoicePayload();
+    }
+
+    @Benchmark
+    public String jaxbMarshalOnly() throws Exception {
+        return marshal(invoice);
+    }
+
+    @Benchmark
+    public String jaxbBuildAndMarshal() throws Exception {
+        return marshal(sdkInvoice());
+    }
+
+    @Benchmark
+    public String restJsonSerializeOnly() throws Exception {
+        return objectMapper.writeValueAsString(restPayload);
+    }
+
+    @Benchmark
+    public String restJsonBuildAndSerialize() throws Exception {
+        return objectMapper.writeValueAsString(restInvoicePayload());
+    }
+
+    private String marshal(Invoice value) throws Exception {
+        Marshaller marshaller = jaxbContext.createMarshaller();
+        StringWriter out = new StringWriter();
+        marshaller.marshal(new JAXBElement<>(INVOICE_QNAME, Invoice.class, value), out);
+        return out.toString();
+    }
+
+    private static Invoice sdkInvoice() {
+        Invoice inv = new Invoice();
+        ReferenceType customerRef = new ReferenceType();
+        customerRef.setValue("58");
+        inv.setCustomerRef(customerRef);
+        ReferenceType projectRef = new ReferenceType();
+        projectRef.setValue("416");
+        inv.setProjectRef(projectRef);
+
+        Line line = new Line();
+        line.setDetailType(LineDetailTypeEnum.SALES_ITEM_LINE_DETAIL);
+        line.setAmount(BigDecimal.valueOf(3).multiply(BigDecimal.valueOf(125.5)));
+        line.setDescription("Design consultation");
+        SalesItemLineDetail detail = new SalesItemLineDetail();
+        ReferenceType itemRef = new ReferenceType();
+        itemRef.setValue("11");
+        itemRef.setName("Design");
+        detail.setItemRef(itemRef);
+        detail.setQty(BigDecimal.valueOf(3));
+        line.setSalesItemLineDetail(detail);
+        List<Line> lines = new ArrayList<>();
+        lines.add(line);
+        inv.setLine(lines);
+        return inv;
+    }
+
+    private TxnPayload restInvoicePayload() {
+        return service.buildInvoicePayload("58", "11", "Design", "416", 3, 125.5, "Design consultation");
+    }
+}
@@ -0,0 +1,61 @@
+package com.quickbooks.demo.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.quickbooks.demo.model.TxnPayload;
+
+/**
+ * Builds the createEstimate/createSalesReceipt/createBill request bodies and serializes them
+ * the way QuickBooksRestClient.postJson does (cached writer, straight to bytes). The build-only
+ * variants isolate payload construction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PayloadBuildingBenchmark {
+
+    private final ObjectWriter writer = new ObjectMapper().writerFor(TxnPayload.class);
+    private final QuickBooksApiService service = new QuickBooksApiService();
+
+    @Benchmark
+    public TxnPayload buildEstimate() {
+        return service.buildEstimatePayload("58", "11", "416", 3, 125.5, "Design consultation");
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeEstimate() throws Exception {
+        return writer.writeValueAsBytes(
+            service.buildEstimatePayload("58", "11", "416", 3, 125.5, "Design consultation"));
+    }
+
+    @Benchmark
+    public TxnPayload buildSalesReceipt() {
+        return service.buildSalesReceiptPayload("58", "11", "416", 3, 125.5, "Design consultation");
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeSalesReceipt() throws Exception {
+        return writer.writeValueAsBytes(
+            service.buildSalesReceiptPayload("58", "11", "416", 3, 125.5, "Design consultation"));
+    }
+
+    @Benchmark
+    public TxnPayload buildBill() {
+        return service.buildBillPayload("41", "7", "416", 980.0, "Site materials");
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeBill() throws Exception {
+        return writer.writeValueAsBytes(
+            service.buildBillPayload("41", "7", "416", 980.0, "Site materials"));
+    }
+}
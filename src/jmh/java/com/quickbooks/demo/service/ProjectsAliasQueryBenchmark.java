@@ -0,0 +1,51 @@
+package com.quickbooks.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Assembles the aliased GraphQL document used by getProjectsByIds for 1, 5 and 20 (the cap) ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProjectsAliasQueryBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int idCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final QuickBooksApiService service = new QuickBooksApiService();
+    private List<String> ids;
+
+    @Setup
+    public void prepareIds() {
+        ids = new ArrayList<>();
+        for (int i = 0; i < idCount; i++) {
+            ids.add(String.valueOf(668494482L + i));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> assembleAliasQuery() {
+        return service.buildProjectsByIdsRequest(ids);
+    }
+
+    @Benchmark
+    public String assembleAndSerializeAliasQuery() throws Exception {
+        return objectMapper.writeValueAsString(service.buildProjectsByIdsRequest(ids));
+    }
+}
@@ -0,0 +1,56 @@
+package com.quickbooks.demo.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.model.AccountList;
+import com.quickbooks.demo.model.CustomerSummary;
+import com.quickbooks.demo.model.ItemSummary;
+
+/**
+ * Parses recorded Customer, Item and Account QueryResponses through the service's parse path
+ * (readTree + result construction), exactly as getCustomers/getItems/getAccounts do after the HTTP call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryResponseParsingBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final QuickBooksApiService service = new QuickBooksApiService();
+
+    private String customersBody;
+    private String itemsBody;
+    private String accountsBody;
+
+    @Setup
+    public void loadFixtures() {
+        customersBody = BenchmarkFixtures.read("customers_query.json");
+        itemsBody = BenchmarkFixtures.read("items_query.json");
+        accountsBody = BenchmarkFixtures.read("accounts_query.json");
+    }
+
+    @Benchmark
+    public List<CustomerSummary> parseCustomers() throws Exception {
+        return service.parseCustomers(objectMapper.readTree(customersBody));
+    }
+
+    @Benchmark
+    public List<ItemSummary> parseItems() throws Exception {
+        return service.parseItems(objectMapper.readTree(itemsBody));
+    }
+
+    @Benchmark
+    public AccountList parseAccounts() throws Exception {
+        return service.parseAccounts(objectMapper.readTree(accountsBody));
+    }
+}
@@ -0,0 +1,20 @@
+package com.quickbooks.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.quickbooks.demo.service.client.InteractiveCallTagger;
+
+/**
+ * Tags request threads so the outbound scheduler serves controller calls as interactive work.
+ */
+@Configuration
+public class OutboundSchedulingConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new InteractiveCallTagger())
+            .excludePathPatterns("/css/**", "/js/**", "/images/**", "/favicon.ico", "/actuator/**");
+    }
+}
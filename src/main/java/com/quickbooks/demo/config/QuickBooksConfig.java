@@ -1,13 +1,25 @@
 package com.quickbooks.demo.config;
+import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.service.client.CompressionInterceptor;
+import com.quickbooks.demo.service.client.HedgingExecutor;
+import com.quickbooks.demo.service.client.OutboundScheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 
 @Configuration
@@ -23,6 +35,45 @@ public class QuickBooksConfig {
     private List<String> scopes = new ArrayList<>();
     private String minorVersion = "75";
     private String deepLinkTemplate = "https://app.qbo.intuit.com/app/invoice?txnId=%s&companyId=%s";
+    // Per-entity create engine: "sdk" (DataService/JAXB, default) or "rest" (JSON via QuickBooksRestClient)
+    private Map<String, String> engines = new HashMap<>();
+    private boolean warmupEnabled = true;
+    private int warmupIterations = 200;
+    private int idempotencyLedgerSize = 1000;
+    private long idempotencyTtlMinutes = 60;
+    private boolean hedgingEnabled = false;
+    private double hedgingBudgetPercent = 5.0;
+    private long hedgingInitialDelayMs = 500;
+    private long hedgingMinDelayMs = 20;
+    private long hedgingLegReadTimeoutMs = 10000;
+    private long snapshotTtlSeconds = 60;
+    private long sessionMaxBytes = 16384;
+    private int importBatchSize = 30;
+    private int importMaxInFlight = 2;
+    private String importCheckpointDir = System.getProperty("java.io.tmpdir") + "/qbo-imports";
+    private String webhookVerifierToken;
+    private int webhookQueueCapacity = 10000;
+    private long webhookCoalesceMillis = 250;
+    private String jobsDir = System.getProperty("java.io.tmpdir") + "/qbo-jobs";
+    private int jobWorkers = 2;
+    private int jobQueueCapacity = 50;
+    private int jobHistory = 200;
+    private boolean outboxEnabled = false;
+    private String outboxDir = System.getProperty("java.io.tmpdir") + "/qbo-outbox";
+    private int outboxMaxAttempts = 8;
+    private long outboxRetryDelayMillis = 1000;
+    private int outboundMaxConcurrency = 16;
+    private int outboundInteractiveWeight = 8;
+    private long outboundQueueTimeoutMillis = 30000;
+    private long reportTtlSeconds = 300;
+    private int reportCacheSize = 64;
+    private long projectRollupSyncSeconds = 60;
+    private boolean referenceSnapshotEnabled = true;
+    private String referenceSnapshotDir = System.getProperty("java.io.tmpdir") + "/qbo-reference";
+    private boolean mirrorEnabled = true;
+    private long mirrorMaxAgeSeconds = 300;
+    private int mirrorMaxRows = 20000;
+    private long mirrorIdleSeconds = 3600;
     
     public QuickBooksConfig() {
        
@@ -118,12 +169,339 @@ public class QuickBooksConfig {
         this.deepLinkTemplate = deepLinkTemplate;
     }
 
+    public Map<String, String> getEngines() {
+        return engines;
+    }
+
+    public void setEngines(Map<String, String> engines) {
+        this.engines = engines;
+    }
+
+    public boolean isWarmupEnabled() {
+        return warmupEnabled;
+    }
+
+    public void setWarmupEnabled(boolean warmupEnabled) {
+        this.warmupEnabled = warmupEnabled;
+    }
+
+    public int getWarmupIterations() {
+        return warmupIterations;
+    }
+
+    public void setWarmupIterations(int warmupIterations) {
+        this.warmupIterations = warmupIterations;
+    }
+
+    public int getIdempotencyLedgerSize() {
+        return idempotencyLedgerSize;
+    }
+
+    public void setIdempotencyLedgerSize(int idempotencyLedgerSize) {
+        this.idempotencyLedgerSize = idempotencyLedgerSize;
+    }
+
+    public long getIdempotencyTtlMinutes() {
+        return idempotencyTtlMinutes;
+    }
+
+    public void setIdempotencyTtlMinutes(long idempotencyTtlMinutes) {
+        this.idempotencyTtlMinutes = idempotencyTtlMinutes;
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    public double getHedgingBudgetPercent() {
+        return hedgingBudgetPercent;
+    }
+
+    public void setHedgingBudgetPercent(double hedgingBudgetPercent) {
+        this.hedgingBudgetPercent = hedgingBudgetPercent;
+    }
+
+    public long getHedgingInitialDelayMs() {
+        return hedgingInitialDelayMs;
+    }
+
+    public void setHedgingInitialDelayMs(long hedgingInitialDelayMs) {
+        this.hedgingInitialDelayMs = hedgingInitialDelayMs;
+    }
+
+    public long getHedgingMinDelayMs() {
+        return hedgingMinDelayMs;
+    }
+
+    public void setHedgingMinDelayMs(long hedgingMinDelayMs) {
+        this.hedgingMinDelayMs = hedgingMinDelayMs;
+    }
+
+    public long getHedgingLegReadTimeoutMs() {
+        return hedgingLegReadTimeoutMs;
+    }
+
+    public void setHedgingLegReadTimeoutMs(long hedgingLegReadTimeoutMs) {
+        this.hedgingLegReadTimeoutMs = hedgingLegReadTimeoutMs;
+    }
+
+    public long getSnapshotTtlSeconds() {
+        return snapshotTtlSeconds;
+    }
+
+    public void setSnapshotTtlSeconds(long snapshotTtlSeconds) {
+        this.snapshotTtlSeconds = snapshotTtlSeconds;
+    }
+
+    public long getSessionMaxBytes() {
+        return sessionMaxBytes;
+    }
+
+    public void setSessionMaxBytes(long sessionMaxBytes) {
+        this.sessionMaxBytes = sessionMaxBytes;
+    }
+
+    public int getImportBatchSize() {
+        return importBatchSize;
+    }
+
+    public void setImportBatchSize(int importBatchSize) {
+        this.importBatchSize = importBatchSize;
+    }
+
+    public int getImportMaxInFlight() {
+        return importMaxInFlight;
+    }
+
+    public void setImportMaxInFlight(int importMaxInFlight) {
+        this.importMaxInFlight = importMaxInFlight;
+    }
+
+    public String getImportCheckpointDir() {
+        return importCheckpointDir;
+    }
+
+    public void setImportCheckpointDir(String importCheckpointDir) {
+        this.importCheckpointDir = importCheckpointDir;
+    }
+
+    public String getWebhookVerifierToken() {
+        return webhookVerifierToken;
+    }
+
+    public void setWebhookVerifierToken(String webhookVerifierToken) {
+        this.webhookVerifierToken = webhookVerifierToken;
+    }
+
+    public int getWebhookQueueCapacity() {
+        return webhookQueueCapacity;
+    }
+
+    public void setWebhookQueueCapacity(int webhookQueueCapacity) {
+        this.webhookQueueCapacity = webhookQueueCapacity;
+    }
+
+    public long getWebhookCoalesceMillis() {
+        return webhookCoalesceMillis;
+    }
+
+    public void setWebhookCoalesceMillis(long webhookCoalesceMillis) {
+        this.webhookCoalesceMillis = webhookCoalesceMillis;
+    }
+
+    public String getJobsDir() {
+        return jobsDir;
+    }
+
+    public void setJobsDir(String jobsDir) {
+        this.jobsDir = jobsDir;
+    }
+
+    public int getJobWorkers() {
+        return jobWorkers;
+    }
+
+    public void setJobWorkers(int jobWorkers) {
+        this.jobWorkers = jobWorkers;
+    }
+
+    public int getJobQueueCapacity() {
+        return jobQueueCapacity;
+    }
+
+    public void setJobQueueCapacity(int jobQueueCapacity) {
+        this.jobQueueCapacity = jobQueueCapacity;
+    }
+
+    public int getJobHistory() {
+        return jobHistory;
+    }
+
+    public void setJobHistory(int jobHistory) {
+        this.jobHistory = jobHistory;
+    }
+
+    public boolean isOutboxEnabled() {
+        return outboxEnabled;
+    }
+
+    public void setOutboxEnabled(boolean outboxEnabled) {
+        this.outboxEnabled = outboxEnabled;
+    }
+
+    public String getOutboxDir() {
+        return outboxDir;
+    }
+
+    public void setOutboxDir(String outboxDir) {
+        this.outboxDir = outboxDir;
+    }
+
+    public int getOutboxMaxAttempts() {
+        return outboxMaxAttempts;
+    }
+
+    public void setOutboxMaxAttempts(int outboxMaxAttempts) {
+        this.outboxMaxAttempts = outboxMaxAttempts;
+    }
+
+    public long getOutboxRetryDelayMillis() {
+        return outboxRetryDelayMillis;
+    }
+
+    public void setOutboxRetryDelayMillis(long outboxRetryDelayMillis) {
+        this.outboxRetryDelayMillis = outboxRetryDelayMillis;
+    }
+
+    public int getOutboundMaxConcurrency() {
+        return outboundMaxConcurrency;
+    }
+
+    public void setOutboundMaxConcurrency(int outboundMaxConcurrency) {
+        this.outboundMaxConcurrency = outboundMaxConcurrency;
+    }
+
+    public int getOutboundInteractiveWeight() {
+        return outboundInteractiveWeight;
+    }
+
+    public void setOutboundInteractiveWeight(int outboundInteractiveWeight) {
+        this.outboundInteractiveWeight = outboundInteractiveWeight;
+    }
+
+    public long getOutboundQueueTimeoutMillis() {
+        return outboundQueueTimeoutMillis;
+    }
+
+    public void setOutboundQueueTimeoutMillis(long outboundQueueTimeoutMillis) {
+        this.outboundQueueTimeoutMillis = outboundQueueTimeoutMillis;
+    }
+
+    public long getReportTtlSeconds() {
+        return reportTtlSeconds;
+    }
+
+    public void setReportTtlSeconds(long reportTtlSeconds) {
+        this.reportTtlSeconds = reportTtlSeconds;
+    }
+
+    public int getReportCacheSize() {
+        return reportCacheSize;
+    }
+
+    public void setReportCacheSize(int reportCacheSize) {
+        this.reportCacheSize = reportCacheSize;
+    }
+
+    public long getProjectRollupSyncSeconds() {
+        return projectRollupSyncSeconds;
+    }
+
+    public void setProjectRollupSyncSeconds(long projectRollupSyncSeconds) {
+        this.projectRollupSyncSeconds = projectRollupSyncSeconds;
+    }
+
+    public boolean isReferenceSnapshotEnabled() {
+        return referenceSnapshotEnabled;
+    }
+
+    public void setReferenceSnapshotEnabled(boolean referenceSnapshotEnabled) {
+        this.referenceSnapshotEnabled = referenceSnapshotEnabled;
+    }
+
+    public String getReferenceSnapshotDir() {
+        return referenceSnapshotDir;
+    }
+
+    public void setReferenceSnapshotDir(String referenceSnapshotDir) {
+        this.referenceSnapshotDir = referenceSnapshotDir;
+    }
+
+    public boolean isMirrorEnabled() {
+        return mirrorEnabled;
+    }
+
+    public void setMirrorEnabled(boolean mirrorEnabled) {
+        this.mirrorEnabled = mirrorEnabled;
+    }
+
+    public long getMirrorMaxAgeSeconds() {
+        return mirrorMaxAgeSeconds;
+    }
+
+    public void setMirrorMaxAgeSeconds(long mirrorMaxAgeSeconds) {
+        this.mirrorMaxAgeSeconds = mirrorMaxAgeSeconds;
+    }
+
+    public int getMirrorMaxRows() {
+        return mirrorMaxRows;
+    }
+
+    public void setMirrorMaxRows(int mirrorMaxRows) {
+        this.mirrorMaxRows = mirrorMaxRows;
+    }
+
+    public long getMirrorIdleSeconds() {
+        return mirrorIdleSeconds;
+    }
+
+    public void setMirrorIdleSeconds(long mirrorIdleSeconds) {
+        this.mirrorIdleSeconds = mirrorIdleSeconds;
+    }
+
+    /**
+     * True when quickbooks.engines.&lt;entity&gt; selects the JSON REST engine instead of the SDK.
+     */
+    public boolean isRestEngine(String entity) {
+        String engine = engines != null ? engines.get(entity) : null;
+        return engine != null && "rest".equalsIgnoreCase(engine.trim());
+    }
+
     /**
-     * Shared HTTP client for REST/GraphQL calls.
+     * Shared HTTP client for REST/GraphQL calls. Schedules calls fairly across realms,
+     * negotiates gzip with QBO and counts wire vs decoded response bytes. Connections opened by a
+     * hedged read get that leg's read timeout, so a cancelled loser cannot block forever.
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        RestTemplate restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory() {
+            @Override
+            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                super.prepareConnection(connection, httpMethod);
+                int legReadTimeout = HedgingExecutor.legReadTimeoutMillis();
+                if (legReadTimeout > 0) {
+                    connection.setReadTimeout(legReadTimeout);
+                }
+            }
+        });
+        restTemplate.getInterceptors().add(new OutboundScheduler(this, registry));
+        restTemplate.getInterceptors().add(new CompressionInterceptor(registry));
+        return restTemplate;
     }
 
     /**
@@ -0,0 +1,27 @@
+package com.quickbooks.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.quickbooks.demo.service.SessionFootprintTracker;
+
+/**
+ * Measures and caps session size after each page/API request (see {@link SessionFootprintTracker}).
+ */
+@Configuration
+public class SessionFootprintConfig implements WebMvcConfigurer {
+
+    /** Also registered by the container as a session and attribute listener: forgets destroyed sessions, tracks changed attributes. */
+    @Bean
+    public SessionFootprintTracker sessionFootprintTracker() {
+        return new SessionFootprintTracker();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sessionFootprintTracker())
+            .excludePathPatterns("/css/**", "/js/**", "/images/**", "/favicon.ico", "/actuator/**");
+    }
+}
@@ -3,18 +3,24 @@ package com.quickbooks.demo.controller;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.quickbooks.demo.model.AccountList;
 import com.quickbooks.demo.service.QuickBooksApiService;
+import com.quickbooks.demo.service.RealmSnapshotStore;
 
 import jakarta.servlet.http.HttpSession;
 
 /**
  * REST endpoint to fetch Accounts from QuickBooks using the existing OAuth token in session.
+ * Responses carry a strong ETag from the realm snapshot; a matching If-None-Match gets 304.
  */
 @RestController
 @RequestMapping("/api")
@@ -23,8 +29,11 @@ public class AccountsController {
     @Autowired
     private QuickBooksApiService apiService;
 
+    @Autowired
+    private RealmSnapshotStore snapshots;
+
     @GetMapping("/accounts")
-    public ResponseEntity<?> listAccounts(HttpSession session) {
+    public ResponseEntity<?> listAccounts(HttpSession session, WebRequest request) {
         String accessToken = (String) session.getAttribute("accessToken");
         String realmId = (String) session.getAttribute("realmId");
 
@@ -34,8 +43,17 @@ public class AccountsController {
         }
 
         try {
-            Map<String, Object> result = apiService.getAccounts(accessToken, realmId);
-            return ResponseEntity.ok(result);
+            // Served from the realm snapshot; QBO is only queried when it has expired
+            RealmSnapshotStore.Snapshot<AccountList> snapshot =
+                    snapshots.get(realmId, "accounts", () -> apiService.getAccounts(accessToken, realmId));
+            if (request.checkNotModified(snapshot.etag())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(snapshot.etag())
+                    .body(snapshot.json());
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", e.getMessage()));
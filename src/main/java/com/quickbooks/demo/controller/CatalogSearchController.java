@@ -0,0 +1,72 @@
+package com.quickbooks.demo.controller;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.quickbooks.demo.service.RealmCatalogService;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Typeahead search over the realm's cached customers and items, so the UI can ask for the top
+ * matches instead of receiving every name. Matches are by name prefix or word prefix,
+ * case- and accent-insensitive.
+ */
+@RestController
+@RequestMapping("/api")
+public class CatalogSearchController {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private RealmCatalogService catalogs;
+
+    @GetMapping("/customers/search")
+    public ResponseEntity<?> searchCustomers(@RequestParam("q") String query,
+                                             @RequestParam(value = "limit", required = false) Integer limit,
+                                             HttpSession session) {
+        String accessToken = (String) session.getAttribute("accessToken");
+        String realmId = (String) session.getAttribute("realmId");
+        return search(accessToken, realmId,
+            () -> catalogs.searchCustomers(accessToken, realmId, query, clamp(limit)));
+    }
+
+    @GetMapping("/items/search")
+    public ResponseEntity<?> searchItems(@RequestParam("q") String query,
+                                         @RequestParam(value = "limit", required = false) Integer limit,
+                                         HttpSession session) {
+        String accessToken = (String) session.getAttribute("accessToken");
+        String realmId = (String) session.getAttribute("realmId");
+        return search(accessToken, realmId,
+            () -> catalogs.searchItems(accessToken, realmId, query, clamp(limit)));
+    }
+
+    private ResponseEntity<?> search(String accessToken, String realmId, Supplier<?> search) {
+        if (accessToken == null || realmId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Please connect to QuickBooks first."));
+        }
+        try {
+            return ResponseEntity.ok(search.get());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static int clamp(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
@@ -0,0 +1,35 @@
+package com.quickbooks.demo.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.quickbooks.demo.service.EntityMirror;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * How current the connected realm's local entity mirror is: rows, last sync and whether
+ * reads of each entity are currently going to QBO.
+ */
+@RestController
+public class EntityMirrorController {
+
+    @Autowired
+    private EntityMirror mirror;
+
+    @GetMapping("/api/mirror")
+    public ResponseEntity<?> freshness(HttpSession session) {
+        String accessToken = (String) session.getAttribute("accessToken");
+        String realmId = (String) session.getAttribute("realmId");
+        if (accessToken == null || realmId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Please connect to QuickBooks first."));
+        }
+        return ResponseEntity.ok(Map.of("realmId", realmId, "entities", mirror.freshness(realmId)));
+    }
+}
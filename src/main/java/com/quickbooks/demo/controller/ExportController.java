@@ -0,0 +1,73 @@
+package com.quickbooks.demo.controller;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.quickbooks.demo.service.ExportService;
+import com.quickbooks.demo.service.client.OutboundScheduler;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Streams a full export of customers, items, invoices, bills or projects as CSV (default) or
+ * NDJSON. Rows are written as they arrive from QBO; a failure mid-export ends the response early.
+ */
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportController.class);
+
+    @Autowired
+    private ExportService exports;
+
+    @GetMapping("/{dataset}")
+    public ResponseEntity<?> export(@PathVariable String dataset,
+                                    @RequestParam(value = "format", required = false) String format,
+                                    HttpSession session) {
+        String accessToken = (String) session.getAttribute("accessToken");
+        String realmId = (String) session.getAttribute("realmId");
+        if (accessToken == null || realmId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Please connect to QuickBooks first."));
+        }
+        ExportService.Dataset ds;
+        ExportService.Format fmt;
+        try {
+            ds = ExportService.Dataset.from(dataset);
+            fmt = ExportService.Format.from(format);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+
+        // Written on an async thread after the request returns: a bulk read, scheduled as background work
+        StreamingResponseBody body = out -> {
+            try (OutboundScheduler.Scope scope = OutboundScheduler.tag(realmId, OutboundScheduler.Priority.BACKGROUND)) {
+                exports.export(accessToken, realmId, ds, fmt, out);
+            } catch (RuntimeException e) {
+                log.warn("Export of {} for realm {} failed: {}", ds, realmId, e.getMessage());
+                throw e;
+            }
+        };
+        String filename = ds.name().toLowerCase() + "-" + realmId + "." + fmt.extension;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fmt.contentType + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,106 @@
+package com.quickbooks.demo.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.model.ImportReport;
+import com.quickbooks.demo.model.Job;
+import com.quickbooks.demo.service.CsvImportService;
+import com.quickbooks.demo.service.JobService;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * CSV upload of estimates, sales receipts or bills, created through the QBO batch endpoint.
+ * Uploading the same file again resumes an interrupted import instead of duplicating rows.
+ * With {@code async=true} the upload is spooled to a temp file and imported as a background
+ * job; the response is 202 with the job, followed at /api/jobs/{id}.
+ */
+@RestController
+@RequestMapping("/api/imports")
+public class ImportController {
+
+    @Autowired
+    private CsvImportService imports;
+
+    @Autowired
+    private JobService jobs;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostMapping(value = "/{type}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importCsv(@PathVariable String type,
+                                       @RequestParam("file") MultipartFile file,
+                                       @RequestParam(value = "async", defaultValue = "false") boolean async,
+                                       HttpSession session) {
+        String accessToken = (String) session.getAttribute("accessToken");
+        String realmId = (String) session.getAttribute("realmId");
+        if (accessToken == null || realmId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Please connect to QuickBooks first."));
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "CSV file is required"));
+        }
+        try {
+            if (async) {
+                Job job = submit(accessToken, realmId, type, file);
+                return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.id())).body(job);
+            }
+            return ResponseEntity.ok(imports.importCsv(accessToken, realmId, type, file));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private Job submit(String accessToken, String realmId, String type, MultipartFile file) {
+        CsvImportService.Kind.from(type);
+        Path spool;
+        try {
+            // The multipart temp file is gone once this request completes
+            spool = Files.createTempFile("qbo-import-", ".csv");
+            file.transferTo(spool);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to buffer upload: " + e.getMessage(), e);
+        }
+        try {
+            return jobs.submit("csv-import", realmId, 0, progress -> {
+                try {
+                    ImportReport report = imports.importCsv(accessToken, realmId, type, new FileSystemResource(spool));
+                    progress.total(report.rows());
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> row = objectMapper.convertValue(report, Map.class);
+                    progress.item(row, ImportReport.COMPLETED.equals(report.status()));
+                    return report.message();
+                } finally {
+                    Files.deleteIfExists(spool);
+                }
+            });
+        } catch (RuntimeException e) {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException ignored) {
+                // temp dir cleanup will get it
+            }
+            throw e;
+        }
+    }
+}
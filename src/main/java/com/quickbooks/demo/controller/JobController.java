@@ -0,0 +1,70 @@
+package com.quickbooks.demo.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.quickbooks.demo.model.Job;
+import com.quickbooks.demo.service.JobService;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Status of background jobs for the connected realm: a listing, one job with its per-item
+ * results, and a Server-Sent Events stream of its progress.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    @Autowired
+    private JobService jobs;
+
+    @GetMapping
+    public ResponseEntity<?> list(HttpSession session) {
+        String realmId = (String) session.getAttribute("realmId");
+        if (realmId == null) {
+            return unauthorized();
+        }
+        return ResponseEntity.ok(jobs.list(realmId));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable String id, HttpSession session) {
+        String realmId = (String) session.getAttribute("realmId");
+        if (realmId == null) {
+            return unauthorized();
+        }
+        Job job = jobs.get(id, realmId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unknown job " + id));
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable String id, HttpSession session) {
+        String realmId = (String) session.getAttribute("realmId");
+        if (realmId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        SseEmitter emitter = jobs.subscribe(id, realmId);
+        if (emitter == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    private static ResponseEntity<?> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("error", "Please connect to QuickBooks first."));
+    }
+}
@@ -0,0 +1,93 @@
+package com.quickbooks.demo.controller;
+
+import java.net.URI;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.quickbooks.demo.model.OutboxEntry;
+import com.quickbooks.demo.service.OutboxService;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Write-behind creates: the request is made durable locally and acknowledged with 202 and a
+ * tracking id; QBO is called afterwards. Takes the same parameters as the create forms; a repeated
+ * {@code Idempotency-Key} returns the entry the first request queued.
+ */
+@RestController
+@RequestMapping("/api/outbox")
+public class OutboxController {
+
+    @Autowired
+    private OutboxService outbox;
+
+    @PostMapping("/{type}")
+    public ResponseEntity<?> submit(@PathVariable String type,
+                                    @RequestParam(required = false) String customerId,
+                                    @RequestParam(required = false) String itemId,
+                                    @RequestParam(required = false) String vendorId,
+                                    @RequestParam(required = false) String expenseAccountId,
+                                    @RequestParam(required = false) String projectId,
+                                    @RequestParam(defaultValue = "1") int quantity,
+                                    @RequestParam(defaultValue = "0") double amount,
+                                    @RequestParam(required = false) String description,
+                                    @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                    HttpSession session) {
+        String accessToken = (String) session.getAttribute("accessToken");
+        String realmId = (String) session.getAttribute("realmId");
+        if (accessToken == null || realmId == null) {
+            return unauthorized();
+        }
+        try {
+            OutboxEntry entry = switch (OutboxService.Kind.from(type)) {
+                case ESTIMATE -> outbox.submitEstimate(accessToken, realmId, customerId, itemId, projectId, quantity, amount, description,
+                    idempotencyKey);
+                case SALES_RECEIPT -> outbox.submitSalesReceipt(accessToken, realmId, customerId, itemId, projectId, quantity, amount, description,
+                    idempotencyKey);
+                case BILL -> outbox.submitBill(accessToken, realmId, vendorId, expenseAccountId, projectId, amount, description,
+                    idempotencyKey);
+            };
+            return ResponseEntity.accepted().location(URI.create("/api/outbox/" + entry.id())).body(entry);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> list(HttpSession session) {
+        String realmId = (String) session.getAttribute("realmId");
+        if (realmId == null) {
+            return unauthorized();
+        }
+        return ResponseEntity.ok(outbox.list(realmId));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable String id, HttpSession session) {
+        String realmId = (String) session.getAttribute("realmId");
+        if (realmId == null) {
+            return unauthorized();
+        }
+        OutboxEntry entry = outbox.get(id, realmId);
+        if (entry == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unknown outbox entry " + id));
+        }
+        return ResponseEntity.ok(entry);
+    }
+
+    private static ResponseEntity<?> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("error", "Please connect to QuickBooks first."));
+    }
+}
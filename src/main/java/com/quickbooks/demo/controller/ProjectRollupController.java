@@ -0,0 +1,40 @@
+package com.quickbooks.demo.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.quickbooks.demo.service.ProjectRollupService;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Project list with profitability (invoiced, received, billed, margin) from the in-memory rollup.
+ * The first call for a realm scans its transactions; later calls answer at once.
+ */
+@RestController
+public class ProjectRollupController {
+
+    @Autowired
+    private ProjectRollupService rollups;
+
+    @GetMapping("/api/projects/profitability")
+    public ResponseEntity<?> profitability(HttpSession session) {
+        String accessToken = (String) session.getAttribute("accessToken");
+        String realmId = (String) session.getAttribute("realmId");
+        if (accessToken == null || realmId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Please connect to QuickBooks first."));
+        }
+        try {
+            return ResponseEntity.ok(rollups.projects(accessToken, realmId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
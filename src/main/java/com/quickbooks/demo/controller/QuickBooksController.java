@@ -1,26 +1,46 @@
 package com.quickbooks.demo.controller;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.CustomerSummary;
+import com.quickbooks.demo.model.EntityCreateResult;
+import com.quickbooks.demo.model.ItemSummary;
+import com.quickbooks.demo.model.Job;
+import com.quickbooks.demo.model.OutboxEntry;
+import com.quickbooks.demo.model.ProjectDeleteResult;
+import com.quickbooks.demo.model.ProjectPage;
+import com.quickbooks.demo.model.ProjectSummary;
+import com.quickbooks.demo.model.RealmCatalog;
+import com.quickbooks.demo.model.TransactionResult;
+import com.quickbooks.demo.service.JobService;
+import com.quickbooks.demo.service.OutboxService;
+import com.quickbooks.demo.service.ProjectRollupService;
 import com.quickbooks.demo.service.QuickBooksApiService;
 import com.quickbooks.demo.service.QuickBooksOAuthService;
+import com.quickbooks.demo.service.RealmCatalogService;
+import com.quickbooks.demo.service.RealmSnapshotStore;
 
 import jakarta.servlet.http.HttpSession;
 
 @Controller
 public class QuickBooksController {
     
+    // Lazy proxy: the OAuth client stack is only loaded on first login/refresh/logout
     @Autowired
+    @Lazy
     private QuickBooksOAuthService oauthService;
     
     @Autowired
@@ -28,6 +48,21 @@ public class QuickBooksController {
     
     @Autowired
     private QuickBooksConfig config;
+
+    // Customers, items, vendors and expense accounts live here once per realm; sessions only keep a "fetched" flag
+    @Autowired
+    private RealmCatalogService catalogs;
+
+    @Autowired
+    private JobService jobs;
+
+    // Write-behind creates (quickbooks.outbox-enabled); also needs each realm's latest token
+    @Autowired
+    private OutboxService outbox;
+
+    // Per-project profitability totals; creates are applied as they happen
+    @Autowired
+    private ProjectRollupService rollups;
     
     /**
      * Home page
@@ -47,6 +82,8 @@ public class QuickBooksController {
         model.addAttribute("authenticated", isAuthenticated);
         // Feature flag: disable write forms on sandbox
         model.addAttribute("allowWrites", !"sandbox".equalsIgnoreCase(config.getEnvironment()));
+        // Form nonce: a resubmit of this page's forms is the same create, a new page render a new one
+        model.addAttribute("submissionId", UUID.randomUUID().toString());
         
         // Clear any lingering invoice data if not authenticated
         if (!isAuthenticated) {
@@ -56,23 +93,20 @@ public class QuickBooksController {
             session.removeAttribute("invoiceAmount");
             session.removeAttribute("invoiceNumber");
             session.removeAttribute("project");
-            session.removeAttribute("customer_map");
-            session.removeAttribute("items");
-            session.removeAttribute("itemNames");
-            session.removeAttribute("itemMap");
+            session.removeAttribute("catalogFetched");
         }
         
-        // Pass session data to template to maintain UI state
-        @SuppressWarnings("unchecked")
-        Map<String, String> customerMap = (Map<String, String>) session.getAttribute("customer_map");
-        if (customerMap != null) {
-            // Convert customer map to list of names for dropdown
-            model.addAttribute("customers", customerMap.values());
+        // Dropdown lists come from the shared realm catalog the session points at
+        RealmCatalog catalog = sessionCatalog(session);
+        if (catalog != null) {
+            model.addAttribute("customers", catalog.customers());
+            model.addAttribute("items", catalog.items());
+            model.addAttribute("vendors", catalog.vendors());
+            model.addAttribute("expenseAccounts", catalog.expenseAccounts());
         }
         
         // Pass project data if it exists
-        @SuppressWarnings("unchecked")
-        Map<String, Object> project = (Map<String, Object>) session.getAttribute("project");
+        Object project = session.getAttribute("project");
         if (project != null) {
             model.addAttribute("project", project);
         }
@@ -108,6 +142,8 @@ public class QuickBooksController {
             @RequestParam String projectId,
             @RequestParam double amount,
             @RequestParam(required = false) String description,
+            @RequestParam(value = "submissionId", required = false) String submissionId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             HttpSession session,
             RedirectAttributes redirectAttributes) {
         try {
@@ -117,22 +153,30 @@ public class QuickBooksController {
                 redirectAttributes.addFlashAttribute("error", "Please connect to QuickBooks first.");
                 return "redirect:/";
             }
+            if (config.isOutboxEnabled()) {
+                OutboxEntry queued = outbox.submitBill(accessToken, realmId, vendorId, expenseAccountId, projectId, amount, description,
+                    submissionKey(submissionId, idempotencyKey));
+                redirectAttributes.addFlashAttribute("success", "✅ Bill queued (tracking ID " + queued.id() + ")");
+                return "redirect:/";
+            }
 
-            Map<String, Object> billResult = apiService.createBill(
-                accessToken, realmId, vendorId, expenseAccountId, projectId, amount, description
+            TransactionResult billResult = apiService.createBill(
+                accessToken, realmId, vendorId, expenseAccountId, projectId, amount, description,
+                submissionKey(submissionId, idempotencyKey)
             );
+            rollups.created(realmId, "Bill", billResult);
 
-            session.setAttribute("billId", billResult.get("billId"));
-            session.setAttribute("billProjectId", billResult.get("projectId"));
-            session.setAttribute("billAmount", billResult.get("totalAmt"));
-            session.setAttribute("billDeepLink", billResult.get("deepLink"));
+            session.setAttribute("billId", billResult.id());
+            session.setAttribute("billProjectId", billResult.projectId());
+            session.setAttribute("billAmount", billResult.amount());
+            session.setAttribute("billDeepLink", billResult.deepLink());
 
             // Hint UI to focus Step 8 success panel
             redirectAttributes.addFlashAttribute("focusTarget", "bill-success");
 
             redirectAttributes.addFlashAttribute("success",
-                "✅ Bill created successfully! Bill ID: " + billResult.get("billId") +
-                ", linked to Project ID: " + billResult.get("projectId"));
+                "✅ Bill created successfully! Bill ID: " + billResult.id() +
+                ", linked to Project ID: " + billResult.projectId());
             return "redirect:/";
         } catch (RuntimeException e) {
             redirectAttributes.addFlashAttribute("error", "Failed to create bill: " + e.getMessage());
@@ -182,6 +226,8 @@ public class QuickBooksController {
             session.setAttribute("refreshToken", tokenData.get("refresh_token"));
             session.setAttribute("realmId", realmId);
             session.setAttribute("authenticated", true);
+            outbox.updateToken(realmId, authHeader);
+            rollups.updateToken(realmId, authHeader);
             if (tokenData.get("scope") != null) {
                 session.setAttribute("grantedScope", tokenData.get("scope"));
             }
@@ -254,39 +300,18 @@ public class QuickBooksController {
                 return "redirect:/";
             }
             
-            // Get customers using OAuth2PlatformClient + RestTemplate
-            Map<String, Object> customerData = apiService.getCustomers(accessToken, realmId);
-            
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> customers = (List<Map<String, Object>>) customerData.get("customers");
-            
-            @SuppressWarnings("unchecked")
-            Map<String, String> customerMap = (Map<String, String>) customerData.get("customerMap");
-            
-            // Store customers for project creation
-            session.setAttribute("customer_map", customerMap);
-            
-            Map<String, Object> itemsResult = apiService.getItems(accessToken, realmId);
-            session.setAttribute("items", itemsResult.get("items"));
-            session.setAttribute("itemNames", itemsResult.get("itemNames"));
-            session.setAttribute("itemMap", itemsResult.get("itemMap"));
-
-            // Preload vendors and expense accounts for Step 8 dropdowns
-            try {
-                Map<String, Object> vendorsResult = apiService.getVendors(accessToken, realmId);
-                Map<String, Object> accountsResult = apiService.getExpenseAccounts(accessToken, realmId);
-                session.setAttribute("vendors", vendorsResult.get("vendors"));
-                session.setAttribute("expenseAccounts", accountsResult.get("accounts"));
-            } catch (RuntimeException ignored) {
-                // Keep page functional even if these lookups fail
-            }
+            // Shared per realm: another session that just fetched the same realm answers without QBO calls
+            RealmSnapshotStore.Snapshot<RealmCatalog> catalog = catalogs.load(accessToken, realmId);
+            session.setAttribute("catalogFetched", Boolean.TRUE);
+            List<CustomerSummary> customers = catalog.value().customers();
+            List<ItemSummary> items = catalog.value().items();
             
             // Clear the temporary auth completion flag since authentication is now fully working
             session.removeAttribute("authCompleted");
             
             model.addAttribute("authenticated", true);
             redirectAttributes.addFlashAttribute("success", "✅ Successfully loaded " + customers.size() + " customers and " + 
-                ((List<?>) itemsResult.get("items")).size() + " items! Ready for project creation.");
+                items.size() + " items! Ready for project creation.");
             
             return "redirect:/";
             
@@ -308,20 +333,20 @@ public class QuickBooksController {
     public String createProject(
             @RequestParam("customerName") String customerName,
             @RequestParam(value = "projectName", required = false) String projectName,
+            @RequestParam(value = "submissionId", required = false) String submissionId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             HttpSession session,
             RedirectAttributes redirectAttributes) {
         
         try {
-            // Look up real customer ID from session customer map
-            @SuppressWarnings("unchecked")
-            Map<String, String> customerMap = (Map<String, String>) session.getAttribute("customer_map");
+            // Look up real customer ID from the realm catalog
+            RealmCatalog catalog = sessionCatalog(session);
             
             String realCustomerId = null;
-            if (customerMap != null) {
-                // Find customer ID by name (reverse lookup)
-                for (Map.Entry<String, String> entry : customerMap.entrySet()) {
-                    if (entry.getValue().equals(customerName)) {
-                        realCustomerId = entry.getKey();
+            if (catalog != null) {
+                for (CustomerSummary customer : catalog.customers()) {
+                    if (customerName.equals(customer.name())) {
+                        realCustomerId = customer.id();
                         break;
                     }
                 }
@@ -341,7 +366,8 @@ public class QuickBooksController {
             }
             
             // Create project using GraphQL API
-            Map<String, Object> projectData = apiService.createProject(accessToken, customerName, realCustomerId, projectName);
+            ProjectSummary projectData = apiService.createProject(accessToken, realmId, customerName, realCustomerId, projectName,
+                submissionKey(submissionId, idempotencyKey));
             
             // Store project in session to maintain state across redirects
             session.setAttribute("project", projectData);
@@ -386,15 +412,12 @@ public class QuickBooksController {
                 return "redirect:/";
             }
 
-            java.util.Map<String, Object> result = apiService.deleteProject(accessToken, realmId, id, version);
+            ProjectDeleteResult result = apiService.deleteProject(accessToken, realmId, id, version);
             session.setAttribute("projectDeleteResult", result);
             // Clear project in session if deleted project matches
             Object current = session.getAttribute("project");
-            if (current instanceof java.util.Map<?, ?> m) {
-                Object cid = m.get("id");
-                if (cid != null && id.equals(cid.toString())) {
-                    session.removeAttribute("project");
-                }
+            if (current instanceof ProjectSummary p && id.equals(p.id())) {
+                session.removeAttribute("project");
             }
             redirectAttributes.addFlashAttribute("focusTarget", "project-delete-success");
             redirectAttributes.addFlashAttribute("success", "✅ Project deleted: " + id);
@@ -411,7 +434,8 @@ public class QuickBooksController {
     }
 
     /**
-     * Delete multiple projects by comma-separated ids. Returns per-id results in session.
+     * Delete multiple projects by comma-separated ids as a background job. The job id is kept in
+     * session; the page follows progress over /api/jobs/{id}/events.
      */
     @PostMapping("/delete-projects-multi")
     public String deleteProjectsMulti(@RequestParam("ids") String idsCsv,
@@ -424,30 +448,43 @@ public class QuickBooksController {
             redirectAttributes.addFlashAttribute("error", "Please authenticate with QuickBooks first");
             return "redirect:/";
         }
-        java.util.List<java.util.Map<String, Object>> results = new java.util.ArrayList<>();
-        int successCount = 0;
-        int failCount = 0;
-        for (String raw : idsCsv.split(",")) {
-            String id = raw.trim();
-            if (id.isEmpty()) continue;
-            java.util.Map<String, Object> row = new java.util.HashMap<>();
-            row.put("id", id);
-            try {
-                java.util.Map<String, Object> del = apiService.deleteProject(accessToken, realmId, id, version);
-                row.put("status", "success");
-                row.put("name", del.get("name"));
-                row.put("deleted", del.get("deleted"));
-                successCount++;
-            } catch (RuntimeException ex) {
-                row.put("status", "error");
-                row.put("error", ex.getMessage());
-                failCount++;
-            }
-            results.add(row);
+        List<String> ids = java.util.Arrays.stream(idsCsv.split(","))
+            .map(String::trim)
+            .filter(id -> !id.isEmpty())
+            .toList();
+        if (ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Enter at least one project ID");
+            return "redirect:/";
+        }
+        Job job;
+        try {
+            job = jobs.submit("project-delete", realmId, ids.size(), progress -> {
+                for (String id : ids) {
+                    java.util.Map<String, Object> row = new java.util.HashMap<>();
+                    row.put("id", id);
+                    boolean ok;
+                    try {
+                        ProjectDeleteResult del = apiService.deleteProject(accessToken, realmId, id, version);
+                        row.put("status", "success");
+                        row.put("name", del.name());
+                        row.put("deleted", del.deleted());
+                        ok = true;
+                    } catch (RuntimeException ex) {
+                        row.put("status", "error");
+                        row.put("error", ex.getMessage());
+                        ok = false;
+                    }
+                    progress.item(row, ok);
+                }
+                return "Delete complete: " + progress.succeeded() + " success, " + progress.failed() + " failed.";
+            });
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/";
         }
-        session.setAttribute("projectDeleteMultiResults", results);
+        session.setAttribute("projectDeleteJobId", job.id());
         redirectAttributes.addFlashAttribute("focusTarget", "project-delete-multi-results");
-        redirectAttributes.addFlashAttribute("success", "Delete complete: " + successCount + " success, " + failCount + " failed.");
+        redirectAttributes.addFlashAttribute("success", "Deleting " + ids.size() + " projects in the background.");
         return "redirect:/";
     }
     
@@ -473,10 +510,7 @@ public class QuickBooksController {
         session.removeAttribute("authCompleted");
         session.removeAttribute("authTimestamp");
         session.removeAttribute("lastProcessedAuthCode");
-        session.removeAttribute("customer_map");
-        session.removeAttribute("items");
-        session.removeAttribute("itemNames");
-        session.removeAttribute("itemMap");
+        session.removeAttribute("catalogFetched");
         session.removeAttribute("project");
         session.removeAttribute("invoiceId");
         session.removeAttribute("invoiceDeepLink");
@@ -503,6 +537,8 @@ public class QuickBooksController {
             @RequestParam int quantity,
             @RequestParam double amount,
             @RequestParam(required = false) String description,
+            @RequestParam(value = "submissionId", required = false) String submissionId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             HttpSession session,
             RedirectAttributes redirectAttributes) {
         
@@ -517,26 +553,27 @@ public class QuickBooksController {
             }
             
             // Create invoice using SDK with user-selected customerId and provided projectId
-            Map<String, Object> invoiceResult = apiService.createInvoice(
+            TransactionResult invoiceResult = apiService.createInvoice(
                 accessToken, realmId, customerId, itemId, itemName,
-                projectId, quantity, amount, description
+                projectId, quantity, amount, description, submissionKey(submissionId, idempotencyKey)
             );
+            rollups.created(realmId, "Invoice", invoiceResult);
             
             // Store invoice details in session for display
-            session.setAttribute("invoiceId", invoiceResult.get("invoiceId"));
-            session.setAttribute("invoiceDeepLink", invoiceResult.get("deepLink"));
-            session.setAttribute("invoiceProjectId", invoiceResult.get("projectId"));
-            session.setAttribute("invoiceAmount", invoiceResult.get("amount"));
-            session.setAttribute("invoiceNumber", invoiceResult.get("docNumber"));
+            session.setAttribute("invoiceId", invoiceResult.id());
+            session.setAttribute("invoiceDeepLink", invoiceResult.deepLink());
+            session.setAttribute("invoiceProjectId", invoiceResult.projectId());
+            session.setAttribute("invoiceAmount", invoiceResult.amount());
+            session.setAttribute("invoiceNumber", invoiceResult.docNumber());
             
             // Hint UI to focus Step 6 success panel
             redirectAttributes.addFlashAttribute("focusTarget", "invoice-success");
 
             redirectAttributes.addFlashAttribute("success", 
                 "✅ Invoice created successfully using SDK! " + 
-                "Invoice #" + invoiceResult.get("docNumber") + 
-                " (ID: " + invoiceResult.get("invoiceId") + ") " + 
-                "linked to Project ID: " + invoiceResult.get("projectId"));
+                "Invoice #" + invoiceResult.docNumber() + 
+                " (ID: " + invoiceResult.id() + ") " + 
+                "linked to Project ID: " + invoiceResult.projectId());
             
             return "redirect:/";
             
@@ -567,11 +604,9 @@ public class QuickBooksController {
                 return "redirect:/";
             }
             
-            // Fetch items and store in session
-            Map<String, Object> itemsResult = apiService.getItems(accessToken, realmId);
-            session.setAttribute("items", itemsResult.get("items"));
-            session.setAttribute("itemNames", itemsResult.get("itemNames"));
-            session.setAttribute("itemMap", itemsResult.get("itemMap"));
+            // Reload items into the realm catalog
+            refreshCatalog(session, accessToken, realmId,
+                catalog -> catalog.withItems(apiService.getAllItems(accessToken, realmId)));
             
             redirectAttributes.addFlashAttribute("success", "Items loaded successfully!");
             
@@ -596,6 +631,8 @@ public class QuickBooksController {
             @RequestParam int quantity,
             @RequestParam double amount,
             @RequestParam(required = false) String description,
+            @RequestParam(value = "submissionId", required = false) String submissionId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             HttpSession session,
             RedirectAttributes redirectAttributes) {
         try {
@@ -605,13 +642,20 @@ public class QuickBooksController {
                 redirectAttributes.addFlashAttribute("error", "Please connect to QuickBooks first.");
                 return "redirect:/";
             }
-            Map<String, Object> result = apiService.createEstimate(accessToken, realmId, customerId, itemId, projectId, quantity, amount, description);
+            if (config.isOutboxEnabled()) {
+                OutboxEntry queued = outbox.submitEstimate(accessToken, realmId, customerId, itemId, projectId, quantity, amount, description,
+                    submissionKey(submissionId, idempotencyKey));
+                redirectAttributes.addFlashAttribute("success", "✅ Estimate queued (tracking ID " + queued.id() + ")");
+                return "redirect:/";
+            }
+            TransactionResult result = apiService.createEstimate(accessToken, realmId, customerId, itemId, projectId, quantity, amount, description,
+                submissionKey(submissionId, idempotencyKey));
             // Store details for panel and focus Step 7
-            session.setAttribute("estimateId", result.get("estimateId"));
-            session.setAttribute("estimateAmount", result.get("totalAmt"));
-            session.setAttribute("estimateProjectId", result.get("projectId"));
+            session.setAttribute("estimateId", result.id());
+            session.setAttribute("estimateAmount", result.amount());
+            session.setAttribute("estimateProjectId", result.projectId());
             redirectAttributes.addFlashAttribute("focusTarget", "estimate-success");
-            redirectAttributes.addFlashAttribute("success", "✅ Estimate created for Project ID: " + result.get("projectId"));
+            redirectAttributes.addFlashAttribute("success", "✅ Estimate created for Project ID: " + result.projectId());
             return "redirect:/";
         } catch (RuntimeException e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
@@ -630,6 +674,8 @@ public class QuickBooksController {
             @RequestParam int quantity,
             @RequestParam double amount,
             @RequestParam(required = false) String description,
+            @RequestParam(value = "submissionId", required = false) String submissionId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             HttpSession session,
             RedirectAttributes redirectAttributes) {
         try {
@@ -639,13 +685,21 @@ public class QuickBooksController {
                 redirectAttributes.addFlashAttribute("error", "Please connect to QuickBooks first.");
                 return "redirect:/";
             }
-            Map<String, Object> result = apiService.createSalesReceipt(accessToken, realmId, customerId, itemId, projectId, quantity, amount, description);
-            session.setAttribute("salesReceiptId", result.get("salesReceiptId"));
-            session.setAttribute("salesReceiptAmount", result.get("totalAmt"));
-            session.setAttribute("salesReceiptProjectId", result.get("projectId"));
-            session.setAttribute("salesReceiptDeepLink", result.get("deepLink"));
+            if (config.isOutboxEnabled()) {
+                OutboxEntry queued = outbox.submitSalesReceipt(accessToken, realmId, customerId, itemId, projectId, quantity, amount, description,
+                    submissionKey(submissionId, idempotencyKey));
+                redirectAttributes.addFlashAttribute("success", "✅ Sales receipt queued (tracking ID " + queued.id() + ")");
+                return "redirect:/";
+            }
+            TransactionResult result = apiService.createSalesReceipt(accessToken, realmId, customerId, itemId, projectId, quantity, amount, description,
+                submissionKey(submissionId, idempotencyKey));
+            rollups.created(realmId, "SalesReceipt", result);
+            session.setAttribute("salesReceiptId", result.id());
+            session.setAttribute("salesReceiptAmount", result.amount());
+            session.setAttribute("salesReceiptProjectId", result.projectId());
+            session.setAttribute("salesReceiptDeepLink", result.deepLink());
             redirectAttributes.addFlashAttribute("focusTarget", "sales-receipt-success");
-            redirectAttributes.addFlashAttribute("success", "✅ Sales receipt created for Project ID: " + result.get("projectId"));
+            redirectAttributes.addFlashAttribute("success", "✅ Sales receipt created for Project ID: " + result.projectId());
             return "redirect:/";
         } catch (RuntimeException e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
@@ -673,13 +727,11 @@ public class QuickBooksController {
                 return "redirect:/";
             }
             int pageSize = (first == null || first <= 0) ? 10 : first;
-            Map<String, Object> result = apiService.listProjects(accessToken, realmId, pageSize, (after != null && !after.isEmpty()) ? after : null, startDate, endDate);
+            ProjectPage result = apiService.listProjects(accessToken, realmId, pageSize, (after != null && !after.isEmpty()) ? after : null, startDate, endDate);
             session.setAttribute("projects", result);
             // Mark where to focus
             session.setAttribute("projectsQuerySuccess", true);
-            @SuppressWarnings("unchecked")
-            java.util.List<Map<String, Object>> nodes = (java.util.List<Map<String, Object>>) result.get("nodes");
-            int count = nodes != null ? nodes.size() : 0;
+            int count = result.nodes().size();
             redirectAttributes.addFlashAttribute("success", "Loaded " + count + " projects.");
             return "redirect:/";
         } catch (RuntimeException e) {
@@ -693,6 +745,33 @@ public class QuickBooksController {
         }
     }
 
+    /**
+     * The realm's latest catalog once this session has fetched it, or null before that. Sessions
+     * are not pinned to a version: every session sees the newest catalog. A stale or dropped one
+     * is reloaded in the background and the flag stays.
+     */
+    private RealmCatalog sessionCatalog(HttpSession session) {
+        String accessToken = (String) session.getAttribute("accessToken");
+        String realmId = (String) session.getAttribute("realmId");
+        if (accessToken == null || realmId == null || session.getAttribute("catalogFetched") == null) {
+            return null;
+        }
+        RealmSnapshotStore.Snapshot<RealmCatalog> catalog = catalogs.current(accessToken, realmId);
+        return catalog != null ? catalog.value() : null;
+    }
+
+    /** The client's {@code Idempotency-Key} header if sent, else the form nonce; null makes each call a new create. */
+    private static String submissionKey(String submissionId, String idempotencyKey) {
+        return idempotencyKey != null && !idempotencyKey.isBlank() ? idempotencyKey : submissionId;
+    }
+
+    /** Applies {@code update} to the realm catalog; the session then shows it like any fetched catalog. */
+    private void refreshCatalog(HttpSession session, String accessToken, String realmId,
+                                java.util.function.UnaryOperator<RealmCatalog> update) {
+        catalogs.refresh(accessToken, realmId, update);
+        session.setAttribute("catalogFetched", Boolean.TRUE);
+    }
+
     private String explainProjectsError(String raw) {
         if (raw == null) return "An unexpected error occurred.";
         String lower = raw.toLowerCase();
@@ -721,22 +800,17 @@ public class QuickBooksController {
                 redirectAttributes.addFlashAttribute("error", "Please connect to QuickBooks first.");
                 return "redirect:/";
             }
-            Map<String, Object> project = apiService.getProjectById(accessToken, realmId, id);
+            ProjectSummary project = apiService.getProjectById(accessToken, realmId, id);
             // Resolve the accounting Project (Customer) id to ensure Step 6 uses a valid ProjectRef
-            String parentCustomerId = null;
-            Object cust = project.get("customer");
-            if (cust instanceof java.util.Map<?, ?> m) {
-                Object v = m.get("id");
-                parentCustomerId = v != null ? v.toString() : null;
-            }
+            String parentCustomerId = project.customer() != null ? project.customer().id() : null;
             String accountingProjectId = apiService.resolveAccountingProjectId(accessToken, realmId,
-                    (String) project.get("name"), parentCustomerId);
+                    project.name(), parentCustomerId);
             if (accountingProjectId != null) {
-                project.put("accountingProjectId", accountingProjectId);
+                project = project.withAccountingProjectId(accountingProjectId);
             }
             session.setAttribute("project", project);
             session.setAttribute("projectSource", "read");
-            redirectAttributes.addFlashAttribute("success", "Project loaded: " + (project.get("name") != null ? project.get("name") : project.get("id")));
+            redirectAttributes.addFlashAttribute("success", "Project loaded: " + (project.name() != null ? project.name() : project.id()));
             return "redirect:/";
         } catch (RuntimeException e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
@@ -777,7 +851,7 @@ public class QuickBooksController {
                 return "redirect:/";
             }
 
-            java.util.List<java.util.Map<String, Object>> results = apiService.getProjectsByIds(accessToken, realmId, ids);
+            java.util.List<ProjectSummary> results = apiService.getProjectsByIds(accessToken, realmId, ids);
             session.setAttribute("projects_multi", results);
             redirectAttributes.addFlashAttribute("success", "Loaded " + results.size() + " project(s) by ID.");
             return "redirect:/";
@@ -797,6 +871,8 @@ public class QuickBooksController {
     public String createCustomer(@RequestParam("displayName") String displayName,
                                  @RequestParam(value = "email", required = false) String email,
                                  @RequestParam(value = "phone", required = false) String phone,
+                                 @RequestParam(value = "submissionId", required = false) String submissionId,
+                                 @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                  HttpSession session,
                                  RedirectAttributes redirectAttributes) {
         try {
@@ -808,13 +884,14 @@ public class QuickBooksController {
                 return "redirect:/";
             }
 
-            Map<String, Object> created = apiService.createCustomer(accessToken, realmId, displayName, email, phone);
+            EntityCreateResult created = apiService.createCustomer(accessToken, realmId, displayName, email, phone,
+                submissionKey(submissionId, idempotencyKey));
 
-            // Refresh customers in session
-            Map<String, Object> customerData = apiService.getCustomers(accessToken, realmId);
-            session.setAttribute("customer_map", customerData.get("customerMap"));
+            // Refresh customers in the realm catalog
+            refreshCatalog(session, accessToken, realmId,
+                catalog -> catalog.withCustomers(apiService.getAllCustomers(accessToken, realmId)));
 
-            redirectAttributes.addFlashAttribute("success", "Customer created: " + created.get("name") + " (ID: " + created.get("id") + ")");
+            redirectAttributes.addFlashAttribute("success", "Customer created: " + created.name() + " (ID: " + created.id() + ")");
             return "redirect:/";
         } catch (RuntimeException e) {
             String realm = (String) session.getAttribute("realmId");
@@ -833,6 +910,8 @@ public class QuickBooksController {
     @PostMapping("/create-item")
     public String createItem(@RequestParam("name") String name,
                              @RequestParam("unitPrice") double unitPrice,
+                             @RequestParam(value = "submissionId", required = false) String submissionId,
+                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                              HttpSession session,
                              RedirectAttributes redirectAttributes) {
         try {
@@ -844,15 +923,14 @@ public class QuickBooksController {
                 return "redirect:/";
             }
 
-            Map<String, Object> created = apiService.createItem(accessToken, realmId, name, unitPrice);
+            EntityCreateResult created = apiService.createItem(accessToken, realmId, name, unitPrice,
+                submissionKey(submissionId, idempotencyKey));
 
-            // Refresh items in session
-            Map<String, Object> itemsResult = apiService.getItems(accessToken, realmId);
-            session.setAttribute("items", itemsResult.get("items"));
-            session.setAttribute("itemNames", itemsResult.get("itemNames"));
-            session.setAttribute("itemMap", itemsResult.get("itemMap"));
+            // Refresh items in the realm catalog
+            refreshCatalog(session, accessToken, realmId,
+                catalog -> catalog.withItems(apiService.getAllItems(accessToken, realmId)));
 
-            redirectAttributes.addFlashAttribute("success", "Item created: " + created.get("name") + " (ID: " + created.get("id") + ")");
+            redirectAttributes.addFlashAttribute("success", "Item created: " + created.name() + " (ID: " + created.id() + ")");
             return "redirect:/";
         } catch (RuntimeException e) {
             String realm = (String) session.getAttribute("realmId");
@@ -914,10 +992,7 @@ public class QuickBooksController {
         session.removeAttribute("authCompleted");
         session.removeAttribute("authTimestamp");
         session.removeAttribute("lastProcessedAuthCode");
-        session.removeAttribute("customer_map");
-        session.removeAttribute("items");
-        session.removeAttribute("itemNames");
-        session.removeAttribute("itemMap");
+        session.removeAttribute("catalogFetched");
         session.removeAttribute("project");
         session.removeAttribute("invoiceId");
         session.removeAttribute("invoiceDeepLink");
@@ -949,6 +1024,8 @@ public class QuickBooksController {
             String accessToken = (String) refreshed.get("access_token");
             if (accessToken != null && !accessToken.isEmpty()) {
                 session.setAttribute("accessToken", "Bearer " + accessToken);
+                outbox.updateToken((String) session.getAttribute("realmId"), "Bearer " + accessToken);
+                rollups.updateToken((String) session.getAttribute("realmId"), "Bearer " + accessToken);
             }
             if (refreshed.get("refresh_token") != null) {
                 session.setAttribute("refreshToken", refreshed.get("refresh_token"));
@@ -0,0 +1,82 @@
+package com.quickbooks.demo.controller;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.quickbooks.demo.model.ReportTable;
+import com.quickbooks.demo.service.ReportService;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Paged JSON view of QBO reports. Any query parameter other than {@code page}, {@code size} and
+ * {@code refresh} is passed to the report (e.g. {@code start_date}, {@code end_date}). Pages are
+ * cut from the cached report, so paging through it calls QBO once.
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ReportService reports;
+
+    @GetMapping("/{report}")
+    public ResponseEntity<?> report(@PathVariable String report,
+                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(defaultValue = "100") int size,
+                                    @RequestParam(defaultValue = "false") boolean refresh,
+                                    @RequestParam Map<String, String> params,
+                                    HttpSession session) {
+        String accessToken = (String) session.getAttribute("accessToken");
+        String realmId = (String) session.getAttribute("realmId");
+        if (accessToken == null || realmId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Please connect to QuickBooks first."));
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE));
+        }
+        ReportService.Report type;
+        Map<String, String> reportParams = new HashMap<>(params);
+        reportParams.keySet().removeAll(List.of("page", "size", "refresh"));
+        ReportService.Cached cached;
+        try {
+            type = ReportService.Report.from(report);
+            cached = reports.get(accessToken, realmId, type, reportParams, refresh);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+
+        ReportTable table = cached.table();
+        int from = (int) Math.min((long) page * size, table.rowCount());
+        int to = Math.min(from + size, table.rowCount());
+        List<Map<String, Object>> columns = table.columns().stream()
+            .map(c -> Map.<String, Object>of("title", c.title(), "type", c.type(), "numeric", c.numeric()))
+            .toList();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("report", type.slug());
+        body.put("header", table.header());
+        body.put("columns", columns);
+        body.put("totalRows", table.rowCount());
+        body.put("page", page);
+        body.put("size", size);
+        body.put("loadedAt", cached.loadedAtMillis());
+        body.put("rows", table.rows(from, to));
+        return ResponseEntity.ok(body);
+    }
+}
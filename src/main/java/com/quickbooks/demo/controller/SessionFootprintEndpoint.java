@@ -0,0 +1,47 @@
+package com.quickbooks.demo.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.service.SessionFootprintTracker;
+
+/**
+ * Heap report for HTTP sessions: {@code GET /actuator/sessions} lists the live sessions'
+ * serialized size, largest first, with a per-attribute breakdown. Session ids are truncated.
+ */
+@Component
+@Endpoint(id = "sessions")
+public class SessionFootprintEndpoint {
+
+    private static final int TOP = 20;
+
+    @Autowired
+    private SessionFootprintTracker tracker;
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        List<SessionFootprintTracker.Footprint> all = tracker.footprints();
+        long total = all.stream().mapToLong(SessionFootprintTracker.Footprint::bytes).sum();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("sessions", all.size());
+        report.put("totalBytes", total);
+        report.put("maxBytes", all.isEmpty() ? 0 : all.get(0).bytes());
+        report.put("capBytes", config.getSessionMaxBytes());
+        report.put("largest", all.stream().limit(TOP).map(f -> Map.of(
+            "session", f.sessionId().substring(0, Math.min(8, f.sessionId().length())) + "…",
+            "bytes", f.bytes(),
+            "attributes", f.attributes())).toList());
+        return report;
+    }
+}
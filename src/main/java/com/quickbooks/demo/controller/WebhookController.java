@@ -0,0 +1,43 @@
+package com.quickbooks.demo.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.quickbooks.demo.service.WebhookService;
+
+/**
+ * QBO webhook receiver. Verifies {@code intuit-signature} over the raw body, queues the change
+ * events and acknowledges at once; cache invalidation happens on the consumer thread.
+ */
+@RestController
+public class WebhookController {
+
+    @Autowired
+    private WebhookService webhooks;
+
+    @PostMapping("/webhooks/qbo")
+    public ResponseEntity<?> receive(@RequestBody byte[] body,
+                                     @RequestHeader(value = "intuit-signature", required = false) String signature) {
+        if (!webhooks.verify(body, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid intuit-signature"));
+        }
+        List<WebhookService.ChangeEvent> events;
+        try {
+            events = webhooks.parse(body);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Malformed webhook payload"));
+        }
+        webhooks.enqueue(events);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Active accounts, as served by {@code /api/accounts}.
+ */
+public record AccountList(List<AccountSummary> accounts, int count) implements Serializable {
+
+    public static AccountList of(List<AccountSummary> accounts) {
+        return new AccountList(List.copyOf(accounts), accounts.size());
+    }
+}
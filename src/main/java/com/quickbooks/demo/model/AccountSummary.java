@@ -0,0 +1,18 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A chart-of-accounts entry. The expense-account lookup only fills id, name and type.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AccountSummary(String id, String name, String type, String subType,
+                             String fullyQualifiedName, BigDecimal currentBalance) implements Serializable {
+
+    public static AccountSummary of(String id, String name, String type) {
+        return new AccountSummary(id, name, type, null, null, null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+
+/**
+ * A customer as listed for dropdowns and project creation.
+ */
+public record CustomerSummary(String id, String name) implements Serializable {
+}
@@ -0,0 +1,13 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A created Customer or Item. {@code unitPrice} is only set for items.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EntityCreateResult(String id, String name, BigDecimal unitPrice) implements Serializable {
+}
@@ -0,0 +1,25 @@
+package com.quickbooks.demo.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import. Counts include rows finished by earlier runs of the same file;
+ * {@code skipped} is how many of those this run did not resubmit. An {@code INTERRUPTED}
+ * import resumes from its checkpoint when the same file is uploaded again.
+ */
+public record ImportReport(String importId,
+                           String type,
+                           String status,
+                           int rows,
+                           int skipped,
+                           int created,
+                           int failed,
+                           List<RowError> errors,
+                           String message) {
+
+    public static final String COMPLETED = "COMPLETED";
+    public static final String INTERRUPTED = "INTERRUPTED";
+
+    /** A rejected row: 1-based data row number (header excluded) and the reason. */
+    public record RowError(int row, String message) {}
+}
@@ -0,0 +1,9 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+
+/**
+ * A sales item (Service, NonInventory or Inventory) as listed for transaction forms.
+ */
+public record ItemSummary(String id, String name, String type) implements Serializable {
+}
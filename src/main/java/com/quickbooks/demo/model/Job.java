@@ -0,0 +1,40 @@
+package com.quickbooks.demo.model;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A background job and its progress. {@code total} is 0 when the amount of work is not known
+ * up front; {@code results} holds one row per processed item. Jobs found {@code QUEUED} or
+ * {@code RUNNING} after a restart are recorded as {@code INTERRUPTED}.
+ */
+public record Job(String id,
+                  String type,
+                  String realmId,
+                  String status,
+                  int total,
+                  int succeeded,
+                  int failed,
+                  List<Map<String, Object>> results,
+                  String message,
+                  long createdAt,
+                  long updatedAt) {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+    public static final String INTERRUPTED = "INTERRUPTED";
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return SUCCEEDED.equals(status) || FAILED.equals(status) || INTERRUPTED.equals(status);
+    }
+
+    /** The same job without per-item rows, for listings and progress events. */
+    public Job summary() {
+        return new Job(id, type, realmId, status, total, succeeded, failed, List.of(), message, createdAt, updatedAt);
+    }
+}
@@ -0,0 +1,48 @@
+package com.quickbooks.demo.model;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A transaction create accepted by the outbox. {@code payload} is the exact request body, kept
+ * so every attempt carries the same QBO request id. {@code seq} orders entries within a realm.
+ * {@code PENDING} entries are still to be sent (or retried); {@code SENT} ones carry the created
+ * transaction; {@code FAILED} ones were rejected by QBO or ran out of attempts.
+ */
+public record OutboxEntry(String id,
+                          long seq,
+                          String realmId,
+                          String type,
+                          String status,
+                          JsonNode payload,
+                          int attempts,
+                          String txnId,
+                          String docNumber,
+                          BigDecimal amount,
+                          String error,
+                          long acceptedAt,
+                          long updatedAt) {
+
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    public static final String FAILED = "FAILED";
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return SENT.equals(status) || FAILED.equals(status);
+    }
+
+    public OutboxEntry retrying(String error, long now) {
+        return new OutboxEntry(id, seq, realmId, type, PENDING, payload, attempts + 1, null, null, null, error, acceptedAt, now);
+    }
+
+    public OutboxEntry sent(String txnId, String docNumber, BigDecimal amount, long now) {
+        return new OutboxEntry(id, seq, realmId, type, SENT, payload, attempts + 1, txnId, docNumber, amount, null, acceptedAt, now);
+    }
+
+    public OutboxEntry failed(String error, long now) {
+        return new OutboxEntry(id, seq, realmId, type, FAILED, payload, attempts + 1, null, null, null, error, acceptedAt, now);
+    }
+}
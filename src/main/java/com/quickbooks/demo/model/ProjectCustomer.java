@@ -0,0 +1,8 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+
+/**
+ * An accounting project: a Customer with {@code IsProject = true}, under its parent customer.
+ */
+public record ProjectCustomer(String id, String displayName, String parentId) implements Serializable {}
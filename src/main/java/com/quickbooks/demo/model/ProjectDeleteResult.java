@@ -0,0 +1,9 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+
+/**
+ * Outcome of a project delete mutation.
+ */
+public record ProjectDeleteResult(String id, String name, int version, boolean deleted) implements Serializable {
+}
@@ -0,0 +1,13 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of the projects list with its cursor.
+ */
+public record ProjectPage(List<ProjectSummary> nodes, PageInfo pageInfo) implements Serializable {
+
+    public record PageInfo(boolean hasNextPage, String endCursor) implements Serializable {
+    }
+}
@@ -0,0 +1,19 @@
+package com.quickbooks.demo.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Running totals for one accounting project. {@code received} is what has been collected on
+ * its invoices plus its sales receipts; {@code margin} is invoiced + sales receipts - billed.
+ * {@code name} and {@code parentId} are null for projects no longer in the active list.
+ */
+public record ProjectProfitability(String projectId,
+                                   String name,
+                                   String parentId,
+                                   BigDecimal invoiced,
+                                   BigDecimal salesReceipts,
+                                   BigDecimal received,
+                                   BigDecimal billed,
+                                   BigDecimal margin,
+                                   int transactions) {
+}
@@ -0,0 +1,37 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A Projects API project. Reads fill the fields their GraphQL selection returns; the rest stay
+ * null. {@code accountingProjectId} is the matching accounting Project (Customer) id, resolved
+ * separately for use as a transaction ProjectRef.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProjectSummary(String id, String name, String description, String type, String status,
+                             String startDate, String dueDate, String completedDate, Integer priority,
+                             CustomerRef customer, String assigneeId, String accountId,
+                             List<Address> addresses, String accountingProjectId) implements Serializable {
+
+    public record CustomerRef(String id) implements Serializable {
+    }
+
+    public record Address(String streetAddressLine1, String streetAddressLine2, String streetAddressLine3,
+                          String state, String postalCode) implements Serializable {
+    }
+
+    /** Core fields shared by create, get-by-id and multi-get results. */
+    public static ProjectSummary of(String id, String name, String description, String status,
+                                    String startDate, String dueDate, CustomerRef customer, String accountId) {
+        return new ProjectSummary(id, name, description, null, status, startDate, dueDate, null, null,
+            customer, null, accountId, null, null);
+    }
+
+    public ProjectSummary withAccountingProjectId(String accountingProjectId) {
+        return new ProjectSummary(id, name, description, type, status, startDate, dueDate, completedDate, priority,
+            customer, assigneeId, accountId, addresses, accountingProjectId);
+    }
+}
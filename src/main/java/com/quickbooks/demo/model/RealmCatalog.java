@@ -0,0 +1,27 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * The lookup lists behind the form dropdowns for one realm. Held once per realm in the
+ * snapshot store and shared by every session connected to it.
+ */
+public record RealmCatalog(List<CustomerSummary> customers, List<ItemSummary> items,
+                           List<VendorSummary> vendors, List<AccountSummary> expenseAccounts) implements Serializable {
+
+    public RealmCatalog {
+        customers = customers != null ? List.copyOf(customers) : List.of();
+        items = items != null ? List.copyOf(items) : List.of();
+        vendors = vendors != null ? List.copyOf(vendors) : List.of();
+        expenseAccounts = expenseAccounts != null ? List.copyOf(expenseAccounts) : List.of();
+    }
+
+    public RealmCatalog withCustomers(List<CustomerSummary> customers) {
+        return new RealmCatalog(customers, items, vendors, expenseAccounts);
+    }
+
+    public RealmCatalog withItems(List<ItemSummary> items) {
+        return new RealmCatalog(customers, items, vendors, expenseAccounts);
+    }
+}
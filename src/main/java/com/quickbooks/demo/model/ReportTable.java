@@ -0,0 +1,110 @@
+package com.quickbooks.demo.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A QBO report (ProfitAndLoss, AgedReceivables, ...) flattened into columnar arrays.
+ *
+ * The nested Rows/Row/ColData structure becomes one row per header, data or summary line, in
+ * document order, with its nesting {@code depth} and the innermost section {@code group}
+ * ("Income", "NetIncome", ...). Amount columns are held as {@code double[]} (NaN for a blank
+ * cell), other columns as {@code String[]}; the id of the first cell (account, customer) is kept
+ * per row. Instances are immutable once built.
+ */
+public final class ReportTable {
+
+    public static final byte HEADER = 0;
+    public static final byte DATA = 1;
+    public static final byte SUMMARY = 2;
+
+    private static final String[] KIND_NAMES = { "header", "data", "summary" };
+
+    /** One report column; exactly one of {@code text} and {@code amounts} is set. */
+    public record Column(String title, String type, String[] text, double[] amounts) {
+
+        public boolean numeric() {
+            return amounts != null;
+        }
+
+        Object value(int row) {
+            if (amounts != null) {
+                return Double.isNaN(amounts[row]) ? null : amounts[row];
+            }
+            return text[row];
+        }
+    }
+
+    private final Map<String, String> header;
+    private final List<Column> columns;
+    private final int rowCount;
+    private final byte[] kinds;
+    private final short[] depths;
+    private final String[] groups;
+    private final String[] ids;
+
+    public ReportTable(Map<String, String> header, List<Column> columns, int rowCount,
+                       byte[] kinds, short[] depths, String[] groups, String[] ids) {
+        this.header = header;
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.kinds = kinds;
+        this.depths = depths;
+        this.groups = groups;
+        this.ids = ids;
+    }
+
+    /** Report header fields (ReportName, StartPeriod, Currency, ...) and options. */
+    public Map<String, String> header() {
+        return header;
+    }
+
+    public List<Column> columns() {
+        return columns;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public byte kind(int row) {
+        return kinds[row];
+    }
+
+    public int depth(int row) {
+        return depths[row];
+    }
+
+    public String group(int row) {
+        return groups[row];
+    }
+
+    public String id(int row) {
+        return ids[row];
+    }
+
+    public Object value(int row, int column) {
+        return columns.get(column).value(row);
+    }
+
+    /** Rows {@code [from, to)} in row form, for one page of the JSON API. */
+    public List<Map<String, Object>> rows(int from, int to) {
+        List<Map<String, Object>> page = new ArrayList<>(Math.max(0, to - from));
+        for (int r = from; r < to; r++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("kind", KIND_NAMES[kinds[r]]);
+            row.put("depth", (int) depths[r]);
+            row.put("group", groups[r]);
+            row.put("id", ids[r]);
+            List<Object> values = new ArrayList<>(columns.size());
+            for (Column column : columns) {
+                values.add(column.value(r));
+            }
+            row.put("values", values);
+            page.add(row);
+        }
+        return page;
+    }
+}
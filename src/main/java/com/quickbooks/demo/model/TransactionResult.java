@@ -0,0 +1,16 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A created Invoice, Estimate, SalesReceipt or Bill. {@code amount} is QBO's TotalAmt when
+ * returned; {@code docNumber}, {@code customerId}, {@code vendorId} and {@code deepLink} are
+ * only set where the transaction type has them.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TransactionResult(String id, String docNumber, String projectId, String customerId,
+                                String vendorId, BigDecimal amount, String deepLink) implements Serializable {
+}
@@ -0,0 +1,59 @@
+package com.quickbooks.demo.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Request body for the transaction creates (Invoice, Estimate, SalesReceipt, Bill), serialized
+ * with QBO's field names. Unused references stay null and are omitted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TxnPayload(@JsonProperty("TxnDate") String txnDate,
+                         @JsonProperty("CurrencyRef") Ref currencyRef,
+                         @JsonProperty("CustomerRef") Ref customerRef,
+                         @JsonProperty("VendorRef") Ref vendorRef,
+                         @JsonProperty("ProjectRef") Ref projectRef,
+                         @JsonProperty("Line") List<Line> line) {
+
+    public static final Ref USD = new Ref("USD", "United States Dollar");
+    public static final Ref NON_TAXABLE = Ref.of("NON");
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Ref(String value, String name) {
+
+        public static Ref of(String value) {
+            return new Ref(value, null);
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Line(@JsonProperty("Id") String id,
+                       @JsonProperty("LineNum") Integer lineNum,
+                       @JsonProperty("Description") String description,
+                       @JsonProperty("Amount") BigDecimal amount,
+                       @JsonProperty("DetailType") String detailType,
+                       @JsonProperty("ProjectRef") Ref projectRef,
+                       @JsonProperty("SalesItemLineDetail") SalesItemLineDetail salesItemLineDetail,
+                       @JsonProperty("SubTotalLineDetail") Map<String, Object> subTotalLineDetail,
+                       @JsonProperty("AccountBasedExpenseLineDetail") AccountBasedExpenseLineDetail accountBasedExpenseLineDetail) {
+
+        /** The trailing subtotal line QBO expects on estimates and sales receipts. */
+        public static Line subTotal(BigDecimal amount) {
+            return new Line(null, null, null, amount, "SubTotalLineDetail", null, null, Map.of(), null);
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record SalesItemLineDetail(@JsonProperty("ItemRef") Ref itemRef,
+                                      @JsonProperty("UnitPrice") Double unitPrice,
+                                      @JsonProperty("Qty") int qty,
+                                      @JsonProperty("TaxCodeRef") Ref taxCodeRef) {
+    }
+
+    public record AccountBasedExpenseLineDetail(@JsonProperty("AccountRef") Ref accountRef) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.quickbooks.demo.model;
+
+import java.io.Serializable;
+
+/**
+ * A vendor as listed for the bill form.
+ */
+public record VendorSummary(String id, String name) implements Serializable {
+}
@@ -0,0 +1,553 @@
+package com.quickbooks.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.ImportReport;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.model.RealmCatalog;
+import com.quickbooks.demo.model.TxnPayload;
+import com.quickbooks.demo.service.client.IdempotencyLedger;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+/**
+ * Imports estimates, sales receipts or bills from an uploaded CSV through the QBO batch endpoint.
+ *
+ * Rows are streamed, cut into fixed batches of {@code import-batch-size}, and each batch is
+ * validated in parallel (names resolved against the realm's cached catalog and project index,
+ * misses checked with QBO)
+ * before it is posted to {@code /batch}. At most {@code import-max-in-flight} batches are
+ * outstanding; reading blocks until one completes. Finished batches are checkpointed per file
+ * content, so uploading the same file again skips them and resumes an interrupted import.
+ */
+@Service
+public class CsvImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvImportService.class);
+
+    static final int MAX_BATCH = 30;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    /** Importable transaction types, with the CSV columns each requires. */
+    public enum Kind {
+        ESTIMATE("estimate", "Estimate", List.of("customer", "item", "project", "quantity", "unit_price")),
+        SALES_RECEIPT("sales-receipt", "SalesReceipt", List.of("customer", "item", "project", "quantity", "unit_price")),
+        BILL("bill", "Bill", List.of("vendor", "account", "project", "amount"));
+
+        final String slug;
+        final String entity;
+        final List<String> required;
+
+        Kind(String slug, String entity, List<String> required) {
+            this.slug = slug;
+            this.entity = entity;
+            this.required = required;
+        }
+
+        public static Kind from(String type) {
+            String t = type == null ? "" : type.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+            for (Kind kind : values()) {
+                if (kind.slug.equals(t) || kind.slug.replace("-", "").equals(t)) {
+                    return kind;
+                }
+            }
+            throw new RuntimeException("Unsupported import type '" + type + "' (use estimate, sales-receipt or bill)");
+        }
+    }
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @Autowired
+    private QuickBooksApiService apiService;
+
+    @Autowired
+    private QuickBooksRestClient restClient;
+
+    @Autowired
+    private RealmCatalogService catalogs;
+
+    @Autowired
+    private ProjectResolver projects;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ExecutorService validators = Executors.newFixedThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()), daemon("csv-validate-"));
+    private final ExecutorService submitters = Executors.newCachedThreadPool(daemon("csv-batch-"));
+    private final Map<String, Boolean> running = new ConcurrentHashMap<>();
+
+    /**
+     * Imports {@code csv} as transactions of {@code type}. Rows already finished by an earlier
+     * run of the same file are skipped. Returns once every batch has completed or failed.
+     */
+    public ImportReport importCsv(String accessToken, String realmId, String type, InputStreamSource csv) {
+        if (accessToken == null || accessToken.trim().isEmpty()) {
+            throw new RuntimeException("Access token is required");
+        }
+        if (realmId == null || realmId.trim().isEmpty()) {
+            throw new RuntimeException("Realm ID is required");
+        }
+        Kind kind = Kind.from(type);
+        QuickBooksContext ctx = QuickBooksContext.of(accessToken, realmId);
+        try {
+            String importId = IdempotencyLedger.requestId(realmId, kind.slug, sha256(csv));
+            if (running.putIfAbsent(importId, Boolean.TRUE) != null) {
+                throw new RuntimeException("This file is already being imported (import " + importId + ")");
+            }
+            try {
+                Checkpoint checkpoint = Checkpoint.read(checkpointPath(importId),
+                    Math.min(Math.max(1, config.getImportBatchSize()), MAX_BATCH));
+                Run run = new Run(ctx, kind, importId, checkpoint);
+                if (!checkpoint.complete) {
+                    run.execute(csv);
+                }
+                return run.report();
+            } finally {
+                running.remove(importId);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read CSV: " + e.getMessage(), e);
+        }
+    }
+
+    /** One pass over the file; batch outcomes are merged into the checkpoint in any order. */
+    private final class Run {
+        private final QuickBooksContext ctx;
+        private final Kind kind;
+        private final String importId;
+        private final Checkpoint checkpoint;
+        private final Lookups lookups;
+        private final Semaphore inFlight = new Semaphore(Math.max(1, config.getImportMaxInFlight()));
+        private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+        private final List<ImportReport.RowError> errors = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger skipped = new AtomicInteger();
+        private volatile String abortedBy;
+        private int rows;
+
+        Run(QuickBooksContext ctx, Kind kind, String importId, Checkpoint checkpoint) {
+            this.ctx = ctx;
+            this.kind = kind;
+            this.importId = importId;
+            this.checkpoint = checkpoint;
+            this.lookups = checkpoint.complete ? null
+                : new Lookups(catalogs.load(ctx.accessToken(), ctx.realmId()).value());
+        }
+
+        void execute(InputStreamSource csv) throws IOException {
+            try (Reader reader = new InputStreamReader(csv.getInputStream(), StandardCharsets.UTF_8);
+                 CsvRowReader rowReader = new CsvRowReader(reader)) {
+                Map<String, Integer> columns = columns(rowReader.next());
+                int batchSize = checkpoint.batchSize;
+                List<Row> chunk = new ArrayList<>(batchSize);
+                List<String> fields;
+                while (abortedBy == null && (fields = rowReader.next()) != null) {
+                    rows++;
+                    int batch = (rows - 1) / batchSize;
+                    if (checkpoint.isDone(batch)) {
+                        skipped.incrementAndGet();
+                        continue;
+                    }
+                    chunk.add(new Row(rows, fields));
+                    if (rows % batchSize == 0) {
+                        dispatch(batch, chunk, columns);
+                        chunk = new ArrayList<>(batchSize);
+                    }
+                }
+                if (abortedBy == null && !chunk.isEmpty()) {
+                    dispatch((rows - 1) / batchSize, chunk, columns);
+                }
+            } finally {
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+            }
+            if (abortedBy == null) {
+                checkpoint.markComplete(rows);
+            }
+        }
+
+        private Map<String, Integer> columns(List<String> header) {
+            if (header == null) {
+                throw new RuntimeException("CSV is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT).replaceAll("[\\s-]+", "_"), i);
+            }
+            List<String> missing = kind.required.stream().filter(c -> !columns.containsKey(c)).toList();
+            if (!missing.isEmpty()) {
+                throw new RuntimeException("CSV is missing column(s): " + String.join(", ", missing));
+            }
+            return columns;
+        }
+
+        /** Validates the batch in parallel, then waits for an in-flight slot and posts it asynchronously. */
+        private void dispatch(int batch, List<Row> chunk, Map<String, Integer> columns) {
+            List<Callable<Prepared>> tasks = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                tasks.add(() -> prepare(row, columns));
+            }
+            List<Prepared> prepared = new ArrayList<>(chunk.size());
+            try {
+                for (Future<Prepared> f : validators.invokeAll(tasks)) {
+                    prepared.add(f.get());
+                }
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abortedBy = "Import interrupted";
+                return;
+            } catch (ExecutionException e) {
+                abortedBy = "Validation failed: " + e.getCause();
+                return;
+            }
+            pending.add(CompletableFuture.runAsync(() -> submit(batch, prepared), submitters)
+                .whenComplete((v, t) -> inFlight.release()));
+        }
+
+        private Prepared prepare(Row row, Map<String, Integer> columns) {
+            try {
+                Function<String, String> col = name -> {
+                    Integer i = columns.get(name);
+                    return i != null && i < row.fields().size() ? row.fields().get(i).trim() : "";
+                };
+                String description = col.apply("description");
+                String projectName = col.apply("project");
+                TxnPayload payload;
+                if (kind == Kind.BILL) {
+                    String vendorId = require("vendor", lookups.vendors, "Vendor", "DisplayName", col.apply("vendor"));
+                    String accountId = require("account", lookups.accounts, "Account", "Name", col.apply("account"));
+                    String projectId = project(projectName, null);
+                    double amount = number("amount", col.apply("amount"));
+                    if (amount <= 0) {
+                        throw new RuntimeException("amount must be > 0");
+                    }
+                    payload = apiService.buildBillPayload(vendorId, accountId, projectId, amount, description);
+                } else {
+                    String customerId = require("customer", lookups.customers, "Customer", "DisplayName", col.apply("customer"));
+                    String itemId = require("item", lookups.items, "Item", "Name", col.apply("item"));
+                    String projectId = project(projectName, customerId);
+                    double quantity = number("quantity", col.apply("quantity"));
+                    double unitPrice = number("unit_price", col.apply("unit_price"));
+                    if (quantity <= 0 || quantity != Math.rint(quantity) || unitPrice < 0) {
+                        throw new RuntimeException("quantity must be a whole number > 0 and unit_price >= 0");
+                    }
+                    payload = kind == Kind.ESTIMATE
+                        ? apiService.buildEstimatePayload(customerId, itemId, projectId, (int) quantity, unitPrice, description)
+                        : apiService.buildSalesReceiptPayload(customerId, itemId, projectId, (int) quantity, unitPrice, description);
+                }
+                return new Prepared(row.number(), payload, null);
+            } catch (RuntimeException e) {
+                return new Prepared(row.number(), null, e.getMessage());
+            }
+        }
+
+        /**
+         * Resolves a name or id against the catalog. A numeric value the catalog does not know is
+         * passed through as an id (QBO rejects a bad reference on that row); a name it does not
+         * know is looked up in QBO once per file, since the catalog may predate it.
+         */
+        private String require(String column, Map<String, String> map, String entity, String nameField, String value) {
+            String id = lookups.find(column, map, value);
+            if (id != null) {
+                return id;
+            }
+            if (isId(value)) {
+                return value;
+            }
+            Optional<String> found = lookups.verified.computeIfAbsent(entity + "\u0000" + PrefixIndex.normalize(value), k -> {
+                JsonNode answer = restClient.queryTree(ctx, "select Id from " + entity + " where " + nameField
+                    + " = '" + value.replace("'", "\\'") + "'");
+                JsonNode row = answer == null ? null : answer.path("QueryResponse").path(entity).path(0);
+                return row == null || row.isMissingNode() ? Optional.empty() : Optional.of(row.path("Id").asText());
+            });
+            return found.orElseThrow(() -> new RuntimeException("Unknown " + column + " '" + value + "'"));
+        }
+
+        private String project(String nameOrId, String parentCustomerId) {
+            if (nameOrId.isEmpty()) {
+                throw new RuntimeException("project is required");
+            }
+            // One resolution (and at most one verifying reload) per distinct project in the file
+            Optional<String> id = lookups.projects.computeIfAbsent(nameOrId + "\u0000" + parentCustomerId, k ->
+                Optional.ofNullable(projects.isProjectId(ctx, nameOrId) ? nameOrId
+                    : projects.resolve(ctx, nameOrId, parentCustomerId)));
+            return id.orElseThrow(() -> new RuntimeException("Unknown project '" + nameOrId + "'"));
+        }
+
+        private void submit(int batch, List<Prepared> prepared) {
+            int created = 0;
+            int failed = 0;
+            List<ImportReport.RowError> batchErrors = new ArrayList<>();
+            List<Map<String, Object>> items = new ArrayList<>(prepared.size());
+            for (Prepared p : prepared) {
+                if (p.error() != null) {
+                    failed++;
+                    batchErrors.add(new ImportReport.RowError(p.row(), p.error()));
+                    continue;
+                }
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("bId", String.valueOf(p.row()));
+                item.put("operation", "create");
+                item.put(kind.entity, p.payload());
+                items.add(item);
+            }
+            if (!items.isEmpty()) {
+                JsonNode responses;
+                try {
+                    // Same requestid for this batch on every upload of the file: if a timed-out POST
+                    // was applied after all, QBO answers the resumed one instead of creating again
+                    String body = restClient.postJson(ctx, "/batch", Map.of("BatchItemRequest", items),
+                        IdempotencyLedger.requestId(ctx.realmId(), importId, String.valueOf(batch)));
+                    responses = objectMapper.readTree(body).path("BatchItemResponse");
+                } catch (IOException | RuntimeException e) {
+                    // Not checkpointed: the batch is retried when the file is uploaded again
+                    log.warn("Import {} batch {} failed: {}", importId, batch, e.getMessage());
+                    abortedBy = "Batch starting at row " + prepared.get(0).row() + " failed: " + e.getMessage();
+                    return;
+                }
+                Map<String, JsonNode> byId = new HashMap<>();
+                for (JsonNode response : responses) {
+                    byId.put(response.path("bId").asText(), response);
+                }
+                for (Map<String, Object> item : items) {
+                    String bId = (String) item.get("bId");
+                    JsonNode response = byId.get(bId);
+                    if (response != null && response.has(kind.entity)) {
+                        created++;
+                    } else {
+                        failed++;
+                        batchErrors.add(new ImportReport.RowError(Integer.parseInt(bId), fault(response)));
+                    }
+                }
+            }
+            synchronized (errors) {
+                for (ImportReport.RowError error : batchErrors) {
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(error);
+                    }
+                }
+            }
+            try {
+                checkpoint.markDone(batch, created, failed);
+            } catch (RuntimeException e) {
+                abortedBy = e.getMessage();
+            }
+        }
+
+        ImportReport report() {
+            String status = checkpoint.complete ? ImportReport.COMPLETED : ImportReport.INTERRUPTED;
+            int total = checkpoint.complete ? checkpoint.rows : rows;
+            int skippedRows = checkpoint.complete && lookups == null ? total : skipped.get();
+            List<ImportReport.RowError> reported;
+            synchronized (errors) {
+                reported = new ArrayList<>(errors);
+            }
+            reported.sort(java.util.Comparator.comparingInt(ImportReport.RowError::row));
+            String message = abortedBy != null ? abortedBy + "; upload the same file again to resume" : null;
+            return new ImportReport(importId, kind.slug, status, total, skippedRows,
+                checkpoint.created, checkpoint.failed, reported, message);
+        }
+    }
+
+    private static String fault(JsonNode response) {
+        if (response == null) {
+            return "No response for row";
+        }
+        JsonNode error = response.path("Fault").path("Error").path(0);
+        String message = error.path("Message").asText("Rejected by QuickBooks");
+        String detail = error.path("Detail").asText("");
+        return detail.isEmpty() ? message : message + ": " + detail;
+    }
+
+    private static double number(String column, String value) {
+        try {
+            return Double.parseDouble(value.replace(",", "").replace("$", ""));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(column + " is not a number: '" + value + "'");
+        }
+    }
+
+    private record Row(int number, List<String> fields) {}
+
+    private record Prepared(int row, TxnPayload payload, String error) {}
+
+    private static boolean isId(String value) {
+        return !value.isEmpty() && value.chars().allMatch(Character::isDigit);
+    }
+
+    /** Name-or-id lookups over the cached catalog; keys are normalized names and raw ids. */
+    private static final class Lookups {
+        final Map<String, String> customers = new HashMap<>();
+        final Map<String, String> items = new HashMap<>();
+        final Map<String, String> vendors = new HashMap<>();
+        final Map<String, String> accounts = new HashMap<>();
+        final Map<String, Optional<String>> projects = new ConcurrentHashMap<>();
+        // Catalog misses already checked against QBO, by entity and normalized name
+        final Map<String, Optional<String>> verified = new ConcurrentHashMap<>();
+
+        Lookups(RealmCatalog catalog) {
+            catalog.customers().forEach(c -> put(customers, c.id(), c.name()));
+            catalog.items().forEach(i -> put(items, i.id(), i.name()));
+            catalog.vendors().forEach(v -> put(vendors, v.id(), v.name()));
+            catalog.expenseAccounts().forEach(a -> put(accounts, a.id(), a.name()));
+        }
+
+        private static void put(Map<String, String> map, String id, String name) {
+            map.put(id, id);
+            map.putIfAbsent(PrefixIndex.normalize(name), id);
+        }
+
+        String find(String column, Map<String, String> map, String value) {
+            if (value.isEmpty()) {
+                throw new RuntimeException(column + " is required");
+            }
+            String id = map.get(value);
+            return id != null ? id : map.get(PrefixIndex.normalize(value));
+        }
+    }
+
+    /**
+     * Per-file progress: batch size, finished batches and running counts, rewritten atomically
+     * after every batch.
+     */
+    static final class Checkpoint {
+        private final Path path;
+        final int batchSize;
+        private final BitSet done;
+        int created;
+        int failed;
+        int rows;
+        boolean complete;
+
+        private Checkpoint(Path path, int batchSize, BitSet done) {
+            this.path = path;
+            this.batchSize = batchSize;
+            this.done = done;
+        }
+
+        static Checkpoint read(Path path, int defaultBatchSize) throws IOException {
+            if (!Files.exists(path)) {
+                return new Checkpoint(path, defaultBatchSize, new BitSet());
+            }
+            Properties p = new Properties();
+            try (InputStream in = Files.newInputStream(path)) {
+                p.load(in);
+            }
+            BitSet done = new BitSet();
+            for (String batch : p.getProperty("done", "").split(",")) {
+                if (!batch.isBlank()) {
+                    done.set(Integer.parseInt(batch.trim()));
+                }
+            }
+            // Keep the original batch size so batch numbers still line up with rows
+            Checkpoint c = new Checkpoint(path, Integer.parseInt(p.getProperty("batchSize")), done);
+            c.created = Integer.parseInt(p.getProperty("created", "0"));
+            c.failed = Integer.parseInt(p.getProperty("failed", "0"));
+            c.rows = Integer.parseInt(p.getProperty("rows", "0"));
+            c.complete = Boolean.parseBoolean(p.getProperty("complete", "false"));
+            return c;
+        }
+
+        synchronized boolean isDone(int batch) {
+            return done.get(batch);
+        }
+
+        synchronized void markDone(int batch, int created, int failed) {
+            done.set(batch);
+            this.created += created;
+            this.failed += failed;
+            write();
+        }
+
+        synchronized void markComplete(int rows) {
+            this.rows = rows;
+            this.complete = true;
+            write();
+        }
+
+        private void write() {
+            Properties p = new Properties();
+            p.setProperty("batchSize", String.valueOf(batchSize));
+            p.setProperty("done", done.stream().mapToObj(String::valueOf).collect(java.util.stream.Collectors.joining(",")));
+            p.setProperty("created", String.valueOf(created));
+            p.setProperty("failed", String.valueOf(failed));
+            p.setProperty("rows", String.valueOf(rows));
+            p.setProperty("complete", String.valueOf(complete));
+            try {
+                Files.createDirectories(path.getParent());
+                Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    p.store(out, "CSV import checkpoint");
+                }
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write import checkpoint: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private Path checkpointPath(String importId) {
+        return Path.of(config.getImportCheckpointDir(), importId + ".properties");
+    }
+
+    private static String sha256(InputStreamSource source) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(source.getInputStream(), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return java.util.HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static java.util.concurrent.ThreadFactory daemon(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
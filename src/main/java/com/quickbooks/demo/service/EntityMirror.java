@@ -0,0 +1,360 @@
+package com.quickbooks.demo.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.service.client.OutboundScheduler;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+/**
+ * Local, queryable mirror of each realm's customers, items, accounts and vendors.
+ *
+ * The first eligible query for an entity starts loading all of its rows (active and inactive) into
+ * a {@link MirrorTable} in the background and goes to QBO itself; once loaded, queries in the
+ * {@link MirrorQuery} subset are answered from the table, with
+ * QBO's default {@code Active = true} filter and page size. The Change Data Capture feed keeps
+ * tables current: once a table is older than half of {@code mirror-max-age-seconds} a background
+ * sync starts, and past the full age queries go to QBO until it completes. Our own creates and
+ * webhook changes mark the entity dirty, so reads go to QBO until the next sync has caught up.
+ * A realm not queried for {@code mirror-idle-seconds} is dropped from memory.
+ *
+ * Answers carry a {@code mirror} object ({@code syncedAt}, {@code ageMillis}) next to
+ * {@code QueryResponse}; {@link #freshness(String)} reports every table of a realm.
+ */
+@Service
+public class EntityMirror {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityMirror.class);
+
+    /** Mirrored entities and their indexed fields. */
+    static final Map<String, List<String>> INDEXED = Map.of(
+        "Customer", List.of("Active", "Job", "IsProject", "ParentRef"),
+        "Item", List.of("Active", "Type"),
+        "Account", List.of("Active", "AccountType", "Classification"),
+        "Vendor", List.of("Active"));
+    static final int PAGE_SIZE = 1000;
+    /** CDC returns at most this many objects per entity; a full page means changes were cut off. */
+    static final int CDC_LIMIT = 1000;
+    /** CDC only looks back 30 days; older watermarks reload. */
+    private static final long CDC_WINDOW_MILLIS = 29L * 24 * 60 * 60 * 1000;
+    /** Overlap with the previous sync to absorb clock skew; re-applying a change is harmless. */
+    private static final long SKEW_MILLIS = 60_000;
+
+    /** How current one mirrored entity is. {@code rows} is -1 for an entity too large to mirror. */
+    public record Freshness(String entity, int rows, long syncedAt, boolean dirty, boolean syncing) {}
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @Autowired
+    private QuickBooksRestClient restClient;
+
+    private final Map<String, Realm> realms = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long lastEviction;
+    private volatile ExecutorService syncer;
+
+    /** Answers {@code query} from the mirror when it can, otherwise from QBO. */
+    public JsonNode queryTree(QuickBooksContext ctx, String query) {
+        JsonNode local = query(ctx, query);
+        return local != null ? local : restClient.queryTree(ctx, query);
+    }
+
+    /**
+     * QBO-shaped answer to {@code query} from the mirror, or null when the query is outside the
+     * supported subset, the entity is still loading or the mirror cannot vouch for it.
+     */
+    public JsonNode query(QuickBooksContext ctx, String query) {
+        if (!config.isMirrorEnabled()) {
+            return null;
+        }
+        MirrorQuery parsed = MirrorQuery.parse(query);
+        if (parsed == null || !INDEXED.containsKey(parsed.entity())) {
+            return null;
+        }
+        evictIdle();
+        Realm realm = realms.computeIfAbsent(ctx.realmId(), Realm::new);
+        realm.token = ctx.accessToken();
+        realm.lastUsed = System.currentTimeMillis();
+        Table table = realm.tables.computeIfAbsent(parsed.entity(), Table::new);
+        if (table.syncedAt == 0) {
+            // A full load is many pages; this query goes to QBO while the syncer reads them
+            startLoad(realm, table, ctx);
+            return null;
+        }
+        if (table.rows == null) {
+            return null;
+        }
+        long age = System.currentTimeMillis() - table.syncedAt;
+        long maxAge = config.getMirrorMaxAgeSeconds() * 1000;
+        if (table.dirty != 0 || age > maxAge / 2) {
+            maybeSync(realm);
+        }
+        if (table.dirty != 0 || age > maxAge) {
+            return null;
+        }
+
+        if (!parsed.constrains("Active")) {
+            // QBO only returns active names-list entities unless the query says otherwise
+            List<MirrorQuery.Condition> conditions = new ArrayList<>(parsed.conditions());
+            conditions.add(new MirrorQuery.Condition("Active", MirrorQuery.Op.EQ, List.of(Boolean.TRUE)));
+            parsed = new MirrorQuery(parsed.entity(), parsed.fields(), parsed.count(), conditions,
+                parsed.orderBy(), parsed.descending(), parsed.startPosition(), parsed.maxResults());
+        }
+        ObjectNode answer = table.rows.answer(parsed);
+        ObjectNode mirror = answer.putObject("mirror");
+        mirror.put("syncedAt", Instant.ofEpochMilli(table.syncedAt).toString());
+        mirror.put("ageMillis", age);
+        return answer;
+    }
+
+    /**
+     * {@code entity} changed in QBO (our own write or a webhook): queries on it go to QBO until
+     * a sync has applied the change.
+     */
+    public void changed(String realmId, String entity) {
+        Realm realm = realmId != null ? realms.get(realmId) : null;
+        Table table = realm != null ? realm.tables.get(entity) : null;
+        if (table != null && table.syncedAt != 0) {
+            table.dirty = changes.incrementAndGet();
+            maybeSync(realm);
+        }
+    }
+
+    /** Every mirrored entity of the realm changed (e.g. webhook events were dropped). */
+    public void changed(String realmId) {
+        INDEXED.keySet().forEach(entity -> changed(realmId, entity));
+    }
+
+    /** How current each loaded entity of the realm is. */
+    public List<Freshness> freshness(String realmId) {
+        Realm realm = realmId != null ? realms.get(realmId) : null;
+        List<Freshness> out = new ArrayList<>();
+        if (realm != null) {
+            for (Table table : realm.tables.values()) {
+                if (table.syncedAt != 0) {
+                    out.add(new Freshness(table.entity, table.rows != null ? table.rows.size() : -1, table.syncedAt,
+                        table.dirty != 0, realm.syncing.get()));
+                }
+            }
+        }
+        out.sort((a, b) -> a.entity().compareTo(b.entity()));
+        return out;
+    }
+
+    private void startLoad(Realm realm, Table table, QuickBooksContext ctx) {
+        if (!table.loading.compareAndSet(false, true)) {
+            return;
+        }
+        syncer().execute(() -> {
+            try (OutboundScheduler.Scope scope = OutboundScheduler.tag(realm.realmId, OutboundScheduler.Priority.BACKGROUND)) {
+                synchronized (table) {
+                    if (table.syncedAt == 0) {
+                        load(realm, table, ctx);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Queries keep going to QBO; the next one tries again
+                log.debug("Mirror: loading {} of realm {} failed: {}", table.entity, realm.realmId, e.getMessage());
+            } finally {
+                table.loading.set(false);
+            }
+        });
+    }
+
+    /** Drops realms idle for {@code mirror-idle-seconds}; checks at most once a minute. */
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        long idle = config.getMirrorIdleSeconds() * 1000;
+        if (now - lastEviction < Math.min(60_000, idle)) {
+            return;
+        }
+        lastEviction = now;
+        realms.values().removeIf(realm -> {
+            boolean evict = now - realm.lastUsed > idle && !realm.syncing.get();
+            if (evict) {
+                log.debug("Mirror: dropping idle realm {}", realm.realmId);
+            }
+            return evict;
+        });
+    }
+
+    /** Reads every row of the entity; an entity over {@code mirror-max-rows} is left to QBO. */
+    private void load(Realm realm, Table table, QuickBooksContext ctx) {
+        long started = System.currentTimeMillis();
+        long seen = table.dirty;
+        List<JsonNode> rows = new ArrayList<>();
+        int max = config.getMirrorMaxRows();
+        for (int start = 1; rows.size() <= max; start += PAGE_SIZE) {
+            int page = restClient.queryEach(ctx, table.entity, "select * from " + table.entity
+                + " where Active in (true, false) STARTPOSITION " + start + " MAXRESULTS " + PAGE_SIZE, rows::add);
+            if (page < PAGE_SIZE) {
+                break;
+            }
+        }
+        if (rows.size() > max) {
+            log.info("Mirror: {} of realm {} has over {} rows; queries stay with QBO", table.entity, realm.realmId, max);
+            table.rows = null;
+        } else {
+            MirrorTable loaded = new MirrorTable(table.entity, INDEXED.get(table.entity));
+            loaded.replaceAll(rows);
+            table.rows = loaded;
+            log.debug("Mirror: loaded {} {} rows of realm {} in {} ms", rows.size(), table.entity, realm.realmId,
+                System.currentTimeMillis() - started);
+        }
+        if (table.dirty == seen) {
+            table.dirty = 0;
+        }
+        table.syncedAt = started;
+    }
+
+    private void maybeSync(Realm realm) {
+        if (realm.token != null && realm.syncing.compareAndSet(false, true)) {
+            syncer().execute(() -> sync(realm));
+        }
+    }
+
+    /** Applies changes to every loaded table since the oldest of them was synced. */
+    private void sync(Realm realm) {
+        QuickBooksContext ctx = QuickBooksContext.of(realm.token, realm.realmId);
+        boolean again = false;
+        try (OutboundScheduler.Scope scope = OutboundScheduler.tag(realm.realmId, OutboundScheduler.Priority.BACKGROUND)) {
+            long started = System.currentTimeMillis();
+            Map<String, Table> tables = new LinkedHashMap<>();
+            Map<String, Long> dirty = new LinkedHashMap<>();
+            long since = started;
+            for (Table table : realm.tables.values()) {
+                if (table.syncedAt != 0 && table.rows != null) {
+                    tables.put(table.entity, table);
+                    dirty.put(table.entity, table.dirty);
+                    since = Math.min(since, table.syncedAt);
+                }
+            }
+            if (tables.isEmpty()) {
+                return;
+            }
+            if (started - since > CDC_WINDOW_MILLIS || !applyChanges(ctx, tables, since)) {
+                for (Table table : tables.values()) {
+                    synchronized (table) {
+                        load(realm, table, ctx);
+                    }
+                }
+                return;
+            }
+            for (Table table : tables.values()) {
+                table.syncedAt = started;
+                // A change reported while this sync ran keeps the table dirty for the next one
+                if (table.dirty == dirty.get(table.entity)) {
+                    table.dirty = 0;
+                } else {
+                    again = true;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Typically an expired token; dirty tables keep going to QBO and the next query retries
+            log.warn("Mirror sync for realm {} failed: {}", realm.realmId, e.getMessage());
+        } finally {
+            realm.syncing.set(false);
+        }
+        if (again) {
+            maybeSync(realm);
+        }
+    }
+
+    /** Returns false when the CDC response was cut off and the tables must be reloaded. */
+    private boolean applyChanges(QuickBooksContext ctx, Map<String, Table> tables, long syncedAt) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("entities", String.join(",", tables.keySet()));
+        params.put("changedSince", Instant.ofEpochMilli(syncedAt - SKEW_MILLIS).truncatedTo(ChronoUnit.SECONDS).toString());
+        JsonNode cdc = restClient.getStreamed(ctx, "/cdc", params, parser -> parser.readValueAsTree());
+        int applied = 0;
+        for (JsonNode response : cdc.path("CDCResponse")) {
+            for (JsonNode block : response.path("QueryResponse")) {
+                Iterator<Map.Entry<String, JsonNode>> fields = block.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    Table table = tables.get(field.getKey());
+                    JsonNode rows = field.getValue();
+                    if (table == null || !rows.isArray()) {
+                        continue;
+                    }
+                    if (rows.size() >= CDC_LIMIT) {
+                        return false;
+                    }
+                    for (JsonNode row : rows) {
+                        if ("Deleted".equalsIgnoreCase(row.path("status").asText())) {
+                            table.rows.remove(row.path("Id").asText());
+                        } else {
+                            table.rows.put(row);
+                        }
+                        applied++;
+                    }
+                }
+            }
+        }
+        log.debug("Mirror: applied {} changes to {} of realm {}", applied, tables.keySet(), ctx.realmId());
+        return true;
+    }
+
+    private ExecutorService syncer() {
+        ExecutorService pool = syncer;
+        if (pool == null) {
+            synchronized (this) {
+                if (syncer == null) {
+                    syncer = Executors.newSingleThreadExecutor(r -> {
+                        Thread t = new Thread(r, "entity-mirror-sync");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+                pool = syncer;
+            }
+        }
+        return pool;
+    }
+
+    private static final class Realm {
+        final String realmId;
+        final Map<String, Table> tables = new ConcurrentHashMap<>();
+        final AtomicBoolean syncing = new AtomicBoolean();
+        volatile String token;
+        volatile long lastUsed;
+
+        Realm(String realmId) {
+            this.realmId = realmId;
+        }
+    }
+
+    /** One entity: its rows (null when too large to mirror), sync watermark and dirty marker. */
+    private static final class Table {
+        final String entity;
+        final AtomicBoolean loading = new AtomicBoolean();
+        volatile MirrorTable rows;
+        volatile long syncedAt;
+        /** 0 when clean, else the sequence number of the latest unsynced change. */
+        volatile long dirty;
+
+        Table(String entity) {
+            this.entity = entity;
+        }
+    }
+}
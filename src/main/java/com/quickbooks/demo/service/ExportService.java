@@ -0,0 +1,198 @@
+package com.quickbooks.demo.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.model.ProjectPage;
+import com.quickbooks.demo.model.ProjectSummary;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+/**
+ * Bulk export of customers, items, invoices, bills and projects as CSV or NDJSON.
+ *
+ * Accounting entities are paged with STARTPOSITION/MAXRESULTS and each row is written as it is
+ * parsed from the QBO response ({@link QuickBooksRestClient#queryEach}); projects are paged by
+ * GraphQL cursor. The output is flushed after every page and nothing is accumulated, so heap use
+ * stays at one page of projects or one accounting row regardless of the export size.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    static final int PAGE_SIZE = 1000;
+    static final int PROJECT_PAGE_SIZE = 50;
+
+    /** Exportable datasets; CSV columns are JSON pointer paths into each row. */
+    public enum Dataset {
+        CUSTOMERS("Customer", List.of("Id", "DisplayName", "CompanyName", "PrimaryEmailAddr/Address",
+            "PrimaryPhone/FreeFormNumber", "ParentRef/value", "Job", "Balance", "Active", "MetaData/LastUpdatedTime")),
+        ITEMS("Item", List.of("Id", "Name", "Type", "UnitPrice", "IncomeAccountRef/value", "Active",
+            "MetaData/LastUpdatedTime")),
+        INVOICES("Invoice", List.of("Id", "DocNumber", "TxnDate", "DueDate", "CustomerRef/value", "CustomerRef/name",
+            "ProjectRef/value", "TotalAmt", "Balance", "MetaData/LastUpdatedTime")),
+        BILLS("Bill", List.of("Id", "DocNumber", "TxnDate", "DueDate", "VendorRef/value", "VendorRef/name",
+            "TotalAmt", "Balance", "MetaData/LastUpdatedTime")),
+        PROJECTS(null, List.of("id", "name", "description", "status", "startDate", "dueDate", "completedDate",
+            "customer/id", "accountId"));
+
+        final String entity;
+        final List<String> columns;
+
+        Dataset(String entity, List<String> columns) {
+            this.entity = entity;
+            this.columns = columns;
+        }
+
+        public static Dataset from(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Unknown export '" + name + "' (use customers, items, invoices, bills or projects)");
+            }
+        }
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format from(String name) {
+            if (name == null || name.isBlank()) {
+                return CSV;
+            }
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Unknown format '" + name + "' (use csv or ndjson)");
+            }
+        }
+    }
+
+    @Autowired
+    private QuickBooksRestClient restClient;
+
+    @Autowired
+    private QuickBooksApiService apiService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Writes every row of {@code dataset} to {@code out}; returns the row count. Does not close {@code out}. */
+    public long export(String accessToken, String realmId, Dataset dataset, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writeCsvRow(writer, dataset.columns.stream().map(c -> c.replace('/', '.')).toList());
+        }
+        RowSink sink = new RowSink(writer, dataset, format);
+        long rows = 0;
+        try {
+            if (dataset == Dataset.PROJECTS) {
+                rows = exportProjects(accessToken, realmId, sink);
+            } else {
+                QuickBooksContext ctx = QuickBooksContext.of(accessToken, realmId);
+                for (int start = 1; ; start += PAGE_SIZE) {
+                    int page = restClient.queryEach(ctx, dataset.entity,
+                        "select * from " + dataset.entity + " STARTPOSITION " + start + " MAXRESULTS " + PAGE_SIZE, sink::write);
+                    rows += page;
+                    writer.flush();
+                    if (page < PAGE_SIZE) {
+                        break;
+                    }
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.debug("Exported {} {} rows as {} for realm {}", rows, dataset, format, realmId);
+        return rows;
+    }
+
+    private long exportProjects(String accessToken, String realmId, RowSink sink) throws IOException {
+        long rows = 0;
+        String cursor = null;
+        while (true) {
+            ProjectPage page = apiService.listProjects(accessToken, realmId, PROJECT_PAGE_SIZE, cursor, null, null);
+            for (ProjectSummary project : page.nodes()) {
+                sink.write(objectMapper.valueToTree(project));
+                rows++;
+            }
+            sink.writer.flush();
+            ProjectPage.PageInfo info = page.pageInfo();
+            if (info == null || !info.hasNextPage() || info.endCursor() == null || info.endCursor().equals(cursor)) {
+                return rows;
+            }
+            cursor = info.endCursor();
+        }
+    }
+
+    /** Formats one row at a time; I/O errors are rethrown unchecked to cross the row callback. */
+    private final class RowSink {
+        final Writer writer;
+        private final Dataset dataset;
+        private final Format format;
+
+        RowSink(Writer writer, Dataset dataset, Format format) {
+            this.writer = writer;
+            this.dataset = dataset;
+            this.format = format;
+        }
+
+        void write(JsonNode row) {
+            try {
+                if (format == Format.NDJSON) {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                } else {
+                    writeCsvRow(writer, dataset.columns.stream().map(c -> {
+                        JsonNode v = row.at("/" + c);
+                        return v.isMissingNode() || v.isNull() ? "" : v.asText();
+                    }).toList());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static void writeCsvRow(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String v = values.get(i);
+            if (v.indexOf(',') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(v.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(v);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
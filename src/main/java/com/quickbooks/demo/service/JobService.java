@@ -0,0 +1,409 @@
+package com.quickbooks.demo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.Job;
+import com.quickbooks.demo.service.client.OutboundScheduler;
+
+/**
+ * Runs bulk operations (multi-project delete, CSV import) outside the HTTP request.
+ *
+ * {@link #submit} records the job and hands it to a pool of {@code job-workers} threads with a
+ * queue of {@code job-queue-capacity}; a full queue rejects the submit. Every state change is
+ * appended as one JSON line to {@code jobs.ndjson} under {@code jobs-dir} (progress lines at most
+ * once per second per job), so job status survives a restart. On startup the journal is replayed,
+ * compacted to the newest {@code job-history} jobs, and jobs that never finished are marked
+ * {@link Job#INTERRUPTED}. Subscribers get progress as Server-Sent Events.
+ */
+@Service
+public class JobService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobService.class);
+
+    static final String JOURNAL = "jobs.ndjson";
+    static final long PROGRESS_LOG_MILLIS = 1000;
+    static final long SSE_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    /** Body of a job. Reports items through {@link Progress}; the return value becomes the job message. */
+    @FunctionalInterface
+    public interface Work {
+        String run(Progress progress) throws Exception;
+    }
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, Entry> jobs = new ConcurrentHashMap<>();
+    private final Object journalLock = new Object();
+    private volatile boolean loaded;
+    private volatile ThreadPoolExecutor workers;
+    private Writer journal;
+    private int journalLines;
+
+    /**
+     * Queues {@code work} as a job of {@code type} for {@code realmId}. {@code total} is the number
+     * of items if known, else 0. Throws when the queue is full.
+     */
+    public Job submit(String type, String realmId, int total, Work work) {
+        load();
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(new Job(UUID.randomUUID().toString(), type, realmId, Job.QUEUED,
+            Math.max(0, total), 0, 0, List.of(), null, now, now));
+        jobs.put(entry.id, entry);
+        publish(entry, true);
+        try {
+            workers().execute(() -> run(entry, work));
+        } catch (RejectedExecutionException e) {
+            entry.finish(Job.FAILED, "Rejected: job queue is full");
+            publish(entry, true);
+            throw new RuntimeException("Too many jobs are queued; try again shortly");
+        }
+        return entry.snapshot(false);
+    }
+
+    /** The job with its per-item results, or null if unknown or owned by another realm. */
+    public Job get(String id, String realmId) {
+        Entry entry = entry(id, realmId);
+        return entry == null ? null : entry.snapshot(true);
+    }
+
+    /** Jobs of {@code realmId}, newest first, without per-item results. */
+    public List<Job> list(String realmId) {
+        load();
+        return jobs.values().stream()
+            .filter(e -> e.realmId.equals(realmId))
+            .map(e -> e.snapshot(false))
+            .sorted(Comparator.comparingLong(Job::createdAt).reversed())
+            .toList();
+    }
+
+    /**
+     * Event stream for a job: a {@code progress} event with the current state at once and after
+     * each change, then a {@code done} event with the results, after which the stream completes.
+     * Null if the job is unknown or owned by another realm.
+     */
+    public SseEmitter subscribe(String id, String realmId) {
+        Entry entry = entry(id, realmId);
+        if (entry == null) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MILLIS);
+        entry.emitters.add(emitter);
+        emitter.onCompletion(() -> entry.emitters.remove(emitter));
+        emitter.onTimeout(() -> entry.emitters.remove(emitter));
+        emitter.onError(e -> entry.emitters.remove(emitter));
+        // Registered before reading the state, so no change between the two is missed
+        Job job = entry.snapshot(false);
+        if (job.isFinished()) {
+            send(entry, emitter, "done", entry.snapshot(true));
+            emitter.complete();
+        } else {
+            send(entry, emitter, "progress", job);
+        }
+        return emitter;
+    }
+
+    /** Handle a running job reports its items through. */
+    public final class Progress {
+        private final Entry entry;
+
+        private Progress(Entry entry) {
+            this.entry = entry;
+        }
+
+        public void total(int total) {
+            entry.total(total);
+            publish(entry, false);
+        }
+
+        /** Records one processed item and whether it succeeded. */
+        public void item(Map<String, Object> result, boolean ok) {
+            entry.item(result, ok);
+            publish(entry, false);
+        }
+
+        public int succeeded() {
+            return entry.snapshot(false).succeeded();
+        }
+
+        public int failed() {
+            return entry.snapshot(false).failed();
+        }
+    }
+
+    private void run(Entry entry, Work work) {
+        entry.start();
+        publish(entry, true);
+        try (OutboundScheduler.Scope scope = OutboundScheduler.tag(entry.realmId, OutboundScheduler.Priority.BACKGROUND)) {
+            entry.finish(Job.SUCCEEDED, work.run(new Progress(entry)));
+        } catch (Exception e) {
+            log.warn("Job {} ({}) failed: {}", entry.id, entry.type, e.getMessage());
+            entry.finish(Job.FAILED, e.getMessage());
+        }
+        publish(entry, true);
+    }
+
+    /** Journals the change (always when {@code force}, else throttled) and notifies subscribers. */
+    private void publish(Entry entry, boolean force) {
+        Job job = entry.snapshot(false);
+        if (job.isFinished()) {
+            job = entry.snapshot(true);
+        }
+        boolean due = entry.logDue(job.updatedAt());
+        if (force || due) {
+            append(job);
+        }
+        for (SseEmitter emitter : entry.emitters) {
+            if (job.isFinished()) {
+                send(entry, emitter, "done", job);
+                emitter.complete();
+            } else {
+                send(entry, emitter, "progress", job);
+            }
+        }
+    }
+
+    private static void send(Entry entry, SseEmitter emitter, String name, Job job) {
+        try {
+            emitter.send(SseEmitter.event().name(name).id(String.valueOf(job.updatedAt())).data(job));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the stream already completed
+            entry.emitters.remove(emitter);
+        }
+    }
+
+    private Entry entry(String id, String realmId) {
+        load();
+        Entry entry = id == null ? null : jobs.get(id);
+        return entry == null || !entry.realmId.equals(realmId) ? null : entry;
+    }
+
+    private void append(Job job) {
+        synchronized (journalLock) {
+            if (journal == null) {
+                return;
+            }
+            try {
+                journal.write(objectMapper.writeValueAsString(job));
+                journal.write('\n');
+                journal.flush();
+                journalLines++;
+            } catch (IOException e) {
+                log.warn("Failed to journal job {}: {}", job.id(), e.getMessage());
+            }
+            if (journalLines > Math.max(1000, 4 * history()) && job.isFinished()) {
+                compact();
+            }
+        }
+    }
+
+    /** Replays the journal once: newest record per job wins, unfinished jobs become INTERRUPTED. */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (journalLock) {
+            if (loaded) {
+                return;
+            }
+            Map<String, Job> latest = new LinkedHashMap<>();
+            Path path = journalPath();
+            if (Files.exists(path)) {
+                try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        try {
+                            Job job = objectMapper.readValue(line, Job.class);
+                            latest.put(job.id(), job);
+                        } catch (IOException e) {
+                            // A torn last line from a crash mid-write
+                            log.warn("Skipping unreadable job journal line: {}", e.getMessage());
+                        }
+                    }
+                } catch (IOException e) {
+                    log.warn("Failed to read job journal {}: {}", path, e.getMessage());
+                }
+            }
+            long now = System.currentTimeMillis();
+            for (Job job : latest.values()) {
+                if (!job.isFinished()) {
+                    job = new Job(job.id(), job.type(), job.realmId(), Job.INTERRUPTED, job.total(), job.succeeded(),
+                        job.failed(), job.results(), "Interrupted by a restart", job.createdAt(), now);
+                }
+                jobs.put(job.id(), new Entry(job));
+            }
+            compact();
+            loaded = true;
+            if (!latest.isEmpty()) {
+                log.info("Restored {} jobs from {}", jobs.size(), path);
+            }
+        }
+    }
+
+    /** Drops the oldest finished jobs beyond {@code job-history} and rewrites the journal. Holds journalLock. */
+    private void compact() {
+        List<Entry> finished = new ArrayList<>(jobs.values().stream().filter(e -> e.snapshot(false).isFinished()).toList());
+        finished.sort(Comparator.comparingLong(e -> e.createdAt));
+        for (int i = 0; i < finished.size() && jobs.size() > history(); i++) {
+            jobs.remove(finished.get(i).id);
+        }
+        Path path = journalPath();
+        try {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            Files.createDirectories(path.getParent());
+            Path tmp = path.resolveSibling(JOURNAL + ".tmp");
+            List<Job> retained = jobs.values().stream().map(e -> e.snapshot(true))
+                .sorted(Comparator.comparingLong(Job::createdAt)).toList();
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Job job : retained) {
+                    out.write(objectMapper.writeValueAsString(job.isFinished() ? job : job.summary()));
+                    out.write('\n');
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            journalLines = retained.size();
+        } catch (IOException e) {
+            log.warn("Failed to rewrite job journal {}: {}; jobs will not survive a restart", path, e.getMessage());
+        }
+    }
+
+    private Path journalPath() {
+        return Path.of(config.getJobsDir(), JOURNAL);
+    }
+
+    private int history() {
+        return Math.max(1, config.getJobHistory());
+    }
+
+    private ThreadPoolExecutor workers() {
+        ThreadPoolExecutor pool = workers;
+        if (pool == null) {
+            synchronized (this) {
+                if (workers == null) {
+                    int threads = Math.max(1, config.getJobWorkers());
+                    AtomicInteger seq = new AtomicInteger();
+                    ThreadPoolExecutor created = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(Math.max(1, config.getJobQueueCapacity())), r -> {
+                            Thread t = new Thread(r, "job-worker-" + seq.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        });
+                    created.allowCoreThreadTimeOut(true);
+                    workers = created;
+                }
+                pool = workers;
+            }
+        }
+        return pool;
+    }
+
+    /** Mutable state of one job; the record handed out is a snapshot. */
+    private static final class Entry {
+        final String id;
+        final String type;
+        final String realmId;
+        final long createdAt;
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private final List<Map<String, Object>> results;
+        private String status;
+        private int total;
+        private int succeeded;
+        private int failed;
+        private String message;
+        private long updatedAt;
+        private long loggedAt;
+
+        Entry(Job job) {
+            this.id = job.id();
+            this.type = job.type();
+            this.realmId = job.realmId();
+            this.createdAt = job.createdAt();
+            this.results = new ArrayList<>(job.results() == null ? List.of() : job.results());
+            this.status = job.status();
+            this.total = job.total();
+            this.succeeded = job.succeeded();
+            this.failed = job.failed();
+            this.message = job.message();
+            this.updatedAt = job.updatedAt();
+        }
+
+        synchronized Job snapshot(boolean withResults) {
+            return new Job(id, type, realmId, status, total, succeeded, failed,
+                withResults ? List.copyOf(results) : List.of(), message, createdAt, updatedAt);
+        }
+
+        synchronized void start() {
+            status = Job.RUNNING;
+            updatedAt = System.currentTimeMillis();
+        }
+
+        synchronized void total(int total) {
+            this.total = Math.max(0, total);
+            updatedAt = System.currentTimeMillis();
+        }
+
+        synchronized void item(Map<String, Object> result, boolean ok) {
+            if (result != null) {
+                results.add(result);
+            }
+            if (ok) {
+                succeeded++;
+            } else {
+                failed++;
+            }
+            updatedAt = System.currentTimeMillis();
+        }
+
+        synchronized void finish(String status, String message) {
+            this.status = status;
+            this.message = message;
+            updatedAt = System.currentTimeMillis();
+        }
+
+        synchronized boolean logDue(long now) {
+            if (now - loggedAt < PROGRESS_LOG_MILLIS) {
+                return false;
+            }
+            loggedAt = now;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.quickbooks.demo.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The subset of the QBO query language the local entity mirror answers:
+ *
+ * <pre>
+ * select * | count(*) | Field, ... from Entity
+ *   [where Cond and Cond ...] [orderby Field [asc|desc]] [startposition n] [maxresults n]
+ * Cond: Field (= | &lt; | &gt; | &lt;= | &gt;=) Literal | Field in (Literal, ...)
+ * </pre>
+ *
+ * Literals are quoted strings, numbers, {@code true} and {@code false}. Anything else
+ * ({@code or}, {@code like}, {@code !=}, functions) is not parsed, and the query goes to QBO.
+ */
+public record MirrorQuery(String entity, List<String> fields, boolean count, List<Condition> conditions,
+                          String orderBy, boolean descending, int startPosition, int maxResults) {
+
+    /** QBO's page size when a query has no MAXRESULTS, and its maximum. */
+    static final int DEFAULT_MAX_RESULTS = 100;
+    static final int MAX_RESULTS = 1000;
+
+    public enum Op { EQ, LT, GT, LE, GE, IN }
+
+    /** {@code values} holds String, BigDecimal or Boolean literals; one unless {@code op} is IN. */
+    public record Condition(String field, Op op, List<Object> values) {}
+
+    /** True when any condition is on {@code field} (case-insensitive). */
+    public boolean constrains(String field) {
+        return conditions.stream().anyMatch(c -> c.field().equalsIgnoreCase(field));
+    }
+
+    /** The parsed query, or null when it uses anything outside the supported subset. */
+    public static MirrorQuery parse(String query) {
+        if (query == null) {
+            return null;
+        }
+        try {
+            return new Parser(query).query();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class Parser {
+        private final String in;
+        private int pos;
+
+        Parser(String in) {
+            this.in = in;
+        }
+
+        MirrorQuery query() {
+            keyword("select");
+            List<String> fields = new ArrayList<>();
+            boolean count = false;
+            if (accept("*")) {
+                // all fields
+            } else if (peekWord().equalsIgnoreCase("count")) {
+                word();
+                expect("(");
+                expect("*");
+                expect(")");
+                count = true;
+            } else {
+                do {
+                    fields.add(field());
+                } while (accept(","));
+            }
+            keyword("from");
+            String entity = word();
+
+            List<Condition> conditions = new ArrayList<>();
+            String orderBy = null;
+            boolean descending = false;
+            int start = 1;
+            int max = DEFAULT_MAX_RESULTS;
+            if (acceptKeyword("where")) {
+                do {
+                    conditions.add(condition());
+                } while (acceptKeyword("and"));
+            }
+            if (acceptKeyword("orderby")) {
+                orderBy = field();
+                if (acceptKeyword("desc")) {
+                    descending = true;
+                } else {
+                    acceptKeyword("asc");
+                }
+            }
+            if (acceptKeyword("startposition")) {
+                start = number(1, Integer.MAX_VALUE);
+            }
+            if (acceptKeyword("maxresults")) {
+                max = number(1, MAX_RESULTS);
+            }
+            skipSpace();
+            if (pos != in.length()) {
+                throw new IllegalArgumentException("Unexpected '" + in.substring(pos) + "'");
+            }
+            return new MirrorQuery(entity, List.copyOf(fields), count, List.copyOf(conditions),
+                orderBy, descending, start, max);
+        }
+
+        private Condition condition() {
+            String field = field();
+            skipSpace();
+            if (acceptKeyword("in")) {
+                expect("(");
+                List<Object> values = new ArrayList<>();
+                do {
+                    values.add(literal());
+                } while (accept(","));
+                expect(")");
+                return new Condition(field, Op.IN, values);
+            }
+            Op op;
+            if (accept("<=")) {
+                op = Op.LE;
+            } else if (accept(">=")) {
+                op = Op.GE;
+            } else if (accept("<>") || accept("!=")) {
+                throw new IllegalArgumentException("Unsupported operator");
+            } else if (accept("=")) {
+                op = Op.EQ;
+            } else if (accept("<")) {
+                op = Op.LT;
+            } else if (accept(">")) {
+                op = Op.GT;
+            } else {
+                throw new IllegalArgumentException("Unsupported operator");
+            }
+            return new Condition(field, op, List.of(literal()));
+        }
+
+        private Object literal() {
+            skipSpace();
+            if (pos < in.length() && in.charAt(pos) == '\'') {
+                StringBuilder value = new StringBuilder();
+                pos++;
+                while (pos < in.length()) {
+                    char c = in.charAt(pos++);
+                    if (c == '\\' && pos < in.length()) {
+                        value.append(in.charAt(pos++));
+                    } else if (c == '\'') {
+                        return value.toString();
+                    } else {
+                        value.append(c);
+                    }
+                }
+                throw new IllegalArgumentException("Unterminated string");
+            }
+            String word = word();
+            if (word.equalsIgnoreCase("true") || word.equalsIgnoreCase("false")) {
+                return Boolean.valueOf(word.toLowerCase(Locale.ROOT));
+            }
+            return new BigDecimal(word);
+        }
+
+        /** A field name, possibly dotted (MetaData.LastUpdatedTime). */
+        private String field() {
+            String field = word();
+            if (!Character.isLetter(field.charAt(0))) {
+                throw new IllegalArgumentException("Not a field: " + field);
+            }
+            return field;
+        }
+
+        private int number(int min, int max) {
+            int n = Integer.parseInt(word());
+            if (n < min || n > max) {
+                throw new IllegalArgumentException("Out of range: " + n);
+            }
+            return n;
+        }
+
+        private String word() {
+            skipSpace();
+            int start = pos;
+            while (pos < in.length()) {
+                char c = in.charAt(pos);
+                if (!Character.isLetterOrDigit(c) && c != '.' && c != '_' && c != '-') {
+                    break;
+                }
+                pos++;
+            }
+            if (start == pos) {
+                throw new IllegalArgumentException("Expected a word at " + pos);
+            }
+            return in.substring(start, pos);
+        }
+
+        private String peekWord() {
+            int saved = pos;
+            try {
+                return word();
+            } catch (IllegalArgumentException e) {
+                return "";
+            } finally {
+                pos = saved;
+            }
+        }
+
+        private void keyword(String keyword) {
+            if (!acceptKeyword(keyword)) {
+                throw new IllegalArgumentException("Expected " + keyword);
+            }
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            int saved = pos;
+            if (peekWord().equalsIgnoreCase(keyword)) {
+                word();
+                return true;
+            }
+            pos = saved;
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token)) {
+                throw new IllegalArgumentException("Expected '" + token + "'");
+            }
+        }
+
+        private boolean accept(String token) {
+            skipSpace();
+            if (in.startsWith(token, pos)) {
+                pos += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void skipSpace() {
+            while (pos < in.length() && Character.isWhitespace(in.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.quickbooks.demo.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * One mirrored entity of one realm: rows (QBO JSON objects) by Id plus sorted secondary indexes
+ * on selected fields. Equality, {@code in} and range conditions on indexed fields pick the
+ * candidate rows; every condition is then checked on each candidate.
+ *
+ * Field paths resolve like QBO's: dotted paths walk nested objects and a reference
+ * ({@code ParentRef}) compares by its {@code value}. Strings compare case-insensitively.
+ * Stored rows are shared with query results and must not be modified.
+ */
+public final class MirrorTable {
+
+    /** Orders normalized keys: booleans, then numbers, then (lower-cased) strings. */
+    static final Comparator<Object> KEY_ORDER = (a, b) -> {
+        int rank = Integer.compare(rank(a), rank(b));
+        if (rank != 0) {
+            return rank;
+        }
+        if (a instanceof BigDecimal x) {
+            return x.compareTo((BigDecimal) b);
+        }
+        if (a instanceof Boolean x) {
+            return x.compareTo((Boolean) b);
+        }
+        return ((String) a).compareTo((String) b);
+    };
+
+    private final String entity;
+    private final List<String> indexed;
+    private final Map<String, JsonNode> rows = new HashMap<>();
+    private final Map<String, NavigableMap<Object, Set<String>>> indexes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MirrorTable(String entity, List<String> indexed) {
+        this.entity = entity;
+        this.indexed = indexed;
+        for (String field : indexed) {
+            indexes.put(field.toLowerCase(Locale.ROOT), new TreeMap<>(KEY_ORDER));
+        }
+    }
+
+    public String entity() {
+        return entity;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Inserts or replaces the row with the same Id. */
+    public void put(JsonNode row) {
+        String id = row.path("Id").asText(null);
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unindex(id, rows.put(id, row));
+            index(id, row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            unindex(id, rows.remove(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Replaces every row (a full load). */
+    public void replaceAll(Collection<JsonNode> all) {
+        lock.writeLock().lock();
+        try {
+            rows.clear();
+            indexes.values().forEach(Map::clear);
+            for (JsonNode row : all) {
+                String id = row.path("Id").asText(null);
+                if (id != null) {
+                    unindex(id, rows.put(id, row));
+                    index(id, row);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@code query} and returns a QBO-shaped response: {@code QueryResponse} with the page
+     * of rows under the entity name (omitted when empty), or {@code totalCount} for count(*).
+     */
+    public ObjectNode answer(MirrorQuery query) {
+        List<JsonNode> matches;
+        lock.readLock().lock();
+        try {
+            matches = select(query.conditions());
+        } finally {
+            lock.readLock().unlock();
+        }
+        ObjectNode root = JsonNodeFactory.instance.objectNode();
+        ObjectNode response = root.putObject("QueryResponse");
+        if (query.count()) {
+            response.put("totalCount", matches.size());
+            return root;
+        }
+        Comparator<JsonNode> order = query.orderBy() != null
+            ? Comparator.comparing((JsonNode row) -> key(resolve(row, query.orderBy())), Comparator.nullsFirst(KEY_ORDER))
+            : Comparator.comparing((JsonNode row) -> row.path("Id").asText(), MirrorTable::compareIds);
+        matches.sort(query.descending() ? order.reversed() : order);
+        int from = Math.min(matches.size(), query.startPosition() - 1);
+        int to = Math.min(matches.size(), from + query.maxResults());
+        if (from < to) {
+            ArrayNode page = response.putArray(entity);
+            for (JsonNode row : matches.subList(from, to)) {
+                page.add(query.fields().isEmpty() ? row : project(row, query.fields()));
+            }
+            response.put("startPosition", query.startPosition());
+            response.put("maxResults", to - from);
+        }
+        return root;
+    }
+
+    /** Rows matching every condition; holds the read lock. */
+    private List<JsonNode> select(List<MirrorQuery.Condition> conditions) {
+        Set<String> candidates = null;
+        for (MirrorQuery.Condition condition : conditions) {
+            NavigableMap<Object, Set<String>> index = indexes.get(condition.field().toLowerCase(Locale.ROOT));
+            if (index == null) {
+                continue;
+            }
+            Set<String> ids = lookup(index, condition);
+            if (ids == null) {
+                continue;
+            }
+            candidates = candidates == null || ids.size() < candidates.size()
+                ? intersect(ids, candidates) : intersect(candidates, ids);
+            if (candidates.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+        Collection<JsonNode> scan = candidates == null ? rows.values() : candidates.stream().map(rows::get).toList();
+        List<JsonNode> out = new ArrayList<>();
+        for (JsonNode row : scan) {
+            if (matches(row, conditions)) {
+                out.add(row);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Ids the index holds for {@code condition}, or null when the index cannot answer it (a range
+     * whose bound is of another type than the indexed values).
+     */
+    private static Set<String> lookup(NavigableMap<Object, Set<String>> index, MirrorQuery.Condition condition) {
+        Set<String> ids = new HashSet<>();
+        switch (condition.op()) {
+            case EQ, IN -> {
+                for (Object value : condition.values()) {
+                    for (Object key : alternatives(normalize(value))) {
+                        ids.addAll(index.getOrDefault(key, Set.of()));
+                    }
+                }
+            }
+            default -> {
+                Object bound = normalize(condition.values().get(0));
+                if (!index.isEmpty() && (rank(index.firstKey()) != rank(bound) || rank(index.lastKey()) != rank(bound))) {
+                    return null;
+                }
+                NavigableMap<Object, Set<String>> range = switch (condition.op()) {
+                    case LT -> index.headMap(bound, false);
+                    case LE -> index.headMap(bound, true);
+                    case GT -> index.tailMap(bound, false);
+                    default -> index.tailMap(bound, true);
+                };
+                range.values().forEach(ids::addAll);
+            }
+        }
+        return ids;
+    }
+
+    /** The keys an equality literal can match: 58 also matches '58', 'true' also matches true. */
+    private static List<Object> alternatives(Object literal) {
+        if (literal instanceof BigDecimal d) {
+            return List.of(d, d.toPlainString());
+        }
+        if (literal instanceof String s) {
+            if (s.equals("true") || s.equals("false")) {
+                return List.of(s, Boolean.valueOf(s));
+            }
+            try {
+                return List.of(s, new BigDecimal(s).stripTrailingZeros());
+            } catch (NumberFormatException e) {
+                return List.of(s);
+            }
+        }
+        return List.of(literal);
+    }
+
+    /** {@code small} minus anything not in {@code other} (all of it when other is null). */
+    private static Set<String> intersect(Set<String> small, Set<String> other) {
+        if (other == null) {
+            return small;
+        }
+        Set<String> out = new HashSet<>(small);
+        out.retainAll(other);
+        return out;
+    }
+
+    static boolean matches(JsonNode row, List<MirrorQuery.Condition> conditions) {
+        for (MirrorQuery.Condition condition : conditions) {
+            Object actual = key(resolve(row, condition.field()));
+            if (actual == null) {
+                return false;
+            }
+            boolean ok = switch (condition.op()) {
+                case EQ, IN -> condition.values().stream().anyMatch(v -> compare(actual, normalize(v)) == 0);
+                case LT -> compare(actual, normalize(condition.values().get(0))) < 0;
+                case LE -> compare(actual, normalize(condition.values().get(0))) <= 0;
+                case GT -> compare(actual, normalize(condition.values().get(0))) > 0;
+                case GE -> compare(actual, normalize(condition.values().get(0))) >= 0;
+            };
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Compares a row value with a literal; numbers and numeric text compare as numbers. */
+    private static int compare(Object actual, Object literal) {
+        if (literal instanceof BigDecimal && actual instanceof String text) {
+            try {
+                return new BigDecimal(text).compareTo((BigDecimal) literal);
+            } catch (NumberFormatException e) {
+                // compare as text
+            }
+        }
+        if (literal instanceof String text && actual instanceof BigDecimal number) {
+            try {
+                return number.compareTo(new BigDecimal(text));
+            } catch (NumberFormatException e) {
+                // compare as text
+            }
+        }
+        if (literal instanceof String text && actual instanceof Boolean) {
+            literal = Boolean.valueOf(text);
+        }
+        return KEY_ORDER.compare(actual, literal);
+    }
+
+    private void index(String id, JsonNode row) {
+        for (String field : indexed) {
+            Object key = key(resolve(row, field));
+            if (key != null) {
+                indexes.get(field.toLowerCase(Locale.ROOT)).computeIfAbsent(key, k -> new HashSet<>()).add(id);
+            }
+        }
+    }
+
+    private void unindex(String id, JsonNode previous) {
+        if (previous == null) {
+            return;
+        }
+        for (String field : indexed) {
+            Object key = key(resolve(previous, field));
+            NavigableMap<Object, Set<String>> index = indexes.get(field.toLowerCase(Locale.ROOT));
+            Set<String> ids = key != null ? index.get(key) : null;
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /** The node at a dotted, case-insensitive path; a reference resolves to its value. */
+    static JsonNode resolve(JsonNode row, String path) {
+        JsonNode node = row;
+        for (String part : path.split("\\.")) {
+            node = child(node, part);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node.isObject() && node.has("value") ? node.get("value") : node;
+    }
+
+    private static JsonNode child(JsonNode node, String name) {
+        if (!node.isObject()) {
+            return null;
+        }
+        JsonNode exact = node.get(name);
+        if (exact != null) {
+            return exact;
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getKey().equalsIgnoreCase(name)) {
+                return field.getValue();
+            }
+        }
+        return null;
+    }
+
+    /** Normalized comparable form of a JSON scalar, or null for missing, null and containers. */
+    static Object key(JsonNode node) {
+        if (node == null || node.isNull() || node.isContainerNode()) {
+            return null;
+        }
+        if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        if (node.isNumber()) {
+            return node.decimalValue().stripTrailingZeros();
+        }
+        return node.asText().toLowerCase(Locale.ROOT);
+    }
+
+    private static Object normalize(Object literal) {
+        if (literal instanceof String s) {
+            return s.toLowerCase(Locale.ROOT);
+        }
+        if (literal instanceof BigDecimal d) {
+            return d.stripTrailingZeros();
+        }
+        return literal;
+    }
+
+    private static ObjectNode project(JsonNode row, List<String> fields) {
+        ObjectNode out = JsonNodeFactory.instance.objectNode();
+        for (String field : fields) {
+            String top = field.split("\\.")[0];
+            Iterator<Map.Entry<String, JsonNode>> it = row.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> entry = it.next();
+                if (entry.getKey().equalsIgnoreCase(top)) {
+                    out.set(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return out;
+    }
+
+    /** QBO ids are numeric strings: shorter first, then lexicographic. */
+    private static int compareIds(String a, String b) {
+        return a.length() != b.length() ? Integer.compare(a.length(), b.length()) : a.compareTo(b);
+    }
+
+    private static int rank(Object key) {
+        if (key instanceof Boolean) {
+            return 0;
+        }
+        return key instanceof BigDecimal ? 1 : 2;
+    }
+}
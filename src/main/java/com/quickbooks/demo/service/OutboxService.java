@@ -0,0 +1,611 @@
+package com.quickbooks.demo.service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.OutboxEntry;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.model.TxnPayload;
+import com.quickbooks.demo.service.client.IdempotencyLedger;
+import com.quickbooks.demo.service.client.OutboundScheduler;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Write-behind creation of estimates, sales receipts and bills.
+ *
+ * A submit validates and builds the request body, appends it to {@code outbox.ndjson} under
+ * {@code outbox-dir} and returns once the line is on disk. Appends are group-committed: while one
+ * thread writes and fsyncs a batch, later appends gather into the next batch, so concurrent
+ * submits share an fsync. Each realm has a lane that sends its entries one at a time in
+ * acceptance order. Each entry is posted once per attempt with its id as the QBO {@code requestid},
+ * so retries and replays after a restart are deduplicated by QBO, while two submits with identical
+ * bodies stay two transactions. The id comes from the submission key (form nonce or
+ * {@code Idempotency-Key}), so a resubmit returns the entry it already created. Throttling and server errors are retried with exponential backoff up to
+ * {@code outbox-max-attempts}; other 4xx responses fail the entry at once. A 401 parks the lane
+ * until a fresh token for the realm arrives through {@link #updateToken}. Tokens are kept in
+ * memory only, so entries found pending at startup wait for the realm to reconnect.
+ *
+ * Metrics: {@code qbo.outbox.fsync} and {@code qbo.outbox.fsync.batch} (entries per fsync),
+ * {@code qbo.outbox.pending} and {@code qbo.outbox.outcomes} by outcome.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    static final String LOG_FILE = "outbox.ndjson";
+    static final int DRAINERS = 2;
+    /** Finished entries kept (in memory and in the compacted log) for status lookups. */
+    static final int HISTORY = 500;
+    static final long MAX_BACKOFF_MILLIS = 5 * 60 * 1000L;
+
+    public enum Kind {
+        ESTIMATE("estimate", "Estimate", "/estimate"),
+        SALES_RECEIPT("sales-receipt", "SalesReceipt", "/salesreceipt"),
+        BILL("bill", "Bill", "/bill");
+
+        public final String slug;
+        final String entity;
+        final String path;
+
+        Kind(String slug, String entity, String path) {
+            this.slug = slug;
+            this.entity = entity;
+            this.path = path;
+        }
+
+        public static Kind from(String type) {
+            String t = type == null ? "" : type.trim().toLowerCase(Locale.ROOT);
+            for (Kind kind : values()) {
+                if (kind.slug.equals(t) || kind.slug.replace("-", "").equals(t)) {
+                    return kind;
+                }
+            }
+            throw new RuntimeException("Unknown outbox type '" + type + "' (use estimate, sales-receipt or bill)");
+        }
+    }
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @Autowired
+    private QuickBooksApiService apiService;
+
+    @Autowired
+    private QuickBooksRestClient restClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    private ProjectRollupService rollups;
+
+    private final Map<String, OutboxEntry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+    /** Entries whose accept record is not yet on disk; their lane waits for them. */
+    private final Set<String> accepting = ConcurrentHashMap.newKeySet();
+    private final AtomicLong seq = new AtomicLong();
+
+    private final ReentrantLock logLock = new ReentrantLock();
+    private final Condition batchDone = logLock.newCondition();
+    private Batch open = new Batch();
+    private boolean syncing;
+    private FileChannel channel;
+    private long logLines;
+
+    private volatile boolean loaded;
+    private volatile ScheduledExecutorService drainers;
+    private volatile Metrics metrics;
+
+    /**
+     * Queues an estimate. {@code submissionKey} identifies the submission (see
+     * {@link IdempotencyLedger#submissionId}); resubmitting it returns the entry already queued.
+     */
+    public OutboxEntry submitEstimate(String accessToken, String realmId, String customerId, String itemId,
+                                      String projectId, int quantity, double unitPrice, String description,
+                                      String submissionKey) {
+        requireToken(accessToken);
+        return accept(accessToken, realmId, Kind.ESTIMATE,
+            apiService.estimatePayload(realmId, customerId, itemId, projectId, quantity, unitPrice, description), submissionKey);
+    }
+
+    public OutboxEntry submitSalesReceipt(String accessToken, String realmId, String customerId, String itemId,
+                                          String projectId, int quantity, double unitPrice, String description,
+                                          String submissionKey) {
+        requireToken(accessToken);
+        return accept(accessToken, realmId, Kind.SALES_RECEIPT,
+            apiService.salesReceiptPayload(realmId, customerId, itemId, projectId, quantity, unitPrice, description), submissionKey);
+    }
+
+    public OutboxEntry submitBill(String accessToken, String realmId, String vendorId, String expenseAccountId,
+                                  String projectId, double amount, String description, String submissionKey) {
+        requireToken(accessToken);
+        return accept(accessToken, realmId, Kind.BILL,
+            apiService.billPayload(realmId, vendorId, expenseAccountId, projectId, amount, description), submissionKey);
+    }
+
+    /** The entry, or null if unknown or owned by another realm. */
+    public OutboxEntry get(String id, String realmId) {
+        load();
+        OutboxEntry entry = id == null ? null : entries.get(id);
+        return entry == null || !entry.realmId().equals(realmId) ? null : entry;
+    }
+
+    /** Entries of {@code realmId}, newest first. */
+    public List<OutboxEntry> list(String realmId) {
+        load();
+        return entries.values().stream()
+            .filter(e -> e.realmId().equals(realmId))
+            .sorted(Comparator.comparingLong(OutboxEntry::seq).reversed())
+            .toList();
+    }
+
+    /** Records the realm's current access token and resumes its lane if it was waiting for one. */
+    public void updateToken(String realmId, String accessToken) {
+        if (realmId == null || accessToken == null || accessToken.isBlank()) {
+            return;
+        }
+        tokens.put(realmId, accessToken);
+        load();
+        Lane lane = lanes.get(realmId);
+        if (lane != null) {
+            schedule(lane, 0);
+        }
+    }
+
+    private OutboxEntry accept(String accessToken, String realmId, Kind kind, TxnPayload payload, String submissionKey) {
+        load();
+        JsonNode body;
+        try {
+            // Parsed back from its bytes, so the body is identical to what a replay of the log yields
+            body = objectMapper.readTree(objectMapper.writeValueAsBytes(payload));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize payload: " + e.getMessage(), e);
+        }
+        String id = IdempotencyLedger.submissionId(realmId, kind.path, submissionKey);
+        Lane lane = lanes.computeIfAbsent(realmId, Lane::new);
+        long now = System.currentTimeMillis();
+        OutboxEntry entry;
+        // Sequence and lane position are taken together so the lane sends in sequence order
+        synchronized (lane) {
+            // A resubmitted form or Idempotency-Key is the entry already queued (or sent)
+            OutboxEntry existing = entries.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            entry = new OutboxEntry(id, seq.incrementAndGet(), realmId, kind.slug,
+                OutboxEntry.PENDING, body, 0, null, null, null, null, now, now);
+            entries.put(entry.id(), entry);
+            accepting.add(entry.id());
+            lane.queue.add(entry.id());
+        }
+        try {
+            persist(entry);
+        } catch (RuntimeException e) {
+            synchronized (lane) {
+                lane.queue.remove(entry.id());
+                accepting.remove(entry.id());
+            }
+            entries.remove(entry.id());
+            schedule(lane, 0);
+            throw e;
+        }
+        tokens.put(realmId, accessToken);
+        synchronized (lane) {
+            accepting.remove(entry.id());
+        }
+        schedule(lane, 0);
+        return entry;
+    }
+
+    private void schedule(Lane lane, long delayMillis) {
+        synchronized (lane) {
+            if (lane.scheduled) {
+                return;
+            }
+            lane.scheduled = true;
+        }
+        drainers().schedule(() -> drain(lane), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Sends the head of the lane once, records the outcome and schedules the next step. */
+    private void drain(Lane lane) {
+        String id;
+        String token;
+        synchronized (lane) {
+            id = lane.queue.peek();
+            token = tokens.get(lane.realmId);
+            // Idle, head not yet durable, or no token: the next accept / updateToken reschedules
+            if (id == null || accepting.contains(id) || token == null) {
+                lane.scheduled = false;
+                return;
+            }
+        }
+        OutboxEntry entry = entries.get(id);
+        Kind kind = Kind.from(entry.type());
+        Metrics m = metrics();
+        long now;
+        OutboxEntry next;
+        JsonNode created = null;
+        long delay = 0;
+        try {
+            String body;
+            try (OutboundScheduler.Scope scope = OutboundScheduler.tag(lane.realmId, OutboundScheduler.Priority.BACKGROUND)) {
+                // The entry id is the submission's durable requestid; retries are this loop's, not the client's
+                body = restClient.postJsonOnce(QuickBooksContext.of(token, lane.realmId), kind.path, entry.payload(), entry.id());
+            }
+            JsonNode txn = objectMapper.readTree(body).path(kind.entity);
+            now = System.currentTimeMillis();
+            next = entry.sent(txn.path("Id").asText(null), txn.path("DocNumber").asText(null),
+                txn.path("TotalAmt").decimalValue(), now);
+            m.outcome("sent").increment();
+            created = txn;
+        } catch (IOException e) {
+            now = System.currentTimeMillis();
+            next = entry.failed("Unreadable QuickBooks response: " + e.getMessage(), now);
+            m.outcome("failed").increment();
+        } catch (RuntimeException e) {
+            now = System.currentTimeMillis();
+            HttpClientErrorException http = clientError(e);
+            int status = http == null ? 0 : http.getStatusCode().value();
+            if (status == 401) {
+                // Park until the realm reconnects or refreshes; the attempt does not count
+                log.info("Outbox lane for realm {} waiting for a new access token", lane.realmId);
+                tokens.remove(lane.realmId, token);
+                synchronized (lane) {
+                    lane.scheduled = false;
+                }
+                if (tokens.containsKey(lane.realmId)) {
+                    schedule(lane, 0);
+                }
+                return;
+            }
+            boolean permanent = http != null && status != 408 && status != 429;
+            if (permanent || entry.attempts() + 1 >= Math.max(1, config.getOutboxMaxAttempts())) {
+                next = entry.failed(e.getMessage(), now);
+                m.outcome("failed").increment();
+            } else {
+                next = entry.retrying(e.getMessage(), now);
+                delay = backoff(next.attempts());
+                m.outcome("retried").increment();
+            }
+        }
+        entries.put(next.id(), next);
+        try {
+            persist(next);
+        } catch (RuntimeException e) {
+            log.warn("Outbox entry {} outcome not persisted: {}", next.id(), e.getMessage());
+        }
+        if (created != null) {
+            // Outside the send's try: a rollup failure must not turn a sent entry into a retry
+            try {
+                rollups.created(lane.realmId, kind.entity, created);
+            } catch (RuntimeException e) {
+                log.warn("Outbox {} {}: project rollup not updated: {}", kind.slug, id, e.getMessage());
+            }
+        }
+        if (next.isFinished()) {
+            synchronized (lane) {
+                lane.queue.remove(id);
+            }
+            if (next.status().equals(OutboxEntry.FAILED)) {
+                log.warn("Outbox {} {} for realm {} failed: {}", kind.slug, id, lane.realmId, next.error());
+            }
+        }
+        drainers().schedule(() -> drain(lane), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private long backoff(int attempts) {
+        long base = Math.max(1, config.getOutboxRetryDelayMillis());
+        return Math.min(MAX_BACKOFF_MILLIS, base << Math.min(attempts - 1, 16));
+    }
+
+    private static HttpClientErrorException clientError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpClientErrorException http) {
+                return http;
+            }
+        }
+        return null;
+    }
+
+    private static void requireToken(String accessToken) {
+        if (accessToken == null || accessToken.trim().isEmpty()) {
+            throw new RuntimeException("Access token is required");
+        }
+    }
+
+    /**
+     * Appends {@code entry} to the log and returns once it is fsynced. The first caller to find
+     * no write in progress writes every line gathered so far; the rest wait for its batch.
+     */
+    private void persist(OutboxEntry entry) {
+        byte[] line;
+        try {
+            line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize outbox entry: " + e.getMessage(), e);
+        }
+        Batch batch;
+        logLock.lock();
+        try {
+            batch = open;
+            batch.lines.add(line);
+            while (!batch.done) {
+                if (syncing) {
+                    batchDone.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                Batch writing = open;
+                open = new Batch();
+                logLock.unlock();
+                Exception failure = null;
+                try {
+                    write(writing.lines);
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                } finally {
+                    logLock.lock();
+                }
+                writing.failure = failure;
+                writing.done = true;
+                syncing = false;
+                batchDone.signalAll();
+            }
+        } finally {
+            logLock.unlock();
+        }
+        if (batch.failure != null) {
+            throw new RuntimeException("Failed to write outbox log: " + batch.failure.getMessage(), batch.failure);
+        }
+    }
+
+    /** Only called by the thread holding the {@code syncing} flag. */
+    private void write(List<byte[]> lines) throws IOException {
+        if (channel == null) {
+            throw new IOException("outbox log is not open");
+        }
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        for (byte[] line : lines) {
+            buf.write(line);
+        }
+        Metrics m = metrics();
+        long start = System.nanoTime();
+        ByteBuffer bytes = ByteBuffer.wrap(buf.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+        m.fsync.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        m.batchSize.record(lines.size());
+        logLines += lines.size();
+        if (logLines > Math.max(10_000, 4L * entries.size())) {
+            compact();
+        }
+    }
+
+    /** Replays the log once: newest record per entry wins; pending entries are queued per realm by sequence. */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            Map<String, OutboxEntry> latest = new LinkedHashMap<>();
+            Path path = logPath();
+            if (Files.exists(path)) {
+                try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    String text;
+                    while ((text = reader.readLine()) != null) {
+                        if (text.isBlank()) {
+                            continue;
+                        }
+                        try {
+                            OutboxEntry entry = objectMapper.readValue(text, OutboxEntry.class);
+                            latest.put(entry.id(), entry);
+                        } catch (IOException e) {
+                            // A torn last line from a crash mid-write; its submit was never acknowledged
+                            log.warn("Skipping unreadable outbox log line: {}", e.getMessage());
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to read outbox log " + path + ": " + e.getMessage(), e);
+                }
+            }
+            List<OutboxEntry> ordered = new ArrayList<>(latest.values());
+            ordered.sort(Comparator.comparingLong(OutboxEntry::seq));
+            int pending = 0;
+            for (OutboxEntry entry : ordered) {
+                entries.put(entry.id(), entry);
+                seq.accumulateAndGet(entry.seq(), Math::max);
+                if (!entry.isFinished()) {
+                    lanes.computeIfAbsent(entry.realmId(), Lane::new).queue.add(entry.id());
+                    pending++;
+                }
+            }
+            logLock.lock();
+            try {
+                compact();
+                if (channel == null) {
+                    throw new RuntimeException("Failed to open outbox log " + path);
+                }
+            } finally {
+                logLock.unlock();
+            }
+            loaded = true;
+            if (!latest.isEmpty()) {
+                log.info("Outbox restored {} entries ({} pending) from {}", latest.size(), pending, path);
+            }
+        }
+    }
+
+    /** Drops the oldest finished entries beyond {@link #HISTORY} and rewrites the log. */
+    private void compact() {
+        List<OutboxEntry> finished = new ArrayList<>(entries.values().stream().filter(OutboxEntry::isFinished).toList());
+        finished.sort(Comparator.comparingLong(OutboxEntry::seq));
+        for (int i = 0; i < finished.size() - HISTORY; i++) {
+            entries.remove(finished.get(i).id());
+        }
+        Path path = logPath();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+            Files.createDirectories(path.getParent());
+            Path tmp = path.resolveSibling(LOG_FILE + ".tmp");
+            List<OutboxEntry> retained = entries.values().stream()
+                .sorted(Comparator.comparingLong(OutboxEntry::seq)).toList();
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (OutboxEntry entry : retained) {
+                    ByteBuffer bytes = ByteBuffer.wrap((objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+                    while (bytes.hasRemaining()) {
+                        out.write(bytes);
+                    }
+                }
+                out.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            logLines = retained.size();
+        } catch (IOException e) {
+            log.warn("Failed to rewrite outbox log {}: {}", path, e.getMessage());
+            try {
+                if (channel == null) {
+                    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+            } catch (IOException reopen) {
+                log.warn("Outbox log {} unavailable: {}", path, reopen.getMessage());
+            }
+        }
+    }
+
+    private Path logPath() {
+        return Path.of(config.getOutboxDir(), LOG_FILE);
+    }
+
+    private ScheduledExecutorService drainers() {
+        ScheduledExecutorService pool = drainers;
+        if (pool == null) {
+            synchronized (this) {
+                if (drainers == null) {
+                    AtomicInteger n = new AtomicInteger();
+                    drainers = new ScheduledThreadPoolExecutor(DRAINERS, r -> {
+                        Thread t = new Thread(r, "outbox-drain-" + n.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+                pool = drainers;
+            }
+        }
+        return pool;
+    }
+
+    private Metrics metrics() {
+        Metrics m = metrics;
+        if (m == null) {
+            synchronized (this) {
+                if (metrics == null) {
+                    metrics = new Metrics(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+                }
+                m = metrics;
+            }
+        }
+        return m;
+    }
+
+    /** One realm's FIFO of pending entry ids; at most one drain step is scheduled at a time. */
+    static final class Lane {
+        final String realmId;
+        final Deque<String> queue = new ArrayDeque<>();
+        boolean scheduled;
+
+        Lane(String realmId) {
+            this.realmId = realmId;
+        }
+
+        synchronized int size() {
+            return queue.size();
+        }
+    }
+
+    private static final class Batch {
+        final List<byte[]> lines = new ArrayList<>();
+        boolean done;
+        Exception failure;
+    }
+
+    private final class Metrics {
+        final MeterRegistry registry;
+        final Timer fsync;
+        final DistributionSummary batchSize;
+
+        Metrics(MeterRegistry registry) {
+            this.registry = registry;
+            this.fsync = Timer.builder("qbo.outbox.fsync")
+                .description("Time to write and fsync one batch of outbox records")
+                .register(registry);
+            this.batchSize = DistributionSummary.builder("qbo.outbox.fsync.batch")
+                .description("Outbox records made durable per fsync")
+                .register(registry);
+            Gauge.builder("qbo.outbox.pending", OutboxService.this, s -> s.lanes.values().stream().mapToInt(Lane::size).sum())
+                .description("Outbox entries not yet sent")
+                .register(registry);
+        }
+
+        Counter outcome(String outcome) {
+            return Counter.builder("qbo.outbox.outcomes").tag("outcome", outcome).register(registry);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.quickbooks.demo.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable typeahead index over entity names.
+ *
+ * Two sorted arrays are kept: normalized full names, and every name token. A query matches a
+ * name when it is a prefix of the full name (ranked first, alphabetically) or when each query
+ * token is a prefix of some token in the name ("smith john" finds "John Smith"). Lookups are
+ * binary searches plus a scan that stops once {@code limit} results are found.
+ */
+public final class PrefixIndex<T> {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern APOSTROPHES = Pattern.compile("['\u2019]");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final List<T> docs;
+    private final String[] normalized;
+    private final String[] nameKeys;
+    private final int[] nameDocs;
+    private final String[] tokenKeys;
+    private final int[] tokenDocs;
+
+    private PrefixIndex(List<T> docs, String[] normalized, String[] nameKeys, int[] nameDocs,
+                        String[] tokenKeys, int[] tokenDocs) {
+        this.docs = docs;
+        this.normalized = normalized;
+        this.nameKeys = nameKeys;
+        this.nameDocs = nameDocs;
+        this.tokenKeys = tokenKeys;
+        this.tokenDocs = tokenDocs;
+    }
+
+    public static <T> PrefixIndex<T> build(List<T> items, Function<T, String> name) {
+        List<T> docs = List.copyOf(items);
+        String[] normalized = new String[docs.size()];
+        List<Entry> names = new ArrayList<>(docs.size());
+        List<Entry> tokens = new ArrayList<>(docs.size() * 2);
+        for (int i = 0; i < docs.size(); i++) {
+            String key = normalize(name.apply(docs.get(i)));
+            normalized[i] = key;
+            if (key.isEmpty()) {
+                continue;
+            }
+            names.add(new Entry(key, i));
+            for (String token : key.split(" ")) {
+                tokens.add(new Entry(token, i));
+            }
+        }
+        Comparator<Entry> order = Comparator.comparing(Entry::key).thenComparingInt(Entry::doc);
+        names.sort(order);
+        tokens.sort(order);
+        return new PrefixIndex<>(docs, normalized,
+            names.stream().map(Entry::key).toArray(String[]::new), names.stream().mapToInt(Entry::doc).toArray(),
+            tokens.stream().map(Entry::key).toArray(String[]::new), tokens.stream().mapToInt(Entry::doc).toArray());
+    }
+
+    /** Lower-case, accents and apostrophes stripped, other punctuation to spaces, whitespace collapsed. */
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String s = Normalizer.normalize(value, Normalizer.Form.NFKD);
+        s = MARKS.matcher(s).replaceAll("");
+        s = APOSTROPHES.matcher(s).replaceAll("");
+        s = NON_WORD.matcher(s.toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return s.trim();
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    /** Up to {@code limit} matches: full-name prefix matches first, then token-prefix matches. */
+    public List<T> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<T> out = new ArrayList<>(Math.min(limit, 16));
+        BitSet taken = new BitSet(docs.size());
+
+        for (int i = lowerBound(nameKeys, q); i < nameKeys.length && out.size() < limit; i++) {
+            if (!nameKeys[i].startsWith(q)) {
+                break;
+            }
+            taken.set(nameDocs[i]);
+            out.add(docs.get(nameDocs[i]));
+        }
+        if (out.size() >= limit) {
+            return out;
+        }
+
+        String[] terms = q.split(" ");
+        // Drive the scan from the most selective term; the rest are verified per candidate
+        String driver = terms[0];
+        int from = lowerBound(tokenKeys, driver);
+        int to = upperBound(tokenKeys, driver);
+        for (String term : terms) {
+            int f = lowerBound(tokenKeys, term);
+            int t = upperBound(tokenKeys, term);
+            if (t - f < to - from) {
+                driver = term;
+                from = f;
+                to = t;
+            }
+        }
+        for (int i = from; i < to && out.size() < limit; i++) {
+            int doc = tokenDocs[i];
+            if (!taken.get(doc) && (terms.length == 1 || matchesAll(normalized[doc], terms))) {
+                taken.set(doc);
+                out.add(docs.get(doc));
+            }
+        }
+        return out;
+    }
+
+    private static boolean matchesAll(String name, String[] terms) {
+        String[] tokens = name.split(" ");
+        for (String term : terms) {
+            boolean found = false;
+            for (String token : tokens) {
+                if (token.startsWith(term)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** First index whose key is &gt;= {@code prefix}. */
+    private static int lowerBound(String[] keys, String prefix) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** First index whose key does not start with {@code prefix}. */
+    private static int upperBound(String[] keys, String prefix) {
+        int lo = lowerBound(keys, prefix);
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private record Entry(String key, int doc) {}
+}
@@ -0,0 +1,138 @@
+package com.quickbooks.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.quickbooks.demo.model.ProjectCustomer;
+
+/**
+ * Immutable name-to-id index over a realm's accounting projects (Customers with
+ * {@code IsProject = true}).
+ *
+ * Names are compared by their {@link PrefixIndex#normalize normalized} key, so case, accents,
+ * punctuation and extra whitespace never cause a miss. When no key matches exactly, trigram
+ * postings give a Dice similarity per candidate; the best one is accepted only if it clears
+ * {@link #MIN_SCORE} and beats the runner-up by {@link #MIN_MARGIN}, otherwise the lookup is a
+ * miss rather than a guess. Both steps are scoped to the parent customer when one is given.
+ */
+public final class ProjectNameIndex {
+
+    static final double MIN_SCORE = 0.8;
+    static final double MIN_MARGIN = 0.1;
+
+    private final List<ProjectCustomer> projects;
+    private final Set<String> ids;
+    private final Map<String, List<Integer>> byKey;
+    private final Map<String, int[]> postings;
+    private final int[] gramCounts;
+
+    private ProjectNameIndex(List<ProjectCustomer> projects, Set<String> ids, Map<String, List<Integer>> byKey,
+                             Map<String, int[]> postings, int[] gramCounts) {
+        this.projects = projects;
+        this.ids = ids;
+        this.byKey = byKey;
+        this.postings = postings;
+        this.gramCounts = gramCounts;
+    }
+
+    public static ProjectNameIndex build(List<ProjectCustomer> items) {
+        List<ProjectCustomer> projects = List.copyOf(items);
+        Set<String> ids = new HashSet<>();
+        Map<String, List<Integer>> byKey = new HashMap<>();
+        Map<String, List<Integer>> grams = new HashMap<>();
+        int[] gramCounts = new int[projects.size()];
+        for (int i = 0; i < projects.size(); i++) {
+            ProjectCustomer p = projects.get(i);
+            ids.add(p.id());
+            String key = PrefixIndex.normalize(p.displayName());
+            if (key.isEmpty()) {
+                continue;
+            }
+            byKey.computeIfAbsent(key, k -> new ArrayList<>(1)).add(i);
+            Set<String> own = trigrams(key);
+            gramCounts[i] = own.size();
+            for (String gram : own) {
+                grams.computeIfAbsent(gram, g -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>(grams.size() * 2);
+        grams.forEach((gram, docs) -> postings.put(gram, docs.stream().mapToInt(Integer::intValue).toArray()));
+        return new ProjectNameIndex(projects, ids, byKey, postings, gramCounts);
+    }
+
+    public int size() {
+        return projects.size();
+    }
+
+    public boolean containsId(String id) {
+        return id != null && ids.contains(id);
+    }
+
+    /**
+     * Id of the project named {@code name} under {@code parentId} (any parent when blank), or null
+     * when there is no exact-key match and no unambiguous fuzzy one.
+     */
+    public String resolve(String name, String parentId) {
+        String key = PrefixIndex.normalize(name);
+        if (key.isEmpty()) {
+            return null;
+        }
+        List<Integer> exact = byKey.get(key);
+        if (exact != null) {
+            for (int doc : exact) {
+                if (inScope(doc, parentId)) {
+                    return projects.get(doc).id();
+                }
+            }
+        }
+
+        Set<String> query = trigrams(key);
+        int[] shared = new int[projects.size()];
+        for (String gram : query) {
+            int[] docs = postings.get(gram);
+            if (docs != null) {
+                for (int doc : docs) {
+                    shared[doc]++;
+                }
+            }
+        }
+        int best = -1;
+        double bestScore = 0;
+        double secondScore = 0;
+        for (int doc = 0; doc < shared.length; doc++) {
+            if (shared[doc] == 0 || !inScope(doc, parentId)) {
+                continue;
+            }
+            double score = 2.0 * shared[doc] / (query.size() + gramCounts[doc]);
+            if (score > bestScore) {
+                secondScore = bestScore;
+                bestScore = score;
+                best = doc;
+            } else if (score > secondScore) {
+                secondScore = score;
+            }
+        }
+        if (best < 0 || bestScore < MIN_SCORE || bestScore - secondScore < MIN_MARGIN) {
+            return null;
+        }
+        return projects.get(best).id();
+    }
+
+    private boolean inScope(int doc, String parentId) {
+        return parentId == null || parentId.isBlank() || parentId.equals(projects.get(doc).parentId());
+    }
+
+    /** Distinct character trigrams of the key, padded so word boundaries count. */
+    static Set<String> trigrams(String key) {
+        String padded = "  " + key + " ";
+        Set<String> grams = new HashSet<>(padded.length() * 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
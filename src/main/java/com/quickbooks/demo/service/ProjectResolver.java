@@ -0,0 +1,101 @@
+package com.quickbooks.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.quickbooks.demo.model.ProjectCustomer;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+/**
+ * Maps project names to accounting project (Customer) ids from a per-realm local index.
+ *
+ * The realm's project Customers are held as a {@link RealmSnapshotStore} dataset and indexed
+ * once per content (ETag). A lookup that misses locally reloads the list once and retries, so
+ * QBO is only queried to verify a miss (typically a project created since the last load).
+ * Loads go through the {@link EntityMirror}, which answers them from its Customer table when current.
+ */
+@Service
+public class ProjectResolver {
+
+    static final String PROJECTS = "projects";
+    static final int PAGE_SIZE = 1000;
+
+    @Autowired
+    private QuickBooksRestClient restClient;
+
+    @Autowired
+    private RealmSnapshotStore snapshots;
+
+    @Autowired
+    private EntityMirror mirror;
+
+    private record Cached(String etag, ProjectNameIndex index) {}
+
+    private final Map<String, Cached> indexes = new ConcurrentHashMap<>();
+
+    /** True when {@code id} is a known accounting project id; answered from the local index only. */
+    public boolean isProjectId(QuickBooksContext ctx, String id) {
+        return index(ctx.realmId(), snapshots.get(ctx.realmId(), PROJECTS, () -> fetch(ctx))).containsId(id);
+    }
+
+    /** The realm's active accounting projects, from the local snapshot. */
+    public List<ProjectCustomer> projects(QuickBooksContext ctx) {
+        return snapshots.get(ctx.realmId(), PROJECTS, () -> fetch(ctx)).value();
+    }
+
+    /**
+     * Accounting project id for {@code projectName} under {@code parentCustomerId}, or null when
+     * neither the local index nor a reload of it has a confident match.
+     */
+    public String resolve(QuickBooksContext ctx, String projectName, String parentCustomerId) {
+        if (projectName == null || projectName.isBlank()) {
+            return null;
+        }
+        RealmSnapshotStore.Snapshot<List<ProjectCustomer>> current =
+            snapshots.get(ctx.realmId(), PROJECTS, () -> fetch(ctx));
+        String id = index(ctx.realmId(), current).resolve(projectName, parentCustomerId);
+        if (id != null) {
+            return id;
+        }
+        // Verify the miss: reload unless another caller already did since we read it
+        RealmSnapshotStore.Snapshot<List<ProjectCustomer>> latest = snapshots.latest(ctx.realmId(), PROJECTS);
+        if (latest == null || latest.loadedAtMillis() == current.loadedAtMillis()) {
+            latest = snapshots.refresh(ctx.realmId(), PROJECTS, () -> fetch(ctx));
+        }
+        return index(ctx.realmId(), latest).resolve(projectName, parentCustomerId);
+    }
+
+    private ProjectNameIndex index(String realmId, RealmSnapshotStore.Snapshot<List<ProjectCustomer>> snapshot) {
+        Cached current = indexes.get(realmId);
+        if (current != null && current.etag().equals(snapshot.etag())) {
+            return current.index();
+        }
+        return indexes.compute(realmId, (k, existing) -> existing != null && existing.etag().equals(snapshot.etag())
+            ? existing
+            : new Cached(snapshot.etag(), ProjectNameIndex.build(snapshot.value()))).index();
+    }
+
+    private List<ProjectCustomer> fetch(QuickBooksContext ctx) {
+        List<ProjectCustomer> projects = new ArrayList<>();
+        for (int start = 1; ; start += PAGE_SIZE) {
+            JsonNode rows = mirror.queryTree(ctx,
+                "select Id, DisplayName, ParentRef from Customer where IsProject = true and Active = true"
+                    + " STARTPOSITION " + start + " MAXRESULTS " + PAGE_SIZE)
+                .path("QueryResponse").path("Customer");
+            for (JsonNode row : rows) {
+                projects.add(new ProjectCustomer(row.path("Id").asText(), row.path("DisplayName").asText(""),
+                    row.path("ParentRef").path("value").asText(null)));
+            }
+            if (rows.size() < PAGE_SIZE) {
+                return projects;
+            }
+        }
+    }
+}
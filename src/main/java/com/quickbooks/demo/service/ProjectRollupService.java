@@ -0,0 +1,419 @@
+package com.quickbooks.demo.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.ProjectCustomer;
+import com.quickbooks.demo.model.ProjectProfitability;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.model.TransactionResult;
+import com.quickbooks.demo.service.client.OutboundScheduler;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+/**
+ * Per-project running totals (invoiced, sales receipts, received, billed, margin) held in memory
+ * per realm, so the profitability list is answered without querying QBO per project.
+ *
+ * The first read scans the realm's invoices, sales receipts and bills once. After that each
+ * transaction's contribution is kept by id and replaced when the transaction changes: our own
+ * creates apply at once, and QBO's Change Data Capture feed (triggered by webhooks, or by a read
+ * once {@code project-rollup-sync-seconds} have passed) brings in edits, payments, voids and
+ * deletes made anywhere else. Syncs run in the background; reads never wait for one.
+ */
+@Service
+public class ProjectRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectRollupService.class);
+
+    static final List<String> ENTITIES = List.of("Invoice", "SalesReceipt", "Bill");
+    static final int PAGE_SIZE = 1000;
+    /** CDC returns at most this many objects per entity; a full page means changes were cut off. */
+    static final int CDC_LIMIT = 1000;
+    /** CDC only looks back 30 days; older watermarks rescan. */
+    private static final long CDC_WINDOW_MILLIS = 29L * 24 * 60 * 60 * 1000;
+    /** Overlap with the previous sync to absorb clock skew; re-applying a change is harmless. */
+    private static final long SKEW_MILLIS = 60_000;
+    private static final int ID_BATCH = 100;
+
+    /** What one transaction adds to one project. */
+    record Amounts(BigDecimal invoiced, BigDecimal salesReceipts, BigDecimal received, BigDecimal billed) {}
+
+    /** Current totals and how fresh they are. {@code syncedAt} is 0 before the first scan. */
+    public record Rollup(List<ProjectProfitability> projects, long syncedAt, boolean syncing) {}
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @Autowired
+    private QuickBooksRestClient restClient;
+
+    @Autowired
+    private ProjectResolver projects;
+
+    private final Map<String, Ledger> ledgers = new ConcurrentHashMap<>();
+    private volatile ExecutorService syncer;
+
+    /**
+     * The realm's projects with their totals, scanning QBO on the first call. Starts a background
+     * sync when changes are known or the last one is older than {@code project-rollup-sync-seconds}.
+     */
+    public Rollup projects(String accessToken, String realmId) {
+        Ledger ledger = ledger(realmId);
+        ledger.token = accessToken;
+        QuickBooksContext ctx = QuickBooksContext.of(accessToken, realmId);
+        if (ledger.syncedAt == 0) {
+            synchronized (ledger.scanLock) {
+                if (ledger.syncedAt == 0) {
+                    scan(ledger, ctx);
+                }
+            }
+        } else if (ledger.stale || System.currentTimeMillis() - ledger.syncedAt > config.getProjectRollupSyncSeconds() * 1000) {
+            ledger.stale = true;
+            maybeSync(ledger);
+        }
+
+        Map<String, Totals> totals = ledger.totals();
+        List<ProjectProfitability> result = new ArrayList<>();
+        for (ProjectCustomer project : projects.projects(ctx)) {
+            result.add(totals.getOrDefault(project.id(), new Totals()).view(project.id(), project.displayName(), project.parentId()));
+            totals.remove(project.id());
+        }
+        // Inactive or deleted projects that still carry transactions
+        totals.forEach((id, t) -> result.add(t.view(id, null, null)));
+        result.sort(Comparator.comparing(ProjectProfitability::name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(ProjectProfitability::projectId));
+        return new Rollup(result, ledger.syncedAt, ledger.syncing.get());
+    }
+
+    /** Applies a transaction we just created (REST response body), ahead of the next sync. */
+    public void created(String realmId, String entity, JsonNode txn) {
+        Ledger ledger = ledgers.get(realmId);
+        if (ledger == null || ledger.syncedAt == 0 || !ENTITIES.contains(entity)) {
+            return;
+        }
+        ledger.apply(entity + ":" + txn.path("Id").asText(), contributions(entity, txn));
+        ledger.stale = true;
+    }
+
+    /**
+     * Applies a transaction we just created from its result. The project id is the one the form
+     * used; the next sync replaces it with what QBO stored.
+     */
+    public void created(String realmId, String entity, TransactionResult result) {
+        Ledger ledger = ledgers.get(realmId);
+        if (ledger == null || ledger.syncedAt == 0 || result.id() == null || result.projectId() == null
+                || result.amount() == null) {
+            return;
+        }
+        BigDecimal amount = result.amount();
+        Amounts amounts = switch (entity) {
+            case "Invoice" -> new Amounts(amount, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+            case "SalesReceipt" -> new Amounts(BigDecimal.ZERO, amount, amount, BigDecimal.ZERO);
+            case "Bill" -> new Amounts(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, amount);
+            default -> null;
+        };
+        if (amounts == null) {
+            return;
+        }
+        ledger.apply(entity + ":" + result.id(), Map.of(result.projectId(), amounts));
+        ledger.stale = true;
+    }
+
+    /** A webhook reported a change that may affect the realm's totals. */
+    public void changed(String realmId) {
+        Ledger ledger = ledgers.get(realmId);
+        if (ledger != null && ledger.syncedAt != 0) {
+            ledger.stale = true;
+            maybeSync(ledger);
+        }
+    }
+
+    /** Latest access token for the realm, used by background syncs. */
+    public void updateToken(String realmId, String accessToken) {
+        Ledger ledger = ledgers.get(realmId);
+        if (ledger != null && accessToken != null) {
+            ledger.token = accessToken;
+            if (ledger.stale) {
+                maybeSync(ledger);
+            }
+        }
+    }
+
+    /** Full scan of the realm's transactions; replaces every contribution. */
+    private void scan(Ledger ledger, QuickBooksContext ctx) {
+        long started = System.currentTimeMillis();
+        Map<String, Map<String, Amounts>> scanned = new HashMap<>();
+        for (String entity : ENTITIES) {
+            for (int start = 1; ; start += PAGE_SIZE) {
+                int page = restClient.queryEach(ctx, entity,
+                    "select * from " + entity + " STARTPOSITION " + start + " MAXRESULTS " + PAGE_SIZE, row -> {
+                        Map<String, Amounts> c = contributions(entity, row);
+                        if (!c.isEmpty()) {
+                            scanned.put(entity + ":" + row.path("Id").asText(), c);
+                        }
+                    });
+                if (page < PAGE_SIZE) {
+                    break;
+                }
+            }
+        }
+        ledger.replace(scanned);
+        ledger.syncedAt = started;
+        ledger.stale = false;
+        log.debug("Project rollup for realm {}: scanned {} project transactions in {} ms",
+            ledger.realmId, scanned.size(), System.currentTimeMillis() - started);
+    }
+
+    private void maybeSync(Ledger ledger) {
+        if (ledger.token != null && ledger.syncing.compareAndSet(false, true)) {
+            syncer().execute(() -> sync(ledger));
+        }
+    }
+
+    /** Applies changes since the last sync from the CDC feed; rescans when CDC cannot cover the gap. */
+    private void sync(Ledger ledger) {
+        QuickBooksContext ctx = QuickBooksContext.of(ledger.token, ledger.realmId);
+        boolean failed = false;
+        try (OutboundScheduler.Scope scope = OutboundScheduler.tag(ledger.realmId, OutboundScheduler.Priority.BACKGROUND)) {
+            long started = System.currentTimeMillis();
+            ledger.stale = false;
+            if (started - ledger.syncedAt > CDC_WINDOW_MILLIS || !applyChanges(ledger, ctx)) {
+                synchronized (ledger.scanLock) {
+                    scan(ledger, ctx);
+                }
+                return;
+            }
+            ledger.syncedAt = started;
+        } catch (RuntimeException e) {
+            // Typically an expired token; the next read or token refresh retries
+            ledger.stale = true;
+            failed = true;
+            log.warn("Project rollup sync for realm {} failed: {}", ledger.realmId, e.getMessage());
+        } finally {
+            ledger.syncing.set(false);
+        }
+        // Changes reported while this sync ran
+        if (!failed && ledger.stale) {
+            maybeSync(ledger);
+        }
+    }
+
+    /** Returns false when the CDC response was cut off and a rescan is needed. */
+    private boolean applyChanges(Ledger ledger, QuickBooksContext ctx) {
+        String since = Instant.ofEpochMilli(ledger.syncedAt - SKEW_MILLIS).truncatedTo(ChronoUnit.SECONDS).toString();
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("entities", String.join(",", ENTITIES) + ",Payment");
+        params.put("changedSince", since);
+        JsonNode cdc = restClient.getStreamed(ctx, "/cdc", params, parser -> parser.readValueAsTree());
+
+        Set<String> seenInvoices = new HashSet<>();
+        Set<String> paidInvoices = new LinkedHashSet<>();
+        int applied = 0;
+        for (JsonNode response : cdc.path("CDCResponse")) {
+            for (JsonNode block : response.path("QueryResponse")) {
+                Iterator<Map.Entry<String, JsonNode>> fields = block.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    String entity = field.getKey();
+                    JsonNode rows = field.getValue();
+                    if (!rows.isArray()) {
+                        continue;
+                    }
+                    if (rows.size() >= CDC_LIMIT) {
+                        return false;
+                    }
+                    for (JsonNode row : rows) {
+                        if ("Payment".equals(entity)) {
+                            paidInvoices.addAll(linkedInvoices(row));
+                        } else if (ENTITIES.contains(entity)) {
+                            boolean deleted = "Deleted".equalsIgnoreCase(row.path("status").asText());
+                            ledger.apply(entity + ":" + row.path("Id").asText(),
+                                deleted ? Map.of() : contributions(entity, row));
+                            if ("Invoice".equals(entity)) {
+                                seenInvoices.add(row.path("Id").asText());
+                            }
+                            applied++;
+                        }
+                    }
+                }
+            }
+        }
+        // A payment changes what was received on its invoices; refetch those CDC did not include
+        paidInvoices.removeAll(seenInvoices);
+        List<String> ids = new ArrayList<>(paidInvoices);
+        for (int i = 0; i < ids.size(); i += ID_BATCH) {
+            List<String> batch = ids.subList(i, Math.min(ids.size(), i + ID_BATCH));
+            restClient.queryEach(ctx, "Invoice", "select * from Invoice where Id in ('" + String.join("','", batch) + "')",
+                row -> ledger.apply("Invoice:" + row.path("Id").asText(), contributions("Invoice", row)));
+        }
+        log.debug("Project rollup for realm {}: applied {} changes and {} paid invoices since {}",
+            ledger.realmId, applied, ids.size(), since);
+        return true;
+    }
+
+    private static List<String> linkedInvoices(JsonNode payment) {
+        List<String> ids = new ArrayList<>();
+        for (JsonNode line : payment.path("Line")) {
+            for (JsonNode linked : line.path("LinkedTxn")) {
+                if ("Invoice".equals(linked.path("TxnType").asText()) && linked.hasNonNull("TxnId")) {
+                    ids.add(linked.path("TxnId").asText());
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * What {@code txn} adds to each project. A header ProjectRef takes the whole TotalAmt;
+     * otherwise lines carrying a ProjectRef count their Amount. Invoices count their paid part
+     * (TotalAmt - Balance) as received, in proportion to each project's share.
+     */
+    static Map<String, Amounts> contributions(String entity, JsonNode txn) {
+        BigDecimal total = txn.path("TotalAmt").decimalValue();
+        Map<String, BigDecimal> shares = new LinkedHashMap<>();
+        String header = txn.path("ProjectRef").path("value").asText(null);
+        if (header != null) {
+            shares.put(header, total);
+        } else {
+            for (JsonNode line : txn.path("Line")) {
+                String project = line.path("ProjectRef").path("value").asText(null);
+                if (project != null) {
+                    shares.merge(project, line.path("Amount").decimalValue(), BigDecimal::add);
+                }
+            }
+        }
+        Map<String, Amounts> out = new LinkedHashMap<>();
+        BigDecimal paid = total.subtract(txn.path("Balance").decimalValue());
+        for (Map.Entry<String, BigDecimal> share : shares.entrySet()) {
+            BigDecimal amount = share.getValue();
+            out.put(share.getKey(), switch (entity) {
+                case "Invoice" -> new Amounts(amount, BigDecimal.ZERO,
+                    total.signum() == 0 ? BigDecimal.ZERO : paid.multiply(amount).divide(total, 2, RoundingMode.HALF_UP),
+                    BigDecimal.ZERO);
+                case "SalesReceipt" -> new Amounts(BigDecimal.ZERO, amount, amount, BigDecimal.ZERO);
+                case "Bill" -> new Amounts(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, amount);
+                default -> throw new IllegalArgumentException("Not a project transaction: " + entity);
+            });
+        }
+        return out;
+    }
+
+    private Ledger ledger(String realmId) {
+        return ledgers.computeIfAbsent(realmId, Ledger::new);
+    }
+
+    private ExecutorService syncer() {
+        ExecutorService pool = syncer;
+        if (pool == null) {
+            synchronized (this) {
+                if (syncer == null) {
+                    syncer = Executors.newSingleThreadExecutor(r -> {
+                        Thread t = new Thread(r, "project-rollup-sync");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+                pool = syncer;
+            }
+        }
+        return pool;
+    }
+
+    /** One realm: each transaction's contribution by "Entity:Id" and the per-project sums. */
+    private static final class Ledger {
+        final String realmId;
+        final Object scanLock = new Object();
+        final AtomicBoolean syncing = new AtomicBoolean();
+        private final Map<String, Map<String, Amounts>> txns = new HashMap<>();
+        private final Map<String, Totals> totals = new HashMap<>();
+        volatile String token;
+        volatile long syncedAt;
+        volatile boolean stale;
+
+        Ledger(String realmId) {
+            this.realmId = realmId;
+        }
+
+        /** Swaps the transaction's previous contribution for {@code next} (empty to remove it). */
+        synchronized void apply(String key, Map<String, Amounts> next) {
+            Map<String, Amounts> previous = next.isEmpty() ? txns.remove(key) : txns.put(key, next);
+            next.forEach((project, a) -> totals.computeIfAbsent(project, p -> new Totals()).add(a, 1));
+            if (previous != null) {
+                previous.forEach((project, a) -> {
+                    Totals t = totals.get(project);
+                    t.add(a, -1);
+                    if (t.transactions == 0) {
+                        totals.remove(project);
+                    }
+                });
+            }
+        }
+
+        synchronized void replace(Map<String, Map<String, Amounts>> scanned) {
+            txns.clear();
+            totals.clear();
+            scanned.forEach(this::apply);
+        }
+
+        synchronized Map<String, Totals> totals() {
+            Map<String, Totals> copy = new HashMap<>();
+            totals.forEach((project, t) -> copy.put(project, t.copy()));
+            return copy;
+        }
+    }
+
+    private static final class Totals {
+        BigDecimal invoiced = BigDecimal.ZERO;
+        BigDecimal salesReceipts = BigDecimal.ZERO;
+        BigDecimal received = BigDecimal.ZERO;
+        BigDecimal billed = BigDecimal.ZERO;
+        int transactions;
+
+        void add(Amounts a, int sign) {
+            BigDecimal s = BigDecimal.valueOf(sign);
+            invoiced = invoiced.add(a.invoiced().multiply(s));
+            salesReceipts = salesReceipts.add(a.salesReceipts().multiply(s));
+            received = received.add(a.received().multiply(s));
+            billed = billed.add(a.billed().multiply(s));
+            transactions += sign;
+        }
+
+        Totals copy() {
+            Totals t = new Totals();
+            t.invoiced = invoiced;
+            t.salesReceipts = salesReceipts;
+            t.received = received;
+            t.billed = billed;
+            t.transactions = transactions;
+            return t;
+        }
+
+        ProjectProfitability view(String projectId, String name, String parentId) {
+            return new ProjectProfitability(projectId, name, parentId, invoiced, salesReceipts, received, billed,
+                invoiced.add(salesReceipts).subtract(billed), transactions);
+        }
+    }
+}
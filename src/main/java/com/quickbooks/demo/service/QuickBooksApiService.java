@@ -9,6 +9,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
@@ -21,13 +22,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.intuit.ipp.data.Account;
+import com.intuit.ipp.data.AccountTypeEnum;
 import com.intuit.ipp.data.Customer;
 import com.intuit.ipp.data.Invoice;
 import com.intuit.ipp.data.Item;
@@ -41,7 +45,20 @@ import com.intuit.ipp.exception.FMSException;
 import com.intuit.ipp.services.DataService;
 import com.intuit.ipp.services.QueryResult;
 import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.AccountList;
+import com.quickbooks.demo.model.AccountSummary;
+import com.quickbooks.demo.model.CustomerSummary;
+import com.quickbooks.demo.model.EntityCreateResult;
+import com.quickbooks.demo.model.ItemSummary;
+import com.quickbooks.demo.model.ProjectDeleteResult;
+import com.quickbooks.demo.model.ProjectPage;
+import com.quickbooks.demo.model.ProjectSummary;
 import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.model.TransactionResult;
+import com.quickbooks.demo.model.TxnPayload;
+import com.quickbooks.demo.model.VendorSummary;
+import com.quickbooks.demo.service.client.HedgingExecutor;
+import com.quickbooks.demo.service.client.IdempotencyLedger;
 import com.quickbooks.demo.service.client.QuickBooksRestClient;
 import com.quickbooks.demo.service.client.QuickBooksSdkClient;
 
@@ -62,6 +79,33 @@ public class QuickBooksApiService {
     
     @Autowired
     private QuickBooksSdkClient sdkClient;
+
+    @Autowired
+    private IdempotencyLedger ledger;
+
+    @Autowired
+    private HedgingExecutor hedging;
+
+    @Autowired
+    private ProjectResolver projects;
+
+    // Answers simple customer/item/account/vendor queries locally when it can
+    @Autowired
+    private EntityMirror mirror;
+
+    // Page size for full catalog reads; QBO's own maximum
+    static final int PAGE_SIZE = 1000;
+
+    static final String[] GRAPHQL_DOCUMENTS = {
+        "graphql/project.graphql",
+        "graphql/projects_list.graphql",
+        "graphql/project_get.graphql",
+        "graphql/project_delete.graphql",
+        "graphql/project_variables.json",
+        "graphql/projects_list_variables.json"
+    };
+
+    private final Map<String, String> resourceCache = new java.util.concurrent.ConcurrentHashMap<>();
     
     private String ensureNoTrailingSlash(String url) {
         if (url == null) {
@@ -79,6 +123,28 @@ public class QuickBooksApiService {
             .retryOn(HttpClientErrorException.TooManyRequests.class)
             .retryOn(RuntimeException.class)
             .build();
+        return exchange(retry, url, method, entity);
+    }
+
+    /**
+     * Retry policy for non-idempotent GraphQL mutations (no requestid support): only retry when
+     * the server explicitly rejected the call (429, 502/503/504), never on timeouts or I/O errors
+     * where the mutation may already have been applied.
+     */
+    private ResponseEntity<String> exchangeRetryingRejections(String url, HttpMethod method, HttpEntity<?> entity) {
+        RetryTemplate retry = RetryTemplate.builder()
+            .maxAttempts(3)
+            .fixedBackoff(500)
+            .retryOn(HttpClientErrorException.TooManyRequests.class)
+            .retryOn(HttpServerErrorException.BadGateway.class)
+            .retryOn(HttpServerErrorException.ServiceUnavailable.class)
+            .retryOn(HttpServerErrorException.GatewayTimeout.class)
+            .retryOn(TransientResponseException.class)
+            .build();
+        return exchange(retry, url, method, entity);
+    }
+
+    private ResponseEntity<String> exchange(RetryTemplate retry, String url, HttpMethod method, HttpEntity<?> entity) {
         return retry.execute(ctx -> {
             ResponseEntity<String> response = restTemplate.exchange(url, method, entity, String.class);
             HttpStatusCode status = response.getStatusCode();
@@ -86,12 +152,19 @@ public class QuickBooksApiService {
                 return response;
             }
             if (status.value() == 429 || status.is5xxServerError()) {
-                throw new RuntimeException("Transient response: " + status.value());
+                throw new TransientResponseException("Transient response: " + status.value());
             }
             return response;
         });
     }
 
+    /** 429/5xx returned as a response (custom error handlers) rather than thrown by RestTemplate. */
+    private static class TransientResponseException extends RuntimeException {
+        TransientResponseException(String message) {
+            super(message);
+        }
+    }
+
     private QuickBooksContext ctx(String accessToken, String realmId) {
         return QuickBooksContext.of(accessToken, realmId);
     }
@@ -100,7 +173,7 @@ public class QuickBooksApiService {
      * Get customers from QuickBooks
      * 
      */
-    public Map<String, Object> getCustomers(String accessToken, String realmId) {
+    public List<CustomerSummary> getCustomers(String accessToken, String realmId) {
         // Validate required parameters
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
@@ -113,37 +186,9 @@ public class QuickBooksApiService {
             // Query via REST with a minimal, parser-safe SELECT (mirror working project)
             // Avoid MAXRESULTS clause which some QBO tenants reject without STARTPOSITION
             String query = "Select * from Customer where Job = false";
-            String body = restClient.query(ctx(accessToken, realmId), query);
-            JsonNode responseData = objectMapper.readTree(body);
-            JsonNode queryResponse = responseData.get("QueryResponse");
-
-            List<String> customerNames = new ArrayList<>();
-            Map<String, String> customerMap = new HashMap<>();
-            List<Map<String, Object>> customers = new ArrayList<>();
-
-            if (queryResponse != null && queryResponse.has("Customer")) {
-                JsonNode customersNode = queryResponse.get("Customer");
-                for (JsonNode customerNode : customersNode) {
-                    String id = customerNode.path("Id").asText();
-                    String name = customerNode.has("DisplayName")
-                        ? customerNode.get("DisplayName").asText()
-                        : customerNode.path("FullyQualifiedName").asText("");
-                    customerNames.add(name);
-                    customerMap.put(id, name);
-                    Map<String, Object> customer = new HashMap<>();
-                    customer.put("id", id);
-                    customer.put("name", name);
-                    customers.add(customer);
-                }
-            }
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("customers", customers);
-            result.put("customerNames", customerNames);
-            result.put("customerMap", customerMap);
-            return result;
+            return parseCustomers(mirror.queryTree(ctx(accessToken, realmId), query));
 
-        } catch (IOException | RuntimeException e) {
+        } catch (RuntimeException e) {
             throw new RuntimeException("Failed to get customers: " + e.getMessage(), e);
         }
     }
@@ -151,7 +196,7 @@ public class QuickBooksApiService {
     /**
      * Get all accounts (sample fields) via Accounting REST API query endpoint.
      */
-    public Map<String, Object> getAccounts(String accessToken, String realmId) {
+    public AccountList getAccounts(String accessToken, String realmId) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
@@ -161,36 +206,16 @@ public class QuickBooksApiService {
 
         try {
             String query = "Select Id, Name, AccountType, AccountSubType, CurrentBalance, FullyQualifiedName from Account where Active = true";
-            String body = restClient.query(ctx(accessToken, realmId), query);
-            JsonNode root = objectMapper.readTree(body);
-            JsonNode qr = root.path("QueryResponse");
-            List<Map<String, Object>> accounts = new ArrayList<>();
-            if (qr.has("Account") && qr.get("Account").isArray()) {
-                for (JsonNode node : qr.get("Account")) {
-                    Map<String, Object> acct = new HashMap<>();
-                    acct.put("id", node.path("Id").asText());
-                    acct.put("name", node.path("Name").asText());
-                    acct.put("type", node.path("AccountType").asText());
-                    acct.put("subType", node.path("AccountSubType").asText());
-                    acct.put("fullyQualifiedName", node.path("FullyQualifiedName").asText());
-                    acct.put("currentBalance", node.path("CurrentBalance").asDouble(0));
-                    accounts.add(acct);
-                }
-            }
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("accounts", accounts);
-            result.put("count", accounts.size());
-            return result;
+            return parseAccounts(mirror.queryTree(ctx(accessToken, realmId), query));
         } catch (HttpClientErrorException e) {
             throw new RuntimeException("Failed to fetch accounts: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
-        } catch (IOException e) {
+        } catch (RestClientException e) {
             throw new RuntimeException("Failed to parse accounts response: " + e.getMessage(), e);
         }
     }
     
 
-    public Map<String, Object> getItems(String accessToken, String realmId) {
+    public List<ItemSummary> getItems(String accessToken, String realmId) {
         // Validate required parameters
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
@@ -202,62 +227,118 @@ public class QuickBooksApiService {
         try {
             // Only return items usable on sales transactions (exclude Category)
             String query = "Select Id, Name, Type from Item where Active = true and Type in ('Service','NonInventory','Inventory') MAXRESULTS 25";
-            String body = restClient.query(ctx(accessToken, realmId), query);
-            JsonNode responseData = objectMapper.readTree(body);
-            JsonNode queryResponse = responseData.get("QueryResponse");
+            return parseItems(mirror.queryTree(ctx(accessToken, realmId), query));
             
-            if (queryResponse != null && queryResponse.has("Item")) {
-                JsonNode itemsNode = queryResponse.get("Item");
-                
-                List<String> itemNames = new ArrayList<>();
-                Map<String, String> itemMap = new HashMap<>();
-                List<Map<String, Object>> items = new ArrayList<>();
-                
-                for (JsonNode itemNode : itemsNode) {
-                    String type = itemNode.has("Type") ? itemNode.get("Type").asText() : null;
-                    if (type != null && "Category".equalsIgnoreCase(type)) {
-                        continue; // skip categories
-                    }
-                    String name = itemNode.get("Name").asText();
-                    String id = itemNode.get("Id").asText();
-                    
-                    itemNames.add(name);
-                    itemMap.put(id, name);
-                    
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("id", id);
-                    item.put("name", name);
-                    item.put("type", type);
-                    items.add(item);
-                }
-                
-                Map<String, Object> result = new HashMap<>();
-                result.put("items", items);
-                result.put("itemNames", itemNames);
-                result.put("itemMap", itemMap);
-                
-                return result;
-            } else {
-                // No items found - return empty result
-                Map<String, Object> result = new HashMap<>();
-                result.put("items", new ArrayList<>());
-                result.put("itemNames", new ArrayList<>());
-                result.put("itemMap", new HashMap<>());
-                return result;
-            }
-            
-        } catch (IOException | RuntimeException e) {
+        } catch (RuntimeException e) {
             throw new RuntimeException("Failed to get items: " + e.getMessage(), e);
         }
     }
-    
+
+    /**
+     * Every active top-level customer, read page by page; the catalog and its search index need all
+     * of them, not QBO's default first page.
+     */
+    public List<CustomerSummary> getAllCustomers(String accessToken, String realmId) {
+        requireSession(accessToken, realmId);
+        try {
+            return queryAll(ctx(accessToken, realmId), "Customer", "Select * from Customer where Job = false", this::parseCustomers);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to get customers: " + e.getMessage(), e);
+        }
+    }
+
+    /** Every active sales item (no categories), read page by page. */
+    public List<ItemSummary> getAllItems(String accessToken, String realmId) {
+        requireSession(accessToken, realmId);
+        try {
+            return queryAll(ctx(accessToken, realmId), "Item",
+                "Select Id, Name, Type from Item where Active = true and Type in ('Service','NonInventory','Inventory')", this::parseItems);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to get items: " + e.getMessage(), e);
+        }
+    }
+
+    /** Runs {@code query} with STARTPOSITION/MAXRESULTS until a short page, parsing each page. */
+    private <T> List<T> queryAll(QuickBooksContext qbCtx, String entity, String query, Function<JsonNode, List<T>> parse) {
+        List<T> all = new ArrayList<>();
+        for (int start = 1; ; start += PAGE_SIZE) {
+            JsonNode page = mirror.queryTree(qbCtx, query + " STARTPOSITION " + start + " MAXRESULTS " + PAGE_SIZE);
+            all.addAll(parse.apply(page));
+            if (page.path("QueryResponse").path(entity).size() < PAGE_SIZE) {
+                return all;
+            }
+        }
+    }
+
+    private static void requireSession(String accessToken, String realmId) {
+        if (accessToken == null || accessToken.trim().isEmpty()) {
+            throw new RuntimeException("Access token is required");
+        }
+        if (realmId == null || realmId.trim().isEmpty()) {
+            throw new RuntimeException("Realm ID is required");
+        }
+    }
+
+    /**
+     * Parse a Customer QueryResponse into customer summaries.
+     */
+    List<CustomerSummary> parseCustomers(JsonNode responseData) {
+        JsonNode customersNode = responseData.path("QueryResponse").path("Customer");
+        List<CustomerSummary> customers = new ArrayList<>(customersNode.size());
+        for (JsonNode customerNode : customersNode) {
+            String name = customerNode.has("DisplayName")
+                ? customerNode.get("DisplayName").asText()
+                : customerNode.path("FullyQualifiedName").asText("");
+            customers.add(new CustomerSummary(customerNode.path("Id").asText(), name));
+        }
+        return customers;
+    }
+
+    /**
+     * Parse an Account QueryResponse into the accounts/count result.
+     */
+    AccountList parseAccounts(JsonNode root) {
+        JsonNode accountsNode = root.path("QueryResponse").path("Account");
+        List<AccountSummary> accounts = new ArrayList<>(accountsNode.size());
+        if (accountsNode.isArray()) {
+            for (JsonNode node : accountsNode) {
+                accounts.add(new AccountSummary(
+                    node.path("Id").asText(),
+                    node.path("Name").asText(),
+                    node.path("AccountType").asText(),
+                    node.path("AccountSubType").asText(),
+                    node.path("FullyQualifiedName").asText(),
+                    node.path("CurrentBalance").decimalValue()));
+            }
+        }
+        return AccountList.of(accounts);
+    }
+
+    /**
+     * Parse an Item QueryResponse into item summaries, skipping categories.
+     */
+    List<ItemSummary> parseItems(JsonNode responseData) {
+        JsonNode itemsNode = responseData.path("QueryResponse").path("Item");
+        List<ItemSummary> items = new ArrayList<>(itemsNode.size());
+        for (JsonNode itemNode : itemsNode) {
+            String type = itemNode.has("Type") ? itemNode.get("Type").asText() : null;
+            if (type != null && "Category".equalsIgnoreCase(type)) {
+                continue; // skip categories
+            }
+            items.add(new ItemSummary(itemNode.get("Id").asText(), itemNode.get("Name").asText(), type));
+        }
+        return items;
+    }
+
     /**
      * Create invoice using QuickBooks Java SDK
-     * This is the proper way to create invoices using the official SDK
+     * This is the proper way to create invoices using the official SDK.
+     * {@code submissionKey} identifies the submission (see {@link IdempotencyLedger#submissionId}).
      */
-    public Map<String, Object> createInvoice(String accessToken, String realmId, 
+    public TransactionResult createInvoice(String accessToken, String realmId, 
                                            String customerId, String itemId, String itemName, 
-                                           String projectId, int quantity, double unitPrice, String description) {
+                                           String projectId, int quantity, double unitPrice, String description,
+                                           String submissionKey) {
         
         // Validate required parameters
         if (accessToken == null || accessToken.trim().isEmpty()) {
@@ -275,56 +356,16 @@ public class QuickBooksApiService {
         if (projectId == null || projectId.trim().isEmpty()) {
             throw new RuntimeException("Project ID is required");
         }
+        if (config.isRestEngine("invoice")) {
+            return createInvoiceViaRest(accessToken, realmId, customerId, itemId, itemName, projectId, quantity, unitPrice, description,
+                submissionKey);
+        }
         
         try {
-            DataService dataService = sdkClient.dataService(ctx(accessToken, realmId));
-            
             // Resolve Accounting ProjectRef (Customer with IsProject=true).
             // The UI supplies GraphQL ProjectManagement id. We must map it to the accounting
             // Customer (project) id used by ProjectRef.
-            String projectRefId = projectId;
-            try {
-                // 1) Quick probe: maybe the provided id is already an accounting Customer id
-                QueryResult probe = dataService.executeQuery(
-                    "select Id from Customer where IsProject = true and Id = '" + projectId + "'"
-                );
-                boolean alreadyCustomer = (probe != null && probe.getEntities() != null && !probe.getEntities().isEmpty());
-
-                if (!alreadyCustomer) {
-                    // 2) Fetch GraphQL project to get its canonical name and parent customer id
-                    Map<String, Object> gqlProject = getProjectById(accessToken, realmId, projectId);
-                    String projectName = (String) gqlProject.get("name");
-                    String parentCustomerId = null;
-                    Object cust = gqlProject.get("customer");
-                    if (cust instanceof java.util.Map<?, ?> m) {
-                        Object cid = m.get("id");
-                        parentCustomerId = cid != null ? cid.toString() : null;
-                    }
-
-                    if (projectName != null && !projectName.trim().isEmpty()) {
-                        // Escape single quotes in name for query safety
-                        String safeName = projectName.replace("'", "''");
-                        StringBuilder q = new StringBuilder("select Id, DisplayName, ParentRef from Customer where IsProject = true and Active = true and DisplayName = '")
-                                .append(safeName).append("'");
-                        if (parentCustomerId != null && !parentCustomerId.trim().isEmpty()) {
-                            q.append(" and ParentRef = '").append(parentCustomerId).append("'");
-                        }
-                        QueryResult qr = dataService.executeQuery(q.toString());
-                        if (qr != null && qr.getEntities() != null && !qr.getEntities().isEmpty()) {
-                            Object first = qr.getEntities().get(0);
-                            if (first instanceof Customer accProj) {
-                                projectRefId = accProj.getId();
-                            }
-                        } else {
-                            // As a fallback, attempt by FullyQualifiedName if parent name is involved
-                            // No-op if not found; SDK will throw a precise error later
-                        }
-                    }
-                }
-            } catch (FMSException | RuntimeException ignore) {
-                // Proceed; SDK will report invalid ProjectRef if resolution fails
-            }
-            // GraphQL lookup may fail transiently; proceed with provided id
+            String projectRefId = resolveProjectRef(accessToken, realmId, projectId);
 
             // Create the Invoice object using SDK classes
             Invoice invoice = new Invoice();
@@ -370,24 +411,18 @@ public class QuickBooksApiService {
             lines.add(line);
             invoice.setLine(lines);
             
-            // Create the invoice using the DataService
-            Invoice createdInvoice = dataService.add(invoice);
+            // One requestid per submission; a resubmit of the same form is answered by the ledger
+            String requestId = IdempotencyLedger.submissionId(realmId, "/invoice", submissionKey);
+            DataService dataService = sdkClient.dataService(ctx(accessToken, realmId), requestId);
+            Invoice createdInvoice = ledger.execute(requestId, () -> dataService.add(invoice));
             
             // Extract results
             String invoiceId = createdInvoice.getId();
             String deepLink = generateInvoiceDeepLink(invoiceId, realmId);
             
-            // Return result map
-            Map<String, Object> result = new HashMap<>();
-            result.put("invoiceId", invoiceId);
-            result.put("deepLink", deepLink);
-            result.put("projectId", projectId);
-            result.put("customerId", customerId);
-            result.put("amount", totalAmount.doubleValue());
-            result.put("docNumber", createdInvoice.getDocNumber()); // Invoice number
-            result.put("totalAmt", createdInvoice.getTotalAmt()); // Total from QuickBooks
-            
-            return result;
+            // Prefer the total computed by QuickBooks
+            BigDecimal amount = createdInvoice.getTotalAmt() != null ? createdInvoice.getTotalAmt() : totalAmount;
+            return new TransactionResult(invoiceId, createdInvoice.getDocNumber(), projectId, customerId, null, amount, deepLink);
             
         } catch (FMSException e) {
             // Include environment, realm, and base URL to aid debugging
@@ -402,6 +437,83 @@ public class QuickBooksApiService {
         }
     }
 
+    /**
+     * Create invoice via the Accounting REST API (JSON), bypassing SDK JAXB marshalling.
+     * Same ProjectRef resolution and result shape as the SDK path.
+     */
+    private TransactionResult createInvoiceViaRest(String accessToken, String realmId,
+                                                   String customerId, String itemId, String itemName,
+                                                   String projectId, int quantity, double unitPrice, String description,
+                                                   String submissionKey) {
+        QuickBooksContext qbCtx = ctx(accessToken, realmId);
+        try {
+            String projectRefId = resolveProjectRef(accessToken, realmId, projectId);
+
+            TxnPayload payload = buildInvoicePayload(customerId, itemId, itemName, projectRefId, quantity, unitPrice, description);
+            String body = restClient.postJson(qbCtx, "/invoice", payload,
+                IdempotencyLedger.submissionId(realmId, "/invoice", submissionKey));
+            JsonNode inv = objectMapper.readTree(body).path("Invoice");
+
+            String invoiceId = inv.path("Id").asText(null);
+            BigDecimal amount = inv.has("TotalAmt")
+                ? inv.get("TotalAmt").decimalValue()
+                : BigDecimal.valueOf(quantity).multiply(BigDecimal.valueOf(unitPrice));
+            return new TransactionResult(invoiceId, inv.path("DocNumber").asText(null), projectId, customerId, null,
+                amount, generateInvoiceDeepLink(invoiceId, realmId));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse invoice response: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to create invoice via REST: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Build the Invoice request body (single sales line linked via ProjectRef), mirroring the SDK Invoice.
+     */
+    TxnPayload buildInvoicePayload(String customerId, String itemId, String itemName, String projectRefId,
+                                   int quantity, double unitPrice, String description) {
+        TxnPayload.SalesItemLineDetail salesDetail = new TxnPayload.SalesItemLineDetail(
+            new TxnPayload.Ref(itemId, itemName), null, quantity, null);
+        TxnPayload.Line line = new TxnPayload.Line(null, null, blankToNull(description),
+            BigDecimal.valueOf(quantity).multiply(BigDecimal.valueOf(unitPrice)), "SalesItemLineDetail",
+            null, salesDetail, null, null);
+        return new TxnPayload(null, null, TxnPayload.Ref.of(customerId), null, TxnPayload.Ref.of(projectRefId),
+            List.of(line));
+    }
+
+    /**
+     * Accounting ProjectRef id for the id supplied by the UI. A known accounting project id is
+     * used as is; a GraphQL ProjectManagement id is mapped by the project's name and parent
+     * customer through the local project index. Falls back to the given id, in which case QBO
+     * reports an invalid ProjectRef precisely.
+     */
+    private String resolveProjectRef(String accessToken, String realmId, String projectId) {
+        QuickBooksContext qbCtx = ctx(accessToken, realmId);
+        try {
+            if (projects.isProjectId(qbCtx, projectId)) {
+                return projectId;
+            }
+            ProjectSummary gqlProject = getProjectById(accessToken, realmId, projectId);
+            String parentCustomerId = gqlProject.customer() != null ? gqlProject.customer().id() : null;
+            String resolved = projects.resolve(qbCtx, gqlProject.name(), parentCustomerId);
+            return resolved != null ? resolved : projectId;
+        } catch (RuntimeException ignore) {
+            // GraphQL or lookup may fail transiently; proceed with provided id
+            return projectId;
+        }
+    }
+
+    /**
+     * Id of the first entity of the given type in a QueryResponse body, or null when there is none.
+     */
+    private String firstQueryEntityId(String body, String entity) throws IOException {
+        JsonNode rows = objectMapper.readTree(body).path("QueryResponse").path(entity);
+        if (rows.isArray() && rows.size() > 0) {
+            return rows.get(0).path("Id").asText(null);
+        }
+        return null;
+    }
+
     /**
      * Generate deep link to view invoice in QuickBooks UI
      * Uses config method for consistency
@@ -432,31 +544,17 @@ public class QuickBooksApiService {
             return null;
         }
         try {
-            DataService dataService = sdkClient.dataService(ctx(accessToken, realmId));
-
-            String safeName = projectName.replace("'", "''");
-            StringBuilder q = new StringBuilder("select Id, DisplayName, ParentRef from Customer where IsProject = true and Active = true and DisplayName = '")
-                .append(safeName).append("'");
-            if (parentCustomerId != null && !parentCustomerId.trim().isEmpty()) {
-                q.append(" and ParentRef = '").append(parentCustomerId).append("'");
-            }
-            QueryResult qr = dataService.executeQuery(q.toString());
-            if (qr != null && qr.getEntities() != null && !qr.getEntities().isEmpty()) {
-                Object first = qr.getEntities().get(0);
-                if (first instanceof Customer c) {
-                    return c.getId();
-                }
-            }
-            return null;
-        } catch (FMSException e) {
+            return projects.resolve(ctx(accessToken, realmId), projectName, parentCustomerId);
+        } catch (RuntimeException e) {
             return null;
         }
     }
 
     /**
-     * Create a Customer using the QuickBooks Java SDK.
+     * Create a Customer using the QuickBooks Java SDK. {@code submissionKey} identifies the submission.
      */
-    public Map<String, Object> createCustomer(String accessToken, String realmId, String displayName, String email, String phone) {
+    public EntityCreateResult createCustomer(String accessToken, String realmId, String displayName, String email, String phone,
+                                             String submissionKey) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
@@ -466,9 +564,13 @@ public class QuickBooksApiService {
         if (displayName == null || displayName.trim().isEmpty()) {
             throw new RuntimeException("Customer display name is required");
         }
+        if (config.isRestEngine("customer")) {
+            return createCustomerViaRest(accessToken, realmId, displayName, email, phone, submissionKey);
+        }
 
         try {
-            DataService dataService = sdkClient.dataService(ctx(accessToken, realmId));
+            String requestId = IdempotencyLedger.submissionId(realmId, "/customer", submissionKey);
+            DataService dataService = sdkClient.dataService(ctx(accessToken, realmId), requestId);
 
             Customer customer = new Customer();
             customer.setDisplayName(displayName);
@@ -483,12 +585,9 @@ public class QuickBooksApiService {
                 customer.setPrimaryPhone(tel);
             }
 
-            Customer created = dataService.add(customer);
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("id", created.getId());
-            result.put("name", created.getDisplayName());
-            return result;
+            Customer created = ledger.execute(requestId, () -> dataService.add(customer));
+            mirror.changed(realmId, "Customer");
+            return new EntityCreateResult(created.getId(), created.getDisplayName(), null);
 
         } catch (FMSException e) {
             String errorMessage = "QuickBooks API Error (create customer): " + e.getMessage()
@@ -501,20 +600,78 @@ public class QuickBooksApiService {
         }
     }
 
+    /**
+     * Create a Customer via the Accounting REST API (JSON).
+     */
+    private EntityCreateResult createCustomerViaRest(String accessToken, String realmId, String displayName, String email, String phone,
+                                                     String submissionKey) {
+        try {
+            String body = restClient.postJson(ctx(accessToken, realmId), "/customer", buildCustomerPayload(displayName, email, phone),
+                IdempotencyLedger.submissionId(realmId, "/customer", submissionKey));
+            JsonNode created = objectMapper.readTree(body).path("Customer");
+            mirror.changed(realmId, "Customer");
+            return new EntityCreateResult(created.path("Id").asText(null), created.path("DisplayName").asText(displayName), null);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse customer response: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to create customer: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Build the Customer request body (display name plus optional primary email/phone).
+     */
+    java.util.Map<String, Object> buildCustomerPayload(String displayName, String email, String phone) {
+        java.util.Map<String, Object> payload = new java.util.HashMap<>();
+        payload.put("DisplayName", displayName);
+        if (email != null && !email.trim().isEmpty()) {
+            java.util.Map<String, Object> addr = new java.util.HashMap<>();
+            addr.put("Address", email);
+            payload.put("PrimaryEmailAddr", addr);
+        }
+        if (phone != null && !phone.trim().isEmpty()) {
+            java.util.Map<String, Object> tel = new java.util.HashMap<>();
+            tel.put("FreeFormNumber", phone);
+            payload.put("PrimaryPhone", tel);
+        }
+        return payload;
+    }
+
     /**
      * Create an Estimate via Accounting REST API and link to a Project using ProjectRef.
      */
-    public Map<String, Object> createEstimate(String accessToken,
+    public TransactionResult createEstimate(String accessToken,
                                               String realmId,
                                               String customerId,
                                               String itemId,
                                               String projectId,
                                               int quantity,
                                               double unitPrice,
-                                              String description) {
+                                              String description,
+                                              String submissionKey) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
+        TxnPayload payload = estimatePayload(realmId, customerId, itemId, projectId, quantity, unitPrice, description);
+
+        try {
+            String body = restClient.postJson(ctx(accessToken, realmId), "/estimate", payload,
+                IdempotencyLedger.submissionId(realmId, "/estimate", submissionKey));
+            JsonNode est = objectMapper.readTree(body).path("Estimate");
+            return new TransactionResult(est.path("Id").asText(null), est.path("DocNumber").asText(null), projectId, customerId,
+                null, est.path("TotalAmt").decimalValue(), null);
+        } catch (HttpClientErrorException e) {
+            throw new RuntimeException("Failed to create estimate: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse estimate response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Validated Estimate body; shared by {@link #createEstimate} and the outbox.
+     */
+    TxnPayload estimatePayload(String realmId, String customerId, String itemId, String projectId,
+                               int quantity, double unitPrice, String description) {
         if (realmId == null || realmId.trim().isEmpty()) {
             throw new RuntimeException("Realm ID is required");
         }
@@ -527,91 +684,45 @@ public class QuickBooksApiService {
         if (projectId == null || projectId.trim().isEmpty()) {
             throw new RuntimeException("Project ID is required");
         }
-
-        try {
-            java.util.Map<String, Object> payload = new java.util.HashMap<>();
-            payload.put("TxnDate", java.time.LocalDate.now().toString());
-            java.util.Map<String, Object> currency = new java.util.HashMap<>();
-            currency.put("value", "USD");
-            currency.put("name", "United States Dollar");
-            payload.put("CurrencyRef", currency);
-
-            // Project and customer linkage
-            java.util.Map<String, Object> projectRef = new java.util.HashMap<>();
-            projectRef.put("value", projectId);
-            payload.put("ProjectRef", projectRef);
-
-            java.util.Map<String, Object> customerRef = new java.util.HashMap<>();
-            customerRef.put("value", customerId);
-            payload.put("CustomerRef", customerRef);
-
-            java.math.BigDecimal total = java.math.BigDecimal.valueOf(quantity).multiply(java.math.BigDecimal.valueOf(unitPrice));
-
-            // Line
-            java.util.Map<String, Object> salesDetail = new java.util.HashMap<>();
-            java.util.Map<String, Object> itemRef = new java.util.HashMap<>();
-            itemRef.put("value", itemId);
-            salesDetail.put("ItemRef", itemRef);
-            salesDetail.put("UnitPrice", unitPrice);
-            salesDetail.put("Qty", quantity);
-            java.util.Map<String, Object> taxCode = new java.util.HashMap<>();
-            taxCode.put("value", "NON");
-            salesDetail.put("TaxCodeRef", taxCode);
-
-            java.util.Map<String, Object> line1 = new java.util.HashMap<>();
-            line1.put("Id", "1");
-            line1.put("LineNum", 1);
-            if (description != null && !description.trim().isEmpty()) {
-                line1.put("Description", description);
-            }
-            line1.put("Amount", total);
-            line1.put("DetailType", "SalesItemLineDetail");
-            line1.put("SalesItemLineDetail", salesDetail);
-
-            java.util.Map<String, Object> subTotal = new java.util.HashMap<>();
-            subTotal.put("Amount", total);
-            subTotal.put("DetailType", "SubTotalLineDetail");
-            subTotal.put("SubTotalLineDetail", new java.util.HashMap<>());
-
-            java.util.List<java.util.Map<String, Object>> lines = new java.util.ArrayList<>();
-            lines.add(line1);
-            lines.add(subTotal);
-            payload.put("Line", lines);
-
-            String body = restClient.postJson(ctx(accessToken, realmId), "/estimate", payload);
-            JsonNode root = objectMapper.readTree(body);
-            JsonNode est = root.path("Estimate");
-            if (est.isMissingNode()) {
-                // Some responses nest under top-level; attempt alt path
-                est = root.path("Estimate");
-            }
-            java.util.Map<String, Object> result = new java.util.HashMap<>();
-            result.put("estimateId", est.path("Id").asText(null));
-            result.put("totalAmt", est.path("TotalAmt").asDouble(0));
-            result.put("projectId", projectId);
-            result.put("customerId", customerId);
-            return result;
-        } catch (HttpClientErrorException e) {
-            throw new RuntimeException("Failed to create estimate: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse estimate response: " + e.getMessage(), e);
-        }
+        return buildEstimatePayload(customerId, itemId, projectId, quantity, unitPrice, description);
     }
 
     /**
      * Create a Sales Receipt via Accounting REST API with ProjectRef linkage.
      */
-    public Map<String, Object> createSalesReceipt(String accessToken,
+    public TransactionResult createSalesReceipt(String accessToken,
                                                   String realmId,
                                                   String customerId,
                                                   String itemId,
                                                   String projectId,
                                                   int quantity,
                                                   double unitPrice,
-                                                  String description) {
+                                                  String description,
+                                                  String submissionKey) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
+        TxnPayload payload = salesReceiptPayload(realmId, customerId, itemId, projectId, quantity, unitPrice, description);
+
+        try {
+            String body = restClient.postJson(ctx(accessToken, realmId), "/salesreceipt", payload,
+                IdempotencyLedger.submissionId(realmId, "/salesreceipt", submissionKey));
+            JsonNode sr = objectMapper.readTree(body).path("SalesReceipt");
+            // Optional deep link for SR
+            return new TransactionResult(sr.path("Id").asText(null), sr.path("DocNumber").asText(null), projectId, customerId,
+                null, sr.path("TotalAmt").decimalValue(), "https://app.qbo.intuit.com/app/salesreceipt?txnId=" + sr.path("Id").asText(""));
+        } catch (HttpClientErrorException e) {
+            throw new RuntimeException("Failed to create sales receipt: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse sales receipt response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Validated SalesReceipt body; shared by {@link #createSalesReceipt} and the outbox.
+     */
+    TxnPayload salesReceiptPayload(String realmId, String customerId, String itemId, String projectId,
+                                   int quantity, double unitPrice, String description) {
         if (realmId == null || realmId.trim().isEmpty()) {
             throw new RuntimeException("Realm ID is required");
         }
@@ -627,86 +738,44 @@ public class QuickBooksApiService {
         if (quantity <= 0 || unitPrice < 0) {
             throw new RuntimeException("Quantity must be > 0 and UnitPrice >= 0");
         }
-
-        try {
-            java.util.Map<String, Object> payload = new java.util.HashMap<>();
-            payload.put("TxnDate", java.time.LocalDate.now().toString());
-            java.util.Map<String, Object> currency = new java.util.HashMap<>();
-            currency.put("value", "USD");
-            currency.put("name", "United States Dollar");
-            payload.put("CurrencyRef", currency);
-
-            // CustomerRef
-            java.util.Map<String, Object> customerRef = new java.util.HashMap<>();
-            customerRef.put("value", customerId);
-            payload.put("CustomerRef", customerRef);
-
-            // Lines
-            java.math.BigDecimal total = java.math.BigDecimal.valueOf(quantity).multiply(java.math.BigDecimal.valueOf(unitPrice));
-            java.util.Map<String, Object> line1 = new java.util.HashMap<>();
-            line1.put("Id", "1");
-            line1.put("LineNum", 1);
-            if (description != null && !description.trim().isEmpty()) {
-                line1.put("Description", description);
-            }
-            line1.put("Amount", total);
-            line1.put("DetailType", "SalesItemLineDetail");
-            // ProjectRef on the line
-            java.util.Map<String, Object> projRef = new java.util.HashMap<>();
-            projRef.put("value", projectId);
-            line1.put("ProjectRef", projRef);
-            // SalesItemLineDetail
-            java.util.Map<String, Object> salesDetail = new java.util.HashMap<>();
-            java.util.Map<String, Object> itemRef = new java.util.HashMap<>();
-            itemRef.put("value", itemId);
-            salesDetail.put("ItemRef", itemRef);
-            salesDetail.put("UnitPrice", unitPrice);
-            salesDetail.put("Qty", quantity);
-            java.util.Map<String, Object> taxCode = new java.util.HashMap<>();
-            taxCode.put("value", "NON");
-            salesDetail.put("TaxCodeRef", taxCode);
-            line1.put("SalesItemLineDetail", salesDetail);
-
-            java.util.Map<String, Object> subTotal = new java.util.HashMap<>();
-            subTotal.put("Amount", total);
-            subTotal.put("DetailType", "SubTotalLineDetail");
-            subTotal.put("SubTotalLineDetail", new java.util.HashMap<>());
-
-            java.util.List<java.util.Map<String, Object>> lines = new java.util.ArrayList<>();
-            lines.add(line1);
-            lines.add(subTotal);
-            payload.put("Line", lines);
-
-            String body = restClient.postJson(ctx(accessToken, realmId), "/salesreceipt", payload);
-            JsonNode root = objectMapper.readTree(body);
-            JsonNode sr = root.path("SalesReceipt");
-            java.util.Map<String, Object> result = new java.util.HashMap<>();
-            result.put("salesReceiptId", sr.path("Id").asText(null));
-            result.put("totalAmt", sr.path("TotalAmt").asDouble(0));
-            result.put("projectId", projectId);
-            // Optional deep link for SR
-            result.put("deepLink", "https://app.qbo.intuit.com/app/salesreceipt?txnId=" + sr.path("Id").asText(""));
-            return result;
-        } catch (HttpClientErrorException e) {
-            throw new RuntimeException("Failed to create sales receipt: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse sales receipt response: " + e.getMessage(), e);
-        }
+        return buildSalesReceiptPayload(customerId, itemId, projectId, quantity, unitPrice, description);
     }
 
     /**
      * Create a Bill via Accounting REST API and link to a Project using ProjectRef.
      */
-    public Map<String, Object> createBill(String accessToken,
+    public TransactionResult createBill(String accessToken,
                                           String realmId,
                                           String vendorId,
                                           String expenseAccountId,
                                           String projectId,
                                           double amount,
-                                          String description) {
+                                          String description,
+                                          String submissionKey) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
+        TxnPayload payload = billPayload(realmId, vendorId, expenseAccountId, projectId, amount, description);
+
+        try {
+            String body = restClient.postJson(ctx(accessToken, realmId), "/bill", payload,
+                IdempotencyLedger.submissionId(realmId, "/bill", submissionKey));
+            JsonNode bill = objectMapper.readTree(body).path("Bill");
+            // convenience deep link for UI
+            return new TransactionResult(bill.path("Id").asText(null), bill.path("DocNumber").asText(null), projectId, null,
+                vendorId, bill.path("TotalAmt").decimalValue(), "https://app.qbo.intuit.com/app/bill?txnId=" + bill.path("Id").asText(""));
+        } catch (HttpClientErrorException e) {
+            throw new RuntimeException("Failed to create bill: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse bill response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Validated Bill body; shared by {@link #createBill} and the outbox.
+     */
+    TxnPayload billPayload(String realmId, String vendorId, String expenseAccountId, String projectId,
+                           double amount, String description) {
         if (realmId == null || realmId.trim().isEmpty()) {
             throw new RuntimeException("Realm ID is required");
         }
@@ -722,60 +791,61 @@ public class QuickBooksApiService {
         if (amount <= 0) {
             throw new RuntimeException("Amount must be > 0");
         }
+        return buildBillPayload(vendorId, expenseAccountId, projectId, amount, description);
+    }
 
-        try {
-            java.util.Map<String, Object> payload = new java.util.HashMap<>();
-            payload.put("TxnDate", java.time.LocalDate.now().toString());
-
-            // Line with AccountBasedExpenseLineDetail and ProjectRef
-            java.util.Map<String, Object> line = new java.util.HashMap<>();
-            line.put("DetailType", "AccountBasedExpenseLineDetail");
-            line.put("Amount", amount);
-            line.put("Id", "1");
-            java.util.Map<String, Object> projRef = new java.util.HashMap<>();
-            projRef.put("value", projectId);
-            line.put("ProjectRef", projRef);
-            if (description != null && !description.trim().isEmpty()) {
-                line.put("Description", description);
-            }
+    /**
+     * Build the Estimate request body (single sales line plus subtotal, linked via ProjectRef).
+     */
+    TxnPayload buildEstimatePayload(String customerId, String itemId, String projectId,
+                                    int quantity, double unitPrice, String description) {
+        BigDecimal total = BigDecimal.valueOf(quantity).multiply(BigDecimal.valueOf(unitPrice));
+        TxnPayload.SalesItemLineDetail salesDetail = new TxnPayload.SalesItemLineDetail(
+            TxnPayload.Ref.of(itemId), unitPrice, quantity, TxnPayload.NON_TAXABLE);
+        TxnPayload.Line line1 = new TxnPayload.Line("1", 1, blankToNull(description), total, "SalesItemLineDetail",
+            null, salesDetail, null, null);
+        // Project and customer linkage on the header
+        return new TxnPayload(java.time.LocalDate.now().toString(), TxnPayload.USD, TxnPayload.Ref.of(customerId),
+            null, TxnPayload.Ref.of(projectId), List.of(line1, TxnPayload.Line.subTotal(total)));
+    }
 
-            java.util.Map<String, Object> abd = new java.util.HashMap<>();
-            java.util.Map<String, Object> acctRef = new java.util.HashMap<>();
-            acctRef.put("value", expenseAccountId);
-            abd.put("AccountRef", acctRef);
-            line.put("AccountBasedExpenseLineDetail", abd);
+    /**
+     * Build the SalesReceipt request body (ProjectRef carried on the sales line).
+     */
+    TxnPayload buildSalesReceiptPayload(String customerId, String itemId, String projectId,
+                                        int quantity, double unitPrice, String description) {
+        BigDecimal total = BigDecimal.valueOf(quantity).multiply(BigDecimal.valueOf(unitPrice));
+        TxnPayload.SalesItemLineDetail salesDetail = new TxnPayload.SalesItemLineDetail(
+            TxnPayload.Ref.of(itemId), unitPrice, quantity, TxnPayload.NON_TAXABLE);
+        // ProjectRef on the line
+        TxnPayload.Line line1 = new TxnPayload.Line("1", 1, blankToNull(description), total, "SalesItemLineDetail",
+            TxnPayload.Ref.of(projectId), salesDetail, null, null);
+        return new TxnPayload(java.time.LocalDate.now().toString(), TxnPayload.USD, TxnPayload.Ref.of(customerId),
+            null, null, List.of(line1, TxnPayload.Line.subTotal(total)));
+    }
 
-            java.util.List<java.util.Map<String, Object>> lines = new java.util.ArrayList<>();
-            lines.add(line);
-            payload.put("Line", lines);
-
-            // VendorRef
-            java.util.Map<String, Object> vendorRef = new java.util.HashMap<>();
-            vendorRef.put("value", vendorId);
-            payload.put("VendorRef", vendorRef);
-
-            String body = restClient.postJson(ctx(accessToken, realmId), "/bill", payload);
-            JsonNode root = objectMapper.readTree(body);
-            JsonNode bill = root.path("Bill");
-            java.util.Map<String, Object> result = new java.util.HashMap<>();
-            result.put("billId", bill.path("Id").asText(null));
-            result.put("totalAmt", bill.path("TotalAmt").asDouble(0));
-            result.put("projectId", projectId);
-            result.put("vendorId", vendorId);
-            // convenience deep link for UI
-            result.put("deepLink", "https://app.qbo.intuit.com/app/bill?txnId=" + bill.path("Id").asText(""));
-            return result;
-        } catch (HttpClientErrorException e) {
-            throw new RuntimeException("Failed to create bill: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse bill response: " + e.getMessage(), e);
-        }
+    /**
+     * Build the Bill request body (one account-based expense line linked via ProjectRef).
+     */
+    TxnPayload buildBillPayload(String vendorId, String expenseAccountId, String projectId,
+                                double amount, String description) {
+        // Line with AccountBasedExpenseLineDetail and ProjectRef
+        TxnPayload.Line line = new TxnPayload.Line("1", null, blankToNull(description), BigDecimal.valueOf(amount),
+            "AccountBasedExpenseLineDetail", TxnPayload.Ref.of(projectId), null, null,
+            new TxnPayload.AccountBasedExpenseLineDetail(TxnPayload.Ref.of(expenseAccountId)));
+        return new TxnPayload(java.time.LocalDate.now().toString(), null, null, TxnPayload.Ref.of(vendorId), null,
+            List.of(line));
+    }
+
+    private static String blankToNull(String value) {
+        return value != null && !value.trim().isEmpty() ? value : null;
     }
+
     /**
      * Create an Item (Service) using the QuickBooks Java SDK.
      * Automatically locates an Income account if none is provided.
      */
-    public Map<String, Object> createItem(String accessToken, String realmId, String name, double unitPrice) {
+    public EntityCreateResult createItem(String accessToken, String realmId, String name, double unitPrice, String submissionKey) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
@@ -788,11 +858,14 @@ public class QuickBooksApiService {
         if (unitPrice < 0) {
             throw new RuntimeException("Unit price must be >= 0");
         }
+        if (config.isRestEngine("item")) {
+            return createItemViaRest(accessToken, realmId, name, unitPrice, submissionKey);
+        }
 
         try {
             DataService dataService = sdkClient.dataService(ctx(accessToken, realmId));
 
-            String incomeAccountId = findIncomeAccountId(dataService);
+            String incomeAccountId = findIncomeAccountId(ctx(accessToken, realmId), dataService);
             if (incomeAccountId == null) {
                 throw new RuntimeException("Could not find an Income account to assign to the item");
             }
@@ -805,13 +878,11 @@ public class QuickBooksApiService {
             incomeRef.setValue(incomeAccountId);
             item.setIncomeAccountRef(incomeRef);
 
-            Item created = dataService.add(item);
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("id", created.getId());
-            result.put("name", created.getName());
-            result.put("unitPrice", created.getUnitPrice());
-            return result;
+            String requestId = IdempotencyLedger.submissionId(realmId, "/item", submissionKey);
+            DataService createService = sdkClient.dataService(ctx(accessToken, realmId), requestId);
+            Item created = ledger.execute(requestId, () -> createService.add(item));
+            mirror.changed(realmId, "Item");
+            return new EntityCreateResult(created.getId(), created.getName(), created.getUnitPrice());
 
         } catch (FMSException e) {
             String errorMessage = "QuickBooks API Error (create item): " + e.getMessage()
@@ -824,12 +895,68 @@ public class QuickBooksApiService {
         }
     }
 
+    /**
+     * Create a Service Item via the Accounting REST API (JSON), looking up the Income account with a REST query.
+     */
+    private EntityCreateResult createItemViaRest(String accessToken, String realmId, String name, double unitPrice,
+                                                 String submissionKey) {
+        QuickBooksContext qbCtx = ctx(accessToken, realmId);
+        try {
+            String incomeQuery = "select Id from Account where AccountType = 'Income' and Active = true";
+            JsonNode local = mirror.query(qbCtx, incomeQuery);
+            String incomeAccountId = local != null
+                ? local.path("QueryResponse").path("Account").path(0).path("Id").asText(null)
+                : firstQueryEntityId(restClient.query(qbCtx, incomeQuery), "Account");
+            if (incomeAccountId == null) {
+                throw new RuntimeException("Could not find an Income account to assign to the item");
+            }
+            String body = restClient.postJson(qbCtx, "/item", buildItemPayload(name, unitPrice, incomeAccountId),
+                IdempotencyLedger.submissionId(realmId, "/item", submissionKey));
+            JsonNode created = objectMapper.readTree(body).path("Item");
+            mirror.changed(realmId, "Item");
+            return new EntityCreateResult(created.path("Id").asText(null), created.path("Name").asText(name),
+                created.has("UnitPrice") ? created.get("UnitPrice").decimalValue() : BigDecimal.valueOf(unitPrice));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse item response: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to create item: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Build the Service Item request body.
+     */
+    java.util.Map<String, Object> buildItemPayload(String name, double unitPrice, String incomeAccountId) {
+        java.util.Map<String, Object> payload = new java.util.HashMap<>();
+        payload.put("Name", name);
+        payload.put("Type", "Service");
+        payload.put("UnitPrice", BigDecimal.valueOf(unitPrice));
+        java.util.Map<String, Object> incomeRef = new java.util.HashMap<>();
+        incomeRef.put("value", incomeAccountId);
+        payload.put("IncomeAccountRef", incomeRef);
+        return payload;
+    }
+
+    /** The SDK's enum name for a REST AccountType value ("Cost of Goods Sold" -> COST_OF_GOODS_SOLD), as SDK reads report it. */
+    private static String accountTypeName(String value) {
+        try {
+            return AccountTypeEnum.fromValue(value).name();
+        } catch (IllegalArgumentException e) {
+            return value;
+        }
+    }
+
     /**
      * Attempts to find a valid Income account id for use when creating items.
      */
-    private String findIncomeAccountId(DataService dataService) throws FMSException {
+    private String findIncomeAccountId(QuickBooksContext qbCtx, DataService dataService) throws FMSException {
         // Prefer a generic income account if available
-        QueryResult qr = dataService.executeQuery("select * from Account where AccountType = 'Income' and Active = true");
+        String query = "select * from Account where AccountType = 'Income' and Active = true";
+        JsonNode local = mirror.query(qbCtx, query);
+        if (local != null) {
+            return local.path("QueryResponse").path("Account").path(0).path("Id").asText(null);
+        }
+        QueryResult qr = dataService.executeQuery(query);
         if (qr != null && qr.getEntities() != null && !qr.getEntities().isEmpty()) {
             Object first = qr.getEntities().get(0);
             if (first instanceof Account acc) {
@@ -843,7 +970,7 @@ public class QuickBooksApiService {
     /**
      * Fetch Vendors using the QuickBooks SDK (for Step 8 dropdown).
      */
-    public Map<String, Object> getVendors(String accessToken, String realmId) {
+    public List<VendorSummary> getVendors(String accessToken, String realmId) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
@@ -851,23 +978,27 @@ public class QuickBooksApiService {
             throw new RuntimeException("Realm ID is required");
         }
         try {
+            String query = "select Id, DisplayName from Vendor where Active = true";
+            JsonNode local = mirror.query(ctx(accessToken, realmId), query);
+            if (local != null) {
+                List<VendorSummary> vendors = new ArrayList<>();
+                for (JsonNode v : local.path("QueryResponse").path("Vendor")) {
+                    vendors.add(new VendorSummary(v.path("Id").asText(), v.path("DisplayName").asText(null)));
+                }
+                return vendors;
+            }
             DataService dataService = sdkClient.dataService(ctx(accessToken, realmId));
 
-            QueryResult qr = dataService.executeQuery("select Id, DisplayName from Vendor where Active = true");
-            java.util.List<java.util.Map<String, Object>> vendors = new java.util.ArrayList<>();
+            QueryResult qr = dataService.executeQuery(query);
+            List<VendorSummary> vendors = new ArrayList<>();
             if (qr != null && qr.getEntities() != null) {
                 for (Object entity : qr.getEntities()) {
                     if (entity instanceof Vendor v) {
-                        java.util.Map<String, Object> item = new java.util.HashMap<>();
-                        item.put("id", v.getId());
-                        item.put("name", v.getDisplayName());
-                        vendors.add(item);
+                        vendors.add(new VendorSummary(v.getId(), v.getDisplayName()));
                     }
                 }
             }
-            java.util.Map<String, Object> result = new java.util.HashMap<>();
-            result.put("vendors", vendors);
-            return result;
+            return vendors;
         } catch (FMSException e) {
             String errorMessage = "QuickBooks API Error (get vendors): " + e.getMessage()
                 + " [env=" + config.getEnvironment()
@@ -880,7 +1011,7 @@ public class QuickBooksApiService {
     /**
      * Fetch Expense accounts (and COGS) for use in Bill lines.
      */
-    public Map<String, Object> getExpenseAccounts(String accessToken, String realmId) {
+    public List<AccountSummary> getExpenseAccounts(String accessToken, String realmId) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
@@ -888,24 +1019,28 @@ public class QuickBooksApiService {
             throw new RuntimeException("Realm ID is required");
         }
         try {
+            String query = "select Id, Name, AccountType from Account where Active = true and AccountType in ('Expense','Cost of Goods Sold')";
+            JsonNode local = mirror.query(ctx(accessToken, realmId), query);
+            if (local != null) {
+                List<AccountSummary> accounts = new ArrayList<>();
+                for (JsonNode a : local.path("QueryResponse").path("Account")) {
+                    accounts.add(AccountSummary.of(a.path("Id").asText(), a.path("Name").asText(null),
+                        accountTypeName(a.path("AccountType").asText(""))));
+                }
+                return accounts;
+            }
             DataService dataService = sdkClient.dataService(ctx(accessToken, realmId));
 
-            QueryResult qr = dataService.executeQuery("select Id, Name, AccountType from Account where Active = true and AccountType in ('Expense','Cost of Goods Sold')");
-            java.util.List<java.util.Map<String, Object>> accounts = new java.util.ArrayList<>();
+            QueryResult qr = dataService.executeQuery(query);
+            List<AccountSummary> accounts = new ArrayList<>();
             if (qr != null && qr.getEntities() != null) {
                 for (Object entity : qr.getEntities()) {
                     if (entity instanceof Account a) {
-                        java.util.Map<String, Object> item = new java.util.HashMap<>();
-                        item.put("id", a.getId());
-                        item.put("name", a.getName());
-                        item.put("type", a.getAccountType() != null ? a.getAccountType().name() : "");
-                        accounts.add(item);
+                        accounts.add(AccountSummary.of(a.getId(), a.getName(), a.getAccountType() != null ? a.getAccountType().name() : ""));
                     }
                 }
             }
-            java.util.Map<String, Object> result = new java.util.HashMap<>();
-            result.put("accounts", accounts);
-            return result;
+            return accounts;
         } catch (FMSException e) {
             String errorMessage = "QuickBooks API Error (get expense accounts): " + e.getMessage()
                 + " [env=" + config.getEnvironment()
@@ -915,7 +1050,30 @@ public class QuickBooksApiService {
         }
     }
 
-    public Map<String, Object> createProject(String accessToken, String customerName, String customerId, String projectName) {
+    public ProjectSummary createProject(String accessToken, String customerName, String customerId, String projectName) {
+        return createProject(accessToken, null, customerName, customerId, projectName, null);
+    }
+
+    /**
+     * Create a project. With a {@code submissionKey} the create goes through the ledger, so a
+     * resubmit of the same form returns the original project instead of creating another; GraphQL
+     * has no requestid, so without a key nothing is deduplicated.
+     */
+    public ProjectSummary createProject(String accessToken, String realmId, String customerName, String customerId, String projectName,
+                                        String submissionKey) {
+        ProjectSummary created;
+        if (submissionKey == null || submissionKey.isBlank()) {
+            created = submitCreateProject(accessToken, customerName, customerId, projectName);
+        } else {
+            String requestId = IdempotencyLedger.submissionId(realmId, "/graphql/createProject", submissionKey);
+            created = ledger.execute(requestId, () -> submitCreateProject(accessToken, customerName, customerId, projectName));
+        }
+        // Projects are sub-customers in the accounting API
+        mirror.changed(realmId, "Customer");
+        return created;
+    }
+
+    private ProjectSummary submitCreateProject(String accessToken, String customerName, String customerId, String projectName) {
         // Validate required parameters
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
@@ -947,8 +1105,8 @@ public class QuickBooksApiService {
             
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(graphqlRequest, headers);
             
-            // Make GraphQL request using RestTemplate
-            ResponseEntity<String> response = exchangeWithRetry(config.getGraphqlUrl(), HttpMethod.POST, request);
+            // Make GraphQL request using RestTemplate (mutation: retry only explicit rejections)
+            ResponseEntity<String> response = exchangeRetryingRejections(config.getGraphqlUrl(), HttpMethod.POST, request);
             
             if (response.getStatusCode().is2xxSuccessful()) {
                 JsonNode responseData = objectMapper.readTree(response.getBody());
@@ -970,15 +1128,14 @@ public class QuickBooksApiService {
                 
                 JsonNode projectData = responseData.get("data").get("projectManagementCreateProject");
                 
-                Map<String, Object> result = new HashMap<>();
-                result.put("id", projectData.get("id").asText());
-                result.put("name", projectData.get("name").asText());
-                result.put("description", projectData.get("description").asText());
-                result.put("status", projectData.get("status").asText());
-                result.put("startDate", projectData.get("startDate").asText());
-                result.put("dueDate", projectData.get("dueDate").asText());
-                
-                return result;
+                return ProjectSummary.of(
+                    projectData.get("id").asText(),
+                    projectData.get("name").asText(),
+                    projectData.get("description").asText(),
+                    projectData.get("status").asText(),
+                    projectData.get("startDate").asText(),
+                    projectData.get("dueDate").asText(),
+                    null, null);
             }
             
             throw new RuntimeException("Failed to create project: " + response.getBody());
@@ -1008,27 +1165,16 @@ public class QuickBooksApiService {
      * Read GraphQL mutation from file 
      */
     private String getProjectMutation() {
-        try {
-            ClassPathResource resource = new ClassPathResource("graphql/project.graphql");
-            return new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read GraphQL file: " + e.getMessage(), e);
-        }
+        return readResource("graphql/project.graphql");
     }
     
     private String getProjectsListQuery() {
-        try {
-            ClassPathResource resource = new ClassPathResource("graphql/projects_list.graphql");
-            return new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read GraphQL list query: " + e.getMessage(), e);
-        }
+        return readResource("graphql/projects_list.graphql");
     }
 
     private Map<String, Object> prepareProjectsListVariables() {
         try {
-            ClassPathResource resource = new ClassPathResource("graphql/projects_list_variables.json");
-            String json = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            String json = readResource("graphql/projects_list_variables.json");
             JsonNode node = objectMapper.readTree(json);
             Map<String, Object> vars = new HashMap<>();
             // Default filter: no-op filter object; adjust fields as needed later
@@ -1058,19 +1204,33 @@ public class QuickBooksApiService {
         }
     }
 
+    /**
+     * Classpath text resource (GraphQL documents), read once and cached.
+     */
     private String readResource(String classpathLocation) {
-        try {
-            ClassPathResource resource = new ClassPathResource(classpathLocation);
-            return new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read resource: " + classpathLocation + ": " + e.getMessage(), e);
+        return resourceCache.computeIfAbsent(classpathLocation, location -> {
+            try {
+                ClassPathResource resource = new ClassPathResource(location);
+                return new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read resource: " + location + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Load every bundled GraphQL document and variables template into the cache (startup warm-up).
+     */
+    void preloadGraphqlDocuments() {
+        for (String location : GRAPHQL_DOCUMENTS) {
+            readResource(location);
         }
     }
     
     /**
      * Delete a project via GraphQL using id and version (soft-delete).
      */
-    public Map<String, Object> deleteProject(String accessToken, String realmId, String id, Integer version) {
+    public ProjectDeleteResult deleteProject(String accessToken, String realmId, String id, Integer version) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
@@ -1119,16 +1279,12 @@ public class QuickBooksApiService {
                 throw new RuntimeException("No response for delete project");
             }
 
-            Map<String, Object> result = new HashMap<>();
-            if (data.has("id")) {
-                result.put("id", data.path("id").asText());
-                result.put("name", data.path("name").asText(null));
-                result.put("version", data.path("version").asInt(0));
-                result.put("deleted", data.path("deleted").asBoolean(false));
-            } else if (data.has("message")) {
+            if (data.has("message") && !data.has("id")) {
                 throw new RuntimeException("Delete failed: " + data.path("message").asText());
             }
-            return result;
+            mirror.changed(realmId, "Customer");
+            return new ProjectDeleteResult(data.path("id").asText(id), data.path("name").asText(null),
+                data.path("version").asInt(0), data.path("deleted").asBoolean(false));
         } catch (org.springframework.web.client.RestClientResponseException e) {
             int status = e.getRawStatusCode();
             if (status == 401) {
@@ -1145,8 +1301,7 @@ public class QuickBooksApiService {
     private Map<String, Object> prepareProjectVariables(String customerName, String customerId, String projectName) {
         try {
             
-            ClassPathResource resource = new ClassPathResource("graphql/project_variables.json");
-            String jsonContent = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            String jsonContent = readResource("graphql/project_variables.json");
             JsonNode templateData = objectMapper.readTree(jsonContent);
             JsonNode template = templateData.get("template");
             
@@ -1187,8 +1342,8 @@ public class QuickBooksApiService {
     /**
      * List projects via GraphQL with pagination support.
      */
-    public Map<String, Object> listProjects(String accessToken, String realmId, Integer first, String afterCursor,
-                                            String startDateIso, String endDateIso) {
+    public ProjectPage listProjects(String accessToken, String realmId, Integer first, String afterCursor,
+                                    String startDateIso, String endDateIso) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
@@ -1243,7 +1398,7 @@ public class QuickBooksApiService {
             headers.set("Accept", "application/json");
 
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(graphqlRequest, headers);
-            ResponseEntity<String> response = exchangeWithRetry(config.getGraphqlUrl(), HttpMethod.POST, request);
+            ResponseEntity<String> response = hedging.execute("graphql.listProjects", () -> exchangeWithRetry(config.getGraphqlUrl(), HttpMethod.POST, request));
             if (!response.getStatusCode().is2xxSuccessful()) {
                 throw new RuntimeException("Failed to list projects: " + response.getBody());
             }
@@ -1258,57 +1413,45 @@ public class QuickBooksApiService {
             }
 
             JsonNode conn = root.path("data").path("projectManagementProjects");
-            Map<String, Object> result = new HashMap<>();
+            ProjectPage.PageInfo pageInfo = null;
             if (conn.has("pageInfo")) {
-                Map<String, Object> pageInfo = new HashMap<>();
-                pageInfo.put("hasNextPage", conn.path("pageInfo").path("hasNextPage").asBoolean(false));
-                pageInfo.put("endCursor", conn.path("pageInfo").path("endCursor").isMissingNode() || conn.path("pageInfo").path("endCursor").isNull() ? null : conn.path("pageInfo").path("endCursor").asText());
-                result.put("pageInfo", pageInfo);
+                JsonNode pi = conn.path("pageInfo");
+                pageInfo = new ProjectPage.PageInfo(pi.path("hasNextPage").asBoolean(false), pi.path("endCursor").asText(null));
             }
 
-            List<Map<String, Object>> nodes = new ArrayList<>();
-            if (conn.has("edges") && conn.get("edges").isArray()) {
-                for (JsonNode e : conn.get("edges")) {
-                    JsonNode n = e.path("node");
-                    Map<String, Object> p = new HashMap<>();
-                    p.put("id", n.path("id").asText());
-                    p.put("name", n.path("name").asText(null));
-                    p.put("description", n.path("description").asText(null));
-                    p.put("type", n.path("type").isMissingNode() ? null : n.path("type").asText(null));
-                    p.put("status", n.path("status").asText(null));
-                    p.put("startDate", n.path("startDate").asText(null));
-                    p.put("dueDate", n.path("dueDate").asText(null));
-                    p.put("completedDate", n.path("completedDate").isMissingNode() ? null : n.path("completedDate").asText(null));
-                    p.put("priority", n.path("priority").isMissingNode() ? null : n.path("priority").asInt());
-                    if (n.has("customer")) {
-                        Map<String, Object> cust = new HashMap<>();
-                        cust.put("id", n.path("customer").path("id").asText(null));
-                        p.put("customer", cust);
-                    }
-                    if (n.has("assignee")) {
-                        p.put("assigneeId", n.path("assignee").path("id").asText(null));
-                    }
-                    if (n.has("account")) {
-                        p.put("accountId", n.path("account").path("id").asText(null));
+            JsonNode edges = conn.path("edges");
+            List<ProjectSummary> nodes = new ArrayList<>(edges.size());
+            for (JsonNode e : edges) {
+                JsonNode n = e.path("node");
+                List<ProjectSummary.Address> addresses = null;
+                if (n.path("addresses").isArray()) {
+                    addresses = new ArrayList<>(n.get("addresses").size());
+                    for (JsonNode a : n.get("addresses")) {
+                        addresses.add(new ProjectSummary.Address(
+                            a.path("streetAddressLine1").asText(null),
+                            a.path("streetAddressLine2").asText(null),
+                            a.path("streetAddressLine3").asText(null),
+                            a.path("state").asText(null),
+                            a.path("postalCode").asText(null)));
                     }
-                    if (n.has("addresses") && n.get("addresses").isArray()) {
-                        List<Map<String, Object>> addrs = new ArrayList<>();
-                        for (JsonNode a : n.get("addresses")) {
-                            Map<String, Object> ad = new HashMap<>();
-                            ad.put("streetAddressLine1", a.path("streetAddressLine1").asText(null));
-                            ad.put("streetAddressLine2", a.path("streetAddressLine2").isMissingNode() || a.get("streetAddressLine2").isNull() ? null : a.get("streetAddressLine2").asText());
-                            ad.put("streetAddressLine3", a.path("streetAddressLine3").isMissingNode() || a.get("streetAddressLine3").isNull() ? null : a.get("streetAddressLine3").asText());
-                            ad.put("state", a.path("state").asText(null));
-                            ad.put("postalCode", a.path("postalCode").asText(null));
-                            addrs.add(ad);
-                        }
-                        p.put("addresses", addrs);
-                    }
-                    nodes.add(p);
                 }
+                nodes.add(new ProjectSummary(
+                    n.path("id").asText(),
+                    n.path("name").asText(null),
+                    n.path("description").asText(null),
+                    n.path("type").asText(null),
+                    n.path("status").asText(null),
+                    n.path("startDate").asText(null),
+                    n.path("dueDate").asText(null),
+                    n.path("completedDate").asText(null),
+                    n.path("priority").isMissingNode() ? null : n.path("priority").asInt(),
+                    customerRef(n),
+                    n.has("assignee") ? n.path("assignee").path("id").asText(null) : null,
+                    n.has("account") ? n.path("account").path("id").asText(null) : null,
+                    addresses,
+                    null));
             }
-            result.put("nodes", nodes);
-            return result;
+            return new ProjectPage(nodes, pageInfo);
         } catch (HttpClientErrorException e) {
             int status = e.getStatusCode().value();
             if (status == 401) {
@@ -1325,7 +1468,7 @@ public class QuickBooksApiService {
     /**
      * Get a single project by ID via GraphQL.
      */
-    public Map<String, Object> getProjectById(String accessToken, String realmId, String id) {
+    public ProjectSummary getProjectById(String accessToken, String realmId, String id) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
@@ -1352,7 +1495,7 @@ public class QuickBooksApiService {
             headers.set("Accept", "application/json");
 
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(graphqlRequest, headers);
-            ResponseEntity<String> response = exchangeWithRetry(config.getGraphqlUrl(), HttpMethod.POST, request);
+            ResponseEntity<String> response = hedging.execute("graphql.getProject", () -> exchangeWithRetry(config.getGraphqlUrl(), HttpMethod.POST, request));
             if (!response.getStatusCode().is2xxSuccessful()) {
                 throw new RuntimeException("Failed to get project: " + response.getBody());
             }
@@ -1368,21 +1511,8 @@ public class QuickBooksApiService {
             if (n.isMissingNode() || n.isNull()) {
                 throw new RuntimeException("Project not found: " + id);
             }
-            Map<String, Object> p = new HashMap<>();
             // include id so downstream (invoice) has it available
-            p.put("id", n.path("id").asText(id));
-            p.put("name", n.path("name").asText(null));
-            p.put("status", n.path("status").asText(null));
-            p.put("description", n.path("description").asText(null));
-            p.put("startDate", n.path("startDate").asText(null));
-            p.put("dueDate", n.path("dueDate").asText(null));
-            if (n.has("account")) { p.put("accountId", n.path("account").path("id").asText(null)); }
-            if (n.has("customer")) {
-                Map<String, Object> cust = new HashMap<>();
-                cust.put("id", n.path("customer").path("id").asText(null));
-                p.put("customer", cust);
-            }
-            return p;
+            return projectSummary(n, id);
         } catch (HttpClientErrorException e) {
             int status = e.getStatusCode().value();
             if (status == 401) {
@@ -1398,9 +1528,9 @@ public class QuickBooksApiService {
 
     /**
      * Fetch multiple projects by IDs using GraphQL aliases in a single round-trip.
-     * Returns a list of lightweight maps with common fields.
+     * Returns one summary per requested id (id only when not found).
      */
-    public java.util.List<java.util.Map<String, Object>> getProjectsByIds(String accessToken, String realmId, java.util.List<String> ids) {
+    public List<ProjectSummary> getProjectsByIds(String accessToken, String realmId, java.util.List<String> ids) {
         if (accessToken == null || accessToken.trim().isEmpty()) {
             throw new RuntimeException("Access token is required");
         }
@@ -1416,29 +1546,7 @@ public class QuickBooksApiService {
         java.util.List<String> slice = ids.subList(0, max);
 
         try {
-            StringBuilder sb = new StringBuilder();
-            sb.append("query Multi(");
-            for (int i = 0; i < slice.size(); i++) {
-                if (i > 0) sb.append(", ");
-                sb.append("$v").append(i + 1).append(": ID!");
-            }
-            sb.append(") {");
-            for (int i = 0; i < slice.size(); i++) {
-                sb.append(" p").append(i + 1).append(": projectManagementProject(id: $v").append(i + 1).append(") {");
-                sb.append(" id name status description startDate dueDate ");
-                sb.append(" account { id } customer { id } ");
-                sb.append(" }");
-            }
-            sb.append(" }");
-
-            java.util.Map<String, Object> variables = new java.util.HashMap<>();
-            for (int i = 0; i < slice.size(); i++) {
-                variables.put("v" + (i + 1), slice.get(i));
-            }
-
-            java.util.Map<String, Object> graphqlRequest = new java.util.HashMap<>();
-            graphqlRequest.put("query", sb.toString());
-            graphqlRequest.put("variables", variables);
+            java.util.Map<String, Object> graphqlRequest = buildProjectsByIdsRequest(slice);
 
             HttpHeaders headers = new HttpHeaders();
             headers.set("Authorization", accessToken);
@@ -1446,7 +1554,7 @@ public class QuickBooksApiService {
             headers.set("Accept", "application/json");
 
             HttpEntity<java.util.Map<String, Object>> request = new HttpEntity<>(graphqlRequest, headers);
-            ResponseEntity<String> response = exchangeWithRetry(config.getGraphqlUrl(), HttpMethod.POST, request);
+            ResponseEntity<String> response = hedging.execute("graphql.getProjectsByIds", () -> exchangeWithRetry(config.getGraphqlUrl(), HttpMethod.POST, request));
             if (!response.getStatusCode().is2xxSuccessful()) {
                 throw new RuntimeException("Failed to get projects: " + response.getBody());
             }
@@ -1459,35 +1567,15 @@ public class QuickBooksApiService {
             }
 
             JsonNode data = root.path("data");
-            java.util.List<java.util.Map<String, Object>> results = new java.util.ArrayList<>();
+            List<ProjectSummary> results = new ArrayList<>(slice.size());
             for (int i = 0; i < slice.size(); i++) {
-                String alias = "p" + (i + 1);
-                JsonNode n = data.path(alias);
+                JsonNode n = data.path("p" + (i + 1));
                 if (n.isMissingNode() || n.isNull()) {
                     // Not found; include stub with requested id
-                    java.util.Map<String, Object> missing = new java.util.HashMap<>();
-                    missing.put("id", slice.get(i));
-                    missing.put("name", null);
-                    missing.put("status", null);
-                    results.add(missing);
+                    results.add(ProjectSummary.of(slice.get(i), null, null, null, null, null, null, null));
                     continue;
                 }
-                java.util.Map<String, Object> p = new java.util.HashMap<>();
-                p.put("id", n.path("id").asText(null));
-                p.put("name", n.path("name").asText(null));
-                p.put("status", n.path("status").asText(null));
-                p.put("description", n.path("description").asText(null));
-                p.put("startDate", n.path("startDate").asText(null));
-                p.put("dueDate", n.path("dueDate").asText(null));
-                if (n.has("account")) {
-                    p.put("accountId", n.path("account").path("id").asText(null));
-                }
-                if (n.has("customer")) {
-                    java.util.Map<String, Object> cust = new java.util.HashMap<>();
-                    cust.put("id", n.path("customer").path("id").asText(null));
-                    p.put("customer", cust);
-                }
-                results.add(p);
+                results.add(projectSummary(n, null));
             }
             return results;
         } catch (HttpClientErrorException e) {
@@ -1496,4 +1584,53 @@ public class QuickBooksApiService {
             throw new RuntimeException("Failed to get projects: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Summary of a project node from the get-by-id and alias queries.
+     */
+    private static ProjectSummary projectSummary(JsonNode n, String fallbackId) {
+        return ProjectSummary.of(
+            n.path("id").asText(fallbackId),
+            n.path("name").asText(null),
+            n.path("description").asText(null),
+            n.path("status").asText(null),
+            n.path("startDate").asText(null),
+            n.path("dueDate").asText(null),
+            customerRef(n),
+            n.has("account") ? n.path("account").path("id").asText(null) : null);
+    }
+
+    private static ProjectSummary.CustomerRef customerRef(JsonNode n) {
+        return n.has("customer") ? new ProjectSummary.CustomerRef(n.path("customer").path("id").asText(null)) : null;
+    }
+
+    /**
+     * Assemble the aliased multi-project query (p1..pN bound to $v1..$vN) and its variables.
+     */
+    java.util.Map<String, Object> buildProjectsByIdsRequest(java.util.List<String> slice) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("query Multi(");
+        for (int i = 0; i < slice.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("$v").append(i + 1).append(": ID!");
+        }
+        sb.append(") {");
+        for (int i = 0; i < slice.size(); i++) {
+            sb.append(" p").append(i + 1).append(": projectManagementProject(id: $v").append(i + 1).append(") {");
+            sb.append(" id name status description startDate dueDate ");
+            sb.append(" account { id } customer { id } ");
+            sb.append(" }");
+        }
+        sb.append(" }");
+
+        java.util.Map<String, Object> variables = new java.util.HashMap<>();
+        for (int i = 0; i < slice.size(); i++) {
+            variables.put("v" + (i + 1), slice.get(i));
+        }
+
+        java.util.Map<String, Object> graphqlRequest = new java.util.HashMap<>();
+        graphqlRequest.put("query", sb.toString());
+        graphqlRequest.put("variables", variables);
+        return graphqlRequest;
+    }
 } 
@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import com.intuit.oauth2.client.OAuth2PlatformClient;
@@ -21,7 +22,12 @@ import com.intuit.oauth2.exception.OAuthException;
 import com.quickbooks.demo.config.QuickBooksConfig;
 
 
+/**
+ * OAuth 2.0 flows via the Intuit OAuth client. Lazily initialized: nothing here is needed
+ * until the first login, so it stays off the startup path.
+ */
 @Service
+@Lazy
 public class QuickBooksOAuthService {
     
     @Autowired
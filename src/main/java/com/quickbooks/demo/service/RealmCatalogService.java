@@ -0,0 +1,108 @@
+package com.quickbooks.demo.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.quickbooks.demo.model.AccountSummary;
+import com.quickbooks.demo.model.CustomerSummary;
+import com.quickbooks.demo.model.ItemSummary;
+import com.quickbooks.demo.model.RealmCatalog;
+import com.quickbooks.demo.model.VendorSummary;
+
+/**
+ * Per-realm reference data behind the form dropdowns and the typeahead search API.
+ *
+ * The catalog lives once per realm in {@link RealmSnapshotStore}; sessions only note that they fetched it.
+ * Prefix indexes over customer and item names are built lazily, once per catalog content (ETag).
+ */
+@Service
+public class RealmCatalogService {
+
+    static final String CATALOG = "catalog";
+
+    @Autowired
+    private QuickBooksApiService apiService;
+
+    @Autowired
+    private RealmSnapshotStore snapshots;
+
+    private record Indexes(String etag, PrefixIndex<CustomerSummary> customers, PrefixIndex<ItemSummary> items) {}
+
+    private final Map<String, Indexes> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * The realm's catalog, fetched from QBO when absent or older than the snapshot TTL.
+     * Another session that just loaded the same realm answers without QBO calls.
+     */
+    public RealmSnapshotStore.Snapshot<RealmCatalog> load(String accessToken, String realmId) {
+        return snapshots.get(realmId, CATALOG, () -> fetch(accessToken, realmId));
+    }
+
+    /** Latest catalog regardless of age, or null when the realm has none. */
+    public RealmSnapshotStore.Snapshot<RealmCatalog> latest(String realmId) {
+        return snapshots.latest(realmId, CATALOG);
+    }
+
+    /**
+     * Latest catalog for rendering pages: kept while stale (e.g. after a webhook) and reloaded in
+     * the background. Null until the realm's first load completes.
+     */
+    public RealmSnapshotStore.Snapshot<RealmCatalog> current(String accessToken, String realmId) {
+        return snapshots.latest(realmId, CATALOG, () -> fetch(accessToken, realmId));
+    }
+
+    /**
+     * Applies {@code update} to the current catalog (fetching it whole if absent), e.g. after a create.
+     * Runs under the store's per-realm lock, so concurrent updates each build on the previous one.
+     */
+    public RealmSnapshotStore.Snapshot<RealmCatalog> refresh(String accessToken, String realmId,
+                                                              UnaryOperator<RealmCatalog> update) {
+        return snapshots.refresh(realmId, CATALOG,
+            (RealmCatalog prev) -> prev != null ? update.apply(prev) : fetch(accessToken, realmId));
+    }
+
+    public List<CustomerSummary> searchCustomers(String accessToken, String realmId, String query, int limit) {
+        return indexes(accessToken, realmId).customers().search(query, limit);
+    }
+
+    public List<ItemSummary> searchItems(String accessToken, String realmId, String query, int limit) {
+        return indexes(accessToken, realmId).items().search(query, limit);
+    }
+
+    private Indexes indexes(String accessToken, String realmId) {
+        RealmSnapshotStore.Snapshot<RealmCatalog> catalog = latest(realmId);
+        if (catalog == null) {
+            catalog = load(accessToken, realmId);
+        }
+        Indexes current = indexes.get(realmId);
+        if (current != null && current.etag().equals(catalog.etag())) {
+            return current;
+        }
+        RealmSnapshotStore.Snapshot<RealmCatalog> source = catalog;
+        return indexes.compute(realmId, (k, existing) -> existing != null && existing.etag().equals(source.etag())
+            ? existing
+            : new Indexes(source.etag(),
+                PrefixIndex.build(source.value().customers(), CustomerSummary::name),
+                PrefixIndex.build(source.value().items(), ItemSummary::name)));
+    }
+
+    private RealmCatalog fetch(String accessToken, String realmId) {
+        List<CustomerSummary> customers = apiService.getAllCustomers(accessToken, realmId);
+        List<ItemSummary> items = apiService.getAllItems(accessToken, realmId);
+        // Preload vendors and expense accounts for Step 8 dropdowns
+        List<VendorSummary> vendors = List.of();
+        List<AccountSummary> expenseAccounts = List.of();
+        try {
+            vendors = apiService.getVendors(accessToken, realmId);
+            expenseAccounts = apiService.getExpenseAccounts(accessToken, realmId);
+        } catch (RuntimeException ignored) {
+            // Keep page functional even if these lookups fail
+        }
+        return new RealmCatalog(customers, items, vendors, expenseAccounts);
+    }
+}
@@ -0,0 +1,265 @@
+package com.quickbooks.demo.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import com.quickbooks.demo.model.AccountList;
+import com.quickbooks.demo.model.AccountSummary;
+import com.quickbooks.demo.model.CustomerSummary;
+import com.quickbooks.demo.model.ItemSummary;
+import com.quickbooks.demo.model.RealmCatalog;
+import com.quickbooks.demo.model.VendorSummary;
+
+/**
+ * Binary file holding one realm's reference datasets (catalog, accounts) for warm restarts.
+ *
+ * Layout, big-endian: magic {@code QBOS}, format version (short), reserved (short), payload
+ * length (int), CRC32 of the payload (int), then the payload: realm id, saved-at millis and
+ * length-prefixed sections of (dataset, snapshot version, body). Strings are a byte length
+ * (-1 for null) plus UTF-8. Sections of datasets this build does not know are skipped.
+ */
+public final class RealmSnapshotFile {
+
+    static final int MAGIC = 0x51424F53;
+    static final short FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    /** One dataset as stored: its name, snapshot version and value. */
+    public record Section(String dataset, long version, Object value) {}
+
+    public record Contents(String realmId, long savedAtMillis, List<Section> sections) {}
+
+    private interface Codec {
+        void write(DataOutputStream out, Object value) throws IOException;
+
+        Object read(ByteBuffer in);
+    }
+
+    /** Codecs of the datasets that can be persisted, by RealmSnapshotStore dataset name. */
+    private static final Map<String, Codec> CODECS = Map.of(
+        RealmCatalogService.CATALOG, new Codec() {
+            public void write(DataOutputStream out, Object value) throws IOException {
+                RealmCatalog catalog = (RealmCatalog) value;
+                out.writeInt(catalog.customers().size());
+                for (CustomerSummary c : catalog.customers()) {
+                    writeString(out, c.id());
+                    writeString(out, c.name());
+                }
+                out.writeInt(catalog.items().size());
+                for (ItemSummary i : catalog.items()) {
+                    writeString(out, i.id());
+                    writeString(out, i.name());
+                    writeString(out, i.type());
+                }
+                out.writeInt(catalog.vendors().size());
+                for (VendorSummary v : catalog.vendors()) {
+                    writeString(out, v.id());
+                    writeString(out, v.name());
+                }
+                writeAccounts(out, catalog.expenseAccounts());
+            }
+
+            public Object read(ByteBuffer in) {
+                int customerCount = count(in);
+                List<CustomerSummary> customers = new ArrayList<>(customerCount);
+                for (int i = 0; i < customerCount; i++) {
+                    customers.add(new CustomerSummary(readString(in), readString(in)));
+                }
+                int itemCount = count(in);
+                List<ItemSummary> items = new ArrayList<>(itemCount);
+                for (int i = 0; i < itemCount; i++) {
+                    items.add(new ItemSummary(readString(in), readString(in), readString(in)));
+                }
+                int vendorCount = count(in);
+                List<VendorSummary> vendors = new ArrayList<>(vendorCount);
+                for (int i = 0; i < vendorCount; i++) {
+                    vendors.add(new VendorSummary(readString(in), readString(in)));
+                }
+                return new RealmCatalog(customers, items, vendors, readAccounts(in));
+            }
+        },
+        "accounts", new Codec() {
+            public void write(DataOutputStream out, Object value) throws IOException {
+                writeAccounts(out, ((AccountList) value).accounts());
+            }
+
+            public Object read(ByteBuffer in) {
+                return AccountList.of(readAccounts(in));
+            }
+        });
+
+    private RealmSnapshotFile() {
+    }
+
+    /** RealmSnapshotStore datasets this file format can hold. */
+    public static Set<String> datasets() {
+        return CODECS.keySet();
+    }
+
+    /** Writes {@code sections} to {@code path} via a temp file, synced and then atomically moved. */
+    public static void write(Path path, String realmId, List<Section> sections) throws IOException {
+        ByteBuffer file = ByteBuffer.wrap(encode(realmId, System.currentTimeMillis(), sections));
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (file.hasRemaining()) {
+                channel.write(file);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Memory-maps {@code path} and decodes it; any damage (size, magic, version, checksum) is an IOException. */
+    public static Contents read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(mapped);
+        }
+    }
+
+    static byte[] encode(String realmId, long savedAtMillis, List<Section> sections) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(payload);
+        writeString(out, realmId);
+        out.writeLong(savedAtMillis);
+        List<Section> known = sections.stream().filter(s -> CODECS.containsKey(s.dataset())).toList();
+        out.writeInt(known.size());
+        for (Section section : known) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+            CODECS.get(section.dataset()).write(new DataOutputStream(body), section.value());
+            writeString(out, section.dataset());
+            out.writeLong(section.version());
+            out.writeInt(body.size());
+            body.writeTo(out);
+        }
+        out.flush();
+
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer file = ByteBuffer.allocate(HEADER_BYTES + bytes.length);
+        file.putInt(MAGIC).putShort(FORMAT_VERSION).putShort((short) 0)
+            .putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        return file.array();
+    }
+
+    static Contents decode(ByteBuffer file) throws IOException {
+        if (file.remaining() < HEADER_BYTES || file.getInt() != MAGIC) {
+            throw new IOException("Not a realm snapshot file");
+        }
+        short version = file.getShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported realm snapshot version " + version);
+        }
+        file.getShort();
+        int length = file.getInt();
+        int checksum = file.getInt();
+        if (length != file.remaining()) {
+            throw new IOException("Realm snapshot is truncated (" + file.remaining() + " of " + length + " bytes)");
+        }
+        ByteBuffer payload = file.slice();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Realm snapshot checksum mismatch");
+        }
+        try {
+            String realmId = readString(payload);
+            long savedAt = payload.getLong();
+            int count = count(payload);
+            List<Section> sections = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String dataset = readString(payload);
+                long snapshotVersion = payload.getLong();
+                int size = count(payload);
+                ByteBuffer body = payload.slice().limit(size);
+                payload.position(payload.position() + size);
+                Codec codec = CODECS.get(dataset);
+                if (codec != null) {
+                    sections.add(new Section(dataset, snapshotVersion, codec.read(body)));
+                }
+            }
+            return new Contents(realmId, savedAt, sections);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Realm snapshot is malformed: " + e, e);
+        }
+    }
+
+    private static void writeAccounts(DataOutputStream out, List<AccountSummary> accounts) throws IOException {
+        out.writeInt(accounts.size());
+        for (AccountSummary a : accounts) {
+            writeString(out, a.id());
+            writeString(out, a.name());
+            writeString(out, a.type());
+            writeString(out, a.subType());
+            writeString(out, a.fullyQualifiedName());
+            writeString(out, a.currentBalance() != null ? a.currentBalance().toPlainString() : null);
+        }
+    }
+
+    private static List<AccountSummary> readAccounts(ByteBuffer in) {
+        int count = count(in);
+        List<AccountSummary> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = readString(in);
+            String name = readString(in);
+            String type = readString(in);
+            String subType = readString(in);
+            String fullyQualifiedName = readString(in);
+            String balance = readString(in);
+            accounts.add(new AccountSummary(id, name, type, subType, fullyQualifiedName,
+                balance != null ? new BigDecimal(balance) : null));
+        }
+        return accounts;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("string of " + length + " bytes past the end");
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** A non-negative count or size that fits in what is left. */
+    private static int count(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("bad count " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,146 @@
+package com.quickbooks.demo.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+
+/**
+ * Keeps each realm's reference datasets (catalog, accounts) on disk in a {@link RealmSnapshotFile}
+ * under {@code reference-snapshot-dir}, so a restart does not cost the first user a full reload.
+ *
+ * Files are rewritten in the background whenever one of the datasets gets new content, coalesced
+ * per realm. At startup, before readiness, every file is memory-mapped, verified and restored into
+ * {@link RealmSnapshotStore}; damaged files are deleted.
+ */
+@Service
+public class RealmSnapshotPersistence {
+
+    private static final Logger log = LoggerFactory.getLogger(RealmSnapshotPersistence.class);
+
+    static final String SUFFIX = ".snap";
+    private static final Pattern REALM_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @Autowired
+    private RealmSnapshotStore snapshots;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private volatile ExecutorService writer;
+
+    /** Restores every realm file and starts saving changes. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isReferenceSnapshotEnabled()) {
+            return;
+        }
+        restore();
+        snapshots.addListener((realmId, dataset) -> {
+            if (RealmSnapshotFile.datasets().contains(dataset)) {
+                schedule(realmId);
+            }
+        });
+    }
+
+    /** Reads every snapshot file in the directory into the store; returns the number of realms restored. */
+    int restore() {
+        Path dir = Path.of(config.getReferenceSnapshotDir());
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        long started = System.currentTimeMillis();
+        int realms = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    RealmSnapshotFile.Contents contents = RealmSnapshotFile.read(file);
+                    if (!file.getFileName().toString().equals(contents.realmId() + SUFFIX)) {
+                        throw new IOException("file holds realm " + contents.realmId());
+                    }
+                    for (RealmSnapshotFile.Section section : contents.sections()) {
+                        snapshots.restore(contents.realmId(), section.dataset(), section.value(), section.version());
+                    }
+                    realms++;
+                } catch (IOException e) {
+                    log.warn("Discarding realm snapshot {}: {}", file, e.getMessage());
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read realm snapshots from {}: {}", dir, e.getMessage());
+        }
+        if (realms > 0) {
+            log.info("Restored reference data of {} realms from {} in {} ms", realms, dir,
+                System.currentTimeMillis() - started);
+        }
+        return realms;
+    }
+
+    /** Writes the realm's current datasets now; no file is written for a realm with none. */
+    void save(String realmId) {
+        if (!REALM_ID.matcher(realmId).matches()) {
+            return;
+        }
+        List<RealmSnapshotFile.Section> sections = new ArrayList<>();
+        for (String dataset : RealmSnapshotFile.datasets()) {
+            RealmSnapshotStore.Snapshot<Object> snapshot = snapshots.latest(realmId, dataset);
+            if (snapshot != null) {
+                sections.add(new RealmSnapshotFile.Section(dataset, snapshot.version(), snapshot.value()));
+            }
+        }
+        if (sections.isEmpty()) {
+            return;
+        }
+        Path path = Path.of(config.getReferenceSnapshotDir(), realmId + SUFFIX);
+        try {
+            RealmSnapshotFile.write(path, realmId, sections);
+        } catch (IOException e) {
+            log.warn("Failed to write realm snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /** One queued write per realm; changes arriving before it runs are picked up by it. */
+    private void schedule(String realmId) {
+        if (pending.add(realmId)) {
+            writer().execute(() -> {
+                pending.remove(realmId);
+                save(realmId);
+            });
+        }
+    }
+
+    private ExecutorService writer() {
+        ExecutorService pool = writer;
+        if (pool == null) {
+            synchronized (this) {
+                if (writer == null) {
+                    writer = Executors.newSingleThreadExecutor(r -> {
+                        Thread t = new Thread(r, "realm-snapshot-writer");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+                pool = writer;
+            }
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,284 @@
+package com.quickbooks.demo.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.service.client.OutboundScheduler;
+
+/**
+ * Versioned, per-realm snapshots of read results, held pre-serialized with a strong ETag.
+ *
+ * Read endpoints answer from the snapshot until it is older than {@code snapshot-ttl-seconds}
+ * (or is invalidated), so polling and {@code If-None-Match} revalidation do not touch QBO. A
+ * refresh that yields identical bytes keeps the version and ETag.
+ *
+ * Snapshots {@link #restore restored} from disk at startup are served as fresh; the first
+ * {@link #get} for one also reloads it in the background with that caller's loader.
+ */
+@Component
+public class RealmSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RealmSnapshotStore.class);
+
+    /** One dataset for one realm: the value, its JSON bytes and a content-derived ETag. */
+    public record Snapshot<T>(T value, byte[] json, String etag, long version, long loadedAtMillis) {}
+
+    /** Told when a dataset gets new content (a new version); not for restores or identical reloads. */
+    public interface Listener {
+        void changed(String realmId, String dataset);
+    }
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, Snapshot<?>> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private final Set<String> restored = ConcurrentHashMap.newKeySet();
+    private final Set<String> reloading = ConcurrentHashMap.newKeySet();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile ExecutorService reconciler;
+
+    /**
+     * Returns the current snapshot of {@code dataset} for {@code realmId}, calling {@code loader}
+     * only when there is none or it has expired. Concurrent misses for the same key load once.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> get(String realmId, String dataset, Supplier<T> loader) {
+        String key = key(realmId, dataset);
+        Snapshot<T> current = (Snapshot<T>) snapshots.get(key);
+        if (isFresh(current)) {
+            if (restored.remove(key)) {
+                reconcile(realmId, dataset, loader);
+            }
+            return current;
+        }
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            current = (Snapshot<T>) snapshots.get(key);
+            if (isFresh(current)) {
+                return current;
+            }
+            return load(key, dataset, current, loader);
+        }
+    }
+
+    /**
+     * Reloads {@code dataset} now, regardless of age (e.g. after a create). Unlike
+     * {@link #invalidate(String, String)} the version keeps counting up from the current one.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> refresh(String realmId, String dataset, Supplier<T> loader) {
+        String key = key(realmId, dataset);
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            return load(key, dataset, (Snapshot<T>) snapshots.get(key), loader);
+        }
+    }
+
+    /**
+     * Replaces {@code dataset} with {@code update} applied to its latest value (null when absent),
+     * under the same per-key lock as loads, so concurrent updates each see the previous one.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> refresh(String realmId, String dataset, UnaryOperator<T> update) {
+        String key = key(realmId, dataset);
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            Snapshot<T> current = (Snapshot<T>) snapshots.get(key);
+            return load(key, dataset, current, () -> update.apply(current != null ? current.value() : null));
+        }
+    }
+
+    private <T> Snapshot<T> load(String key, String dataset, Snapshot<T> current, Supplier<T> loader) {
+        T value = loader.get();
+        restored.remove(key);
+        byte[] json = serialize(value);
+        String etag = etag(dataset, json);
+        Snapshot<T> next;
+        if (current != null && current.etag().equals(etag)) {
+            next = new Snapshot<>(value, current.json(), etag, current.version(), System.currentTimeMillis());
+        } else {
+            long version = current != null ? current.version() + 1 : 1;
+            next = new Snapshot<>(value, json, etag, version, System.currentTimeMillis());
+        }
+        snapshots.put(key, next);
+        if (next.version() != (current != null ? current.version() : 0)) {
+            for (Listener listener : listeners) {
+                listener.changed(realmId(key), dataset);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Seeds a dataset read back from disk, unless the realm already has one. It counts as
+     * loaded now, keeps its version (and so its ETag) and is reloaded on first use.
+     */
+    public <T> void restore(String realmId, String dataset, T value, long version) {
+        String key = key(realmId, dataset);
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            if (snapshots.containsKey(key)) {
+                return;
+            }
+            byte[] json = serialize(value);
+            snapshots.put(key, new Snapshot<>(value, json, etag(dataset, json), version, System.currentTimeMillis()));
+            restored.add(key);
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /** Current snapshot without loading, or null when absent or expired. */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> peek(String realmId, String dataset) {
+        Snapshot<T> current = (Snapshot<T>) snapshots.get(key(realmId, dataset));
+        return isFresh(current) ? current : null;
+    }
+
+    /** Latest snapshot regardless of age, or null when never loaded or invalidated. */
+    @SuppressWarnings("unchecked")
+    public <T> Snapshot<T> latest(String realmId, String dataset) {
+        return (Snapshot<T>) snapshots.get(key(realmId, dataset));
+    }
+
+    /**
+     * Like {@link #latest(String, String)}, but an expired or missing snapshot is also reloaded
+     * off the request thread with {@code loader}; callers keep serving what there is meanwhile.
+     */
+    public <T> Snapshot<T> latest(String realmId, String dataset, Supplier<T> loader) {
+        Snapshot<T> current = latest(realmId, dataset);
+        if (!isFresh(current)) {
+            reload(realmId, dataset, loader);
+        }
+        return current;
+    }
+
+    /**
+     * Expires the dataset without dropping it: {@link #latest} keeps returning it and the next
+     * {@link #get} reloads it. For change notifications, where stale data beats none.
+     */
+    public void markStale(String realmId, String dataset) {
+        snapshots.computeIfPresent(key(realmId, dataset), (k, s) -> expired(s));
+    }
+
+    /** Expires every dataset of the realm, keeping them readable through {@link #latest}. */
+    public void markStale(String realmId) {
+        String prefix = realmId + ":";
+        snapshots.replaceAll((k, s) -> k.startsWith(prefix) ? expired(s) : s);
+    }
+
+    private static Snapshot<?> expired(Snapshot<?> s) {
+        return new Snapshot<>(s.value(), s.json(), s.etag(), s.version(), 0L);
+    }
+
+    public void invalidate(String realmId, String dataset) {
+        snapshots.remove(key(realmId, dataset));
+        restored.remove(key(realmId, dataset));
+    }
+
+    /** Drops every dataset of the realm (e.g. after a write). */
+    public void invalidate(String realmId) {
+        String prefix = realmId + ":";
+        snapshots.keySet().removeIf(k -> k.startsWith(prefix));
+        restored.removeIf(k -> k.startsWith(prefix));
+    }
+
+    /** Reloads a restored dataset off the request thread; on failure the next get tries again. */
+    private <T> void reconcile(String realmId, String dataset, Supplier<T> loader) {
+        reconciler().execute(() -> {
+            try (OutboundScheduler.Scope scope = OutboundScheduler.tag(realmId, OutboundScheduler.Priority.BACKGROUND)) {
+                refresh(realmId, dataset, loader);
+            } catch (RuntimeException e) {
+                restored.add(key(realmId, dataset));
+                log.warn("Reconciling restored {} for realm {} failed: {}", dataset, realmId, e.getMessage());
+            }
+        });
+    }
+
+    /** Background reload of an expired dataset, at most one queued per key. */
+    private <T> void reload(String realmId, String dataset, Supplier<T> loader) {
+        String key = key(realmId, dataset);
+        if (!reloading.add(key)) {
+            return;
+        }
+        reconciler().execute(() -> {
+            try (OutboundScheduler.Scope scope = OutboundScheduler.tag(realmId, OutboundScheduler.Priority.BACKGROUND)) {
+                if (!isFresh(snapshots.get(key))) {
+                    refresh(realmId, dataset, loader);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Reloading {} for realm {} failed: {}", dataset, realmId, e.getMessage());
+            } finally {
+                reloading.remove(key);
+            }
+        });
+    }
+
+    private ExecutorService reconciler() {
+        ExecutorService pool = reconciler;
+        if (pool == null) {
+            synchronized (this) {
+                if (reconciler == null) {
+                    reconciler = Executors.newSingleThreadExecutor(r -> {
+                        Thread t = new Thread(r, "snapshot-reconcile");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+                pool = reconciler;
+            }
+        }
+        return pool;
+    }
+
+    private boolean isFresh(Snapshot<?> snapshot) {
+        return snapshot != null
+            && System.currentTimeMillis() - snapshot.loadedAtMillis() < config.getSnapshotTtlSeconds() * 1000;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /** Strong ETag: quoted dataset name plus a truncated SHA-256 of the serialized bytes. */
+    static String etag(String dataset, byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + dataset + "-" + HexFormat.of().formatHex(digest, 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String key(String realmId, String dataset) {
+        return realmId + ":" + dataset;
+    }
+
+    private static String realmId(String key) {
+        return key.substring(0, key.indexOf(':'));
+    }
+}
@@ -0,0 +1,294 @@
+package com.quickbooks.demo.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.quickbooks.demo.model.ReportTable;
+
+/**
+ * Single-pass reader of a QBO report response into a {@link ReportTable}. Walks the token stream
+ * and appends each ColData line straight into growable column arrays, so no JsonNode tree of the
+ * (possibly many-megabyte) report is built. Columns declared as Money/Amount/Number are kept as
+ * doubles; a column whose type is not known yet is numeric until a value fails to parse.
+ */
+public final class ReportParser {
+
+    private static final Set<String> NUMERIC_TYPES = Set.of("Money", "Amount", "Number", "Percent");
+
+    private final Map<String, String> header = new LinkedHashMap<>();
+    private final List<ColumnBuilder> columns = new ArrayList<>();
+    private final Map<String, String> groupNames = new HashMap<>();
+    private int size;
+    private byte[] kinds = new byte[64];
+    private short[] depths = new short[64];
+    private String[] groups = new String[64];
+    private String[] ids = new String[64];
+
+    private ReportParser() {
+    }
+
+    public static ReportTable read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("QuickBooks report is not a JSON object");
+        }
+        ReportParser reader = new ReportParser();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "Header" -> reader.header(parser);
+                case "Columns" -> reader.columns(parser);
+                case "Rows" -> reader.rows(parser, 0);
+                default -> parser.skipChildren();
+            }
+        }
+        return reader.build();
+    }
+
+    /** Scalar header fields plus Option name/value pairs. */
+    private void header(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("Option".equals(field) && token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    Map<String, String> option = scalars(parser);
+                    if (option.get("Name") != null) {
+                        header.put(option.get("Name"), option.get("Value"));
+                    }
+                }
+            } else if (token.isScalarValue()) {
+                header.put(field, parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void columns(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean list = "Column".equals(parser.currentName());
+            if (parser.nextToken() != JsonToken.START_ARRAY || !list) {
+                parser.skipChildren();
+                continue;
+            }
+            int index = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Map<String, String> meta = scalars(parser);
+                column(index++).declare(meta.getOrDefault("ColTitle", ""), meta.getOrDefault("ColType", ""));
+            }
+        }
+    }
+
+    /** A {@code Rows} object: its {@code Row} array, one level below {@code depth}'s parent. */
+    private void rows(JsonParser parser, int depth) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean list = "Row".equals(parser.currentName());
+            if (parser.nextToken() != JsonToken.START_ARRAY || !list) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                row(parser, depth);
+            }
+        }
+    }
+
+    /**
+     * One Row: a data line, or a section with a header, nested rows and a summary. The section
+     * {@code group} may come after its children, so it is applied to the rows added meanwhile.
+     */
+    private void row(JsonParser parser, int depth) throws IOException {
+        int start = size;
+        String group = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "ColData" -> cells(parser, ReportTable.DATA, depth);
+                case "Header" -> line(parser, ReportTable.HEADER, depth);
+                case "Summary" -> line(parser, ReportTable.SUMMARY, depth);
+                case "Rows" -> rows(parser, depth + 1);
+                case "group" -> group = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        if (group != null) {
+            String name = groupNames.computeIfAbsent(group, g -> g);
+            for (int r = start; r < size; r++) {
+                if (groups[r] == null) {
+                    groups[r] = name;
+                }
+            }
+        }
+    }
+
+    /** A section Header or Summary object holding one ColData line. */
+    private void line(JsonParser parser, byte kind, int depth) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean cells = "ColData".equals(parser.currentName());
+            parser.nextToken();
+            if (cells) {
+                cells(parser, kind, depth);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void cells(JsonParser parser, byte kind, int depth) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        int row = append(kind, depth);
+        int index = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            Map<String, String> cell = scalars(parser);
+            column(index).set(row, cell.get("value"));
+            if (index == 0) {
+                ids[row] = cell.get("id");
+            }
+            index++;
+        }
+    }
+
+    private int append(byte kind, int depth) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+            groups = Arrays.copyOf(groups, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        kinds[size] = kind;
+        depths[size] = (short) depth;
+        return size++;
+    }
+
+    private ColumnBuilder column(int index) {
+        while (columns.size() <= index) {
+            columns.add(new ColumnBuilder());
+        }
+        return columns.get(index);
+    }
+
+    /** Scalar fields of the current object; nested values are skipped. */
+    private static Map<String, String> scalars(JsonParser parser) throws IOException {
+        Map<String, String> values = new HashMap<>(4);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (token.isScalarValue()) {
+                values.put(field, token == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return values;
+    }
+
+    private ReportTable build() {
+        List<ReportTable.Column> built = new ArrayList<>(columns.size());
+        for (ColumnBuilder column : columns) {
+            built.add(column.build(size));
+        }
+        return new ReportTable(header, built, size, Arrays.copyOf(kinds, size), Arrays.copyOf(depths, size),
+            Arrays.copyOf(groups, size), Arrays.copyOf(ids, size));
+    }
+
+    /** Growable column; starts numeric unless declared otherwise and falls back to text. */
+    private static final class ColumnBuilder {
+        String title = "";
+        String type = "";
+        double[] amounts = new double[64];
+        String[] text;
+        int size;
+
+        void declare(String title, String type) {
+            this.title = title;
+            this.type = type;
+            if (size == 0 && !NUMERIC_TYPES.contains(type)) {
+                amounts = null;
+                text = new String[64];
+            }
+        }
+
+        void set(int row, String value) {
+            pad(row);
+            if (amounts != null) {
+                if (value == null || value.isBlank()) {
+                    amounts[row] = Double.NaN;
+                    size = row + 1;
+                    return;
+                }
+                try {
+                    amounts[row] = Double.parseDouble(value);
+                    size = row + 1;
+                    return;
+                } catch (NumberFormatException e) {
+                    toText();
+                }
+            }
+            text[row] = value;
+            size = row + 1;
+        }
+
+        /** Grows to hold {@code row} and blanks any rows this column had no cell for. */
+        private void pad(int row) {
+            int length = amounts != null ? amounts.length : text.length;
+            if (row >= length) {
+                int capacity = Math.max(length * 2, row + 1);
+                if (amounts != null) {
+                    amounts = Arrays.copyOf(amounts, capacity);
+                } else {
+                    text = Arrays.copyOf(text, capacity);
+                }
+            }
+            if (amounts != null) {
+                Arrays.fill(amounts, size, row, Double.NaN);
+            }
+        }
+
+        private void toText() {
+            text = new String[amounts.length];
+            for (int r = 0; r < size; r++) {
+                text[r] = Double.isNaN(amounts[r]) ? null : BigDecimal.valueOf(amounts[r]).stripTrailingZeros().toPlainString();
+            }
+            amounts = null;
+        }
+
+        ReportTable.Column build(int rows) {
+            if (amounts != null) {
+                pad(rows);
+                return new ReportTable.Column(title, type, null, Arrays.copyOf(amounts, rows));
+            }
+            return new ReportTable.Column(title, type, Arrays.copyOf(text, rows), null);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.quickbooks.demo.service;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.model.ReportTable;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+/**
+ * QBO reports (Reports API) read into columnar {@link ReportTable}s and cached per
+ * (realm, report, parameters) for {@code report-ttl-seconds}. At most {@code report-cache-size}
+ * reports are kept; the oldest is dropped first. Concurrent misses for the same key load once.
+ */
+@Service
+public class ReportService {
+
+    private static final Set<String> DATE_RANGE = Set.of("start_date", "end_date", "date_macro",
+        "accounting_method", "customer", "class", "department", "summarize_column_by");
+    private static final Pattern VALUE = Pattern.compile("[A-Za-z0-9 _,.:-]{1,200}");
+
+    public enum Report {
+        PROFIT_AND_LOSS("ProfitAndLoss", DATE_RANGE, Map.of()),
+        AGED_RECEIVABLES("AgedReceivables", Set.of("report_date", "aging_period", "num_periods",
+            "customer", "past_due", "term", "sort_order"), Map.of()),
+        // Projects are sub-customers in QBO, so profitability is P&L with a column per customer/project
+        PROJECT_PROFITABILITY("ProfitAndLoss", DATE_RANGE, Map.of("summarize_column_by", "Customers"));
+
+        final String name;
+        final Set<String> params;
+        final Map<String, String> defaults;
+
+        Report(String name, Set<String> params, Map<String, String> defaults) {
+            this.name = name;
+            this.params = params;
+            this.defaults = defaults;
+        }
+
+        public static Report from(String slug) {
+            try {
+                return valueOf(slug.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Unknown report '" + slug
+                    + "' (use profit-and-loss, aged-receivables or project-profitability)");
+            }
+        }
+
+        public String slug() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    /** A cached report and when it was read from QBO. */
+    public record Cached(ReportTable table, long loadedAtMillis) {}
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @Autowired
+    private QuickBooksRestClient restClient;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * The report for {@code params} (report-specific query parameters such as start_date),
+     * from the cache unless it is missing, expired or {@code refresh} is set.
+     */
+    public Cached get(String accessToken, String realmId, Report report, Map<String, String> params, boolean refresh) {
+        Map<String, String> query = query(report, params);
+        String key = realmId + "|" + report.slug() + "|" + query;
+        Cached current = cache.get(key);
+        if (!refresh && isFresh(current)) {
+            return current;
+        }
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            current = cache.get(key);
+            if (!refresh && isFresh(current)) {
+                return current;
+            }
+            ReportTable table = restClient.getStreamed(QuickBooksContext.of(accessToken, realmId),
+                "/reports/" + report.name, query, ReportParser::read);
+            Cached loaded = new Cached(table, System.currentTimeMillis());
+            cache.put(key, loaded);
+            evict();
+            return loaded;
+        }
+    }
+
+    /** Drops every cached report of the realm. */
+    public void invalidate(String realmId) {
+        String prefix = realmId + "|";
+        cache.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    /** Report defaults overlaid with the caller's parameters, validated and in a stable order. */
+    static Map<String, String> query(Report report, Map<String, String> params) {
+        Map<String, String> query = new TreeMap<>(report.defaults);
+        for (Map.Entry<String, String> p : params.entrySet()) {
+            String name = p.getKey().trim().toLowerCase(Locale.ROOT);
+            if (!report.params.contains(name)) {
+                throw new RuntimeException("Unsupported parameter '" + p.getKey() + "' for " + report.slug()
+                    + " (use " + String.join(", ", report.params.stream().sorted().toList()) + ")");
+            }
+            String value = p.getValue() == null ? "" : p.getValue().trim();
+            if (!VALUE.matcher(value).matches()) {
+                throw new RuntimeException("Invalid value for '" + name + "'");
+            }
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private boolean isFresh(Cached cached) {
+        return cached != null
+            && System.currentTimeMillis() - cached.loadedAtMillis() < config.getReportTtlSeconds() * 1000;
+    }
+
+    private void evict() {
+        int max = Math.max(1, config.getReportCacheSize());
+        while (cache.size() > max) {
+            cache.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().loadedAtMillis()))
+                .ifPresent(e -> {
+                    cache.remove(e.getKey(), e.getValue());
+                    locks.remove(e.getKey());
+                });
+        }
+    }
+}
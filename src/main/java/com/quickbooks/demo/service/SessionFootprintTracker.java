@@ -0,0 +1,228 @@
+package com.quickbooks.demo.service;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionAttributeListener;
+import jakarta.servlet.http.HttpSessionBindingEvent;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
+
+/**
+ * Measures the serialized size of each session after requests that changed it, enforces
+ * {@code session-max-bytes} and keeps the latest measurement per live session for the
+ * {@code /actuator/sessions} report.
+ *
+ * A session is measured in full once; after that only attributes set, replaced or removed since
+ * the last measurement (seen as {@link HttpSessionAttributeListener} events) are serialized again.
+ * Requests that leave the session untouched cost nothing. Values mutated in place without a new
+ * {@code setAttribute} keep their previous size.
+ *
+ * Over the cap, the result panels listed in {@link #EVICTABLE} are dropped largest first; they
+ * are re-created by repeating the query. Tokens, realm, catalog flag and the current project
+ * are never evicted.
+ */
+public class SessionFootprintTracker implements HandlerInterceptor, HttpSessionListener, HttpSessionAttributeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionFootprintTracker.class);
+
+    static final List<String> EVICTABLE = List.of(
+        "projects", "projects_multi", "projectDeleteResult",
+        "projects_error", "projectDeleteError");
+
+    /** Latest measurement of one session; attribute sizes are serialized bytes, -1 if not serializable. */
+    public record Footprint(String sessionId, long bytes, Map<String, Long> attributes, long measuredAtMillis) {}
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<String, Footprint> footprints = new ConcurrentHashMap<>();
+    // Attribute names changed since each session's last measurement
+    private final Map<String, Set<String>> changed = new ConcurrentHashMap<>();
+    private volatile DistributionSummary sizes;
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return;
+        }
+        String id = session.getId();
+        Footprint previous = footprints.get(id);
+        Set<String> names = changed.remove(id);
+        if (previous != null && names == null) {
+            return;
+        }
+        try {
+            Footprint footprint = previous == null ? enforce(session) : enforce(session, remeasure(session, previous, names));
+            footprints.put(id, footprint);
+            sizes().record(footprint.bytes());
+        } catch (IllegalStateException invalidated) {
+            footprints.remove(id);
+        }
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        footprints.remove(event.getSession().getId());
+        changed.remove(event.getSession().getId());
+    }
+
+    @Override
+    public void attributeAdded(HttpSessionBindingEvent event) {
+        touched(event);
+    }
+
+    @Override
+    public void attributeRemoved(HttpSessionBindingEvent event) {
+        touched(event);
+    }
+
+    @Override
+    public void attributeReplaced(HttpSessionBindingEvent event) {
+        touched(event);
+    }
+
+    private void touched(HttpSessionBindingEvent event) {
+        changed.computeIfAbsent(event.getSession().getId(), k -> ConcurrentHashMap.newKeySet()).add(event.getName());
+    }
+
+    /** Measures the whole session and, when it is over the cap, evicts result panels until it fits. */
+    Footprint enforce(HttpSession session) {
+        return enforce(session, measure(session));
+    }
+
+    /** Evicts result panels until {@code footprint} fits the cap, using its recorded sizes. */
+    private Footprint enforce(HttpSession session, Footprint footprint) {
+        long cap = config.getSessionMaxBytes();
+        if (cap <= 0 || footprint.bytes() <= cap) {
+            return footprint;
+        }
+        List<Map.Entry<String, Long>> candidates = new ArrayList<>();
+        for (Map.Entry<String, Long> attr : footprint.attributes().entrySet()) {
+            if (EVICTABLE.contains(attr.getKey())) {
+                candidates.add(attr);
+            }
+        }
+        candidates.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        long bytes = footprint.bytes();
+        Map<String, Long> attributes = new LinkedHashMap<>(footprint.attributes());
+        for (Map.Entry<String, Long> attr : candidates) {
+            if (bytes <= cap) {
+                break;
+            }
+            session.removeAttribute(attr.getKey());
+            attributes.remove(attr.getKey());
+            bytes -= Math.max(attr.getValue(), 0);
+            log.debug("Session over {} bytes; dropped '{}' ({} bytes)", cap, attr.getKey(), attr.getValue());
+        }
+        // The removals above fired attributeRemoved; they are already accounted for
+        Set<String> names = changed.get(session.getId());
+        if (names != null) {
+            names.removeIf(name -> footprint.attributes().containsKey(name) && !attributes.containsKey(name));
+        }
+        Footprint trimmed = new Footprint(session.getId(), bytes, attributes, System.currentTimeMillis());
+        if (trimmed.bytes() > cap) {
+            log.warn("Session still {} bytes after evictions (cap {}): {}", trimmed.bytes(), cap, trimmed.attributes());
+        }
+        return trimmed;
+    }
+
+    static Footprint measure(HttpSession session) {
+        Map<String, Long> attributes = new LinkedHashMap<>();
+        long total = 0;
+        for (String name : Collections.list(session.getAttributeNames())) {
+            long size = serializedSize(session.getAttribute(name));
+            attributes.put(name, size);
+            total += Math.max(size, 0);
+        }
+        return new Footprint(session.getId(), total, attributes, System.currentTimeMillis());
+    }
+
+    /** {@code previous} with the named attributes serialized again (or dropped when removed). */
+    static Footprint remeasure(HttpSession session, Footprint previous, Set<String> names) {
+        Map<String, Long> attributes = new LinkedHashMap<>(previous.attributes());
+        for (String name : names) {
+            Object value = session.getAttribute(name);
+            if (value == null) {
+                attributes.remove(name);
+            } else {
+                attributes.put(name, serializedSize(value));
+            }
+        }
+        long total = 0;
+        for (long size : attributes.values()) {
+            total += Math.max(size, 0);
+        }
+        return new Footprint(session.getId(), total, attributes, System.currentTimeMillis());
+    }
+
+    static long serializedSize(Object value) {
+        CountingSink sink = new CountingSink();
+        try (ObjectOutputStream out = new ObjectOutputStream(sink)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            return -1;
+        }
+        return sink.count;
+    }
+
+    /** Live sessions, largest first. */
+    public List<Footprint> footprints() {
+        List<Footprint> all = new ArrayList<>(footprints.values());
+        all.sort(Comparator.comparingLong(Footprint::bytes).reversed());
+        return all;
+    }
+
+    private DistributionSummary sizes() {
+        DistributionSummary summary = sizes;
+        if (summary == null) {
+            summary = DistributionSummary.builder("http.session.bytes")
+                .description("Serialized session size after each request that changed it")
+                .baseUnit("bytes")
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+            sizes = summary;
+        }
+        return summary;
+    }
+
+    private static final class CountingSink extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.quickbooks.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * "warmup" health contributor; part of the readiness group so the instance only
+ * takes traffic once {@link WarmupService} has finished.
+ */
+@Component
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private WarmupService warmupService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = warmupService.isComplete() ? Health.up() : Health.outOfService();
+        return builder.withDetails(warmupService.details()).build();
+    }
+}
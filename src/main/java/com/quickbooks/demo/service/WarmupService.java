@@ -0,0 +1,214 @@
+package com.quickbooks.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intuit.ipp.data.Account;
+import com.intuit.ipp.data.Customer;
+import com.intuit.ipp.data.Invoice;
+import com.intuit.ipp.data.Item;
+import com.intuit.ipp.data.Line;
+import com.intuit.ipp.data.LineDetailTypeEnum;
+import com.intuit.ipp.data.ReferenceType;
+import com.intuit.ipp.data.SalesItemLineDetail;
+import com.intuit.ipp.data.Vendor;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.service.client.QuickBooksSdkClient;
+
+/**
+ * Background warm-up run once the application is up: loads the SDK/JAXB types, runs bundled
+ * QBO responses through the real parsers, preloads GraphQL documents and opens connections to
+ * the configured hosts. Readiness stays OUT_OF_SERVICE until it finishes (see WarmupHealthIndicator).
+ */
+@Service
+public class WarmupService {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+
+    private static final String[] FIXTURES = {
+        "warmup/customers_query.json",
+        "warmup/items_query.json",
+        "warmup/accounts_query.json"
+    };
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @Autowired
+    private QuickBooksApiService apiService;
+
+    @Autowired
+    private QuickBooksSdkClient sdkClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    private final Map<String, String> steps = java.util.Collections.synchronizedMap(new LinkedHashMap<>());
+    private volatile boolean complete;
+    private volatile long durationMs = -1;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!config.isWarmupEnabled()) {
+            steps.put("warmup", "disabled");
+            complete = true;
+            return;
+        }
+        Thread worker = new Thread(this::warmUp, "qbo-warmup");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Runs every warm-up step; a failing step is recorded and skipped so readiness is never blocked forever.
+     */
+    public void warmUp() {
+        long started = System.nanoTime();
+        step("jaxb", this::warmJaxb);
+        step("sdk", () -> sdkClient.dataService(QuickBooksContext.of("warmup", "0")));
+        step("graphql", apiService::preloadGraphqlDocuments);
+        step("parsing", this::warmParsing);
+        step("connections", this::warmConnections);
+        durationMs = (System.nanoTime() - started) / 1_000_000;
+        complete = true;
+        log.info("Warmup completed in {}ms: {}", durationMs, steps);
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public Map<String, Object> details() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        synchronized (steps) {
+            details.putAll(steps);
+        }
+        if (durationMs >= 0) {
+            details.put("durationMs", durationMs);
+        }
+        return details;
+    }
+
+    private void step(String name, Runnable action) {
+        steps.put(name, "running");
+        try {
+            action.run();
+            steps.put(name, "ok");
+        } catch (RuntimeException e) {
+            steps.put(name, "failed: " + e.getMessage());
+        }
+    }
+
+    private void warmJaxb() {
+        try {
+            JAXBContext jaxb = JAXBContext.newInstance(Invoice.class, Customer.class, Item.class, Account.class, Vendor.class);
+            Marshaller marshaller = jaxb.createMarshaller();
+            StringWriter out = new StringWriter();
+            marshaller.marshal(new JAXBElement<>(new QName("http://schema.intuit.com/finance/v3", "Invoice"),
+                Invoice.class, sampleInvoice()), out);
+        } catch (Exception e) {
+            throw new RuntimeException("JAXB warm-up failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void warmParsing() {
+        List<JsonNode> responses = new ArrayList<>();
+        for (String fixture : FIXTURES) {
+            responses.add(readFixture(fixture));
+        }
+        List<String> ids = List.of("1", "2", "3", "4", "5");
+        for (int i = 0; i < config.getWarmupIterations(); i++) {
+            apiService.parseCustomers(responses.get(0));
+            apiService.parseItems(responses.get(1));
+            apiService.parseAccounts(responses.get(2));
+            try {
+                objectMapper.writeValueAsString(apiService.buildEstimatePayload("1", "1", "1", 2, 10.0, "warmup"));
+                objectMapper.writeValueAsString(apiService.buildSalesReceiptPayload("1", "1", "1", 2, 10.0, "warmup"));
+                objectMapper.writeValueAsString(apiService.buildBillPayload("1", "1", "1", 20.0, "warmup"));
+                objectMapper.writeValueAsString(apiService.buildInvoicePayload("1", "1", "warmup", "1", 2, 10.0, "warmup"));
+                objectMapper.writeValueAsString(apiService.buildProjectsByIdsRequest(ids));
+            } catch (IOException e) {
+                throw new RuntimeException("Serialization warm-up failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * HEAD each configured host so DNS, TCP and TLS are established before the first real call.
+     * Any HTTP response (including 4xx) counts; only transport failures are reported.
+     */
+    private void warmConnections() {
+        List<String> failures = new ArrayList<>();
+        for (String url : List.of(config.getBaseUrl(), config.getGraphqlUrl())) {
+            if (url == null || url.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                restTemplate.headForHeaders(url);
+            } catch (org.springframework.web.client.RestClientResponseException e) {
+                // Host answered; connection is warm
+            } catch (RestClientException e) {
+                failures.add(url + " (" + e.getMessage() + ")");
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new RuntimeException("Unreachable: " + String.join(", ", failures));
+        }
+    }
+
+    private JsonNode readFixture(String location) {
+        try (InputStream in = new ClassPathResource(location).getInputStream()) {
+            return objectMapper.readTree(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read warm-up fixture: " + location + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Invoice sampleInvoice() {
+        Invoice invoice = new Invoice();
+        ReferenceType customerRef = new ReferenceType();
+        customerRef.setValue("1");
+        invoice.setCustomerRef(customerRef);
+        Line line = new Line();
+        line.setDetailType(LineDetailTypeEnum.SALES_ITEM_LINE_DETAIL);
+        line.setAmount(BigDecimal.TEN);
+        SalesItemLineDetail detail = new SalesItemLineDetail();
+        ReferenceType itemRef = new ReferenceType();
+        itemRef.setValue("1");
+        detail.setItemRef(itemRef);
+        detail.setQty(BigDecimal.ONE);
+        line.setSalesItemLineDetail(detail);
+        List<Line> lines = new ArrayList<>();
+        lines.add(line);
+        invoice.setLine(lines);
+        return invoice;
+    }
+}
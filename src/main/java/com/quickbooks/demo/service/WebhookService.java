@@ -0,0 +1,314 @@
+package com.quickbooks.demo.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Turns QBO change notifications into cache invalidations.
+ *
+ * The webhook endpoint verifies and parses a delivery, then {@link #enqueue}s its events on a
+ * bounded queue and returns. A single consumer drains the queue in windows of
+ * {@code webhook-coalesce-millis}, collapses the events to distinct (realm, entity) pairs and
+ * invalidates only the {@link RealmSnapshotStore} datasets built from that entity. They are marked
+ * stale rather than dropped: the next read refetches them, and pages showing the latest copy keep
+ * it until then. Invoice, SalesReceipt, Bill and Payment changes also start a
+ * {@link ProjectRollupService} sync for the realm, and changes to mirrored entities send their
+ * {@link EntityMirror} reads to QBO until the next sync. If the queue is full, the realm's snapshots
+ * are all marked stale at once instead.
+ *
+ * Metrics: {@code qbo.webhook.lag} (QBO change time to invalidation), {@code qbo.webhook.queue.delay}
+ * (receipt to invalidation), {@code qbo.webhook.queue.depth} and {@code qbo.webhook.events} by outcome.
+ */
+@Service
+public class WebhookService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookService.class);
+
+    private static final DateTimeFormatter LAST_UPDATED = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss[.SSS][XXX][XX]");
+
+    /** Snapshot datasets derived from each QBO entity. */
+    static final Map<String, List<String>> DATASETS = Map.of(
+        "Customer", List.of(RealmCatalogService.CATALOG, ProjectResolver.PROJECTS),
+        "Item", List.of(RealmCatalogService.CATALOG),
+        "Vendor", List.of(RealmCatalogService.CATALOG),
+        // "accounts" backs /api/accounts; expense accounts are part of the catalog
+        "Account", List.of("accounts", RealmCatalogService.CATALOG));
+
+    /** One changed entity from a webhook delivery. */
+    public record ChangeEvent(String realmId, String entity, String id, String operation,
+                              Instant lastUpdated, long receivedAtNanos) {}
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    @Autowired
+    private RealmSnapshotStore snapshots;
+
+    @Autowired
+    private ProjectRollupService rollups;
+
+    @Autowired
+    private EntityMirror mirror;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private volatile BlockingQueue<ChangeEvent> queue;
+    private volatile Metrics metrics;
+    private volatile Thread consumer;
+
+    /**
+     * True when {@code signature} is the Base64 HMAC-SHA256 of {@code body} under the configured
+     * verifier token. Always false when no token is configured.
+     */
+    public boolean verify(byte[] body, String signature) {
+        String token = config.getWebhookVerifierToken();
+        if (token == null || token.isBlank() || signature == null || signature.isBlank()) {
+            return false;
+        }
+        byte[] expected = sign(token, body);
+        byte[] given;
+        try {
+            given = Base64.getDecoder().decode(signature.trim());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected, given);
+    }
+
+    static byte[] sign(String verifierToken, byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(verifierToken.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(body);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    /** Change events of an {@code eventNotifications} delivery. */
+    public List<ChangeEvent> parse(byte[] body) throws IOException {
+        long now = System.nanoTime();
+        List<ChangeEvent> events = new ArrayList<>();
+        for (JsonNode notification : objectMapper.readTree(body).path("eventNotifications")) {
+            String realmId = notification.path("realmId").asText(null);
+            if (realmId == null) {
+                continue;
+            }
+            for (JsonNode entity : notification.path("dataChangeEvent").path("entities")) {
+                events.add(new ChangeEvent(realmId, entity.path("name").asText(), entity.path("id").asText(null),
+                    entity.path("operation").asText(null), lastUpdated(entity.path("lastUpdated").asText(null)), now));
+            }
+        }
+        return events;
+    }
+
+    /** Queues events for the consumer. Never blocks: on overflow the realm's snapshots are expired now. */
+    public void enqueue(List<ChangeEvent> events) {
+        BlockingQueue<ChangeEvent> q = queue();
+        for (ChangeEvent event : events) {
+            if (!q.offer(event)) {
+                snapshots.markStale(event.realmId());
+                rollups.changed(event.realmId());
+                mirror.changed(event.realmId());
+                metrics().events("overflow").increment();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (consumer != null) {
+            return;
+        }
+        metrics();
+        consumer = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    drain(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    log.warn("Webhook consumer error: {}", e.getMessage());
+                }
+            }
+        }, "qbo-webhook-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Waits up to {@code waitMillis} for an event, gathers whatever else arrives within the
+     * coalescing window and applies the batch. Returns the number of events consumed.
+     */
+    int drain(long waitMillis) throws InterruptedException {
+        BlockingQueue<ChangeEvent> q = queue();
+        ChangeEvent first = q.poll(waitMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        List<ChangeEvent> batch = new ArrayList<>();
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getWebhookCoalesceMillis()));
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            ChangeEvent next = q.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        q.drainTo(batch);
+        apply(batch);
+        return batch.size();
+    }
+
+    private void apply(List<ChangeEvent> batch) {
+        Metrics m = metrics();
+        // Transaction changes are caught up by the project rollup (one sync per realm)
+        Set<String> rollupRealms = new LinkedHashSet<>();
+        for (ChangeEvent event : batch) {
+            if (ProjectRollupService.ENTITIES.contains(event.entity()) || "Payment".equals(event.entity())) {
+                rollupRealms.add(event.realmId());
+            }
+        }
+        rollupRealms.forEach(rollups::changed);
+        Map<String, ChangeEvent> distinct = new LinkedHashMap<>();
+        for (ChangeEvent event : batch) {
+            if (distinct.putIfAbsent(event.realmId() + ":" + event.entity(), event) != null) {
+                m.events("coalesced").increment();
+            }
+        }
+        // Entities sharing a dataset (Customer and Item both feed the catalog) expire it once;
+        // expired, not dropped, so pages keep their dropdowns while it reloads
+        Set<String> invalidated = new HashSet<>();
+        for (ChangeEvent event : distinct.values()) {
+            if (EntityMirror.INDEXED.containsKey(event.entity())) {
+                mirror.changed(event.realmId(), event.entity());
+            }
+            List<String> datasets = DATASETS.get(event.entity());
+            if (datasets == null) {
+                m.events("unmapped").increment();
+                continue;
+            }
+            for (String dataset : datasets) {
+                if (invalidated.add(event.realmId() + ":" + dataset)) {
+                    snapshots.markStale(event.realmId(), dataset);
+                }
+            }
+            m.events("applied").increment();
+            log.debug("Webhook: {} {} changed in realm {}; invalidated {}", event.entity(), event.id(), event.realmId(), datasets);
+        }
+        long now = System.nanoTime();
+        Instant wallNow = Instant.now();
+        for (ChangeEvent event : batch) {
+            m.queueDelay.record(now - event.receivedAtNanos(), TimeUnit.NANOSECONDS);
+            if (event.lastUpdated() != null) {
+                m.lag.record(Duration.between(event.lastUpdated(), wallNow).abs());
+            }
+        }
+    }
+
+    private static Instant lastUpdated(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(value, LAST_UPDATED).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private BlockingQueue<ChangeEvent> queue() {
+        BlockingQueue<ChangeEvent> q = queue;
+        if (q == null) {
+            synchronized (this) {
+                if (queue == null) {
+                    queue = new ArrayBlockingQueue<>(Math.max(1, config.getWebhookQueueCapacity()));
+                }
+                q = queue;
+            }
+        }
+        return q;
+    }
+
+    private Metrics metrics() {
+        Metrics m = metrics;
+        if (m == null) {
+            synchronized (this) {
+                if (metrics == null) {
+                    metrics = new Metrics(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+                }
+                m = metrics;
+            }
+        }
+        return m;
+    }
+
+    private final class Metrics {
+        final MeterRegistry registry;
+        final Timer lag;
+        final Timer queueDelay;
+
+        Metrics(MeterRegistry registry) {
+            this.registry = registry;
+            this.lag = Timer.builder("qbo.webhook.lag")
+                .description("Time from the QBO change (lastUpdated) to cache invalidation")
+                .register(registry);
+            this.queueDelay = Timer.builder("qbo.webhook.queue.delay")
+                .description("Time from webhook receipt to cache invalidation")
+                .register(registry);
+            Gauge.builder("qbo.webhook.queue.depth", WebhookService.this, s -> s.queue().size())
+                .description("Webhook events waiting for the consumer")
+                .register(registry);
+        }
+
+        Counter events(String outcome) {
+            return Counter.builder("qbo.webhook.events").tag("outcome", outcome).register(registry);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.quickbooks.demo.service.client;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Asks QBO for gzip and decodes it lazily, so parsers read straight from the inflating
+ * stream. Records {@code qbo.http.client.bytes} per endpoint with {@code encoding=wire}
+ * (bytes received) and {@code encoding=decoded} (bytes after inflation).
+ */
+public class CompressionInterceptor implements ClientHttpRequestInterceptor {
+
+    private final MeterRegistry registry;
+
+    public CompressionInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+        ClientHttpResponse response = execution.execute(request, body);
+        return new DecodingResponse(response, endpoint(request));
+    }
+
+    /** Low-cardinality tag: last path segment for QBO company paths, "graphql" for GraphQL, else "other". */
+    static String endpoint(HttpRequest request) {
+        String path = request.getURI().getPath();
+        if (path == null || path.isEmpty()) {
+            return "other";
+        }
+        if (path.endsWith("/graphql")) {
+            return "graphql";
+        }
+        int companyIdx = path.indexOf("/v3/company/");
+        if (companyIdx >= 0) {
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+        return "other";
+    }
+
+    private final class DecodingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final String endpoint;
+        private final boolean gzip;
+        private final HttpHeaders headers;
+        private CountingInputStream wire;
+        private CountingInputStream decoded;
+
+        DecodingResponse(ClientHttpResponse delegate, String endpoint) {
+            this.delegate = delegate;
+            this.endpoint = endpoint;
+            String encoding = delegate.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+            this.gzip = encoding != null && encoding.toLowerCase().contains("gzip");
+            this.headers = new HttpHeaders();
+            this.headers.putAll(delegate.getHeaders());
+            if (gzip) {
+                // Callers see the decoded entity
+                this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+                this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+            }
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (decoded == null) {
+                wire = new CountingInputStream(delegate.getBody());
+                decoded = gzip ? new CountingInputStream(new GZIPInputStream(wire)) : wire;
+            }
+            return decoded;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public void close() {
+            if (wire != null) {
+                counter("wire").increment(wire.count);
+                counter("decoded").increment(decoded.count);
+            }
+            delegate.close();
+        }
+
+        private Counter counter(String encoding) {
+            return Counter.builder("qbo.http.client.bytes")
+                .description("QBO response body bytes, as received (wire) and after decompression (decoded)")
+                .baseUnit("bytes")
+                .tag("endpoint", endpoint)
+                .tag("encoding", encoding)
+                .register(registry);
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.quickbooks.demo.service.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+
+/**
+ * Hedged execution for idempotent reads. If the primary call has not answered after the
+ * operation's running p95 latency, a duplicate is sent and the first successful answer wins;
+ * the other call is cancelled. Hedges are paid from a token bucket that earns
+ * {@code hedging-budget-percent} of a token per request, which caps the extra load.
+ *
+ * Cancellation is best-effort: the interrupt does not unblock an {@code HttpURLConnection} read.
+ * Legs therefore open their connections with {@code hedging-leg-read-timeout-ms} as read timeout
+ * (see {@link #legReadTimeoutMillis()}), which bounds how long a losing leg can hold its socket.
+ */
+@Component
+public class HedgingExecutor {
+
+    private static final int WINDOW = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final double MAX_TOKENS = 10.0;
+
+    // Set on pool threads while they run a leg; read by the RestTemplate's request factory
+    private static final ThreadLocal<Integer> LEG_READ_TIMEOUT = new ThreadLocal<>();
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final AtomicLong hedgesIssued = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private double tokens = MAX_TOKENS;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(new java.util.concurrent.ThreadFactory() {
+        private final AtomicInteger seq = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "qbo-hedge-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    /**
+     * Runs {@code call} for {@code operation}, hedging it when enabled. Only use for idempotent calls.
+     */
+    public <T> T execute(String operation, Supplier<T> call) {
+        LatencyWindow window = windows.computeIfAbsent(operation, k -> new LatencyWindow());
+        if (!config.isHedgingEnabled()) {
+            long started = System.nanoTime();
+            T result = call.get();
+            window.record(System.nanoTime() - started);
+            return result;
+        }
+        earnToken();
+
+        // Legs run on pool threads; carry the caller's outbound scheduling tag to them
+        Supplier<T> tagged = OutboundScheduler.propagate(call);
+        int readTimeout = (int) Math.min(Integer.MAX_VALUE, Math.max(0, config.getHedgingLegReadTimeoutMs()));
+        Callable<T> bounded = () -> {
+            LEG_READ_TIMEOUT.set(readTimeout);
+            try {
+                return tagged.get();
+            } finally {
+                LEG_READ_TIMEOUT.remove();
+            }
+        };
+        CompletionService<T> race = new ExecutorCompletionService<>(executor);
+        List<Future<T>> legs = new ArrayList<>(2);
+        long started = System.nanoTime();
+        legs.add(race.submit(bounded));
+        try {
+            Future<T> done = race.poll(hedgeDelayMillis(window), TimeUnit.MILLISECONDS);
+            boolean hedged = false;
+            if (done == null && spendToken()) {
+                hedgesIssued.incrementAndGet();
+                legs.add(race.submit(bounded));
+                hedged = true;
+            }
+            RuntimeException firstFailure = null;
+            for (int pending = legs.size(); pending > 0; pending--) {
+                Future<T> finished = done != null ? done : race.take();
+                done = null;
+                try {
+                    T result = finished.get();
+                    window.record(System.nanoTime() - started);
+                    if (hedged && finished == legs.get(1)) {
+                        hedgeWins.incrementAndGet();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    if (firstFailure == null) {
+                        firstFailure = e.getCause() instanceof RuntimeException re
+                            ? re : new RuntimeException(e.getCause() != null ? e.getCause().getMessage() : "Hedged call failed", e.getCause());
+                    }
+                }
+            }
+            throw firstFailure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for " + operation, e);
+        } finally {
+            // Best-effort: a leg blocked in a socket read only stops at its read timeout
+            for (Future<T> leg : legs) {
+                leg.cancel(true);
+            }
+        }
+    }
+
+    /** Read timeout for connections opened by the hedged leg running on this thread, or 0 outside a leg. */
+    public static int legReadTimeoutMillis() {
+        Integer timeout = LEG_READ_TIMEOUT.get();
+        return timeout != null ? timeout : 0;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hedgesIssued", hedgesIssued.get());
+        stats.put("hedgeWins", hedgeWins.get());
+        Map<String, Long> p95 = new LinkedHashMap<>();
+        windows.forEach((op, w) -> p95.put(op, w.p95Millis()));
+        stats.put("p95Ms", p95);
+        return stats;
+    }
+
+    long hedgeDelayMillis(String operation) {
+        return hedgeDelayMillis(windows.computeIfAbsent(operation, k -> new LatencyWindow()));
+    }
+
+    private long hedgeDelayMillis(LatencyWindow window) {
+        long p95 = window.count() >= MIN_SAMPLES ? window.p95Millis() : config.getHedgingInitialDelayMs();
+        return Math.max(config.getHedgingMinDelayMs(), p95);
+    }
+
+    private synchronized void earnToken() {
+        tokens = Math.min(MAX_TOKENS, tokens + config.getHedgingBudgetPercent() / 100.0);
+    }
+
+    private synchronized boolean spendToken() {
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        return false;
+    }
+
+    /** Ring buffer of the most recent latencies for one operation. */
+    private static final class LatencyWindow {
+        private final long[] nanos = new long[WINDOW];
+        private int next;
+        private int count;
+
+        synchronized void record(long latencyNanos) {
+            nanos[next] = latencyNanos;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized long p95Millis() {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            int idx = (int) Math.ceil(0.95 * count) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, idx)]);
+        }
+    }
+}
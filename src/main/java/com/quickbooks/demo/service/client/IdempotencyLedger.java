@@ -0,0 +1,150 @@
+package com.quickbooks.demo.service.client;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+
+/**
+ * Bounded, in-memory map of create request IDs to their results.
+ *
+ * A replay of a completed request returns the stored result without calling QuickBooks; a
+ * concurrent duplicate (retry, hedge, double submit) waits for the in-flight original instead
+ * of issuing a second create. Request IDs identify one submission, not its content (see
+ * {@link #submissionId}): two creates with identical payloads are two creates. The same ID is
+ * sent to QBO as {@code requestid}, so QBO dedupes anything the ledger has evicted.
+ */
+@Component
+public class IdempotencyLedger {
+
+    /** A create call that may throw a checked exception (SDK calls throw FMSException). */
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private record Entry(Object result, long storedAtMillis) {}
+
+    @Autowired
+    private QuickBooksConfig config;
+
+    private final Map<String, Entry> completed = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Deterministic request ID: hex SHA-256 of the parts, truncated to 32 chars (QBO allows up to 50).
+     */
+    public static String requestId(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update((part != null ? part : "").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest()).substring(0, 32);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** A fresh request ID for a submission that carries no key of its own. */
+    public static String newRequestId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    /**
+     * Request ID for one submission to {@code path}: derived from the caller's key (form nonce,
+     * {@code Idempotency-Key} header, outbox entry id), scoped to the realm and path, so a resubmit
+     * of the same form maps to the same create. Without a key every call is a new submission.
+     */
+    public static String submissionId(String realmId, String path, String submissionKey) {
+        if (submissionKey == null || submissionKey.isBlank()) {
+            return newRequestId();
+        }
+        return requestId(realmId, path, submissionKey.trim());
+    }
+
+    /**
+     * Returns the stored result for {@code requestId}, or runs {@code call} once and stores its result.
+     * Failures are not stored, so a later replay tries again.
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> T execute(String requestId, Call<T, E> call) throws E {
+        Object cached = lookup(requestId);
+        if (cached != null) {
+            return (T) cached;
+        }
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(requestId, mine);
+        if (existing != null) {
+            return (T) await(existing);
+        }
+        try {
+            T result = call.call();
+            store(requestId, result);
+            mine.complete(result);
+            return result;
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(requestId, mine);
+        }
+    }
+
+    public synchronized int size() {
+        return completed.size();
+    }
+
+    private synchronized Object lookup(String requestId) {
+        Entry entry = completed.get(requestId);
+        if (entry == null) {
+            return null;
+        }
+        long ttlMillis = config.getIdempotencyTtlMinutes() * 60_000L;
+        if (ttlMillis > 0 && System.currentTimeMillis() - entry.storedAtMillis() > ttlMillis) {
+            completed.remove(requestId);
+            return null;
+        }
+        return entry.result();
+    }
+
+    private synchronized void store(String requestId, Object result) {
+        if (result == null) {
+            return;
+        }
+        completed.put(requestId, new Entry(result, System.currentTimeMillis()));
+        int capacity = Math.max(1, config.getIdempotencyLedgerSize());
+        var it = completed.entrySet().iterator();
+        while (completed.size() > capacity && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> original) {
+        try {
+            return original.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for in-flight request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException(cause != null ? cause.getMessage() : "In-flight request failed", cause);
+        }
+    }
+}
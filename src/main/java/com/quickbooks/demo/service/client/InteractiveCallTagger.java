@@ -0,0 +1,43 @@
+package com.quickbooks.demo.service.client;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Marks outbound calls made while serving a page/API request as {@link OutboundScheduler.Priority#INTERACTIVE}
+ * for the session's realm. Work that leaves the request thread (jobs, outbox, streamed exports)
+ * tags itself as background.
+ */
+public class InteractiveCallTagger implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE = InteractiveCallTagger.class.getName() + ".scope";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        HttpSession session = request.getSession(false);
+        String realmId = session != null ? (String) session.getAttribute("realmId") : null;
+        request.setAttribute(SCOPE, OutboundScheduler.tag(realmId, OutboundScheduler.Priority.INTERACTIVE));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        clear(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        clear(request);
+    }
+
+    private static void clear(HttpServletRequest request) {
+        Object scope = request.getAttribute(SCOPE);
+        if (scope instanceof OutboundScheduler.Scope s) {
+            request.removeAttribute(SCOPE);
+            s.close();
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.quickbooks.demo.service.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Admission control for every outbound QBO call made through the shared RestTemplate.
+ *
+ * At most {@code outbound-max-concurrency} calls run at once (0 disables the limit). When all
+ * slots are busy, callers wait in a weighted fair queue: each (realm, priority) pair is a flow,
+ * and waiters are released in order of their virtual finish time, so a realm with a deep backlog
+ * cannot hold back another realm's next call. {@link Priority#INTERACTIVE} flows weigh
+ * {@code outbound-interactive-weight} times a background flow, and a quarter of the slots is kept
+ * for interactive calls. A slot is held until the response is closed, so streamed bodies count.
+ *
+ * The flow comes from the calling thread's {@link #tag}; untagged calls are background work for
+ * the realm in the URL. Metrics: {@code qbo.outbound.wait} and {@code qbo.outbound.queue.depth}
+ * by realm and priority, and {@code qbo.outbound.in.flight}.
+ */
+public class OutboundScheduler implements ClientHttpRequestInterceptor {
+
+    public enum Priority { INTERACTIVE, BACKGROUND }
+
+    /** Who an outbound call is made for. */
+    public record Tag(String realmId, Priority priority) {}
+
+    /** Restores the previous tag of the thread. */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    static final String UNKNOWN_REALM = "unknown";
+
+    private static final Pattern COMPANY = Pattern.compile("/v3/company/([^/?]+)");
+    private static final ThreadLocal<Tag> CURRENT = new ThreadLocal<>();
+
+    private final QuickBooksConfig config;
+    private final MeterRegistry registry;
+
+    private final Object lock = new Object();
+    private final Map<String, Flow> flows = new HashMap<>();
+    private final Map<Priority, PriorityQueue<Waiter>> queues = new EnumMap<>(Priority.class);
+    private int inFlight;
+    private double virtualTime;
+    private long arrivals;
+
+    public OutboundScheduler(QuickBooksConfig config, MeterRegistry registry) {
+        this.config = config;
+        this.registry = registry;
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new PriorityQueue<>(
+                Comparator.comparingDouble((Waiter w) -> w.finish).thenComparingLong(w -> w.arrival)));
+        }
+        Gauge.builder("qbo.outbound.in.flight", this, s -> s.inFlight())
+            .description("Outbound QBO calls holding a slot")
+            .register(registry);
+    }
+
+    /** Tags outbound calls made by this thread until the returned scope is closed. */
+    public static Scope tag(String realmId, Priority priority) {
+        Tag previous = CURRENT.get();
+        CURRENT.set(new Tag(realmId, priority));
+        return () -> restore(previous);
+    }
+
+    public static Tag current() {
+        return CURRENT.get();
+    }
+
+    /** Wraps {@code call} to run under the caller's tag on another thread. */
+    public static <T> Supplier<T> propagate(Supplier<T> call) {
+        Tag tag = CURRENT.get();
+        return () -> {
+            Tag previous = CURRENT.get();
+            CURRENT.set(tag);
+            try {
+                return call.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Tag previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (config.getOutboundMaxConcurrency() <= 0) {
+            return execution.execute(request, body);
+        }
+        Tag tag = CURRENT.get();
+        String realmId = tag != null && tag.realmId() != null ? tag.realmId() : realmOf(request.getURI());
+        Priority priority = tag != null && tag.priority() != null ? tag.priority() : Priority.BACKGROUND;
+        acquire(realmId, priority);
+        try {
+            return new ReleasingResponse(execution.execute(request, body));
+        } catch (IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    static String realmOf(URI uri) {
+        Matcher m = COMPANY.matcher(uri.getPath() != null ? uri.getPath() : "");
+        return m.find() ? m.group(1) : UNKNOWN_REALM;
+    }
+
+    void acquire(String realmId, Priority priority) throws IOException {
+        long started = System.nanoTime();
+        Waiter waiter;
+        synchronized (lock) {
+            Flow flow = flow(realmId, priority);
+            double weight = priority == Priority.INTERACTIVE ? Math.max(1, config.getOutboundInteractiveWeight()) : 1.0;
+            double start = Math.max(virtualTime, flow.lastFinish);
+            waiter = new Waiter(flow, start, start + 1.0 / weight, arrivals++);
+            flow.lastFinish = waiter.finish;
+            flow.queued++;
+            queues.get(priority).add(waiter);
+            dispatch();
+            long deadline = started + TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getOutboundQueueTimeoutMillis()));
+            while (!waiter.granted) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    abandon(waiter);
+                    throw new IOException("Timed out after " + config.getOutboundQueueTimeoutMillis()
+                        + " ms waiting for an outbound QBO slot (realm " + realmId + ", " + priority + ")");
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    abandon(waiter);
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for an outbound QBO slot");
+                }
+            }
+        }
+        waiter.flow.waits.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    void release() {
+        synchronized (lock) {
+            inFlight--;
+            dispatch();
+        }
+    }
+
+    int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /** Grants free slots to waiters by virtual finish time; background may not use the interactive reserve. */
+    private void dispatch() {
+        int limit = Math.max(1, config.getOutboundMaxConcurrency());
+        int reserve = limit > 1 ? Math.max(1, limit / 4) : 0;
+        boolean granted = false;
+        while (inFlight < limit) {
+            Waiter interactive = queues.get(Priority.INTERACTIVE).peek();
+            Waiter background = inFlight < limit - reserve ? queues.get(Priority.BACKGROUND).peek() : null;
+            Waiter next = interactive == null ? background
+                : background == null ? interactive
+                : (background.finish < interactive.finish ? background : interactive);
+            if (next == null) {
+                break;
+            }
+            queues.get(next.flow.priority).poll();
+            next.granted = true;
+            next.flow.queued--;
+            inFlight++;
+            virtualTime = Math.max(virtualTime, next.start);
+            granted = true;
+        }
+        if (granted) {
+            lock.notifyAll();
+        }
+    }
+
+    private void abandon(Waiter waiter) {
+        if (waiter.granted) {
+            // Granted between the deadline check and now; hand the slot on
+            inFlight--;
+        } else {
+            queues.get(waiter.flow.priority).remove(waiter);
+            waiter.flow.queued--;
+        }
+        dispatch();
+    }
+
+    private Flow flow(String realmId, Priority priority) {
+        return flows.computeIfAbsent(realmId + "|" + priority, k -> new Flow(realmId, priority));
+    }
+
+    /** One (realm, priority) stream of calls. Mutated under the scheduler lock. */
+    private final class Flow {
+        final Priority priority;
+        final Timer waits;
+        double lastFinish;
+        volatile int queued;
+
+        Flow(String realmId, Priority priority) {
+            this.priority = priority;
+            String p = priority.name().toLowerCase();
+            this.waits = Timer.builder("qbo.outbound.wait")
+                .description("Time an outbound QBO call waited for a slot")
+                .tag("realm", realmId)
+                .tag("priority", p)
+                .register(registry);
+            Gauge.builder("qbo.outbound.queue.depth", this, f -> f.queued)
+                .description("Outbound QBO calls waiting for a slot")
+                .tag("realm", realmId)
+                .tag("priority", p)
+                .register(registry);
+        }
+    }
+
+    private static final class Waiter {
+        final Flow flow;
+        final double start;
+        final double finish;
+        final long arrival;
+        boolean granted;
+
+        Waiter(Flow flow, double start, double finish, long arrival) {
+            this.flow = flow;
+            this.start = start;
+            this.finish = finish;
+            this.arrival = arrival;
+        }
+    }
+
+    /** Gives the slot back when the caller closes the response (after reading the body). */
+    private final class ReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    release();
+                }
+            }
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package com.quickbooks.demo.service.client;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.quickbooks.demo.config.QuickBooksConfig;
 import com.quickbooks.demo.model.QuickBooksContext;
 
@@ -31,43 +46,180 @@ public class QuickBooksRestClient {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private IdempotencyLedger ledger;
+
+    @Autowired
+    private HedgingExecutor hedging;
+
+    // Safe for creates only because every POST carries a requestid
+    private static final RetryTemplate RETRY = RetryTemplate.builder()
+        .maxAttempts(3)
+        .exponentialBackoff(300, 2.0, 2000)
+        .retryOn(ResourceAccessException.class)
+        .retryOn(HttpClientErrorException.TooManyRequests.class)
+        .retryOn(HttpServerErrorException.class)
+        .build();
+
+    // One writer per payload type; writerFor resolves the serializer once instead of per request
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
     public String query(QuickBooksContext ctx, String query) {
         String url = baseCompanyUrl(ctx) + "/query";
         url = appendMinorVersion(url);
 
         HttpHeaders headers = textHeaders(ctx);
         HttpEntity<String> request = new HttpEntity<>(query, headers);
-        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, request, String.class);
+        String target = url;
+        // Reads are idempotent, so a slow query may be hedged
+        ResponseEntity<String> response = hedging.execute("query",
+            () -> restTemplate.exchange(target, HttpMethod.POST, request, String.class));
         if (!response.getStatusCode().is2xxSuccessful()) {
             throw new RuntimeException("QuickBooks query failed: " + response.getStatusCode() + " - " + response.getBody());
         }
         return response.getBody();
     }
 
+    /**
+     * Like {@link #query} but parses the (gzip-decoded) response stream directly into a tree,
+     * without first materializing the whole body as a String. Used by the listing paths.
+     */
+    public JsonNode queryTree(QuickBooksContext ctx, String query) {
+        String url = appendMinorVersion(baseCompanyUrl(ctx) + "/query");
+        HttpEntity<String> request = new HttpEntity<>(query, textHeaders(ctx));
+        RequestCallback callback = restTemplate.httpEntityCallback(request);
+        ResponseExtractor<JsonNode> extractor = response -> {
+            try (InputStream body = response.getBody()) {
+                return objectMapper.readTree(body);
+            }
+        };
+        return hedging.execute("query", () -> restTemplate.execute(url, HttpMethod.POST, callback, extractor));
+    }
+
+    /**
+     * Runs {@code query} and hands each {@code entity} row to {@code row} as it is parsed from the
+     * response stream, so only one row is in memory at a time. Returns the number of rows.
+     * Not hedged: a duplicate request would replay the consumer's side effects.
+     */
+    public int queryEach(QuickBooksContext ctx, String entity, String query, Consumer<JsonNode> row) {
+        String url = appendMinorVersion(baseCompanyUrl(ctx) + "/query");
+        HttpEntity<String> request = new HttpEntity<>(query, textHeaders(ctx));
+        RequestCallback callback = restTemplate.httpEntityCallback(request);
+        ResponseExtractor<Integer> extractor = response -> {
+            try (InputStream body = response.getBody(); JsonParser parser = objectMapper.createParser(body)) {
+                int count = 0;
+                int depth = 0;
+                boolean inResponse = false;
+                JsonToken token;
+                while ((token = parser.nextToken()) != null) {
+                    if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                        depth++;
+                    } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                        depth--;
+                    } else if (token == JsonToken.FIELD_NAME && depth == 1) {
+                        inResponse = "QueryResponse".equals(parser.currentName());
+                    } else if (token == JsonToken.FIELD_NAME && depth == 2 && inResponse
+                            && entity.equals(parser.currentName())) {
+                        if (parser.nextToken() != JsonToken.START_ARRAY) {
+                            parser.skipChildren();
+                            continue;
+                        }
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            row.accept(parser.readValueAsTree());
+                            count++;
+                        }
+                    }
+                }
+                return count;
+            }
+        };
+        Integer count = restTemplate.execute(url, HttpMethod.POST, callback, extractor);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * GET {@code path} (e.g. {@code /reports/ProfitAndLoss}) with {@code params} and hands the
+     * response stream to {@code reader}, so the body is never held as a String or tree. Reads are
+     * idempotent, so a slow call may be hedged; {@code reader} must not have side effects.
+     */
+    public <T> T getStreamed(QuickBooksContext ctx, String path, Map<String, String> params, StreamReader<T> reader) {
+        StringBuilder url = new StringBuilder(baseCompanyUrl(ctx)).append(path);
+        char sep = '?';
+        for (Map.Entry<String, String> p : params.entrySet()) {
+            url.append(sep).append(p.getKey()).append('=').append(p.getValue());
+            sep = '&';
+        }
+        String target = appendMinorVersion(url.toString());
+        RequestCallback callback = restTemplate.httpEntityCallback(new HttpEntity<>(jsonHeaders(ctx)));
+        ResponseExtractor<T> extractor = response -> {
+            try (InputStream body = response.getBody(); JsonParser parser = objectMapper.createParser(body)) {
+                return reader.read(parser);
+            }
+        };
+        return hedging.execute("get", () -> restTemplate.execute(target, HttpMethod.GET, callback, extractor));
+    }
+
+    /** Consumes a response body as a token stream. */
+    @FunctionalInterface
+    public interface StreamReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    /** POST a create/update body as a new submission; see {@link #postJson(QuickBooksContext, String, Object, String)}. */
     public String postJson(QuickBooksContext ctx, String path, Object payload) {
-        String url = baseCompanyUrl(ctx) + path;
-        url = appendMinorVersion(url);
+        return postJson(ctx, path, payload, IdempotencyLedger.newRequestId());
+    }
 
-        HttpHeaders headers = jsonHeaders(ctx);
-        String body;
+    /**
+     * POST a create/update body under {@code requestId}, which identifies this submission (see
+     * {@link IdempotencyLedger#submissionId}). Every attempt carries it as {@code requestid}, so
+     * retries on timeouts, 429 and 5xx are safe: QBO dedupes them and the local
+     * {@link IdempotencyLedger} answers a replay of the same submission without another round-trip.
+     */
+    public String postJson(QuickBooksContext ctx, String path, Object payload, String requestId) {
+        HttpEntity<byte[]> request = new HttpEntity<>(serialize(payload), jsonHeaders(ctx));
+        String target = postUrl(ctx, path, requestId);
         try {
-            body = objectMapper.writeValueAsString(payload);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to serialize payload: " + e.getMessage(), e);
+            return ledger.execute(requestId, () -> RETRY.execute(retryCtx -> post(target, request)));
+        } catch (HttpClientErrorException e) {
+            throw new RuntimeException("QuickBooks POST failed: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
         }
+    }
 
+    /**
+     * POST a create body once under {@code requestId}, without retries or the ledger; for callers
+     * that run their own retry loop with a durable request id (the outbox).
+     */
+    public String postJsonOnce(QuickBooksContext ctx, String path, Object payload, String requestId) {
+        HttpEntity<byte[]> request = new HttpEntity<>(serialize(payload), jsonHeaders(ctx));
         try {
-            HttpEntity<String> request = new HttpEntity<>(body, headers);
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, request, String.class);
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                throw new RuntimeException("QuickBooks POST failed: " + response.getStatusCode() + " - " + response.getBody());
-            }
-            return response.getBody();
+            return post(postUrl(ctx, path, requestId), request);
         } catch (HttpClientErrorException e) {
             throw new RuntimeException("QuickBooks POST failed: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
         }
     }
 
+    private byte[] serialize(Object payload) {
+        try {
+            return writers.computeIfAbsent(payload.getClass(), objectMapper::writerFor).writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize payload: " + e.getMessage(), e);
+        }
+    }
+
+    private String postUrl(QuickBooksContext ctx, String path, String requestId) {
+        String url = appendMinorVersion(baseCompanyUrl(ctx) + path);
+        return url + (url.contains("?") ? "&" : "?") + "requestid=" + requestId;
+    }
+
+    private String post(String url, HttpEntity<byte[]> request) {
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, request, String.class);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new RuntimeException("QuickBooks POST failed: " + response.getStatusCode() + " - " + response.getBody());
+        }
+        return response.getBody();
+    }
+
     private String baseCompanyUrl(QuickBooksContext ctx) {
         return ensureNoTrailingSlash(config.getBaseUrl()) + "/v3/company/" + ctx.realmId();
     }
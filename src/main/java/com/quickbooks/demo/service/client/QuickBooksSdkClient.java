@@ -8,6 +8,7 @@ import com.intuit.ipp.core.ServiceType;
 import com.intuit.ipp.exception.FMSException;
 import com.intuit.ipp.security.OAuth2Authorizer;
 import com.intuit.ipp.services.DataService;
+import com.intuit.ipp.util.Config;
 import com.quickbooks.demo.config.QuickBooksConfig;
 import com.quickbooks.demo.model.QuickBooksContext;
 
@@ -21,12 +22,24 @@ public class QuickBooksSdkClient {
     private QuickBooksConfig config;
 
     public DataService dataService(QuickBooksContext ctx) {
+        return dataService(ctx, null);
+    }
+
+    /**
+     * DataService whose calls carry the given QBO {@code requestid} (used for idempotent creates).
+     */
+    public DataService dataService(QuickBooksContext ctx, String requestId) {
         try {
+            // SDK config is per-thread; ask for gzip responses like the REST client does
+            Config.setProperty(Config.COMPRESSION_RESPONSE_FORMAT, "gzip");
             OAuth2Authorizer oauth2Authorizer = new OAuth2Authorizer(ctx.rawToken());
             Context context = new Context(oauth2Authorizer, ServiceType.QBO, ctx.realmId());
             if (config.getMinorVersion() != null && !config.getMinorVersion().trim().isEmpty()) {
                 context.setMinorVersion(config.getMinorVersion().trim());
             }
+            if (requestId != null) {
+                context.setRequestID(requestId);
+            }
             return new DataService(context);
         } catch (FMSException e) {
             throw new RuntimeException("Failed to create QuickBooks DataService: " + e.getMessage(), e);
@@ -0,0 +1,52 @@
+package com.quickbooks.demo.config;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import com.quickbooks.demo.controller.AccountsController;
+import com.quickbooks.demo.service.QuickBooksApiService;
+import com.quickbooks.demo.service.RealmSnapshotStore;
+
+@WebMvcTest(controllers = AccountsController.class)
+@ActiveProfiles("prod")
+class StaticAssetsConfigWebTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ResourceUrlProvider resourceUrlProvider;
+
+    @MockBean
+    @SuppressWarnings("unused")
+    private QuickBooksApiService apiService;
+
+    @MockBean
+    @SuppressWarnings("unused")
+    private RealmSnapshotStore snapshots;
+
+    @MockBean
+    @SuppressWarnings("unused")
+    private QuickBooksConfig config;
+
+    @Test
+    void stylesheet_isFingerprintedAndImmutable() throws Exception {
+        String versioned = resourceUrlProvider.getForLookupPath("/css/styles.css");
+        assertTrue(versioned.matches("/css/styles-[0-9a-f]{32}\\.css"), versioned);
+
+        mockMvc.perform(get(versioned))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", containsString("immutable")))
+            .andExpect(header().string("Cache-Control", containsString("max-age=31536000")));
+    }
+}
@@ -0,0 +1,75 @@
+package com.quickbooks.demo.controller;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.AccountList;
+import com.quickbooks.demo.model.AccountSummary;
+import com.quickbooks.demo.service.QuickBooksApiService;
+import com.quickbooks.demo.service.RealmSnapshotStore;
+
+@WebMvcTest(controllers = AccountsController.class)
+@Import(RealmSnapshotStore.class)
+class AccountsControllerWebTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private QuickBooksApiService apiService;
+
+    @MockBean
+    private QuickBooksConfig config;
+
+    private final MockHttpSession session = new MockHttpSession();
+
+    @BeforeEach
+    void setup() {
+        when(config.getSnapshotTtlSeconds()).thenReturn(60L);
+        session.setAttribute("accessToken", "Bearer t");
+        session.setAttribute("realmId", "123");
+        when(apiService.getAccounts(eq("Bearer t"), eq("123")))
+            .thenReturn(AccountList.of(List.of(AccountSummary.of("1", "Sales", "Income"))));
+    }
+
+    @Test
+    void listAccounts_returnsEtagAndAnswersRevalidationWith304() throws Exception {
+        String etag = mockMvc.perform(get("/api/accounts").session(session))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andExpect(jsonPath("$.accounts[0].name").value("Sales"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/accounts").session(session).header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/accounts").session(session).header("If-None-Match", "\"accounts-stale\""))
+            .andExpect(status().isOk());
+
+        // Only the first request reached QBO; the rest were served from the snapshot
+        verify(apiService, times(1)).getAccounts("Bearer t", "123");
+    }
+
+    @Test
+    void listAccounts_withoutSession_isUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/accounts"))
+            .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,53 @@
+package com.quickbooks.demo.controller;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.CustomerSummary;
+import com.quickbooks.demo.service.RealmCatalogService;
+
+@WebMvcTest(controllers = CatalogSearchController.class)
+class CatalogSearchControllerWebTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RealmCatalogService catalogs;
+
+    @MockBean
+    @SuppressWarnings("unused")
+    private QuickBooksConfig config;
+
+    @Test
+    void searchCustomers_returnsTopMatchesWithClampedLimit() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("accessToken", "Bearer t");
+        session.setAttribute("realmId", "123");
+        when(catalogs.searchCustomers(eq("Bearer t"), eq("123"), eq("smi"), eq(50)))
+            .thenReturn(List.of(new CustomerSummary("8", "Smithson Supply")));
+
+        mockMvc.perform(get("/api/customers/search").param("q", "smi").param("limit", "500").session(session))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value("8"))
+            .andExpect(jsonPath("$[0].name").value("Smithson Supply"));
+    }
+
+    @Test
+    void searchItems_withoutSession_isUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/items/search").param("q", "ha"))
+            .andExpect(status().isUnauthorized());
+    }
+}
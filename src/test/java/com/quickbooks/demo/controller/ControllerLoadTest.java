@@ -0,0 +1,115 @@
+package com.quickbooks.demo.controller;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.quickbooks.demo.stub.LatencyModel;
+import com.quickbooks.demo.stub.LoadDriver;
+import com.quickbooks.demo.stub.QboStubServer;
+
+/**
+ * End-to-end load run of the main controllers against {@link QboStubServer}.
+ * Excluded from {@code test}; run with {@code ./gradlew loadTest} (budgets via -Pload.*).
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+    "logging.level.com.quickbooks.demo=INFO",
+    "logging.level.org.apache.http=INFO"
+})
+@AutoConfigureMockMvc
+class ControllerLoadTest {
+
+    private static final String REALM = "9130000000000001";
+
+    private static QboStubServer stub;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void stubEndpoints(DynamicPropertyRegistry registry) {
+        if (stub == null) {
+            stub = new QboStubServer()
+                .latency(LatencyModel.withSpikes(LatencyModel.logNormal(40, 0.4), 0.01, LatencyModel.uniform(300, 600)))
+                .throttleRate(Double.parseDouble(System.getProperty("load.throttleRate", "0.0")))
+                .start();
+        }
+        registry.add("quickbooks.base-url", stub::baseUrl);
+        registry.add("quickbooks.graphql-url", stub::graphqlUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        if (stub != null) {
+            stub.close();
+            stub = null;
+        }
+    }
+
+    @Test
+    void controllersStayWithinLatencyBudgets() throws Exception {
+        double p95Budget = Double.parseDouble(System.getProperty("load.p95BudgetMs", "250"));
+        double p99Budget = Double.parseDouble(System.getProperty("load.p99BudgetMs", "800"));
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.maxErrorRate", "0.01"));
+
+        Map<String, LoadDriver.Stats> results = new LoadDriver()
+            .concurrency(Integer.getInteger("load.concurrency", 16))
+            .iterations(Integer.getInteger("load.iterations", 300))
+            .scenario("GET /api/accounts", () -> mockMvc.perform(get("/api/accounts").session(connectedSession()))
+                .andReturn().getResponse().getStatus() == 200)
+            .scenario("POST /create-estimate", () -> noFlashError(mockMvc.perform(post("/create-estimate")
+                .session(connectedSession())
+                .param("customerId", "12").param("itemId", "3").param("projectId", "20")
+                .param("quantity", "2").param("amount", "150.0").param("description", "Load estimate"))
+                .andReturn()))
+            .scenario("POST /create-bill", () -> noFlashError(mockMvc.perform(post("/create-bill")
+                .session(connectedSession())
+                .param("vendorId", "4").param("expenseAccountId", "7").param("projectId", "20")
+                .param("amount", "980.0").param("description", "Load bill"))
+                .andReturn()))
+            .scenario("POST /projects", () -> noFlashError(mockMvc.perform(post("/projects")
+                .session(connectedSession()).param("first", "10"))
+                .andReturn()))
+            .scenario("POST /projects/get-multi", () -> noFlashError(mockMvc.perform(post("/projects/get-multi")
+                .session(connectedSession()).param("ids", "1,2,3,4,5"))
+                .andReturn()))
+            .run();
+
+        System.out.println(LoadDriver.format(results));
+        System.out.println("stub requests throttled: " + stub.throttledCount());
+        LoadDriver.writeReport(results, Path.of("build", "reports", "load", "results.json"));
+
+        results.forEach((name, s) -> {
+            assertTrue(s.errorRate() <= maxErrorRate, name + " error rate " + s.errorRate() + " > " + maxErrorRate);
+            assertTrue(s.p95Ms() <= p95Budget, name + " p95 " + s.p95Ms() + "ms > budget " + p95Budget + "ms");
+            assertTrue(s.p99Ms() <= p99Budget, name + " p99 " + s.p99Ms() + "ms > budget " + p99Budget + "ms");
+        });
+    }
+
+    private static MockHttpSession connectedSession() {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("accessToken", "Bearer stub-access");
+        session.setAttribute("realmId", REALM);
+        return session;
+    }
+
+    /** Redirecting controllers report failures via the "error" (or projects "message") flash attribute. */
+    private static boolean noFlashError(MvcResult result) {
+        return result.getFlashMap().get("error") == null && result.getFlashMap().get("message") == null;
+    }
+}
@@ -16,8 +16,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.service.JobService;
+import com.quickbooks.demo.service.OutboxService;
+import com.quickbooks.demo.service.ProjectRollupService;
 import com.quickbooks.demo.service.QuickBooksApiService;
 import com.quickbooks.demo.service.QuickBooksOAuthService;
+import com.quickbooks.demo.service.RealmCatalogService;
 
 @WebMvcTest(QuickBooksController.class)
 public class QuickBooksControllerTest {
@@ -36,6 +40,22 @@ public class QuickBooksControllerTest {
     @SuppressWarnings("unused")
     private QuickBooksConfig config;
 
+    @MockBean
+    @SuppressWarnings("unused")
+    private RealmCatalogService catalogs;
+
+    @MockBean
+    @SuppressWarnings("unused")
+    private JobService jobs;
+
+    @MockBean
+    @SuppressWarnings("unused")
+    private OutboxService outbox;
+
+    @MockBean
+    @SuppressWarnings("unused")
+    private ProjectRollupService rollups;
+
     // Removed unused mocks to silence linter warnings
 
     // Removed empty setup to avoid "setup is never used" warning
@@ -1,9 +1,11 @@
 package com.quickbooks.demo.controller;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,12 +15,18 @@ import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.Job;
+import com.quickbooks.demo.service.JobService;
+import com.quickbooks.demo.service.OutboxService;
+import com.quickbooks.demo.service.ProjectRollupService;
 import com.quickbooks.demo.service.QuickBooksApiService;
 import com.quickbooks.demo.service.QuickBooksOAuthService;
+import com.quickbooks.demo.service.RealmCatalogService;
 
 @WebMvcTest(controllers = QuickBooksController.class)
 class QuickBooksControllerWebTest {
@@ -36,6 +44,21 @@ class QuickBooksControllerWebTest {
     @MockBean
     private QuickBooksConfig config;
 
+    @MockBean
+    @SuppressWarnings("unused")
+    private RealmCatalogService catalogs;
+
+    @MockBean
+    private JobService jobs;
+
+    @MockBean
+    @SuppressWarnings("unused")
+    private OutboxService outbox;
+
+    @MockBean
+    @SuppressWarnings("unused")
+    private ProjectRollupService rollups;
+
     @Test
     void qboLogin_redirectsToAuthUrl() throws Exception {
         when(oauthService.getAuthorizationUrl()).thenReturn("https://example/auth");
@@ -86,6 +109,18 @@ class QuickBooksControllerWebTest {
             .andExpect(redirectedUrl("/"))
             .andExpect(flash().attributeExists("success"));
     }
-}
 
+    @Test
+    void deleteProjectsMulti_submitsJobAndKeepsItsIdInSession() throws Exception {
+        Job queued = new Job("job-1", "project-delete", "999", Job.QUEUED, 2, 0, 0, List.of(), null, 1L, 1L);
+        when(jobs.submit(eq("project-delete"), eq("999"), eq(2), any())).thenReturn(queued);
 
+        mockMvc.perform(post("/delete-projects-multi").param("ids", " 101, ,102 ")
+                .sessionAttr("accessToken", "access123")
+                .sessionAttr("realmId", "999"))
+            .andExpect(status().is3xxRedirection())
+            .andExpect(redirectedUrl("/"))
+            .andExpect(flash().attribute("focusTarget", "project-delete-multi-results"))
+            .andExpect(request().sessionAttribute("projectDeleteJobId", "job-1"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.quickbooks.demo.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.service.RealmSnapshotStore;
+import com.quickbooks.demo.service.WebhookService;
+import com.quickbooks.demo.stub.QboStubServer;
+
+@WebMvcTest(controllers = WebhookController.class)
+@Import(WebhookService.class)
+class WebhookControllerWebTest {
+
+    private static final String TOKEN = "verifier-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RealmSnapshotStore snapshots;
+
+    @MockBean
+    private QuickBooksConfig config;
+
+    @Autowired
+    private WebhookService webhooks;
+
+    @BeforeEach
+    void setup() {
+        when(config.getWebhookVerifierToken()).thenReturn(TOKEN);
+        when(config.getWebhookQueueCapacity()).thenReturn(100);
+        webhooks.start();
+    }
+
+    @Test
+    void signedDeliveryIsAcknowledgedAndInvalidatesAsynchronously() throws Exception {
+        String payload;
+        try (QboStubServer stub = new QboStubServer()) {
+            payload = stub.webhookPayload("123", "Update", "Item:11");
+        }
+        mockMvc.perform(post("/webhooks/qbo")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("intuit-signature", QboStubServer.webhookSignature(TOKEN, payload))
+                .content(payload))
+            .andExpect(status().isOk());
+
+        verify(snapshots, timeout(3000)).markStale("123", "catalog");
+    }
+
+    @Test
+    void badSignatureIsRejected() throws Exception {
+        mockMvc.perform(post("/webhooks/qbo")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("intuit-signature", QboStubServer.webhookSignature("wrong", "{}"))
+                .content("{}"))
+            .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,180 @@
+package com.quickbooks.demo.service;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.CustomerSummary;
+import com.quickbooks.demo.model.ImportReport;
+import com.quickbooks.demo.model.ItemSummary;
+import com.quickbooks.demo.model.RealmCatalog;
+import com.quickbooks.demo.service.client.IdempotencyLedger;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+class CsvImportServiceTest {
+
+    @TempDir
+    Path checkpoints;
+
+    private CsvImportService service;
+    private QuickBooksRestClient restClient;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicBoolean failRow3 = new AtomicBoolean();
+
+    @BeforeEach
+    void setup() {
+        QuickBooksConfig config = new QuickBooksConfig();
+        config.setImportBatchSize(2);
+        config.setImportCheckpointDir(checkpoints.toString());
+
+        RealmCatalogService catalogs = Mockito.mock(RealmCatalogService.class);
+        RealmCatalog catalog = new RealmCatalog(
+            List.of(new CustomerSummary("58", "Amy's Bird Sanctuary"), new CustomerSummary("59", "Cool Cars")),
+            List.of(new ItemSummary("11", "Design", "Service")), List.of(), List.of());
+        when(catalogs.load("Bearer t", "123"))
+            .thenReturn(new RealmSnapshotStore.Snapshot<>(catalog, new byte[0], "\"catalog-1\"", 1, 0));
+        ProjectResolver projects = Mockito.mock(ProjectResolver.class);
+        when(projects.resolve(any(), eq("Kitchen"), any())).thenReturn("416");
+
+        restClient = Mockito.mock(QuickBooksRestClient.class);
+        when(restClient.postJson(any(), eq("/batch"), any(), anyString())).thenAnswer(inv -> {
+            Map<?, ?> request = inv.getArgument(2);
+            StringBuilder out = new StringBuilder("{\"BatchItemResponse\":[");
+            for (Object o : (List<?>) request.get("BatchItemRequest")) {
+                String bId = (String) ((Map<?, ?>) o).get("bId");
+                if (failRow3.get() && bId.equals("3")) {
+                    throw new RuntimeException("QuickBooks POST failed: 503 SERVICE_UNAVAILABLE");
+                }
+                out.append(out.charAt(out.length() - 1) == '[' ? "" : ",")
+                    .append("{\"bId\":\"").append(bId).append("\",\"Estimate\":{\"Id\":\"9").append(bId).append("\"}}");
+            }
+            return out.append("]}").toString();
+        });
+
+        service = new CsvImportService();
+        ReflectionTestUtils.setField(service, "config", config);
+        ReflectionTestUtils.setField(service, "apiService", new QuickBooksApiService());
+        ReflectionTestUtils.setField(service, "restClient", restClient);
+        ReflectionTestUtils.setField(service, "catalogs", catalogs);
+        ReflectionTestUtils.setField(service, "projects", projects);
+        ReflectionTestUtils.setField(service, "objectMapper", mapper);
+    }
+
+    @Test
+    void invalidRowsAreReportedAndTheRestAreBatched() {
+        ImportReport report = service.importCsv("Bearer t", "123", "estimate", csv(
+            "Customer,Item,Project,Quantity,Unit Price,Description",
+            "amys bird sanctuary,Design,Kitchen,2,125.50,Plans",
+            "Nobody,Design,Kitchen,1,10,",
+            "59,design,Kitchen,3,\"1,000\",\"Site, visit\""));
+
+        assertEquals(ImportReport.COMPLETED, report.status());
+        assertEquals(3, report.rows());
+        assertEquals(2, report.created());
+        assertEquals(1, report.failed());
+        assertEquals(List.of(new ImportReport.RowError(2, "Unknown customer 'Nobody'")), report.errors());
+        verify(restClient, times(2)).postJson(any(), eq("/batch"), any(), anyString());
+    }
+
+    @Test
+    void catalogMissesArePassedThroughAsIdsOrVerifiedWithQbo() throws Exception {
+        when(restClient.queryTree(any(), eq("select Id from Item where Name = 'Pruning'")))
+            .thenReturn(mapper.readTree("{\"QueryResponse\":{\"Item\":[{\"Id\":\"26\"}]}}"));
+
+        ImportReport report = service.importCsv("Bearer t", "123", "estimate", csv(
+            "customer,item,project,quantity,unit_price",
+            "58,27,Kitchen,1,10",
+            "58,Pruning,Kitchen,1,10",
+            "58,Pruning,Kitchen,2,10",
+            "58,Mulch,Kitchen,1,10"));
+
+        assertEquals(3, report.created());
+        assertEquals(List.of(new ImportReport.RowError(4, "Unknown item 'Mulch'")), report.errors());
+        verify(restClient, times(1)).queryTree(any(), eq("select Id from Item where Name = 'Pruning'"));
+    }
+
+    @Test
+    void interruptedImportResumesFromCheckpoint() {
+        InputStreamSource file = csv(
+            "customer,item,project,quantity,unit_price",
+            "58,11,Kitchen,1,10",
+            "58,11,Kitchen,2,10",
+            "58,11,Kitchen,3,10",
+            "58,11,Kitchen,4,10");
+
+        failRow3.set(true);
+        ImportReport first = service.importCsv("Bearer t", "123", "estimate", file);
+        assertEquals(ImportReport.INTERRUPTED, first.status());
+        assertEquals(2, first.created());
+
+        failRow3.set(false);
+        ImportReport resumed = service.importCsv("Bearer t", "123", "estimate", file);
+        assertEquals(ImportReport.COMPLETED, resumed.status());
+        assertEquals(first.importId(), resumed.importId());
+        assertEquals(2, resumed.skipped());
+        assertEquals(4, resumed.created());
+
+        ImportReport replay = service.importCsv("Bearer t", "123", "estimate", file);
+        assertEquals(4, replay.skipped());
+        // Batch 1 ok + batch 2 failed, then batch 2 again; the replay posts nothing
+        verify(restClient, times(3)).postJson(any(), eq("/batch"), any(), anyString());
+    }
+
+    @Test
+    void resumedBatchIsPostedUnderItsEarlierRequestId() {
+        Map<String, List<String>> requestIdsByFirstRow = new ConcurrentHashMap<>();
+        when(restClient.postJson(any(), eq("/batch"), any(), anyString())).thenAnswer(inv -> {
+            Map<?, ?> request = inv.getArgument(2);
+            List<?> rows = (List<?>) request.get("BatchItemRequest");
+            String firstRow = (String) ((Map<?, ?>) rows.get(0)).get("bId");
+            List<String> ids = requestIdsByFirstRow.computeIfAbsent(firstRow, k -> new CopyOnWriteArrayList<>());
+            ids.add(inv.getArgument(3));
+            if (firstRow.equals("3") && ids.size() == 1) {
+                // Applied by QBO, but the response never arrived
+                throw new RuntimeException("I/O error on POST request: Read timed out");
+            }
+            return "{\"BatchItemResponse\":[{\"bId\":\"1\",\"Estimate\":{\"Id\":\"91\"}},"
+                + "{\"bId\":\"2\",\"Estimate\":{\"Id\":\"92\"}},{\"bId\":\"3\",\"Estimate\":{\"Id\":\"93\"}}]}";
+        });
+        InputStreamSource file = csv(
+            "customer,item,project,quantity,unit_price",
+            "58,11,Kitchen,1,10",
+            "58,11,Kitchen,2,10",
+            "58,11,Kitchen,3,10");
+
+        ImportReport first = service.importCsv("Bearer t", "123", "estimate", file);
+        assertEquals(ImportReport.INTERRUPTED, first.status());
+        ImportReport resumed = service.importCsv("Bearer t", "123", "estimate", file);
+        assertEquals(ImportReport.COMPLETED, resumed.status());
+
+        assertEquals(List.of(IdempotencyLedger.requestId("123", first.importId(), "0")), requestIdsByFirstRow.get("1"));
+        String batch1 = IdempotencyLedger.requestId("123", first.importId(), "1");
+        assertEquals(List.of(batch1, batch1), requestIdsByFirstRow.get("3"));
+    }
+
+    private static InputStreamSource csv(String... lines) {
+        byte[] bytes = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        return () -> new ByteArrayInputStream(bytes);
+    }
+}
@@ -0,0 +1,35 @@
+package com.quickbooks.demo.service;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class CsvRowReaderTest {
+
+    @Test
+    void readsQuotedFieldsEscapesAndEmbeddedLineBreaks() throws IOException {
+        String csv = "\uFEFFcustomer,description\r\n"
+            + "\"Smith, John\",\"Said \"\"hi\"\"\"\r\n"
+            + "\r\n"
+            + "Cool Cars,\"two\nlines\"\n"
+            + "Last,";
+        try (CsvRowReader reader = new CsvRowReader(new StringReader(csv))) {
+            assertEquals(List.of("customer", "description"), reader.next());
+            assertEquals(List.of("Smith, John", "Said \"hi\""), reader.next());
+            assertEquals(List.of("Cool Cars", "two\nlines"), reader.next());
+            assertEquals(List.of("Last", ""), reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void unterminatedQuoteIsAnError() {
+        CsvRowReader reader = new CsvRowReader(new StringReader("a,\"open\n"));
+        assertThrows(IOException.class, reader::next);
+    }
+}
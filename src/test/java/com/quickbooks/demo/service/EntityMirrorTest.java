@@ -0,0 +1,183 @@
+package com.quickbooks.demo.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+class EntityMirrorTest {
+
+    private static final String REALM = "9341452734328745";
+    private static final QuickBooksContext CTX = QuickBooksContext.of("Bearer token-1", REALM);
+
+    private static final String CUSTOMERS = """
+        [{"Id":"58","DisplayName":"Amy's Bird Sanctuary","Active":true,"Job":false,"IsProject":false,"Balance":239},
+         {"Id":"59","DisplayName":"Bill's Windsurf Shop","Active":true,"Job":false,"IsProject":false,"Balance":85},
+         {"Id":"60","DisplayName":"Cool Cars","Active":false,"Job":false,"IsProject":false,"Balance":0},
+         {"Id":"101","DisplayName":"Landscaping","Active":true,"Job":true,"IsProject":true,"ParentRef":{"value":"58"},"Balance":1200.5},
+         {"Id":"102","DisplayName":"Patio","Active":true,"Job":true,"IsProject":true,"ParentRef":{"value":"58"},"Balance":40},
+         {"Id":"103","DisplayName":"Old Deck","Active":false,"Job":true,"IsProject":true,"ParentRef":{"value":"58"},"Balance":0},
+         {"Id":"104","DisplayName":"Sails","Active":true,"Job":true,"IsProject":true,"ParentRef":{"value":"59"},"Balance":10}]""";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private QuickBooksConfig config;
+    private QuickBooksRestClient restClient;
+    private EntityMirror mirror;
+
+    @BeforeEach
+    void setup() throws Exception {
+        config = new QuickBooksConfig();
+        restClient = Mockito.mock(QuickBooksRestClient.class);
+        when(restClient.queryEach(any(QuickBooksContext.class), eq("Customer"), anyString(), any())).thenAnswer(inv -> {
+            Consumer<JsonNode> row = inv.getArgument(3);
+            JsonNode rows = mapper.readTree(CUSTOMERS);
+            rows.forEach(row);
+            return rows.size();
+        });
+
+        mirror = new EntityMirror();
+        ReflectionTestUtils.setField(mirror, "config", config);
+        ReflectionTestUtils.setField(mirror, "restClient", restClient);
+    }
+
+    @Test
+    void parse_acceptsTheSubsetAndRejectsTheRest() {
+        MirrorQuery q = MirrorQuery.parse(
+            "select Id, DisplayName from Customer where Balance >= 100 and DisplayName in ('A\\'s', 'B')"
+                + " orderby DisplayName desc startposition 11 maxresults 10");
+        assertNotNull(q);
+        assertEquals("Customer", q.entity());
+        assertEquals(List.of("Id", "DisplayName"), q.fields());
+        assertEquals(new MirrorQuery.Condition("Balance", MirrorQuery.Op.GE, List.of(new BigDecimal("100"))), q.conditions().get(0));
+        assertEquals(List.of("A's", "B"), q.conditions().get(1).values());
+        assertTrue(q.descending());
+        assertEquals(11, q.startPosition());
+        assertEquals(10, q.maxResults());
+        assertEquals(MirrorQuery.DEFAULT_MAX_RESULTS, MirrorQuery.parse("select count(*) from Item").maxResults());
+
+        assertNull(MirrorQuery.parse("select * from Customer where Active = true or Job = true"));
+        assertNull(MirrorQuery.parse("select * from Customer where DisplayName like 'A%'"));
+        assertNull(MirrorQuery.parse("select * from Customer where Balance != 0"));
+        assertNull(MirrorQuery.parse("select * from Customer maxresults 5000"));
+    }
+
+    @Test
+    void answersFromIndexesWithQboDefaults() throws Exception {
+        warm("Customer");
+        JsonNode projects = mirror.query(CTX, "select Id, DisplayName from Customer where IsProject = true and ParentRef = '58'");
+        assertEquals(List.of("101", "102"), ids(projects));
+        JsonNode first = projects.path("QueryResponse").path("Customer").get(0);
+        assertEquals("Landscaping", first.path("DisplayName").asText());
+        assertFalse(first.has("Balance"));
+        assertTrue(projects.path("mirror").has("syncedAt"));
+
+        assertEquals(List.of("101", "102", "103"),
+            ids(mirror.query(CTX, "select * from Customer where Active in (true, false) and ParentRef = '58'")));
+        assertEquals(List.of("101", "58"),
+            ids(mirror.query(CTX, "select * from Customer where Balance > 100 orderby Balance desc")));
+        assertEquals(List.of("102", "104"),
+            ids(mirror.query(CTX, "select * from Customer where Job = true startposition 2 maxresults 2")));
+        assertEquals(5, mirror.query(CTX, "select count(*) from Customer").path("QueryResponse").path("totalCount").asInt());
+        assertFalse(mirror.query(CTX, "select * from Customer where Id = '999'").path("QueryResponse").has("Customer"));
+
+        verify(restClient, times(1)).queryEach(any(QuickBooksContext.class), eq("Customer"), anyString(), any());
+        assertNull(mirror.query(CTX, "select * from Invoice"));
+        assertNull(mirror.query(CTX, "select * from Customer where DisplayName like 'A%'"));
+    }
+
+    @Test
+    void changedEntityGoesToQboUntilTheChangeFeedCatchesUp() throws Exception {
+        warm("Customer");
+        JsonNode cdc = mapper.readTree("""
+            {"CDCResponse":[{"QueryResponse":[{"Customer":[
+              {"Id":"105","DisplayName":"Pergola","Active":true,"Job":true,"IsProject":true,"ParentRef":{"value":"58"}},
+              {"Id":"102","status":"Deleted"}]}]}]}
+            """);
+        CountDownLatch release = new CountDownLatch(1);
+        when(restClient.getStreamed(any(QuickBooksContext.class), eq("/cdc"), any(), any())).thenAnswer(inv -> {
+            release.await(3, TimeUnit.SECONDS);
+            return cdc;
+        });
+        JsonNode remote = mapper.readTree("{\"QueryResponse\":{}}");
+        String query = "select * from Customer where IsProject = true and ParentRef = '58'";
+        when(restClient.queryTree(CTX, query)).thenReturn(remote);
+
+        mirror.changed(REALM, "Customer");
+        // Until the sync has applied the change, reads cannot see our own write locally
+        assertSame(remote, mirror.queryTree(CTX, query));
+        assertTrue(mirror.freshness(REALM).get(0).syncing());
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 3000;
+        while (mirror.freshness(REALM).get(0).dirty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        EntityMirror.Freshness freshness = mirror.freshness(REALM).get(0);
+        assertFalse(freshness.dirty());
+        assertEquals(7, freshness.rows());
+        assertEquals(List.of("101", "105"), ids(mirror.queryTree(CTX, query)));
+    }
+
+    @Test
+    void disabledOrOversizedEntitiesStayWithQbo() throws Exception {
+        config.setMirrorMaxRows(5);
+        warm("Customer");
+        assertNull(mirror.query(CTX, "select * from Customer"));
+        assertEquals(-1, mirror.freshness(REALM).get(0).rows());
+
+        config.setMirrorEnabled(false);
+        assertNull(mirror.query(CTX, "select * from Vendor"));
+    }
+
+    @Test
+    void idleRealmsAreDropped() throws Exception {
+        warm("Customer");
+        config.setMirrorIdleSeconds(0);
+        Thread.sleep(5);
+
+        mirror.query(QuickBooksContext.of("Bearer token-2", "4620816365212345678"), "select * from Customer");
+        assertTrue(mirror.freshness(REALM).isEmpty());
+    }
+
+    /** The first query goes to QBO and starts the load; waits until the table is loaded. */
+    private void warm(String entity) throws InterruptedException {
+        assertNull(mirror.query(CTX, "select * from " + entity));
+        long deadline = System.currentTimeMillis() + 3000;
+        while (mirror.freshness(REALM).stream().noneMatch(f -> f.entity().equals(entity))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(mirror.freshness(REALM).isEmpty());
+    }
+
+    private static List<String> ids(JsonNode answer) {
+        List<String> ids = new ArrayList<>();
+        answer.path("QueryResponse").path("Customer").forEach(row -> ids.add(row.path("Id").asText()));
+        return ids;
+    }
+}
@@ -0,0 +1,85 @@
+package com.quickbooks.demo.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.when;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.model.ProjectPage;
+import com.quickbooks.demo.model.ProjectSummary;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+class ExportServiceTest {
+
+    private ExportService service;
+    private QuickBooksRestClient restClient;
+    private QuickBooksApiService apiService;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeEach
+    void setup() {
+        restClient = Mockito.mock(QuickBooksRestClient.class);
+        apiService = Mockito.mock(QuickBooksApiService.class);
+        service = new ExportService();
+        ReflectionTestUtils.setField(service, "restClient", restClient);
+        ReflectionTestUtils.setField(service, "apiService", apiService);
+        ReflectionTestUtils.setField(service, "objectMapper", mapper);
+    }
+
+    @Test
+    void csvExportPagesUntilAShortPageAndEscapesValues() throws Exception {
+        when(restClient.queryEach(any(), eq("Customer"), anyString(), any())).thenAnswer(inv -> {
+            String query = inv.getArgument(2);
+            Consumer<JsonNode> row = inv.getArgument(3);
+            int rows = query.contains("STARTPOSITION 1 ") ? ExportService.PAGE_SIZE : 2;
+            for (int i = 0; i < rows; i++) {
+                row.accept(mapper.readTree("{\"Id\":\"" + i + "\",\"DisplayName\":\"Smith, \\\"JJ\\\"\","
+                    + "\"PrimaryEmailAddr\":{\"Address\":\"jj@example.com\"},\"Balance\":12.5,\"Active\":true}"));
+            }
+            return rows;
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = service.export("Bearer t", "123", ExportService.Dataset.CUSTOMERS, ExportService.Format.CSV, out);
+
+        assertEquals(ExportService.PAGE_SIZE + 2, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(ExportService.PAGE_SIZE + 3, lines.length);
+        assertEquals("Id,DisplayName,CompanyName,PrimaryEmailAddr.Address,PrimaryPhone.FreeFormNumber,ParentRef.value,"
+            + "Job,Balance,Active,MetaData.LastUpdatedTime", lines[0]);
+        assertEquals("0,\"Smith, \"\"JJ\"\"\",,jj@example.com,,,,12.5,true,", lines[1]);
+        Mockito.verify(restClient).queryEach(any(), eq("Customer"), contains("STARTPOSITION 1001 MAXRESULTS 1000"), any());
+    }
+
+    @Test
+    void ndjsonProjectsFollowCursorsOneLinePerProject() throws Exception {
+        ProjectSummary p1 = ProjectSummary.of("p1", "Kitchen", null, "OPEN", null, null, new ProjectSummary.CustomerRef("58"), null);
+        ProjectSummary p2 = ProjectSummary.of("p2", "Deck", null, "OPEN", null, null, null, null);
+        when(apiService.listProjects(eq("Bearer t"), eq("123"), eq(ExportService.PROJECT_PAGE_SIZE), isNull(), isNull(), isNull()))
+            .thenReturn(new ProjectPage(List.of(p1), new ProjectPage.PageInfo(true, "c1")));
+        when(apiService.listProjects(eq("Bearer t"), eq("123"), eq(ExportService.PROJECT_PAGE_SIZE), eq("c1"), isNull(), isNull()))
+            .thenReturn(new ProjectPage(List.of(p2), new ProjectPage.PageInfo(false, null)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export("Bearer t", "123", ExportService.Dataset.PROJECTS, ExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("58", mapper.readTree(lines[0]).path("customer").path("id").asText());
+        assertEquals("Deck", mapper.readTree(lines[1]).path("name").asText());
+    }
+}
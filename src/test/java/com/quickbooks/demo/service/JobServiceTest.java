@@ -0,0 +1,156 @@
+package com.quickbooks.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.Job;
+
+class JobServiceTest {
+
+    private static final String REALM = "9341452734328745";
+
+    @TempDir
+    Path dir;
+
+    private QuickBooksConfig config;
+
+    @BeforeEach
+    void setup() {
+        config = new QuickBooksConfig();
+        config.setJobsDir(dir.toString());
+        config.setJobWorkers(1);
+        config.setJobQueueCapacity(1);
+    }
+
+    private JobService newService() {
+        JobService service = new JobService();
+        ReflectionTestUtils.setField(service, "config", config);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        return service;
+    }
+
+    @Test
+    void submit_runsWorkAndRecordsItemResults() throws Exception {
+        JobService service = newService();
+        Job queued = service.submit("project-delete", REALM, 2, progress -> {
+            progress.item(Map.of("id", "101", "status", "success"), true);
+            progress.item(Map.of("id", "102", "status", "error"), false);
+            return "1 deleted, 1 failed";
+        });
+
+        Job done = await(service, queued.id());
+        assertEquals(Job.SUCCEEDED, done.status());
+        assertEquals(1, done.succeeded());
+        assertEquals(1, done.failed());
+        assertEquals("1 deleted, 1 failed", done.message());
+        assertEquals(List.of("101", "102"), done.results().stream().map(r -> r.get("id")).toList());
+        assertNull(service.get(queued.id(), "another-realm"));
+    }
+
+    @Test
+    void submit_failingWorkEndsFailedWithItsMessage() throws Exception {
+        JobService service = newService();
+        Job queued = service.submit("csv-import", REALM, 0, progress -> {
+            throw new IllegalStateException("catalog unavailable");
+        });
+
+        Job done = await(service, queued.id());
+        assertEquals(Job.FAILED, done.status());
+        assertEquals("catalog unavailable", done.message());
+    }
+
+    @Test
+    void submit_rejectsWhenWorkersAndQueueAreFull() throws Exception {
+        JobService service = newService();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        service.submit("project-delete", REALM, 1, progress -> {
+            started.countDown();
+            release.await();
+            return "ok";
+        });
+        assertTrue(started.await(3, TimeUnit.SECONDS));
+        service.submit("project-delete", REALM, 1, progress -> "queued");
+
+        assertThrows(RuntimeException.class, () -> service.submit("project-delete", REALM, 1, progress -> "rejected"));
+        release.countDown();
+    }
+
+    @Test
+    void restart_restoresFinishedJobsAndMarksUnfinishedInterrupted() throws Exception {
+        JobService first = newService();
+        Job finished = first.submit("project-delete", REALM, 1, progress -> {
+            progress.item(Map.of("id", "101", "status", "success"), true);
+            return "done";
+        });
+        await(first, finished.id());
+        CountDownLatch started = new CountDownLatch(1);
+        Job stuck = first.submit("project-delete", REALM, 5, progress -> {
+            started.countDown();
+            new CountDownLatch(1).await();
+            return "never";
+        });
+        assertTrue(started.await(3, TimeUnit.SECONDS));
+
+        JobService second = newService();
+        Job restored = second.get(finished.id(), REALM);
+        assertNotNull(restored);
+        assertEquals(Job.SUCCEEDED, restored.status());
+        assertEquals(1, restored.results().size());
+        Job interrupted = second.get(stuck.id(), REALM);
+        assertEquals(Job.INTERRUPTED, interrupted.status());
+        assertEquals(5, interrupted.total());
+
+        // Replay compacts the journal to one line per job
+        List<String> lines = Files.readAllLines(dir.resolve(JobService.JOURNAL), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+    }
+
+    @Test
+    void restart_keepsOnlyTheNewestJobHistory() throws Exception {
+        config.setJobHistory(2);
+        JobService first = newService();
+        String oldest = null;
+        for (int i = 0; i < 3; i++) {
+            Job job = first.submit("project-delete", REALM, 0, progress -> "done");
+            await(first, job.id());
+            if (oldest == null) {
+                oldest = job.id();
+            }
+            Thread.sleep(2);
+        }
+
+        JobService second = newService();
+        assertEquals(2, second.list(REALM).size());
+        assertNull(second.get(oldest, REALM));
+    }
+
+    private static Job await(JobService service, String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3000;
+        while (System.currentTimeMillis() < deadline) {
+            Job job = service.get(id, REALM);
+            if (job != null && job.isFinished()) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job " + id + " did not finish");
+    }
+}
@@ -0,0 +1,215 @@
+package com.quickbooks.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.OutboxEntry;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.service.client.IdempotencyLedger;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OutboxServiceTest {
+
+    private static final String REALM = "9341452734328745";
+    private static final String TOKEN = "Bearer token-1";
+
+    @TempDir
+    Path dir;
+
+    private QuickBooksConfig config;
+    private QuickBooksRestClient restClient;
+
+    @BeforeEach
+    void setup() {
+        config = new QuickBooksConfig();
+        config.setOutboxDir(dir.toString());
+        config.setOutboxRetryDelayMillis(1);
+        config.setOutboxMaxAttempts(3);
+        restClient = Mockito.mock(QuickBooksRestClient.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private OutboxService newService() {
+        ObjectProvider<MeterRegistry> provider = Mockito.mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(new SimpleMeterRegistry());
+        OutboxService service = new OutboxService();
+        ReflectionTestUtils.setField(service, "config", config);
+        ReflectionTestUtils.setField(service, "apiService", new QuickBooksApiService());
+        ReflectionTestUtils.setField(service, "restClient", restClient);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "meterRegistry", provider);
+        ReflectionTestUtils.setField(service, "rollups", Mockito.mock(ProjectRollupService.class));
+        return service;
+    }
+
+    @Test
+    void submit_isDurableBeforeReturningAndSendsInAcceptanceOrder() throws Exception {
+        List<String> posted = new CopyOnWriteArrayList<>();
+        when(restClient.postJsonOnce(any(QuickBooksContext.class), eq("/bill"), any(), anyString())).thenAnswer(inv -> {
+            JsonNode body = inv.getArgument(2);
+            String memo = body.path("Line").path(0).path("Description").asText();
+            posted.add(memo);
+            return "{\"Bill\":{\"Id\":\"" + memo + "\",\"TotalAmt\":10}}";
+        });
+        OutboxService service = newService();
+
+        OutboxEntry first = service.submitBill(TOKEN, REALM, "56", "7", "300", 10, "b1", null);
+        assertEquals(OutboxEntry.PENDING, first.status());
+        // Acknowledged entries are already in the log
+        assertTrue(Files.readAllLines(dir.resolve(OutboxService.LOG_FILE), StandardCharsets.UTF_8).stream()
+            .anyMatch(line -> line.contains(first.id())));
+        service.submitBill(TOKEN, REALM, "56", "7", "300", 10, "b2", null);
+        OutboxEntry third = service.submitBill(TOKEN, REALM, "56", "7", "300", 10, "b3", null);
+
+        OutboxEntry sent = await(service, third.id());
+        assertEquals(OutboxEntry.SENT, sent.status());
+        assertEquals("b3", sent.txnId());
+        assertEquals(List.of("b1", "b2", "b3"), posted);
+    }
+
+    @Test
+    void identicalSubmitsAreSeparateCreatesKeyedByEntryId() throws Exception {
+        List<String> requestIds = new CopyOnWriteArrayList<>();
+        when(restClient.postJsonOnce(any(QuickBooksContext.class), eq("/bill"), any(), anyString())).thenAnswer(inv -> {
+            requestIds.add(inv.getArgument(3));
+            return "{\"Bill\":{\"Id\":\"" + requestIds.size() + "\"}}";
+        });
+        OutboxService service = newService();
+
+        OutboxEntry a = service.submitBill(TOKEN, REALM, "56", "7", "300", 10, "same", null);
+        OutboxEntry b = service.submitBill(TOKEN, REALM, "56", "7", "300", 10, "same", null);
+
+        assertEquals("1", await(service, a.id()).txnId());
+        assertEquals("2", await(service, b.id()).txnId());
+        assertEquals(List.of(a.id(), b.id()), requestIds);
+    }
+
+    @Test
+    void resubmittedKeyReturnsTheQueuedEntryInsteadOfASecondCreate() throws Exception {
+        when(restClient.postJsonOnce(any(QuickBooksContext.class), eq("/bill"), any(), anyString()))
+            .thenReturn("{\"Bill\":{\"Id\":\"601\"}}");
+        OutboxService service = newService();
+
+        OutboxEntry first = service.submitBill(TOKEN, REALM, "56", "7", "300", 10, "b1", "form-1");
+        OutboxEntry again = service.submitBill(TOKEN, REALM, "56", "7", "300", 10, "b1", "form-1");
+
+        assertEquals(IdempotencyLedger.submissionId(REALM, "/bill", "form-1"), first.id());
+        assertEquals(first.id(), again.id());
+        assertEquals("601", await(service, first.id()).txnId());
+        assertEquals(first.id(), service.submitBill(TOKEN, REALM, "56", "7", "300", 10, "b1", "form-1").id());
+        assertEquals(1, service.list(REALM).size());
+        verify(restClient, Mockito.times(1)).postJsonOnce(any(QuickBooksContext.class), eq("/bill"), any(), anyString());
+    }
+
+    @Test
+    void rollupFailureLeavesTheEntrySent() throws Exception {
+        when(restClient.postJsonOnce(any(QuickBooksContext.class), eq("/bill"), any(), anyString()))
+            .thenReturn("{\"Bill\":{\"Id\":\"701\"}}");
+        OutboxService service = newService();
+        ProjectRollupService rollups = Mockito.mock(ProjectRollupService.class);
+        Mockito.doThrow(new IllegalStateException("rollup down")).when(rollups).created(anyString(), anyString(), any(JsonNode.class));
+        ReflectionTestUtils.setField(service, "rollups", rollups);
+
+        OutboxEntry sent = await(service, service.submitBill(TOKEN, REALM, "56", "7", "300", 10, "b1", null).id());
+        assertEquals(OutboxEntry.SENT, sent.status());
+        assertEquals(1, sent.attempts());
+        verify(rollups, Mockito.timeout(3000)).created(eq(REALM), eq("Bill"), any(JsonNode.class));
+        verify(restClient, Mockito.times(1)).postJsonOnce(any(QuickBooksContext.class), eq("/bill"), any(), anyString());
+    }
+
+    @Test
+    void transientFailuresAreRetriedAndClientErrorsFailAtOnce() throws Exception {
+        when(restClient.postJsonOnce(any(QuickBooksContext.class), eq("/bill"), any(), anyString()))
+            .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+            .thenReturn("{\"Bill\":{\"Id\":\"501\"}}")
+            .thenThrow(new RuntimeException("QuickBooks POST failed: 400 BAD_REQUEST",
+                new HttpClientErrorException(HttpStatus.BAD_REQUEST)));
+        OutboxService service = newService();
+
+        OutboxEntry retried = await(service, service.submitBill(TOKEN, REALM, "56", "7", "300", 10, "b1", null).id());
+        assertEquals(OutboxEntry.SENT, retried.status());
+        assertEquals(2, retried.attempts());
+        assertEquals("501", retried.txnId());
+
+        OutboxEntry rejected = await(service, service.submitBill(TOKEN, REALM, "56", "7", "300", 10, "b2", null).id());
+        assertEquals(OutboxEntry.FAILED, rejected.status());
+        assertEquals(1, rejected.attempts());
+    }
+
+    @Test
+    void submit_validatesLikeTheSynchronousCreate() {
+        OutboxService service = newService();
+        RuntimeException e = assertThrows(RuntimeException.class,
+            () -> service.submitBill(TOKEN, REALM, "56", "7", "300", 0, null, null));
+        assertEquals("Amount must be > 0", e.getMessage());
+        assertEquals(List.of(), service.list(REALM));
+    }
+
+    @Test
+    void pendingEntriesSurviveRestartAndWaitForAToken() throws Exception {
+        when(restClient.postJsonOnce(any(QuickBooksContext.class), eq("/estimate"), any(), anyString()))
+            .thenThrow(new RuntimeException("QuickBooks POST failed: 401 UNAUTHORIZED",
+                new HttpClientErrorException(HttpStatus.UNAUTHORIZED)));
+        OutboxService first = newService();
+        OutboxEntry entry = first.submitEstimate(TOKEN, REALM, "58", "1", "300", 2, 15.0, "e1", null);
+        verify(restClient, Mockito.timeout(3000)).postJsonOnce(any(QuickBooksContext.class), eq("/estimate"), any(), anyString());
+
+        Mockito.reset(restClient);
+        when(restClient.postJsonOnce(any(QuickBooksContext.class), eq("/estimate"), any(), anyString()))
+            .thenReturn("{\"Estimate\":{\"Id\":\"77\",\"DocNumber\":\"1001\"}}");
+        OutboxService restarted = newService();
+        assertEquals(OutboxEntry.PENDING, restarted.get(entry.id(), REALM).status());
+        assertNull(restarted.get(entry.id(), "another-realm"));
+        Thread.sleep(50);
+        verify(restClient, never()).postJsonOnce(any(QuickBooksContext.class), any(), any(), anyString());
+
+        restarted.updateToken(REALM, "Bearer token-2");
+        OutboxEntry sent = await(restarted, entry.id());
+        assertEquals(OutboxEntry.SENT, sent.status());
+        assertEquals("1001", sent.docNumber());
+        // The replayed body and requestid are the ones accepted before the restart
+        verify(restClient).postJsonOnce(eq(QuickBooksContext.of("Bearer token-2", REALM)), eq("/estimate"), eq(entry.payload()),
+            eq(entry.id()));
+    }
+
+    private static OutboxEntry await(OutboxService service, String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3000;
+        while (System.currentTimeMillis() < deadline) {
+            OutboxEntry entry = service.get(id, REALM);
+            if (entry != null && entry.isFinished()) {
+                return entry;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Outbox entry " + id + " did not finish");
+    }
+}
@@ -0,0 +1,71 @@
+package com.quickbooks.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.quickbooks.demo.model.CustomerSummary;
+
+class PrefixIndexTest {
+
+    private final PrefixIndex<CustomerSummary> index = PrefixIndex.build(List.of(
+        new CustomerSummary("1", "Amy's Bird Sanctuary"),
+        new CustomerSummary("2", "Bill's Windsurf Shop"),
+        new CustomerSummary("3", "Cool Cars"),
+        new CustomerSummary("4", "Diego Rodriguez"),
+        new CustomerSummary("5", "Dukes Basketball Camp"),
+        new CustomerSummary("6", "Caf\u00e9  M\u00fcller"),
+        new CustomerSummary("7", "John Smith"),
+        new CustomerSummary("8", "Smithson Supply")), CustomerSummary::name);
+
+    @Test
+    void fullNamePrefixMatchesRankBeforeWordMatches() {
+        List<String> ids = ids(index.search("smi", 10));
+        assertEquals(List.of("8", "7"), ids);
+    }
+
+    @Test
+    void wordPrefixesMatchInAnyOrder() {
+        assertEquals(List.of("7"), ids(index.search("smith jo", 10)));
+        assertEquals(List.of("5"), ids(index.search("camp duk", 10)));
+    }
+
+    @Test
+    void ignoresCaseAccentsPunctuationAndExtraSpaces() {
+        assertEquals(List.of("6"), ids(index.search("CAFE   mull", 10)));
+        assertEquals(List.of("1"), ids(index.search("amys bird", 10)));
+    }
+
+    @Test
+    void limitsResultsAndIgnoresBlankQueries() {
+        assertEquals(2, index.search("d", 2).size());
+        assertTrue(index.search("  ", 10).isEmpty());
+        assertTrue(index.search("zzz", 10).isEmpty());
+    }
+
+    @Test
+    void answersTopKOnLargeRealmQuickly() {
+        List<CustomerSummary> many = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            many.add(new CustomerSummary(String.valueOf(i), "Customer " + i + " Holdings LLC"));
+        }
+        PrefixIndex<CustomerSummary> big = PrefixIndex.build(many, CustomerSummary::name);
+        for (int i = 0; i < 1_000; i++) {
+            big.search("hold", 10);
+        }
+        long start = System.nanoTime();
+        int n = 1_000;
+        for (int i = 0; i < n; i++) {
+            assertEquals(10, big.search("customer 12", 10).size());
+        }
+        double avgMicros = (System.nanoTime() - start) / 1_000.0 / n;
+        assertTrue(avgMicros < 1_000, "avg " + avgMicros + "us");
+    }
+
+    private static List<String> ids(List<CustomerSummary> results) {
+        return results.stream().map(CustomerSummary::id).toList();
+    }
+}
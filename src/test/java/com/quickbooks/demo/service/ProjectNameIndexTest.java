@@ -0,0 +1,53 @@
+package com.quickbooks.demo.service;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.quickbooks.demo.model.ProjectCustomer;
+
+class ProjectNameIndexTest {
+
+    private final ProjectNameIndex index = ProjectNameIndex.build(List.of(
+        new ProjectCustomer("416", "Kitchen Remodel", "58"),
+        new ProjectCustomer("417", "Kitchen Remodel", "60"),
+        new ProjectCustomer("418", "Backyard Landscaping 2025", "58"),
+        new ProjectCustomer("419", "Office Fit-out Phase 1", "61"),
+        new ProjectCustomer("420", "Office Fit-out Phase 2", "61")));
+
+    @Test
+    void exactKeyIgnoresCaseWhitespaceAndPunctuation() {
+        assertEquals("416", index.resolve("  kitchen   REMODEL ", "58"));
+        assertEquals("419", index.resolve("Office fit out phase 1", "61"));
+    }
+
+    @Test
+    void parentScopesSameNamedProjects() {
+        assertEquals("417", index.resolve("Kitchen Remodel", "60"));
+        assertNull(index.resolve("Kitchen Remodel", "99"));
+    }
+
+    @Test
+    void fuzzyMatchAcceptsSmallTyposWithinScope() {
+        assertEquals("418", index.resolve("Backyard Landscapng 2025", "58"));
+        assertEquals("418", index.resolve("Backyard Landscaping", null));
+        assertNull(index.resolve("Backyard Landscapng 2025", "60"));
+    }
+
+    @Test
+    void ambiguousOrDistantNamesAreMisses() {
+        // Phase 1 and Phase 2 are equally close: refuse to guess
+        assertNull(index.resolve("Office Fit-out Phase", "61"));
+        assertNull(index.resolve("Bathroom", null));
+    }
+
+    @Test
+    void knowsAccountingProjectIds() {
+        assertTrue(index.containsId("418"));
+        assertFalse(index.containsId("gql-123"));
+    }
+}
@@ -0,0 +1,166 @@
+package com.quickbooks.demo.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.ProjectCustomer;
+import com.quickbooks.demo.model.ProjectProfitability;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.model.TransactionResult;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+class ProjectRollupServiceTest {
+
+    private static final String REALM = "9341452734328745";
+    private static final String TOKEN = "Bearer token-1";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private QuickBooksConfig config;
+    private QuickBooksRestClient restClient;
+    private ProjectRollupService service;
+
+    @BeforeEach
+    void setup() throws Exception {
+        config = new QuickBooksConfig();
+        restClient = Mockito.mock(QuickBooksRestClient.class);
+        ProjectResolver projects = Mockito.mock(ProjectResolver.class);
+        when(projects.projects(any(QuickBooksContext.class))).thenReturn(List.of(
+            new ProjectCustomer("P1", "Landscaping", "58"), new ProjectCustomer("P2", "Patio", "58")));
+
+        Map<String, String> pages = Map.of(
+            "Invoice", """
+                [{"Id":"1","TotalAmt":100,"Balance":40,"ProjectRef":{"value":"P1"}},
+                 {"Id":"2","TotalAmt":75,"Balance":75}]""",
+            "SalesReceipt", """
+                [{"Id":"3","TotalAmt":50,"Line":[{"Amount":50,"ProjectRef":{"value":"P1"}},{"Amount":50,"DetailType":"SubTotalLineDetail"}]}]""",
+            "Bill", """
+                [{"Id":"4","TotalAmt":30,"Line":[{"Amount":30,"ProjectRef":{"value":"P1"}}]}]""");
+        when(restClient.queryEach(any(QuickBooksContext.class), anyString(), anyString(), any())).thenAnswer(inv -> {
+            String entity = inv.getArgument(1);
+            Consumer<JsonNode> row = inv.getArgument(3);
+            JsonNode rows = mapper.readTree(pages.get(entity));
+            rows.forEach(row);
+            return rows.size();
+        });
+
+        service = new ProjectRollupService();
+        ReflectionTestUtils.setField(service, "config", config);
+        ReflectionTestUtils.setField(service, "restClient", restClient);
+        ReflectionTestUtils.setField(service, "projects", projects);
+    }
+
+    @Test
+    void firstReadScansOnceAndTotalsPerProject() {
+        ProjectRollupService.Rollup rollup = service.projects(TOKEN, REALM);
+        service.projects(TOKEN, REALM);
+
+        Map<String, ProjectProfitability> byId = byId(rollup);
+        ProjectProfitability p1 = byId.get("P1");
+        assertEquals("Landscaping", p1.name());
+        assertAmount("100", p1.invoiced());
+        assertAmount("50", p1.salesReceipts());
+        assertAmount("110", p1.received());
+        assertAmount("30", p1.billed());
+        assertAmount("120", p1.margin());
+        assertEquals(3, p1.transactions());
+        assertAmount("0", byId.get("P2").margin());
+        verify(restClient, times(3)).queryEach(any(QuickBooksContext.class), anyString(), anyString(), any());
+    }
+
+    @Test
+    void ownCreatesApplyAtOnce() {
+        service.projects(TOKEN, REALM);
+
+        service.created(REALM, "Bill", new TransactionResult("9", null, "P2", null, "56", new BigDecimal("20"), null));
+        service.created(REALM, "Estimate", new TransactionResult("10", null, "P2", "58", null, new BigDecimal("999"), null));
+
+        ProjectProfitability p2 = byId(service.projects(TOKEN, REALM)).get("P2");
+        assertAmount("20", p2.billed());
+        assertAmount("-20", p2.margin());
+        assertEquals(1, p2.transactions());
+    }
+
+    @Test
+    void changeFeedReplacesEditedAndDropsDeletedTransactions() throws Exception {
+        service.projects(TOKEN, REALM);
+        JsonNode cdc = mapper.readTree("""
+            {"CDCResponse":[{"QueryResponse":[
+              {"Invoice":[{"Id":"1","TotalAmt":100,"Balance":40,"ProjectRef":{"value":"P2"}}]},
+              {"Bill":[{"Id":"4","status":"Deleted"}]},
+              {"Payment":[{"Id":"8","Line":[{"LinkedTxn":[{"TxnId":"2","TxnType":"Invoice"}]}]}]}]}]}
+            """);
+        when(restClient.getStreamed(any(QuickBooksContext.class), eq("/cdc"), any(), any())).thenReturn(cdc);
+        when(restClient.queryEach(any(QuickBooksContext.class), eq("Invoice"), eq("select * from Invoice where Id in ('2')"), any()))
+            .thenAnswer(inv -> {
+                Consumer<JsonNode> row = inv.getArgument(3);
+                row.accept(mapper.readTree("{\"Id\":\"2\",\"TotalAmt\":75,\"Balance\":0,\"ProjectRef\":{\"value\":\"P2\"}}"));
+                return 1;
+            });
+
+        service.changed(REALM);
+        verify(restClient, Mockito.timeout(3000)).queryEach(any(QuickBooksContext.class), eq("Invoice"),
+            eq("select * from Invoice where Id in ('2')"), any());
+        Map<String, ProjectProfitability> byId = awaitSynced();
+
+        ProjectProfitability p1 = byId.get("P1");
+        assertAmount("0", p1.invoiced());
+        assertAmount("0", p1.billed());
+        assertAmount("50", p1.margin());
+        assertEquals(1, p1.transactions());
+        ProjectProfitability p2 = byId.get("P2");
+        assertAmount("175", p2.invoiced());
+        assertAmount("135", p2.received());
+        assertEquals(2, p2.transactions());
+    }
+
+    @Test
+    void contributions_splitLineLevelProjectsAndPaidShare() throws Exception {
+        Map<String, ProjectRollupService.Amounts> split = ProjectRollupService.contributions("Invoice", mapper.readTree("""
+            {"TotalAmt":200,"Balance":100,"Line":[{"Amount":150,"ProjectRef":{"value":"P1"}},
+                                                 {"Amount":50,"ProjectRef":{"value":"P2"}}]}"""));
+
+        assertAmount("150", split.get("P1").invoiced());
+        assertAmount("75", split.get("P1").received());
+        assertAmount("25", split.get("P2").received());
+        assertNull(split.get("P3"));
+        assertEquals(Map.of(), ProjectRollupService.contributions("Bill", mapper.readTree("{\"TotalAmt\":10}")));
+    }
+
+    private Map<String, ProjectProfitability> awaitSynced() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3000;
+        ProjectRollupService.Rollup rollup = service.projects(TOKEN, REALM);
+        while (rollup.syncing() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            rollup = service.projects(TOKEN, REALM);
+        }
+        return byId(rollup);
+    }
+
+    private static Map<String, ProjectProfitability> byId(ProjectRollupService.Rollup rollup) {
+        return rollup.projects().stream().collect(Collectors.toMap(ProjectProfitability::projectId, Function.identity()));
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
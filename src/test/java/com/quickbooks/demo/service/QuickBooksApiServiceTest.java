@@ -1,9 +1,9 @@
 package com.quickbooks.demo.service;
 
-import java.util.Map;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -19,6 +19,8 @@ import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.CustomerSummary;
+import com.quickbooks.demo.model.ProjectSummary;
 
 public class QuickBooksApiServiceTest {
 
@@ -26,6 +28,7 @@ public class QuickBooksApiServiceTest {
     private QuickBooksConfig config;
     private RestTemplate restTemplate;
     private ObjectMapper objectMapper;
+    private EntityMirror mirror;
 
     @BeforeEach
     @SuppressWarnings("unused")
@@ -41,10 +44,12 @@ public class QuickBooksApiServiceTest {
         ReflectionTestUtils.setField(service, "restTemplate", restTemplate);
         objectMapper = new ObjectMapper();
         ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        mirror = Mockito.mock(EntityMirror.class);
+        ReflectionTestUtils.setField(service, "mirror", mirror);
     }
 
     @Test
-    void getCustomers_parsesBasicResponse() {
+    void getCustomers_parsesBasicResponse() throws Exception {
         String body = """
                 {
                   "QueryResponse": {
@@ -55,17 +60,29 @@ public class QuickBooksApiServiceTest {
                   }
                 }
                 """;
-        when(restTemplate.exchange(
-                Mockito.anyString(),
-                Mockito.any(),
-                Mockito.<HttpEntity<String>>any(),
-                eq(String.class)))
-            .thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
-
-        Map<String, Object> result = service.getCustomers("Bearer token", "12345");
+        when(mirror.queryTree(Mockito.any(), eq("Select * from Customer where Job = false")))
+            .thenReturn(objectMapper.readTree(body));
+
+        java.util.List<CustomerSummary> result = service.getCustomers("Bearer token", "12345");
         assertNotNull(result);
-        assertEquals(2, ((java.util.List<?>) result.get("customers")).size());
-        assertEquals(2, ((java.util.Map<?, ?>) result.get("customerMap")).size());
+        assertEquals(2, result.size());
+        assertEquals("Acme", result.get(0).name());
+    }
+
+    @Test
+    void getAllItems_readsEveryPage() throws Exception {
+        com.fasterxml.jackson.databind.node.ObjectNode full = objectMapper.createObjectNode();
+        com.fasterxml.jackson.databind.node.ArrayNode rows = full.putObject("QueryResponse").putArray("Item");
+        for (int i = 1; i <= QuickBooksApiService.PAGE_SIZE; i++) {
+            rows.addObject().put("Id", String.valueOf(i)).put("Name", "Item " + i).put("Type", "Service");
+        }
+        when(mirror.queryTree(Mockito.any(), Mockito.endsWith("STARTPOSITION 1 MAXRESULTS 1000"))).thenReturn(full);
+        when(mirror.queryTree(Mockito.any(), Mockito.endsWith("STARTPOSITION 1001 MAXRESULTS 1000"))).thenReturn(objectMapper.readTree(
+            "{\"QueryResponse\":{\"Item\":[{\"Id\":\"1001\",\"Name\":\"Last\",\"Type\":\"Inventory\"}]}}"));
+
+        java.util.List<com.quickbooks.demo.model.ItemSummary> items = service.getAllItems("Bearer token", "12345");
+        assertEquals(QuickBooksApiService.PAGE_SIZE + 1, items.size());
+        assertEquals("Last", items.get(items.size() - 1).name());
     }
 
     @Test
@@ -89,9 +106,9 @@ public class QuickBooksApiServiceTest {
         when(restTemplate.exchange(eq(config.getGraphqlUrl()), eq(org.springframework.http.HttpMethod.POST), captor.capture(), eq(String.class)))
             .thenReturn(new ResponseEntity<>(graphqlResponse, HttpStatus.OK));
 
-        Map<String, Object> out = service.createProject("Bearer abc123", "Customer A", "10", null);
-        assertEquals("p-1", out.get("id"));
-        assertEquals("Test Project", out.get("name"));
+        ProjectSummary out = service.createProject("Bearer abc123", "Customer A", "10", null);
+        assertEquals("p-1", out.id());
+        assertEquals("Test Project", out.name());
 
         HttpEntity<?> sent = captor.getValue();
         HttpHeaders headers = sent.getHeaders();
@@ -99,6 +116,22 @@ public class QuickBooksApiServiceTest {
         assertNotNull(auth);
         assertEquals("Bearer abc123", auth);
     }
-}
 
+    @Test
+    void buildEstimatePayload_serializesQboFieldNames() throws Exception {
+        com.fasterxml.jackson.databind.JsonNode json = objectMapper.valueToTree(
+            service.buildEstimatePayload("58", "11", "416", 3, 125.5, "Design"));
 
+        assertEquals("USD", json.path("CurrencyRef").path("value").asText());
+        assertEquals("416", json.path("ProjectRef").path("value").asText());
+        assertEquals("58", json.path("CustomerRef").path("value").asText());
+        com.fasterxml.jackson.databind.JsonNode line = json.path("Line").get(0);
+        assertEquals("NON", line.path("SalesItemLineDetail").path("TaxCodeRef").path("value").asText());
+        assertEquals(3, line.path("SalesItemLineDetail").path("Qty").asInt());
+        assertEquals(0, new java.math.BigDecimal("376.5").compareTo(line.path("Amount").decimalValue()));
+        assertTrue(json.path("Line").get(1).path("SubTotalLineDetail").isObject());
+        // Unused references are omitted rather than sent as null
+        assertFalse(json.has("VendorRef"));
+        assertFalse(line.has("ProjectRef"));
+    }
+}
@@ -40,31 +40,31 @@ class QuickBooksApiServiceValidationTest {
 
     @Test
     void createInvoice_throwsWhenMissingAccessToken() {
-        Throwable ex = assertThrows(RuntimeException.class, () -> service.createInvoice(null, "r", "c", "i", "n", "p", 1, 1.0, null));
+        Throwable ex = assertThrows(RuntimeException.class, () -> service.createInvoice(null, "r", "c", "i", "n", "p", 1, 1.0, null, null));
         assertNotNull(ex);
     }
 
     @Test
     void createInvoice_throwsWhenMissingRealm() {
-        Throwable ex = assertThrows(RuntimeException.class, () -> service.createInvoice("a", null, "c", "i", "n", "p", 1, 1.0, null));
+        Throwable ex = assertThrows(RuntimeException.class, () -> service.createInvoice("a", null, "c", "i", "n", "p", 1, 1.0, null, null));
         assertNotNull(ex);
     }
 
     @Test
     void createInvoice_throwsWhenMissingCustomer() {
-        Throwable ex = assertThrows(RuntimeException.class, () -> service.createInvoice("a", "r", null, "i", "n", "p", 1, 1.0, null));
+        Throwable ex = assertThrows(RuntimeException.class, () -> service.createInvoice("a", "r", null, "i", "n", "p", 1, 1.0, null, null));
         assertNotNull(ex);
     }
 
     @Test
     void createInvoice_throwsWhenMissingItem() {
-        Throwable ex = assertThrows(RuntimeException.class, () -> service.createInvoice("a", "r", "c", null, "n", "p", 1, 1.0, null));
+        Throwable ex = assertThrows(RuntimeException.class, () -> service.createInvoice("a", "r", "c", null, "n", "p", 1, 1.0, null, null));
         assertNotNull(ex);
     }
 
     @Test
     void createInvoice_throwsWhenMissingProject() {
-        Throwable ex = assertThrows(RuntimeException.class, () -> service.createInvoice("a", "r", "c", "i", "n", null, 1, 1.0, null));
+        Throwable ex = assertThrows(RuntimeException.class, () -> service.createInvoice("a", "r", "c", "i", "n", null, 1, 1.0, null, null));
         assertNotNull(ex);
     }
 
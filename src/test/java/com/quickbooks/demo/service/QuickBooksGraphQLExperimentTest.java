@@ -23,6 +23,8 @@ import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.ProjectSummary;
+import com.quickbooks.demo.service.client.HedgingExecutor;
 
 /**
  * GraphQL experiment harness: easily plug query/mutation and variables and inspect behavior.
@@ -52,6 +54,11 @@ public class QuickBooksGraphQLExperimentTest {
         Mockito.when(config.getBaseUrl()).thenReturn("https://quickbooks.api.intuit.com");
         Mockito.when(config.getMinorVersion()).thenReturn(null);
         ReflectionTestUtils.setField(service, "config", config);
+
+        HedgingExecutor hedging = new HedgingExecutor();
+        ReflectionTestUtils.setField(hedging, "config", config);
+        ReflectionTestUtils.setField(service, "hedging", hedging);
+        ReflectionTestUtils.setField(service, "mirror", Mockito.mock(EntityMirror.class));
     }
 
     private static String readClasspath(String path) throws Exception {
@@ -91,12 +98,12 @@ public class QuickBooksGraphQLExperimentTest {
               .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
 
         // Act
-        Map<String, Object> p = service.getProjectById("Bearer token", "realm", "668494482");
+        ProjectSummary p = service.getProjectById("Bearer token", "realm", "668494482");
 
         // Assert
-        assertEquals("668494482", p.get("id"));
-        assertEquals("OPEN", p.get("status"));
-        assertNotNull(p.get("accountId"));
+        assertEquals("668494482", p.id());
+        assertEquals("OPEN", p.status());
+        assertNotNull(p.accountId());
 
         server.verify();
     }
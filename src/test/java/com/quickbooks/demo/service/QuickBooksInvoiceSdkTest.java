@@ -1,7 +1,6 @@
 package com.quickbooks.demo.service;
 
 import java.math.BigDecimal;
-import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -12,6 +11,7 @@ import static org.mockito.Mockito.when;
 
 import com.intuit.ipp.data.Invoice;
 import com.intuit.ipp.services.DataService;
+import com.quickbooks.demo.model.TransactionResult;
 
 public class QuickBooksInvoiceSdkTest {
 
@@ -39,14 +39,14 @@ public class QuickBooksInvoiceSdkTest {
         when(dataServiceMock.add(any(Invoice.class))).thenReturn(created);
 
         // Act
-        Map<String, Object> result = svc.createInvoice(
-            "Bearer at", "12345", "10", "55", "ItemName", "P1", 2, 100.0, "desc");
+        TransactionResult result = svc.createInvoice(
+            "Bearer at", "12345", "10", "55", "ItemName", "P1", 2, 100.0, "desc", null);
 
         // Assert
-        assertEquals("INV-1", result.get("invoiceId"));
-        assertEquals(200.0, (Double) result.get("amount"), 0.001);
-        assertEquals("1001", result.get("docNumber"));
-        assertNotNull(result.get("deepLink"));
+        assertEquals("INV-1", result.id());
+        assertEquals(200.0, result.amount().doubleValue(), 0.001);
+        assertEquals("1001", result.docNumber());
+        assertNotNull(result.deepLink());
     }
 }
 
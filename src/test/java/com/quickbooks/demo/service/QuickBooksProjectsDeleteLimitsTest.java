@@ -2,7 +2,6 @@ package com.quickbooks.demo.service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -24,6 +23,7 @@ import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.ProjectDeleteResult;
 
 /**
  * Focused tests to understand delete mutation limits/behavior without touching the UI.
@@ -53,6 +53,7 @@ public class QuickBooksProjectsDeleteLimitsTest {
         Mockito.when(config.getBaseUrl()).thenReturn("https://quickbooks.api.intuit.com");
         Mockito.when(config.getMinorVersion()).thenReturn(null);
         ReflectionTestUtils.setField(service, "config", config);
+        ReflectionTestUtils.setField(service, "mirror", Mockito.mock(EntityMirror.class));
     }
 
     @Test
@@ -75,9 +76,9 @@ public class QuickBooksProjectsDeleteLimitsTest {
                 .andExpect(method(HttpMethod.POST))
                 .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
 
-        Map<String, Object> result = service.deleteProject("Bearer token", "realm", "668500001", null);
-        assertEquals("668500001", result.get("id"));
-        assertEquals(true, result.get("deleted"));
+        ProjectDeleteResult result = service.deleteProject("Bearer token", "realm", "668500001", null);
+        assertEquals("668500001", result.id());
+        assertEquals(true, result.deleted());
 
         server.verify();
     }
@@ -162,8 +163,8 @@ public class QuickBooksProjectsDeleteLimitsTest {
         int fail = 0;
         for (String id : ids) {
             try {
-                Map<String, Object> r = service.deleteProject("Bearer token", "realm", id, null);
-                if (Boolean.TRUE.equals(r.get("deleted"))) success++;
+                ProjectDeleteResult r = service.deleteProject("Bearer token", "realm", id, null);
+                if (r.deleted()) success++;
             } catch (RuntimeException e) {
                 fail++;
             }
@@ -0,0 +1,109 @@
+package com.quickbooks.demo.service;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.EntityCreateResult;
+import com.quickbooks.demo.model.TransactionResult;
+import com.quickbooks.demo.model.TxnPayload;
+import com.quickbooks.demo.service.client.IdempotencyLedger;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+import com.quickbooks.demo.service.client.QuickBooksSdkClient;
+
+class QuickBooksRestEngineTest {
+
+    private QuickBooksApiService service;
+    private QuickBooksConfig config;
+    private QuickBooksRestClient restClient;
+    private QuickBooksSdkClient sdkClient;
+    private ProjectResolver projects;
+
+    @BeforeEach
+    void setup() {
+        service = new QuickBooksApiService();
+        config = new QuickBooksConfig();
+        config.setEngines(new java.util.HashMap<>(Map.of("invoice", "rest", "customer", "rest", "item", "rest")));
+        ReflectionTestUtils.setField(service, "config", config);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        restClient = Mockito.mock(QuickBooksRestClient.class);
+        ReflectionTestUtils.setField(service, "restClient", restClient);
+        sdkClient = Mockito.mock(QuickBooksSdkClient.class);
+        ReflectionTestUtils.setField(service, "sdkClient", sdkClient);
+        projects = Mockito.mock(ProjectResolver.class);
+        ReflectionTestUtils.setField(service, "projects", projects);
+        ReflectionTestUtils.setField(service, "mirror", Mockito.mock(EntityMirror.class));
+    }
+
+    @Test
+    void engineSelection_defaultsToSdk() {
+        QuickBooksConfig defaults = new QuickBooksConfig();
+        assertFalse(defaults.isRestEngine("invoice"));
+        defaults.getEngines().put("invoice", " REST ");
+        assertTrue(defaults.isRestEngine("invoice"));
+        assertFalse(defaults.isRestEngine("item"));
+    }
+
+    @Test
+    void createInvoice_restEnginePostsJsonWithProjectRef() {
+        when(projects.isProjectId(any(), eq("416"))).thenReturn(true);
+        when(restClient.postJson(any(), eq("/invoice"), any(), anyString()))
+            .thenReturn("{\"Invoice\":{\"Id\":\"130\",\"DocNumber\":\"1037\",\"TotalAmt\":376.5}}");
+
+        TransactionResult out = service.createInvoice("Bearer t", "123", "58", "11", "Design", "416", 3, 125.5, "Consult", "form-1");
+
+        assertEquals("130", out.id());
+        assertEquals("1037", out.docNumber());
+        assertEquals(0, new java.math.BigDecimal("376.5").compareTo(out.amount()));
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(restClient).postJson(any(), eq("/invoice"), payload.capture(),
+            eq(IdempotencyLedger.submissionId("123", "/invoice", "form-1")));
+        TxnPayload body = (TxnPayload) payload.getValue();
+        assertEquals("416", body.projectRef().value());
+        assertEquals("SalesItemLineDetail", body.line().get(0).detailType());
+        verifyNoInteractions(sdkClient);
+    }
+
+    @Test
+    void createItem_restEngineResolvesIncomeAccountByQuery() {
+        when(restClient.query(any(), contains("AccountType = 'Income'")))
+            .thenReturn("{\"QueryResponse\":{\"Account\":[{\"Id\":\"79\"}]}}");
+        when(restClient.postJson(any(), eq("/item"), any(), anyString()))
+            .thenReturn("{\"Item\":{\"Id\":\"31\",\"Name\":\"Site survey\",\"UnitPrice\":240}}");
+
+        EntityCreateResult out = service.createItem("Bearer t", "123", "Site survey", 240.0, null);
+
+        assertEquals("31", out.id());
+        assertEquals("Site survey", out.name());
+        verifyNoInteractions(sdkClient);
+    }
+
+    @Test
+    void createCustomer_restEngineReturnsIdAndName() {
+        when(restClient.postJson(any(), eq("/customer"), any(), anyString()))
+            .thenReturn("{\"Customer\":{\"Id\":\"88\",\"DisplayName\":\"Acme\"}}");
+
+        EntityCreateResult out = service.createCustomer("Bearer t", "123", "Acme", "ap@acme.example", null, null);
+
+        assertEquals("88", out.id());
+        assertEquals("Acme", out.name());
+        verifyNoInteractions(sdkClient);
+    }
+}
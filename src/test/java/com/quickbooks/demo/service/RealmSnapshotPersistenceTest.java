@@ -0,0 +1,206 @@
+package com.quickbooks.demo.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.AccountList;
+import com.quickbooks.demo.model.AccountSummary;
+import com.quickbooks.demo.model.CustomerSummary;
+import com.quickbooks.demo.model.ItemSummary;
+import com.quickbooks.demo.model.RealmCatalog;
+import com.quickbooks.demo.model.VendorSummary;
+
+class RealmSnapshotPersistenceTest {
+
+    private static final String REALM = "9341452734328745";
+
+    private static final RealmCatalog CATALOG = new RealmCatalog(
+        List.of(new CustomerSummary("58", "Amy's Bird Sanctuary"), new CustomerSummary("59", "B\u00e4cker & S\u00f6hne")),
+        List.of(new ItemSummary("1", "Design", "Service"), new ItemSummary("2", null, "Inventory")),
+        List.of(new VendorSummary("56", "Bob's Burger Joint")),
+        List.of(AccountSummary.of("7", "Advertising", "Expense")));
+    private static final AccountList ACCOUNTS = AccountList.of(List.of(
+        new AccountSummary("35", "Checking", "Bank", "Checking", "Checking", new BigDecimal("1201.00")),
+        AccountSummary.of("7", "Advertising", "Expense")));
+
+    @TempDir
+    Path dir;
+
+    private QuickBooksConfig config;
+
+    @BeforeEach
+    void setup() {
+        config = new QuickBooksConfig();
+        config.setReferenceSnapshotDir(dir.toString());
+    }
+
+    @Test
+    void savedDatasetsComeBackWarmWithTheirVersionAndEtag() throws Exception {
+        RealmSnapshotStore before = store();
+        before.get(REALM, RealmCatalogService.CATALOG, () -> CATALOG);
+        RealmSnapshotStore.Snapshot<AccountList> accounts = before.get(REALM, "accounts", () -> ACCOUNTS);
+        before.refresh(REALM, "accounts", () -> AccountList.of(ACCOUNTS.accounts().subList(0, 1)));
+        accounts = before.refresh(REALM, "accounts", () -> ACCOUNTS);
+        persistence(before).save(REALM);
+
+        RealmSnapshotStore after = store();
+        assertEquals(1, persistence(after).restore());
+
+        RealmSnapshotStore.Snapshot<RealmCatalog> catalog = after.latest(REALM, RealmCatalogService.CATALOG);
+        assertEquals(CATALOG, catalog.value());
+        RealmSnapshotStore.Snapshot<AccountList> restored = after.latest(REALM, "accounts");
+        assertEquals(ACCOUNTS, restored.value());
+        assertEquals(3, restored.version());
+        assertEquals(accounts.etag(), restored.etag());
+    }
+
+    @Test
+    void firstUseOfRestoredDatasetAnswersAtOnceAndReconcilesInBackground() throws Exception {
+        RealmSnapshotFile.write(dir.resolve(REALM + RealmSnapshotPersistence.SUFFIX), REALM,
+            List.of(new RealmSnapshotFile.Section(RealmCatalogService.CATALOG, 4, CATALOG)));
+        RealmSnapshotStore store = store();
+        persistence(store).restore();
+
+        RealmCatalog updated = CATALOG.withCustomers(List.of(new CustomerSummary("60", "Cool Cars")));
+        CountDownLatch reloaded = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        List<String> changed = new CopyOnWriteArrayList<>();
+        store.addListener((realmId, dataset) -> {
+            changed.add(realmId + ":" + dataset);
+            reloaded.countDown();
+        });
+        RealmSnapshotStore.Snapshot<RealmCatalog> first = store.get(REALM, RealmCatalogService.CATALOG, () -> {
+            loads.incrementAndGet();
+            return updated;
+        });
+
+        assertEquals(CATALOG, first.value());
+        assertTrue(reloaded.await(3, TimeUnit.SECONDS));
+        assertEquals(updated, store.latest(REALM, RealmCatalogService.CATALOG).value());
+        assertEquals(5, store.<RealmCatalog>latest(REALM, RealmCatalogService.CATALOG).version());
+        assertEquals(List.of(REALM + ":" + RealmCatalogService.CATALOG), changed);
+
+        store.get(REALM, RealmCatalogService.CATALOG, () -> {
+            loads.incrementAndGet();
+            return updated;
+        });
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void staleDatasetKeepsServingWhileItReloadsInTheBackground() throws Exception {
+        RealmSnapshotStore store = store();
+        store.get(REALM, RealmCatalogService.CATALOG, () -> CATALOG);
+        RealmCatalog updated = new RealmCatalog(CATALOG.customers(), CATALOG.items(), List.of(), CATALOG.expenseAccounts());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch reloaded = new CountDownLatch(1);
+        store.addListener((realmId, dataset) -> reloaded.countDown());
+
+        store.markStale(REALM, RealmCatalogService.CATALOG);
+        assertNull(store.peek(REALM, RealmCatalogService.CATALOG));
+        for (int i = 0; i < 3; i++) {
+            RealmSnapshotStore.Snapshot<RealmCatalog> served = store.latest(REALM, RealmCatalogService.CATALOG, () -> {
+                awaitQuietly(release);
+                return updated;
+            });
+            assertEquals(CATALOG, served.value());
+        }
+        release.countDown();
+
+        assertTrue(reloaded.await(3, TimeUnit.SECONDS));
+        assertEquals(updated, store.latest(REALM, RealmCatalogService.CATALOG).value());
+        assertEquals(2, store.<RealmCatalog>latest(REALM, RealmCatalogService.CATALOG).version());
+    }
+
+    @Test
+    void concurrentUpdatesEachSeeThePreviousOne() throws Exception {
+        RealmSnapshotStore store = store();
+        store.get(REALM, RealmCatalogService.CATALOG, () -> CATALOG);
+        Thread[] writers = new Thread[8];
+        for (int i = 0; i < writers.length; i++) {
+            String id = String.valueOf(100 + i);
+            writers[i] = new Thread(() -> store.refresh(REALM, RealmCatalogService.CATALOG, (RealmCatalog prev) -> {
+                List<ItemSummary> items = new ArrayList<>(prev.items());
+                items.add(new ItemSummary(id, "Item " + id, "Service"));
+                return new RealmCatalog(prev.customers(), items, prev.vendors(), prev.expenseAccounts());
+            }));
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        RealmSnapshotStore.Snapshot<RealmCatalog> after = store.latest(REALM, RealmCatalogService.CATALOG);
+        assertEquals(CATALOG.items().size() + writers.length, after.value().items().size());
+        assertEquals(1 + writers.length, after.version());
+    }
+
+    @Test
+    void damagedFilesAreRejectedAndDiscarded() throws Exception {
+        byte[] file = RealmSnapshotFile.encode(REALM, 1L,
+            List.of(new RealmSnapshotFile.Section(RealmCatalogService.CATALOG, 1, CATALOG)));
+
+        byte[] flipped = file.clone();
+        flipped[flipped.length - 3] ^= 0x40;
+        IOException checksum = assertThrows(IOException.class, () -> RealmSnapshotFile.decode(ByteBuffer.wrap(flipped)));
+        assertTrue(checksum.getMessage().contains("checksum"));
+
+        byte[] truncated = Arrays.copyOf(file, file.length - 10);
+        assertThrows(IOException.class, () -> RealmSnapshotFile.decode(ByteBuffer.wrap(truncated)));
+
+        byte[] newer = file.clone();
+        newer[5] = 2;
+        IOException version = assertThrows(IOException.class, () -> RealmSnapshotFile.decode(ByteBuffer.wrap(newer)));
+        assertTrue(version.getMessage().contains("version 2"));
+
+        Path damaged = dir.resolve(REALM + RealmSnapshotPersistence.SUFFIX);
+        Files.write(damaged, flipped);
+        RealmSnapshotStore store = store();
+        assertEquals(0, persistence(store).restore());
+        assertNull(store.latest(REALM, RealmCatalogService.CATALOG));
+        assertFalse(Files.exists(damaged));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(3, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private RealmSnapshotStore store() {
+        RealmSnapshotStore store = new RealmSnapshotStore();
+        ReflectionTestUtils.setField(store, "config", config);
+        ReflectionTestUtils.setField(store, "objectMapper", new ObjectMapper());
+        return store;
+    }
+
+    private RealmSnapshotPersistence persistence(RealmSnapshotStore store) {
+        RealmSnapshotPersistence persistence = new RealmSnapshotPersistence();
+        ReflectionTestUtils.setField(persistence, "config", config);
+        ReflectionTestUtils.setField(persistence, "snapshots", store);
+        return persistence;
+    }
+}
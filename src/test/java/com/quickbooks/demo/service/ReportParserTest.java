@@ -0,0 +1,96 @@
+package com.quickbooks.demo.service;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.model.ReportTable;
+
+class ReportParserTest {
+
+    private static final String PROFIT_AND_LOSS = """
+        {"Header":{"Time":"2024-05-01T10:00:00-07:00","ReportName":"ProfitAndLoss","StartPeriod":"2024-01-01",
+                   "EndPeriod":"2024-03-31","Currency":"USD","Option":[{"Name":"NoReportData","Value":"false"}]},
+         "Columns":{"Column":[{"ColTitle":"","ColType":"Account","MetaData":[{"Name":"ColKey","Value":"account"}]},
+                              {"ColTitle":"Total","ColType":"Money","MetaData":[{"Name":"ColKey","Value":"total"}]}]},
+         "Rows":{"Row":[
+           {"Header":{"ColData":[{"value":"Income"},{"value":""}]},
+            "Rows":{"Row":[
+              {"ColData":[{"value":"Services","id":"1"},{"value":"1200.50"}],"type":"Data"},
+              {"Header":{"ColData":[{"value":"Landscaping","id":"45"},{"value":""}]},
+               "Rows":{"Row":[{"ColData":[{"value":"Soil","id":"47"},{"value":"300.00"}],"type":"Data"}]},
+               "Summary":{"ColData":[{"value":"Total Landscaping"},{"value":"300.00"}]},
+               "type":"Section"}]},
+            "Summary":{"ColData":[{"value":"Total Income"},{"value":"1500.50"}]},
+            "type":"Section","group":"Income"},
+           {"group":"NetIncome","type":"Section","Summary":{"ColData":[{"value":"Net Income"},{"value":"1500.50"}]}}]}}
+        """;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ReportTable parse(String json) throws IOException {
+        try (JsonParser parser = mapper.createParser(json)) {
+            return ReportParser.read(parser);
+        }
+    }
+
+    @Test
+    void flattensNestedSectionsIntoColumns() throws IOException {
+        ReportTable table = parse(PROFIT_AND_LOSS);
+
+        assertEquals("ProfitAndLoss", table.header().get("ReportName"));
+        assertEquals("false", table.header().get("NoReportData"));
+        assertEquals(2, table.columns().size());
+        assertFalse(table.columns().get(0).numeric());
+        assertTrue(table.columns().get(1).numeric());
+
+        assertEquals(7, table.rowCount());
+        assertEquals(List.of("Income", "Services", "Landscaping", "Soil", "Total Landscaping", "Total Income", "Net Income"),
+            java.util.stream.IntStream.range(0, 7).mapToObj(r -> table.value(r, 0)).toList());
+        assertEquals(ReportTable.HEADER, table.kind(0));
+        assertEquals(ReportTable.DATA, table.kind(3));
+        assertEquals(ReportTable.SUMMARY, table.kind(5));
+        assertEquals(2, table.depth(3));
+        assertEquals("47", table.id(3));
+        assertEquals(300.0, table.value(3, 1));
+        assertNull(table.value(0, 1));
+        // The section group arrives after its rows and applies to all of them
+        assertEquals("Income", table.group(3));
+        assertEquals("NetIncome", table.group(6));
+    }
+
+    @Test
+    void pagesRowsInRowForm() throws IOException {
+        ReportTable table = parse(PROFIT_AND_LOSS);
+
+        var page = table.rows(1, 3);
+        assertEquals(2, page.size());
+        assertEquals("data", page.get(0).get("kind"));
+        assertEquals("1", page.get(0).get("id"));
+        assertEquals(List.of("Services", 1200.5), page.get(0).get("values"));
+        assertEquals("header", page.get(1).get("kind"));
+    }
+
+    @Test
+    void undeclaredColumnsFallBackToTextAndShortRowsAreBlank() throws IOException {
+        ReportTable table = parse("""
+            {"Rows":{"Row":[{"ColData":[{"value":"10"},{"value":"5.25"},{"value":"1"}]},
+                            {"ColData":[{"value":"Acme"},{"value":"7"}]}]},
+             "Columns":{"Column":[{"ColTitle":"Customer"},{"ColTitle":"Current","ColType":"Money"},{"ColTitle":"Total"}]}}
+            """);
+
+        assertEquals("Customer", table.columns().get(0).title());
+        assertFalse(table.columns().get(0).numeric());
+        assertEquals("10", table.value(0, 0));
+        assertEquals("Acme", table.value(1, 0));
+        assertEquals(7.0, table.value(1, 1));
+        assertNull(table.value(1, 2));
+    }
+}
@@ -0,0 +1,91 @@
+package com.quickbooks.demo.service;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.QuickBooksContext;
+import com.quickbooks.demo.model.ReportTable;
+import com.quickbooks.demo.service.client.QuickBooksRestClient;
+
+class ReportServiceTest {
+
+    private static final String REALM = "9341452734328745";
+    private static final String TOKEN = "Bearer token-1";
+
+    private QuickBooksConfig config;
+    private QuickBooksRestClient restClient;
+    private ReportService service;
+
+    @BeforeEach
+    void setup() {
+        config = new QuickBooksConfig();
+        restClient = Mockito.mock(QuickBooksRestClient.class);
+        when(restClient.getStreamed(any(QuickBooksContext.class), anyString(), any(), any()))
+            .thenAnswer(inv -> new ReportTable(Map.of(), List.of(), 0, new byte[0], new short[0], new String[0], new String[0]));
+        service = new ReportService();
+        ReflectionTestUtils.setField(service, "config", config);
+        ReflectionTestUtils.setField(service, "restClient", restClient);
+    }
+
+    @Test
+    void cachesPerRealmReportAndParameters() {
+        ReportService.Cached first = service.get(TOKEN, REALM, ReportService.Report.PROFIT_AND_LOSS,
+            Map.of("start_date", "2024-01-01", "end_date", "2024-03-31"), false);
+        ReportService.Cached again = service.get(TOKEN, REALM, ReportService.Report.PROFIT_AND_LOSS,
+            Map.of("end_date", "2024-03-31", "start_date", "2024-01-01"), false);
+        ReportService.Cached otherRange = service.get(TOKEN, REALM, ReportService.Report.PROFIT_AND_LOSS,
+            Map.of("start_date", "2024-04-01"), false);
+        ReportService.Cached refreshed = service.get(TOKEN, REALM, ReportService.Report.PROFIT_AND_LOSS,
+            Map.of("start_date", "2024-01-01", "end_date", "2024-03-31"), true);
+
+        assertSame(first, again);
+        assertNotSame(first, otherRange);
+        assertNotSame(first, refreshed);
+        verify(restClient, times(3)).getStreamed(any(QuickBooksContext.class), eq("/reports/ProfitAndLoss"), any(), any());
+    }
+
+    @Test
+    void expiredReportsAreReloaded() {
+        config.setReportTtlSeconds(0);
+        service.get(TOKEN, REALM, ReportService.Report.AGED_RECEIVABLES, Map.of(), false);
+        service.get(TOKEN, REALM, ReportService.Report.AGED_RECEIVABLES, Map.of(), false);
+
+        verify(restClient, times(2)).getStreamed(any(QuickBooksContext.class), eq("/reports/AgedReceivables"), any(), any());
+    }
+
+    @Test
+    void projectProfitabilityIsProfitAndLossByCustomer() {
+        service.get(TOKEN, REALM, ReportService.Report.from("project-profitability"), Map.of("date_macro", "This Year"), false);
+
+        verify(restClient).getStreamed(eq(QuickBooksContext.of(TOKEN, REALM)), eq("/reports/ProfitAndLoss"),
+            eq(Map.of("summarize_column_by", "Customers", "date_macro", "This Year")), any());
+    }
+
+    @Test
+    void rejectsUnknownParametersAndUnsafeValues() {
+        RuntimeException unknown = assertThrows(RuntimeException.class, () -> service.get(TOKEN, REALM,
+            ReportService.Report.AGED_RECEIVABLES, Map.of("start_date", "2024-01-01"), false));
+        assertTrue(unknown.getMessage().startsWith("Unsupported parameter 'start_date'"));
+        assertThrows(RuntimeException.class, () -> service.get(TOKEN, REALM,
+            ReportService.Report.PROFIT_AND_LOSS, Map.of("customer", "1&minorversion=1"), false));
+        assertThrows(RuntimeException.class, () -> ReportService.Report.from("balance-sheet"));
+        verify(restClient, never()).getStreamed(any(QuickBooksContext.class), anyString(), any(), any());
+    }
+}
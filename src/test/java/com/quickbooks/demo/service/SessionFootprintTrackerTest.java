@@ -0,0 +1,112 @@
+package com.quickbooks.demo.service;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.ProjectPage;
+import com.quickbooks.demo.model.ProjectSummary;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpSessionBindingEvent;
+
+class SessionFootprintTrackerTest {
+
+    private SessionFootprintTracker tracker;
+    private QuickBooksConfig config;
+    private DistributionSummary sizes;
+
+    @BeforeEach
+    void setup() {
+        config = new QuickBooksConfig();
+        tracker = new SessionFootprintTracker();
+        ReflectionTestUtils.setField(tracker, "config", config);
+        sizes = DistributionSummary.builder("http.session.bytes").register(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tracker, "sizes", sizes);
+    }
+
+    @Test
+    void overCap_dropsResultPanelsLargestFirstAndKeepsAuth() {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("accessToken", "Bearer t");
+        session.setAttribute("realmId", "123");
+        session.setAttribute("catalogFetched", Boolean.TRUE);
+        session.setAttribute("projects", new ProjectPage(projects(200), new ProjectPage.PageInfo(false, null)));
+        session.setAttribute("projects_multi", projects(2));
+
+        long smallEnough = SessionFootprintTracker.measure(session).bytes()
+            - SessionFootprintTracker.serializedSize(session.getAttribute("projects")) + 64;
+        config.setSessionMaxBytes(smallEnough);
+
+        SessionFootprintTracker.Footprint after = tracker.enforce(session);
+
+        assertNull(session.getAttribute("projects"));
+        assertNotNull(session.getAttribute("projects_multi"));
+        assertEquals("Bearer t", session.getAttribute("accessToken"));
+        assertEquals(Boolean.TRUE, session.getAttribute("catalogFetched"));
+        assertTrue(after.bytes() <= smallEnough, "after=" + after.bytes());
+    }
+
+    @Test
+    void afterCompletion_recordsLatestSizePerSession() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("realmId", "123");
+        request.setSession(session);
+
+        tracker.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        List<SessionFootprintTracker.Footprint> footprints = tracker.footprints();
+        assertEquals(1, footprints.size());
+        assertTrue(footprints.get(0).attributes().get("realmId") > 0);
+        assertEquals(1, sizes.count());
+    }
+
+    @Test
+    void afterCompletion_remeasuresOnlyWhenTheSessionChanged() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("realmId", "123");
+        request.setSession(session);
+        tracker.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        tracker.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        assertEquals(1, sizes.count());
+
+        // MockHttpSession does not notify attribute listeners; the container would
+        List<ProjectSummary> multi = projects(2);
+        session.setAttribute("projects_multi", multi);
+        tracker.attributeAdded(new HttpSessionBindingEvent(session, "projects_multi", multi));
+        tracker.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        SessionFootprintTracker.Footprint footprint = tracker.footprints().get(0);
+        assertEquals(2, sizes.count());
+        assertEquals(SessionFootprintTracker.measure(session).bytes(), footprint.bytes());
+        assertTrue(footprint.attributes().get("projects_multi") > 0);
+
+        session.removeAttribute("projects_multi");
+        tracker.attributeRemoved(new HttpSessionBindingEvent(session, "projects_multi"));
+        tracker.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertEquals(3, sizes.count());
+        assertNull(tracker.footprints().get(0).attributes().get("projects_multi"));
+    }
+
+    private static List<ProjectSummary> projects(int n) {
+        return java.util.stream.IntStream.range(0, n)
+            .mapToObj(i -> ProjectSummary.of("p-" + i, "Project " + i, "Kitchen remodel phase " + i, "OPEN",
+                "2025-01-01", "2025-06-30", new ProjectSummary.CustomerRef("58"), "acct-" + i))
+            .toList();
+    }
+}
@@ -0,0 +1,78 @@
+package com.quickbooks.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.service.client.QuickBooksSdkClient;
+
+class WarmupServiceTest {
+
+    private WarmupService warmupService;
+    private WarmupHealthIndicator indicator;
+    private RestTemplate restTemplate;
+    private QuickBooksConfig config;
+
+    @BeforeEach
+    void setup() {
+        config = new QuickBooksConfig();
+        config.setBaseUrl("https://sandbox-quickbooks.api.intuit.com");
+        config.setGraphqlUrl("https://qb-sandbox.api.intuit.com/graphql");
+        config.setWarmupIterations(2);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        QuickBooksApiService apiService = new QuickBooksApiService();
+        ReflectionTestUtils.setField(apiService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(apiService, "config", config);
+
+        restTemplate = Mockito.mock(RestTemplate.class);
+        warmupService = new WarmupService();
+        ReflectionTestUtils.setField(warmupService, "config", config);
+        ReflectionTestUtils.setField(warmupService, "apiService", apiService);
+        ReflectionTestUtils.setField(warmupService, "sdkClient", Mockito.mock(QuickBooksSdkClient.class));
+        ReflectionTestUtils.setField(warmupService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(warmupService, "restTemplate", restTemplate);
+
+        indicator = new WarmupHealthIndicator();
+        ReflectionTestUtils.setField(indicator, "warmupService", warmupService);
+    }
+
+    @Test
+    void readinessOutOfServiceUntilWarmupCompletes() {
+        when(restTemplate.headForHeaders(anyString())).thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
+
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+        warmupService.warmUp();
+
+        assertTrue(warmupService.isComplete());
+        assertEquals(Status.UP, indicator.health().getStatus());
+        assertEquals("ok", warmupService.details().get("parsing"));
+        assertEquals("ok", warmupService.details().get("graphql"));
+        // A 401 from the host still means the connection was opened
+        assertEquals("ok", warmupService.details().get("connections"));
+        verify(restTemplate).headForHeaders(config.getGraphqlUrl());
+    }
+
+    @Test
+    void disabledWarmupIsImmediatelyReady() {
+        config.setWarmupEnabled(false);
+        warmupService.onApplicationReady();
+
+        assertTrue(warmupService.isComplete());
+        assertFalse(warmupService.details().containsKey("parsing"));
+        assertEquals(Status.UP, indicator.health().getStatus());
+    }
+}
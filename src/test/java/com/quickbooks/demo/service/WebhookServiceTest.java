@@ -0,0 +1,112 @@
+package com.quickbooks.demo.service;
+
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WebhookServiceTest {
+
+    private static final String TOKEN = "verifier-token";
+    private static final String REALM_A = "9341452734328745";
+    private static final String REALM_B = "4620816365282467";
+
+    private WebhookService service;
+    private QuickBooksConfig config;
+    private RealmSnapshotStore snapshots;
+    private ProjectRollupService rollups;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        config = new QuickBooksConfig();
+        config.setWebhookVerifierToken(TOKEN);
+        config.setWebhookCoalesceMillis(0);
+        snapshots = Mockito.mock(RealmSnapshotStore.class);
+        rollups = Mockito.mock(ProjectRollupService.class);
+        ObjectProvider<MeterRegistry> provider = Mockito.mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(registry);
+
+        service = new WebhookService();
+        ReflectionTestUtils.setField(service, "config", config);
+        ReflectionTestUtils.setField(service, "snapshots", snapshots);
+        ReflectionTestUtils.setField(service, "rollups", rollups);
+        ReflectionTestUtils.setField(service, "mirror", Mockito.mock(EntityMirror.class));
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "meterRegistry", provider);
+    }
+
+    @Test
+    void verify_acceptsOnlyTheHmacOfTheExactBody() throws Exception {
+        byte[] body = recorded();
+        String signature = Base64.getEncoder().encodeToString(WebhookService.sign(TOKEN, body));
+
+        assertTrue(service.verify(body, signature));
+        assertFalse(service.verify((new String(body) + " ").getBytes(), signature));
+        assertFalse(service.verify(body, "not base64!"));
+        config.setWebhookVerifierToken("");
+        assertFalse(service.verify(body, signature));
+    }
+
+    @Test
+    void drain_coalescesPerRealmAndEntityAndMarksOnlyMappedDatasetsStale() throws Exception {
+        List<WebhookService.ChangeEvent> events = service.parse(recorded());
+        assertEquals(5, events.size());
+        service.enqueue(events);
+
+        assertEquals(5, service.drain(0));
+
+        verify(snapshots, times(1)).markStale(REALM_A, RealmCatalogService.CATALOG);
+        verify(snapshots, times(1)).markStale(REALM_A, ProjectResolver.PROJECTS);
+        verify(snapshots, never()).markStale(REALM_A, "accounts");
+        verify(snapshots, times(1)).markStale(REALM_B, "accounts");
+        verify(snapshots, times(1)).markStale(REALM_B, RealmCatalogService.CATALOG);
+        verify(snapshots, never()).markStale(anyString());
+        // Invoice 130 changed in realm A only
+        verify(rollups, times(1)).changed(REALM_A);
+        verify(rollups, never()).changed(REALM_B);
+
+        assertEquals(1.0, registry.get("qbo.webhook.events").tag("outcome", "coalesced").counter().count());
+        assertEquals(1.0, registry.get("qbo.webhook.events").tag("outcome", "unmapped").counter().count());
+        assertEquals(5, registry.get("qbo.webhook.queue.delay").timer().count());
+        assertEquals(5, registry.get("qbo.webhook.lag").timer().count());
+    }
+
+    @Test
+    void enqueue_overflowExpiresTheRealmInsteadOfBlocking() throws Exception {
+        config.setWebhookQueueCapacity(2);
+        service.enqueue(service.parse(recorded()));
+
+        // Customer 58 and 59 fit; Item and Invoice (realm A) and Account (realm B) overflow
+        verify(snapshots, times(2)).markStale(REALM_A);
+        verify(snapshots, times(1)).markStale(REALM_B);
+        assertEquals(2, service.drain(0));
+    }
+
+    private static byte[] recorded() throws Exception {
+        try (InputStream in = WebhookServiceTest.class.getResourceAsStream("/webhooks/customer-item-burst.json")) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.quickbooks.demo.service.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CompressionInterceptorTest {
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new CompressionInterceptor(registry));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void gzipResponse_isDecodedAndBytesCounted() throws IOException {
+        String json = "{\"QueryResponse\":{\"Customer\":[" + "{\"Id\":\"1\",\"DisplayName\":\"Acme\"},".repeat(200) + "{}]}}";
+        byte[] gz = gzip(json);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        server.expect(header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andRespond(withStatus(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON).headers(headers).body(gz));
+
+        String body = restTemplate.postForObject("https://qbo.test/v3/company/1/query", "select", String.class);
+
+        assertEquals(json, body);
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length, decoded("query"));
+        assertTrue(wire("query") > 0 && wire("query") <= gz.length);
+        assertTrue(wire("query") < decoded("query") / 10);
+        server.verify();
+    }
+
+    @Test
+    void identityResponse_passesThroughWithEqualCounts() {
+        server.expect(header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andRespond(withSuccess("{\"data\":{}}", MediaType.APPLICATION_JSON));
+
+        assertEquals("{\"data\":{}}", restTemplate.postForObject("https://qbo.test/graphql", "{}", String.class));
+        assertEquals(11.0, wire("graphql"));
+        assertEquals(11.0, decoded("graphql"));
+    }
+
+    private double wire(String endpoint) {
+        return registry.get("qbo.http.client.bytes").tag("endpoint", endpoint).tag("encoding", "wire").counter().count();
+    }
+
+    private double decoded(String endpoint) {
+        return registry.get("qbo.http.client.bytes").tag("endpoint", endpoint).tag("encoding", "decoded").counter().count();
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
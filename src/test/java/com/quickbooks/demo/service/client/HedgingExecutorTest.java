@@ -0,0 +1,124 @@
+package com.quickbooks.demo.service.client;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+
+class HedgingExecutorTest {
+
+    private HedgingExecutor hedging;
+    private QuickBooksConfig config;
+
+    @BeforeEach
+    void setup() {
+        config = new QuickBooksConfig();
+        config.setHedgingEnabled(true);
+        config.setHedgingInitialDelayMs(30);
+        config.setHedgingMinDelayMs(5);
+        hedging = new HedgingExecutor();
+        ReflectionTestUtils.setField(hedging, "config", config);
+    }
+
+    @Test
+    void disabled_runsOnceInline() {
+        config.setHedgingEnabled(false);
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals("ok", hedging.execute("query", () -> {
+            calls.incrementAndGet();
+            return "ok";
+        }));
+        assertEquals(1, calls.get());
+        assertEquals(0L, hedging.stats().get("hedgesIssued"));
+    }
+
+    @Test
+    void slowPrimary_isHedgedAndLoserCancelled() {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loserInterrupted = new CountDownLatch(1);
+        String result = hedging.execute("graphql.getProject", () -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    loserInterrupted.countDown();
+                }
+                return "slow";
+            }
+            return "hedge";
+        });
+        assertEquals("hedge", result);
+        assertEquals(2, calls.get());
+        assertEquals(1L, hedging.stats().get("hedgeWins"));
+        assertTrue(awaitQuietly(loserInterrupted));
+    }
+
+    @Test
+    void legs_readWithTheConfiguredTimeout() {
+        config.setHedgingLegReadTimeoutMs(1234);
+        assertEquals(1234, hedging.execute("query", HedgingExecutor::legReadTimeoutMillis));
+        assertEquals(0, HedgingExecutor.legReadTimeoutMillis());
+    }
+
+    @Test
+    void fastPrimary_isNotHedged() {
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals("fast", hedging.execute("query", () -> {
+            calls.incrementAndGet();
+            return "fast";
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void budget_capsHedges() {
+        config.setHedgingBudgetPercent(0);
+        // The bucket starts full (10 tokens); with no earning, only 10 hedges can ever be issued
+        for (int i = 0; i < 12; i++) {
+            hedging.execute("query", () -> sleep(40));
+        }
+        assertEquals(10L, hedging.stats().get("hedgesIssued"));
+    }
+
+    @Test
+    void failure_fromAllLegs_isRethrown() {
+        assertThrows(IllegalStateException.class, () -> hedging.execute("query", () -> {
+            throw new IllegalStateException("boom");
+        }));
+    }
+
+    @Test
+    void delay_tracksRunningP95OnceWarm() {
+        config.setHedgingEnabled(false);
+        for (int i = 0; i < 25; i++) {
+            hedging.execute("query", () -> sleep(15));
+        }
+        long delay = hedging.hedgeDelayMillis("query");
+        assertTrue(delay >= 15 && delay < 100, "delay was " + delay);
+    }
+
+    private static String sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+}
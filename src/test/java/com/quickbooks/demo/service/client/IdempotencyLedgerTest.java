@@ -0,0 +1,111 @@
+package com.quickbooks.demo.service.client;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+
+class IdempotencyLedgerTest {
+
+    private IdempotencyLedger ledger;
+    private QuickBooksConfig config;
+
+    @BeforeEach
+    void setup() {
+        config = new QuickBooksConfig();
+        config.setIdempotencyLedgerSize(2);
+        ledger = new IdempotencyLedger();
+        ReflectionTestUtils.setField(ledger, "config", config);
+    }
+
+    @Test
+    void requestId_isDeterministicAndBounded() {
+        String a = IdempotencyLedger.requestId("123", "/estimate", "{\"a\":1}");
+        assertEquals(a, IdempotencyLedger.requestId("123", "/estimate", "{\"a\":1}"));
+        assertNotEquals(a, IdempotencyLedger.requestId("124", "/estimate", "{\"a\":1}"));
+        // Part boundaries matter: ("ab","c") != ("a","bc")
+        assertNotEquals(IdempotencyLedger.requestId("ab", "c"), IdempotencyLedger.requestId("a", "bc"));
+        assertEquals(32, a.length());
+    }
+
+    @Test
+    void submissionId_followsTheKeyNotThePayload() {
+        String a = IdempotencyLedger.submissionId("123", "/bill", "form-1");
+        assertEquals(a, IdempotencyLedger.submissionId("123", "/bill", "form-1"));
+        assertNotEquals(a, IdempotencyLedger.submissionId("123", "/invoice", "form-1"));
+        assertNotEquals(a, IdempotencyLedger.submissionId("124", "/bill", "form-1"));
+        // No key: every call is its own submission
+        assertNotEquals(IdempotencyLedger.submissionId("123", "/bill", null), IdempotencyLedger.submissionId("123", "/bill", null));
+        assertEquals(32, IdempotencyLedger.submissionId("123", "/bill", " ").length());
+    }
+
+    @Test
+    void replay_returnsStoredResultWithoutCalling() {
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals("r1", ledger.execute("id-1", () -> "r" + calls.incrementAndGet()));
+        assertEquals("r1", ledger.execute("id-1", () -> "r" + calls.incrementAndGet()));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void failures_areNotStored() {
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> ledger.execute("id-1", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("timeout");
+        }));
+        assertEquals("ok", ledger.execute("id-1", () -> {
+            calls.incrementAndGet();
+            return "ok";
+        }));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        ledger.execute("a", () -> "A");
+        ledger.execute("b", () -> "B");
+        ledger.execute("a", () -> "A2"); // touch a
+        ledger.execute("c", () -> "C");  // evicts b
+
+        assertEquals(2, ledger.size());
+        assertEquals("A", ledger.execute("a", () -> "A3"));
+        assertEquals("B2", ledger.execute("b", () -> "B2"));
+    }
+
+    @Test
+    void concurrentDuplicate_waitsForInFlightOriginal() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = pool.submit(() -> ledger.execute("id-1", () -> {
+                calls.incrementAndGet();
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "created";
+            }));
+            entered.await(5, TimeUnit.SECONDS);
+            Future<String> duplicate = pool.submit(() -> ledger.execute("id-1", () -> "second-" + calls.incrementAndGet()));
+            release.countDown();
+
+            assertEquals("created", first.get(5, TimeUnit.SECONDS));
+            assertEquals("created", duplicate.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
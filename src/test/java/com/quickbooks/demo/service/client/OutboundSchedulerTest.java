@@ -0,0 +1,128 @@
+package com.quickbooks.demo.service.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mockito;
+import static org.mockito.Mockito.when;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.service.client.OutboundScheduler.Priority;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OutboundSchedulerTest {
+
+    private QuickBooksConfig config;
+    private SimpleMeterRegistry registry;
+    private OutboundScheduler scheduler;
+
+    @BeforeEach
+    void setup() {
+        config = new QuickBooksConfig();
+        registry = new SimpleMeterRegistry();
+        scheduler = new OutboundScheduler(config, registry);
+    }
+
+    @Test
+    void waitersAreServedFairlyAcrossRealms() throws Exception {
+        config.setOutboundMaxConcurrency(1);
+        scheduler.acquire("busy", Priority.BACKGROUND);
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        // Realm A queues a backlog before realm B asks once
+        for (String name : List.of("A1", "A2", "A3", "B1")) {
+            String realm = name.substring(0, 1);
+            Thread t = new Thread(() -> {
+                try {
+                    scheduler.acquire(realm, Priority.BACKGROUND);
+                    order.add(name);
+                    scheduler.release();
+                } catch (IOException e) {
+                    order.add(name + " failed");
+                }
+            });
+            t.start();
+            threads.add(t);
+            awaitQueued(realm, Priority.BACKGROUND, name.charAt(1) - '0');
+        }
+
+        scheduler.release();
+        for (Thread t : threads) {
+            t.join(3000);
+        }
+        assertEquals(List.of("A1", "B1", "A2", "A3"), order);
+        assertEquals(0, scheduler.inFlight());
+        assertEquals(4, registry.get("qbo.outbound.wait").tag("realm", "A").timer().count()
+            + registry.get("qbo.outbound.wait").tag("realm", "B").timer().count());
+    }
+
+    @Test
+    void backgroundWorkCannotTakeTheInteractiveReserve() throws Exception {
+        config.setOutboundMaxConcurrency(4);
+        config.setOutboundQueueTimeoutMillis(50);
+        for (int i = 0; i < 3; i++) {
+            scheduler.acquire("bulk", Priority.BACKGROUND);
+        }
+
+        IOException e = assertThrows(IOException.class, () -> scheduler.acquire("bulk", Priority.BACKGROUND));
+        assertTrue(e.getMessage().startsWith("Timed out"));
+        assertEquals(0.0, registry.get("qbo.outbound.queue.depth").tag("realm", "bulk").gauge().value());
+
+        scheduler.acquire("user", Priority.INTERACTIVE);
+        assertEquals(4, scheduler.inFlight());
+    }
+
+    @Test
+    void intercept_holdsTheSlotUntilTheResponseIsClosed() throws Exception {
+        config.setOutboundMaxConcurrency(2);
+        HttpRequest request = Mockito.mock(HttpRequest.class);
+        when(request.getURI()).thenReturn(URI.create("https://quickbooks.api.intuit.com/v3/company/123/query?query=x"));
+        ClientHttpRequestExecution execution = Mockito.mock(ClientHttpRequestExecution.class);
+        when(execution.execute(any(), any()))
+            .thenReturn(Mockito.mock(ClientHttpResponse.class))
+            .thenThrow(new IOException("connection reset"));
+
+        ClientHttpResponse response;
+        try (OutboundScheduler.Scope scope = OutboundScheduler.tag("123", Priority.INTERACTIVE)) {
+            response = scheduler.intercept(request, new byte[0], execution);
+        }
+        assertEquals(null, OutboundScheduler.current());
+        assertEquals(1, scheduler.inFlight());
+        response.close();
+        response.close();
+        assertEquals(0, scheduler.inFlight());
+
+        assertThrows(IOException.class, () -> scheduler.intercept(request, new byte[0], execution));
+        assertEquals(0, scheduler.inFlight());
+        // Untagged calls are background work for the realm in the URL
+        assertEquals(1, registry.get("qbo.outbound.wait").tag("realm", "123").tag("priority", "background").timer().count());
+    }
+
+    private void awaitQueued(String realm, Priority priority, int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3000;
+        while (System.currentTimeMillis() < deadline) {
+            if (registry.find("qbo.outbound.queue.depth").tag("realm", realm)
+                    .tag("priority", priority.name().toLowerCase()).gauge() != null
+                && registry.get("qbo.outbound.queue.depth").tag("realm", realm)
+                    .tag("priority", priority.name().toLowerCase()).gauge().value() >= depth) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Nothing queued for " + realm);
+    }
+}
@@ -0,0 +1,101 @@
+package com.quickbooks.demo.service.client;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServiceUnavailable;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickbooks.demo.config.QuickBooksConfig;
+import com.quickbooks.demo.model.QuickBooksContext;
+
+class QuickBooksRestClientTest {
+
+    private QuickBooksRestClient client;
+    private MockRestServiceServer server;
+    private final QuickBooksContext ctx = QuickBooksContext.of("Bearer t", "123");
+
+    @BeforeEach
+    void setup() {
+        QuickBooksConfig config = new QuickBooksConfig();
+        config.setBaseUrl("https://qbo.test");
+        config.setMinorVersion("75");
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+
+        IdempotencyLedger ledger = new IdempotencyLedger();
+        ReflectionTestUtils.setField(ledger, "config", config);
+
+        client = new QuickBooksRestClient();
+        ReflectionTestUtils.setField(client, "config", config);
+        ReflectionTestUtils.setField(client, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(client, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(client, "ledger", ledger);
+    }
+
+    @Test
+    void postJson_sendsTheSubmissionIdAndAnswersItsReplaysLocally() {
+        Map<String, Object> payload = Map.of("VendorRef", Map.of("value", "4"));
+        String submission = IdempotencyLedger.submissionId("123", "/bill", "form-1");
+
+        server.expect(ExpectedCount.once(), requestTo(org.hamcrest.Matchers.startsWith("https://qbo.test/v3/company/123/bill?minorversion=75")))
+            .andExpect(method(HttpMethod.POST))
+            .andExpect(queryParam("requestid", submission))
+            .andRespond(withSuccess("{\"Bill\":{\"Id\":\"9\"}}", MediaType.APPLICATION_JSON));
+
+        assertEquals("{\"Bill\":{\"Id\":\"9\"}}", client.postJson(ctx, "/bill", payload, submission));
+        // Resubmit of the same form: served from the ledger, no second request
+        assertEquals("{\"Bill\":{\"Id\":\"9\"}}", client.postJson(ctx, "/bill", payload, submission));
+        server.verify();
+    }
+
+    @Test
+    void postJson_identicalPayloadsWithoutAKeyAreSeparateCreates() {
+        Map<String, Object> payload = Map.of("VendorRef", Map.of("value", "4"));
+        server.expect(ExpectedCount.twice(), requestTo(org.hamcrest.Matchers.startsWith("https://qbo.test/v3/company/123/bill")))
+            .andRespond(withSuccess("{\"Bill\":{\"Id\":\"9\"}}", MediaType.APPLICATION_JSON));
+
+        client.postJson(ctx, "/bill", payload);
+        client.postJson(ctx, "/bill", payload);
+        server.verify();
+    }
+
+    @Test
+    void postJson_retriesServerErrorsWithSameRequestId() {
+        Map<String, Object> payload = Map.of("CustomerRef", Map.of("value", "1"));
+        String submission = IdempotencyLedger.submissionId("123", "/estimate", "form-2");
+
+        server.expect(ExpectedCount.once(), queryParam("requestid", submission)).andRespond(withServiceUnavailable());
+        server.expect(ExpectedCount.once(), queryParam("requestid", submission))
+            .andRespond(withSuccess("{\"Estimate\":{\"Id\":\"5\"}}", MediaType.APPLICATION_JSON));
+
+        assertEquals("{\"Estimate\":{\"Id\":\"5\"}}", client.postJson(ctx, "/estimate", payload, submission));
+        server.verify();
+    }
+
+    @Test
+    void queryEach_streamsOnlyTheRequestedEntityRows() {
+        server.expect(ExpectedCount.once(), requestTo(org.hamcrest.Matchers.startsWith("https://qbo.test/v3/company/123/query")))
+            .andRespond(withSuccess("{\"QueryResponse\":{\"Customer\":[{\"Id\":\"1\",\"Tags\":[{\"a\":1}]},{\"Id\":\"2\"}],"
+                + "\"startPosition\":1,\"maxResults\":2},\"time\":\"2025-01-01T00:00:00Z\"}", MediaType.APPLICATION_JSON));
+
+        java.util.List<String> ids = new java.util.ArrayList<>();
+        int count = client.queryEach(ctx, "Customer", "select * from Customer", row -> ids.add(row.path("Id").asText()));
+
+        assertEquals(2, count);
+        assertEquals(java.util.List.of("1", "2"), ids);
+        server.verify();
+    }
+}
@@ -0,0 +1,40 @@
+package com.quickbooks.demo.stub;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-response delay distribution for the QBO stand-in.
+ */
+@FunctionalInterface
+public interface LatencyModel {
+
+    long nextMillis();
+
+    static LatencyModel none() {
+        return () -> 0L;
+    }
+
+    static LatencyModel fixed(long millis) {
+        return () -> millis;
+    }
+
+    static LatencyModel uniform(long minMillis, long maxMillis) {
+        return () -> minMillis + ThreadLocalRandom.current().nextLong(Math.max(1, maxMillis - minMillis + 1));
+    }
+
+    /**
+     * Long-tailed distribution resembling QBO read latency: most responses near the median,
+     * a few several multiples above it. sigma ~0.5 is mild, ~1.0 is spiky.
+     */
+    static LatencyModel logNormal(double medianMillis, double sigma) {
+        double mu = Math.log(Math.max(1.0, medianMillis));
+        return () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    /**
+     * Mostly {@code base}, but with probability {@code spikeRate} a response takes {@code spike} instead.
+     */
+    static LatencyModel withSpikes(LatencyModel base, double spikeRate, LatencyModel spike) {
+        return () -> ThreadLocalRandom.current().nextDouble() < spikeRate ? spike.nextMillis() : base.nextMillis();
+    }
+}
@@ -0,0 +1,140 @@
+package com.quickbooks.demo.stub;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Closed-loop load driver: {@code concurrency} workers each run the registered scenarios
+ * round-robin until {@code iterations} calls per scenario have completed, recording the
+ * wall-clock latency of every call.
+ */
+public class LoadDriver {
+
+    /** One call of a scenario; returns true when the call succeeded from the caller's point of view. */
+    @FunctionalInterface
+    public interface Call {
+        boolean run() throws Exception;
+    }
+
+    private final Map<String, Call> scenarios = new LinkedHashMap<>();
+    private int concurrency = 8;
+    private int iterations = 200;
+    private int warmupIterations = 20;
+
+    public LoadDriver scenario(String name, Call call) {
+        scenarios.put(name, call);
+        return this;
+    }
+
+    public LoadDriver concurrency(int concurrency) {
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    public LoadDriver iterations(int iterations) {
+        this.iterations = iterations;
+        return this;
+    }
+
+    public LoadDriver warmupIterations(int warmupIterations) {
+        this.warmupIterations = warmupIterations;
+        return this;
+    }
+
+    public Map<String, Stats> run() throws InterruptedException {
+        Map<String, Stats> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Call> e : scenarios.entrySet()) {
+            drive(e.getValue(), warmupIterations);
+            results.put(e.getKey(), drive(e.getValue(), iterations));
+        }
+        return results;
+    }
+
+    private Stats drive(Call call, int total) throws InterruptedException {
+        long[] latencies = new long[total];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            pool.execute(() -> {
+                try {
+                    int i;
+                    while ((i = next.getAndIncrement()) < total) {
+                        long t0 = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = call.run();
+                        } catch (Exception ex) {
+                            ok = false;
+                        }
+                        latencies[i] = System.nanoTime() - t0;
+                        if (!ok) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+        return Stats.of(latencies, errors.get(), elapsed);
+    }
+
+    /** Latency percentiles (ms), error rate and throughput for one scenario. */
+    public record Stats(int calls, int errors, double errorRate, double throughputPerSec,
+                        double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+
+        static Stats of(long[] latencyNanos, int errors, long elapsedNanos) {
+            long[] sorted = latencyNanos.clone();
+            Arrays.sort(sorted);
+            int n = sorted.length;
+            return new Stats(n, errors, n == 0 ? 0 : (double) errors / n,
+                elapsedNanos == 0 ? 0 : n / (elapsedNanos / 1e9),
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                n == 0 ? 0 : sorted[n - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double q) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int idx = (int) Math.ceil(q * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(idx, sorted.length - 1))] / 1e6;
+        }
+    }
+
+    /** Writes the per-scenario stats as JSON (e.g. build/reports/load/results.json). */
+    public static void writeReport(Map<String, Stats> results, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), results);
+    }
+
+    /** Human-readable table for the test log. */
+    public static String format(Map<String, Stats> results) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-22s %7s %7s %9s %8s %8s %8s", "scenario", "calls", "errors", "req/s", "p50ms", "p95ms", "p99ms"));
+        results.forEach((name, s) -> lines.add(String.format("%-22s %7d %7d %9.1f %8.1f %8.1f %8.1f",
+            name, s.calls(), s.errors(), s.throughputPerSec(), s.p50Ms(), s.p95Ms(), s.p99Ms())));
+        return String.join(System.lineSeparator(), lines);
+    }
+}
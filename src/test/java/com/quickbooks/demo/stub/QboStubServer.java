@@ -0,0 +1,549 @@
+package com.quickbooks.demo.stub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embeddable stand-in for the QuickBooks Online endpoints this app calls, for load and
+ * end-to-end tests that must not reach Intuit.
+ *
+ * Serves {@code /v3/company/{realm}/query}, the entity create endpoints ({@code /invoice},
+ * {@code /estimate}, {@code /salesreceipt}, {@code /bill}, {@code /customer}, {@code /item}),
+ * {@code /batch}, {@code /cdc}, the OAuth token endpoint and the Projects GraphQL operations.
+ * Latency, 429 injection and generated data volume are configurable. It can also build, sign and
+ * deliver webhook notifications to the app.
+ */
+public class QboStubServer implements AutoCloseable {
+
+    private static final Pattern FROM = Pattern.compile("(?i)\\bfrom\\s+(\\w+)");
+    private static final Pattern START_POSITION = Pattern.compile("(?i)\\bstartposition\\s+(\\d+)");
+    private static final Pattern MAX_RESULTS = Pattern.compile("(?i)\\bmaxresults\\s+(\\d+)");
+    private static final Pattern COMPANY_PATH = Pattern.compile("^/v3/company/([^/]+)/([a-z]+)$");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicLong nextId = new AtomicLong(10_000);
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicLong throttled = new AtomicLong();
+
+    private volatile LatencyModel latency = LatencyModel.none();
+    private volatile double throttleRate = 0.0;
+    private int customers = 200;
+    private int items = 50;
+    private int accounts = 40;
+    private int vendors = 30;
+    private int projects = 60;
+    private int transactions = 300;
+    private int workerThreads = 64;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public QboStubServer latency(LatencyModel latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /** Fraction of requests (0..1) answered with 429 ThrottleExceeded. */
+    public QboStubServer throttleRate(double throttleRate) {
+        this.throttleRate = throttleRate;
+        return this;
+    }
+
+    public QboStubServer volume(int customers, int items, int accounts, int vendors, int projects, int transactions) {
+        this.customers = customers;
+        this.items = items;
+        this.accounts = accounts;
+        this.vendors = vendors;
+        this.projects = projects;
+        this.transactions = transactions;
+        return this;
+    }
+
+    public QboStubServer workerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+        return this;
+    }
+
+    public QboStubServer start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to bind QBO stub server", e);
+        }
+        executor = Executors.newFixedThreadPool(workerThreads);
+        server.setExecutor(executor);
+        server.createContext("/v3/company/", this::handleCompany);
+        server.createContext("/graphql", this::handleGraphql);
+        server.createContext("/oauth2/v1/tokens/bearer", this::handleToken);
+        server.start();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String graphqlUrl() {
+        return baseUrl() + "/graphql";
+    }
+
+    public long requestCount(String operation) {
+        AtomicLong c = requestCounts.get(operation);
+        return c != null ? c.get() : 0L;
+    }
+
+    public long throttledCount() {
+        return throttled.get();
+    }
+
+    // ---- webhooks ----
+
+    /**
+     * An {@code eventNotifications} delivery as QBO sends it; each change is {@code "Entity:id"},
+     * e.g. {@code "Customer:58"}.
+     */
+    public String webhookPayload(String realmId, String operation, String... changes) {
+        ObjectNode root = mapper.createObjectNode();
+        ObjectNode notification = root.putArray("eventNotifications").addObject();
+        notification.put("realmId", realmId);
+        ArrayNode entities = notification.putObject("dataChangeEvent").putArray("entities");
+        String now = java.time.OffsetDateTime.now().withNano(0)
+            .format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXX"));
+        for (String change : changes) {
+            String[] parts = change.split(":", 2);
+            entities.addObject()
+                .put("name", parts[0])
+                .put("id", parts.length > 1 ? parts[1] : "1")
+                .put("operation", operation)
+                .put("lastUpdated", now);
+        }
+        return root.toString();
+    }
+
+    /** Base64 HMAC-SHA256 of the payload under the app's verifier token ({@code intuit-signature}). */
+    public static String webhookSignature(String verifierToken, String payload) {
+        try {
+            javax.crypto.Mac mac = javax.crypto.Mac.getInstance("HmacSHA256");
+            mac.init(new javax.crypto.spec.SecretKeySpec(verifierToken.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return java.util.Base64.getEncoder().encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (java.security.GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Signs and POSTs a delivery to the app's webhook URL like QBO would; returns the HTTP status. */
+    public static int deliverWebhook(String webhookUrl, String verifierToken, String payload)
+            throws IOException, InterruptedException {
+        java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder(URI.create(webhookUrl))
+            .header("Content-Type", "application/json")
+            .header("intuit-signature", webhookSignature(verifierToken, payload))
+            .POST(java.net.http.HttpRequest.BodyPublishers.ofString(payload))
+            .build();
+        return java.net.http.HttpClient.newHttpClient()
+            .send(request, java.net.http.HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // ---- request handling ----
+
+    private void handleCompany(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Matcher m = COMPANY_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!m.matches()) {
+                respond(exchange, 404, fault("Unsupported path: " + exchange.getRequestURI().getPath(), "2010"));
+                return;
+            }
+            String operation = m.group(2);
+            if (!admit(exchange, operation)) {
+                return;
+            }
+            String body = readBody(exchange);
+            ObjectNode response = switch (operation) {
+                case "query" -> query(queryText(exchange.getRequestURI(), body));
+                case "batch" -> batch(body);
+                case "cdc" -> cdc(exchange.getRequestURI());
+                case "invoice", "estimate", "salesreceipt", "bill", "customer", "item" -> create(operation, body);
+                default -> null;
+            };
+            if (response == null) {
+                respond(exchange, 400, fault("Unsupported operation: " + operation, "2030"));
+                return;
+            }
+            respond(exchange, 200, response);
+        }
+    }
+
+    private void handleGraphql(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode request = mapper.readTree(readBody(exchange));
+            String query = request.path("query").asText("");
+            JsonNode variables = request.path("variables");
+            String operation;
+            ObjectNode data = mapper.createObjectNode();
+            if (query.contains("projectManagementCreateProject")) {
+                operation = "graphql:create";
+                ObjectNode p = project(nextId.incrementAndGet());
+                p.put("name", variables.path("name").asText(p.path("name").asText()));
+                p.put("description", variables.path("description").asText(""));
+                data.set("projectManagementCreateProject", p);
+            } else if (query.contains("projectManagementDeleteProject")) {
+                operation = "graphql:delete";
+                ObjectNode p = mapper.createObjectNode();
+                p.put("id", variables.path("input").path("id").asText());
+                p.put("name", "Project " + p.path("id").asText());
+                p.put("version", variables.path("input").path("version").asInt(1) + 1);
+                p.put("deleted", true);
+                data.set("projectManagementDeleteProject", p);
+            } else if (query.contains("projectManagementProjects")) {
+                operation = "graphql:list";
+                data.set("projectManagementProjects", projectPage(variables));
+            } else if (query.startsWith("query Multi")) {
+                operation = "graphql:multi";
+                Iterator<Map.Entry<String, JsonNode>> vars = variables.fields();
+                while (vars.hasNext()) {
+                    Map.Entry<String, JsonNode> v = vars.next();
+                    data.set("p" + v.getKey().substring(1), projectById(v.getValue().asText()));
+                }
+            } else if (query.contains("projectManagementProject")) {
+                operation = "graphql:get";
+                data.set("projectManagementProject", projectById(variables.path("id").asText()));
+            } else {
+                operation = "graphql:unknown";
+            }
+            if (!admit(exchange, operation)) {
+                return;
+            }
+            ObjectNode root = mapper.createObjectNode();
+            if ("graphql:unknown".equals(operation)) {
+                root.putArray("errors").addObject().put("message", "Unsupported operation in stub");
+            } else {
+                root.set("data", data);
+            }
+            respond(exchange, 200, root);
+        }
+    }
+
+    private void handleToken(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!admit(exchange, "oauth:token")) {
+                return;
+            }
+            readBody(exchange);
+            ObjectNode token = mapper.createObjectNode();
+            token.put("token_type", "bearer");
+            token.put("access_token", "stub-access-" + nextId.incrementAndGet());
+            token.put("refresh_token", "stub-refresh-" + nextId.incrementAndGet());
+            token.put("expires_in", 3600);
+            token.put("x_refresh_token_expires_in", 8726400);
+            respond(exchange, 200, token);
+        }
+    }
+
+    /**
+     * Counts the request, applies the latency model and (maybe) answers 429.
+     * Returns false when the request was throttled and already answered.
+     */
+    private boolean admit(HttpExchange exchange, String operation) throws IOException {
+        requestCounts.computeIfAbsent(operation, k -> new AtomicLong()).incrementAndGet();
+        long delay = latency.nextMillis();
+        if (delay > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate) {
+            throttled.incrementAndGet();
+            respond(exchange, 429, fault("message=ThrottleExceeded; errorCode=003001; statusCode=429", "3001"));
+            return false;
+        }
+        return true;
+    }
+
+    // ---- accounting responses ----
+
+    private ObjectNode query(String queryText) {
+        Matcher from = FROM.matcher(queryText);
+        String entity = from.find() ? from.group(1) : "Customer";
+        int total = volumeOf(entity);
+        int start = intMatch(START_POSITION, queryText, 1);
+        int max = Math.min(intMatch(MAX_RESULTS, queryText, 100), 1000);
+        boolean projectsOnly = queryText.replace(" ", "").toLowerCase().contains("isproject=true");
+
+        ObjectNode root = mapper.createObjectNode();
+        ObjectNode qr = root.putObject("QueryResponse");
+        ArrayNode rows = mapper.createArrayNode();
+        for (int i = start; i < start + max && i <= total; i++) {
+            ObjectNode row = entity(entity, i);
+            if (projectsOnly && !row.path("IsProject").asBoolean(false)) {
+                continue;
+            }
+            rows.add(row);
+        }
+        if (rows.size() > 0) {
+            qr.set(entity, rows);
+            qr.put("startPosition", start);
+            qr.put("maxResults", rows.size());
+        }
+        root.put("time", java.time.OffsetDateTime.now().toString());
+        return root;
+    }
+
+    private ObjectNode create(String operation, String body) throws IOException {
+        String entity = entityName(operation);
+        ObjectNode created = body.isBlank() ? mapper.createObjectNode() : (ObjectNode) mapper.readTree(body);
+        stamp(created);
+        ObjectNode root = mapper.createObjectNode();
+        root.set(entity, created);
+        root.put("time", java.time.OffsetDateTime.now().toString());
+        return root;
+    }
+
+    private ObjectNode batch(String body) throws IOException {
+        JsonNode request = mapper.readTree(body);
+        ObjectNode root = mapper.createObjectNode();
+        ArrayNode responses = root.putArray("BatchItemResponse");
+        for (JsonNode item : request.path("BatchItemRequest")) {
+            ObjectNode response = responses.addObject();
+            response.put("bId", item.path("bId").asText());
+            Iterator<Map.Entry<String, JsonNode>> fields = item.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> f = fields.next();
+                if (f.getValue().isObject()) {
+                    ObjectNode entity = ((ObjectNode) f.getValue()).deepCopy();
+                    stamp(entity);
+                    response.set(f.getKey(), entity);
+                }
+            }
+        }
+        root.put("time", java.time.OffsetDateTime.now().toString());
+        return root;
+    }
+
+    private ObjectNode cdc(URI uri) {
+        Map<String, String> params = queryParams(uri);
+        ObjectNode root = mapper.createObjectNode();
+        ObjectNode qr = root.putArray("CDCResponse").addObject().putArray("QueryResponse").addObject();
+        for (String entity : params.getOrDefault("entities", "").split(",")) {
+            String name = entity.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            // Report the most recently "changed" few rows of each requested entity.
+            ArrayNode rows = qr.putArray(name);
+            int total = volumeOf(name);
+            for (int i = Math.max(1, total - 2); i <= total; i++) {
+                rows.add(entity(name, i));
+            }
+        }
+        root.put("time", java.time.OffsetDateTime.now().toString());
+        return root;
+    }
+
+    private void stamp(ObjectNode entity) {
+        entity.put("Id", String.valueOf(nextId.incrementAndGet()));
+        entity.put("SyncToken", "0");
+        entity.put("DocNumber", String.valueOf(1000 + nextId.get() % 9000));
+        double total = 0;
+        for (JsonNode line : entity.path("Line")) {
+            if (!"SubTotalLineDetail".equals(line.path("DetailType").asText())) {
+                total += line.path("Amount").asDouble(0);
+            }
+        }
+        entity.put("TotalAmt", total);
+        if (!entity.has("TxnDate")) {
+            entity.put("TxnDate", LocalDate.now().toString());
+        }
+    }
+
+    private ObjectNode entity(String entity, int i) {
+        ObjectNode n = mapper.createObjectNode();
+        n.put("Id", String.valueOf(i));
+        n.put("SyncToken", "0");
+        n.put("Active", true);
+        switch (entity) {
+            case "Customer" -> {
+                boolean project = i % 10 == 0;
+                String name = project ? "Project " + i : "Customer " + i;
+                n.put("DisplayName", name);
+                n.put("FullyQualifiedName", project ? "Customer " + (i - 1) + ":" + name : name);
+                n.put("Job", project);
+                n.put("IsProject", project);
+                if (project) {
+                    n.putObject("ParentRef").put("value", String.valueOf(i - 1));
+                }
+            }
+            case "Item" -> {
+                String[] types = {"Service", "NonInventory", "Inventory"};
+                n.put("Name", "Item " + i);
+                n.put("Type", types[i % types.length]);
+                n.put("UnitPrice", 10 + (i % 90));
+            }
+            case "Account" -> {
+                String[][] types = {{"Expense", "SuppliesMaterials"}, {"Cost of Goods Sold", "SuppliesMaterialsCogs"},
+                    {"Income", "SalesOfProductIncome"}, {"Bank", "Checking"}};
+                String[] t = types[i % types.length];
+                n.put("Name", t[1] + " " + i);
+                n.put("FullyQualifiedName", t[1] + " " + i);
+                n.put("AccountType", t[0]);
+                n.put("AccountSubType", t[1]);
+                n.put("CurrentBalance", i * 12.5);
+            }
+            case "Vendor" -> n.put("DisplayName", "Vendor " + i);
+            default -> {
+                // Transactions: Invoice, Estimate, SalesReceipt, Bill, ...
+                n.put("TxnDate", LocalDate.now().minusDays(i % 365).toString());
+                n.put("TotalAmt", 100 + (i % 50) * 10);
+                n.putObject("ProjectRef").put("value", String.valueOf((i % Math.max(1, projects / 10) + 1) * 10));
+                n.putObject("Bill".equals(entity) ? "VendorRef" : "CustomerRef").put("value", String.valueOf(i % 20 + 1));
+            }
+        }
+        return n;
+    }
+
+    // ---- projects GraphQL ----
+
+    private ObjectNode projectPage(JsonNode variables) {
+        int first = variables.path("first").asInt(10);
+        int after = variables.hasNonNull("after") ? Integer.parseInt(variables.path("after").asText("0")) : 0;
+        ObjectNode conn = mapper.createObjectNode();
+        ArrayNode edges = conn.putArray("edges");
+        int end = Math.min(after + first, projects);
+        for (int i = after + 1; i <= end; i++) {
+            edges.addObject().set("node", project(i));
+        }
+        ObjectNode pageInfo = conn.putObject("pageInfo");
+        pageInfo.put("hasNextPage", end < projects);
+        pageInfo.put("endCursor", String.valueOf(end));
+        return conn;
+    }
+
+    private JsonNode projectById(String id) {
+        try {
+            long n = Long.parseLong(id);
+            return n > 0 ? project(n) : mapper.nullNode();
+        } catch (NumberFormatException e) {
+            return mapper.nullNode();
+        }
+    }
+
+    private ObjectNode project(long i) {
+        ObjectNode p = mapper.createObjectNode();
+        p.put("id", String.valueOf(i));
+        p.put("name", "Project " + i);
+        p.put("description", "Stub project " + i);
+        p.put("status", "OPEN");
+        p.put("startDate", "2025-01-01T00:00:00.000Z");
+        p.put("dueDate", "2030-01-01T00:00:00.000Z");
+        p.put("priority", 1);
+        p.putObject("customer").put("id", String.valueOf(i % 20 + 1));
+        p.putObject("account").put("id", "9341455322" + i);
+        return p;
+    }
+
+    // ---- helpers ----
+
+    private int volumeOf(String entity) {
+        return switch (entity) {
+            case "Customer" -> customers;
+            case "Item" -> items;
+            case "Account" -> accounts;
+            case "Vendor" -> vendors;
+            default -> transactions;
+        };
+    }
+
+    private static String entityName(String operation) {
+        return switch (operation) {
+            case "invoice" -> "Invoice";
+            case "estimate" -> "Estimate";
+            case "salesreceipt" -> "SalesReceipt";
+            case "bill" -> "Bill";
+            case "customer" -> "Customer";
+            default -> "Item";
+        };
+    }
+
+    private static int intMatch(Pattern p, String text, int fallback) {
+        Matcher m = p.matcher(text);
+        return m.find() ? Integer.parseInt(m.group(1)) : fallback;
+    }
+
+    private static String queryText(URI uri, String body) {
+        String fromParam = queryParams(uri).get("query");
+        return fromParam != null ? fromParam : body;
+    }
+
+    private static Map<String, String> queryParams(URI uri) {
+        Map<String, String> params = new LinkedHashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private ObjectNode fault(String message, String code) {
+        ObjectNode root = mapper.createObjectNode();
+        ObjectNode fault = root.putObject("Fault");
+        fault.putArray("Error").addObject().put("Message", message).put("code", code);
+        fault.put("type", "SERVICE");
+        return root;
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}